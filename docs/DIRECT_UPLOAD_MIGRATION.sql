@@ -0,0 +1,42 @@
+-- =============================================
+-- BROWSER-DIRECT DOCUMENT UPLOADS
+-- document_upload_intents: uploads started with a
+--   pre-signed URL but not finalized yet. Deleted
+--   on finalize; expired rows (and objects uploaded
+--   but never finalized) are cleaned up by
+--   DirectUploadService.
+--
+-- The S3 bucket needs a CORS rule allowing PUT from
+-- the application's origin, with the Content-Type,
+-- x-amz-checksum-sha256, x-amz-sdk-checksum-algorithm
+-- and x-amz-server-side-encryption headers.
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS document_upload_intents (
+    id              BIGSERIAL PRIMARY KEY,
+    token           VARCHAR(36) NOT NULL UNIQUE,
+    target          VARCHAR(20) NOT NULL,
+    charity_id      BIGINT NOT NULL REFERENCES charities(id),
+    referral_id     BIGINT,
+    invite_id       BIGINT,
+    created_by      VARCHAR(100),
+    file_name       VARCHAR(255) NOT NULL,
+    content_type    VARCHAR(100) NOT NULL,
+    size_bytes      BIGINT NOT NULL,
+    content_hash    VARCHAR(64) NOT NULL,
+    storage_key     VARCHAR(500) NOT NULL,
+    document_type   VARCHAR(50) NOT NULL,
+    description     TEXT,
+    upload_required BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at      TIMESTAMP NOT NULL DEFAULT NOW(),
+    expires_at      TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_document_upload_intents_expires
+    ON document_upload_intents(expires_at);
+
+CREATE INDEX IF NOT EXISTS idx_document_upload_intents_storage_key
+    ON document_upload_intents(storage_key);
+
+-- Rollback:
+-- DROP TABLE IF EXISTS document_upload_intents;
@@ -0,0 +1,42 @@
+-- =============================================
+-- CONTENT-ADDRESSED DOCUMENT STORAGE
+-- document_blobs: one stored object per distinct
+--   content (SHA-256) per charity, under the key
+--   {charity_id}/blobs/{hash[0..2]}/{hash}.
+--   ref_count = documents pointing at it; the
+--   object is deleted when it drops to zero.
+-- documents.content_hash: NULL for documents
+--   uploaded before this migration; the dedup
+--   backfill (DocumentBlobService) hashes them,
+--   moves them to their blob key and fills it in.
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS document_blobs (
+    id              BIGSERIAL PRIMARY KEY,
+    charity_id      BIGINT NOT NULL REFERENCES charities(id),
+    content_hash    VARCHAR(64) NOT NULL,
+    storage_key     VARCHAR(500) NOT NULL,
+    size_bytes      BIGINT,
+    ref_count       INTEGER NOT NULL DEFAULT 0,
+    created_at      TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uq_document_blobs_charity_hash UNIQUE (charity_id, content_hash)
+);
+
+ALTER TABLE documents
+    ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+-- Duplicate lookups ("has this charity already got this file?")
+CREATE INDEX IF NOT EXISTS idx_documents_charity_content_hash
+    ON documents(charity_id, content_hash);
+
+-- Backfill: documents not yet moved to a blob
+CREATE INDEX IF NOT EXISTS idx_documents_blob_backfill
+    ON documents(id)
+    WHERE content_hash IS NULL;
+
+-- Rollback:
+-- DROP INDEX IF EXISTS idx_documents_blob_backfill;
+-- DROP INDEX IF EXISTS idx_documents_charity_content_hash;
+-- ALTER TABLE documents DROP COLUMN IF EXISTS content_hash;
+-- DROP TABLE IF EXISTS document_blobs;
+-- (Documents already moved keep their blob keys in file_path, which stay valid.)
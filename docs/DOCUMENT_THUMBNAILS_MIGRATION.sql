@@ -0,0 +1,21 @@
+-- =============================================
+-- DOCUMENT THUMBNAILS
+-- thumbnail_key: storage key of the JPEG preview
+--   ({file_path}.thumb.jpg), set once generated.
+-- thumbnail_status: PENDING / READY / FAILED /
+--   UNSUPPORTED. Existing rows stay NULL and are
+--   backfilled by the thumbnail sweep.
+-- =============================================
+
+ALTER TABLE documents
+    ADD COLUMN IF NOT EXISTS thumbnail_key VARCHAR(500),
+    ADD COLUMN IF NOT EXISTS thumbnail_status VARCHAR(20);
+
+-- Sweep: documents still waiting for a thumbnail
+CREATE INDEX IF NOT EXISTS idx_documents_thumbnail_backlog
+    ON documents(id)
+    WHERE thumbnail_status IS NULL OR thumbnail_status = 'PENDING';
+
+-- Rollback:
+-- DROP INDEX IF EXISTS idx_documents_thumbnail_backlog;
+-- ALTER TABLE documents DROP COLUMN IF EXISTS thumbnail_key, DROP COLUMN IF EXISTS thumbnail_status;
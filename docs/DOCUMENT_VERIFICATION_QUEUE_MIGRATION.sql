@@ -0,0 +1,42 @@
+-- =============================================
+-- DOCUMENT VERIFICATION QUEUE
+-- Reviewers claim the next unverified documents
+--   with SELECT ... FOR UPDATE SKIP LOCKED
+--   (DocumentVerificationQueueService), so two
+--   reviewers never get the same document.
+-- documents.claimed_by / claim_expires_at: who
+--   holds the document and until when. An expired
+--   claim is free to be taken again.
+-- The partial indexes hold unverified documents
+--   only, in queue order (oldest upload first),
+--   for the whole queue, one charity, one
+--   document type, and one charity and type.
+-- =============================================
+
+ALTER TABLE documents
+    ADD COLUMN IF NOT EXISTS claimed_by BIGINT REFERENCES users(id),
+    ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_documents_verification_queue
+    ON documents(uploaded_at, id)
+    WHERE is_verified = false;
+
+CREATE INDEX IF NOT EXISTS idx_documents_verification_queue_charity
+    ON documents(charity_id, uploaded_at, id)
+    WHERE is_verified = false;
+
+CREATE INDEX IF NOT EXISTS idx_documents_verification_queue_type
+    ON documents(document_type, uploaded_at, id)
+    WHERE is_verified = false;
+
+CREATE INDEX IF NOT EXISTS idx_documents_verification_queue_charity_type
+    ON documents(charity_id, document_type, uploaded_at, id)
+    WHERE is_verified = false;
+
+-- Rollback:
+-- DROP INDEX IF EXISTS idx_documents_verification_queue_charity_type;
+-- DROP INDEX IF EXISTS idx_documents_verification_queue_type;
+-- DROP INDEX IF EXISTS idx_documents_verification_queue_charity;
+-- DROP INDEX IF EXISTS idx_documents_verification_queue;
+-- ALTER TABLE documents DROP COLUMN IF EXISTS claim_expires_at;
+-- ALTER TABLE documents DROP COLUMN IF EXISTS claimed_by;
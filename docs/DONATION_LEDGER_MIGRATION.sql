@@ -0,0 +1,55 @@
+-- =====================================================
+-- Migration: Donation ledger + running balance
+-- Description: Append-only ledger of funds drawn from / returned to
+--              donations by bookings (DonationLedgerService), plus a
+--              maintained donations.remaining_amount so balance reads
+--              no longer re-sum bookings.
+--              Existing non-cancelled funded bookings are backfilled as
+--              DEBIT entries; cancelled ones never held funds.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS donation_ledger_entries (
+    id            BIGSERIAL PRIMARY KEY,
+    donation_id   BIGINT NOT NULL REFERENCES donations(id),
+    booking_id    BIGINT REFERENCES bookings(id),
+    entry_type    VARCHAR(20) NOT NULL CHECK (entry_type IN ('DEBIT', 'CREDIT')),
+    amount        NUMERIC(10, 2) NOT NULL CHECK (amount > 0),
+    balance_after NUMERIC(10, 2) NOT NULL,
+    description   VARCHAR(500),
+    created_at    TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_donation_ledger_donation ON donation_ledger_entries(donation_id, id);
+CREATE INDEX IF NOT EXISTS idx_donation_ledger_booking ON donation_ledger_entries(booking_id);
+
+ALTER TABLE donations ADD COLUMN IF NOT EXISTS remaining_amount NUMERIC(10, 2);
+
+-- Backfill ledger from existing funded bookings (idempotent)
+INSERT INTO donation_ledger_entries (donation_id, booking_id, entry_type, amount, balance_after, description, created_at)
+SELECT b.funding_donation_id,
+       b.id,
+       'DEBIT',
+       b.funded_amount,
+       COALESCE(d.net_amount, 0) - SUM(b.funded_amount) OVER (
+           PARTITION BY b.funding_donation_id ORDER BY b.created_at, b.id),
+       'Backfill: booking ' || COALESCE(b.confirmation_code, '#' || b.id) || ' funded',
+       COALESCE(b.created_at, NOW())
+FROM bookings b
+JOIN donations d ON d.id = b.funding_donation_id
+WHERE b.funded_amount > 0
+  AND b.booking_status <> 'CANCELLED'
+  AND NOT EXISTS (SELECT 1 FROM donation_ledger_entries e WHERE e.booking_id = b.id);
+
+-- Initialise balances from the ledger
+UPDATE donations d
+SET remaining_amount = COALESCE(d.net_amount, 0) - COALESCE((
+        SELECT SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount ELSE -e.amount END)
+        FROM donation_ledger_entries e
+        WHERE e.donation_id = d.id), 0)
+WHERE d.remaining_amount IS NULL;
+
+-- =====================================================
+-- Rollback (if needed):
+-- ALTER TABLE donations DROP COLUMN IF EXISTS remaining_amount;
+-- DROP TABLE IF EXISTS donation_ledger_entries;
+-- =====================================================
@@ -0,0 +1,19 @@
+-- =============================================
+-- GEO COORDINATES FOR NEAREST-PROPERTY SEARCH
+-- Latitude/longitude on charity and partner
+-- locations. NULL values are backfilled by the
+-- app from the bundled ZIP centroid dataset
+-- (NearbyPropertyService.rebuildIndex).
+-- =============================================
+
+ALTER TABLE charity_locations
+    ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+
+ALTER TABLE partner_locations
+    ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+
+-- Rollback:
+-- ALTER TABLE charity_locations DROP COLUMN IF EXISTS latitude, DROP COLUMN IF EXISTS longitude;
+-- ALTER TABLE partner_locations DROP COLUMN IF EXISTS latitude, DROP COLUMN IF EXISTS longitude;
@@ -0,0 +1,20 @@
+-- =============================================
+-- PARTNER AVAILABILITY SEARCH
+-- Indexes for "which of my linked partner
+-- properties have an AVAILABLE window covering
+-- these nights?" (LocationAvailabilityRepository
+-- .searchAvailableForCharity / existsBookableWindow).
+-- =============================================
+
+-- 1. Containing-window lookup: only AVAILABLE rows, keyed by property then range
+CREATE INDEX IF NOT EXISTS idx_la_available_window
+    ON location_availability(partner_location_id, start_date, end_date)
+    WHERE status = 'AVAILABLE';
+
+-- 2. Charity → linked properties, covering the join column
+CREATE INDEX IF NOT EXISTS idx_plc_charity_location
+    ON partner_location_charities(charity_id, partner_location_id);
+
+-- Rollback:
+-- DROP INDEX IF EXISTS idx_la_available_window;
+-- DROP INDEX IF EXISTS idx_plc_charity_location;
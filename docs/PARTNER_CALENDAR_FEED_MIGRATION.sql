@@ -0,0 +1,25 @@
+-- =============================================
+-- PARTNER CALENDAR FEED (iCalendar subscription)
+-- calendar_feed_token: secret token in the feed
+--   URL, issued lazily from the partner dashboard.
+-- calendar_version: bumped whenever a booked
+--   slice changes; used as the feed's ETag so
+--   unchanged polls are answered with 304.
+-- =============================================
+
+ALTER TABLE location_partners
+    ADD COLUMN IF NOT EXISTS calendar_feed_token VARCHAR(64),
+    ADD COLUMN IF NOT EXISTS calendar_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_location_partners_calendar_feed_token
+    ON location_partners (calendar_feed_token);
+
+-- Feed query: BOOKED slices per property ending after the history cutoff
+CREATE INDEX IF NOT EXISTS idx_la_booked_end
+    ON location_availability(partner_location_id, end_date)
+    WHERE status = 'BOOKED';
+
+-- Rollback:
+-- DROP INDEX IF EXISTS idx_la_booked_end;
+-- DROP INDEX IF EXISTS uq_location_partners_calendar_feed_token;
+-- ALTER TABLE location_partners DROP COLUMN IF EXISTS calendar_feed_token, DROP COLUMN IF EXISTS calendar_version;
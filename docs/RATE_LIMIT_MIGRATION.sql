@@ -0,0 +1,22 @@
+-- =====================================================
+-- Migration: Shared rate-limit buckets
+-- Description: Token buckets for SubmissionRateLimiter so the public
+--              charity / stay-partner application limits hold across
+--              every app instance (app.rate-limit.store=jdbc).
+--              One row per key; each check is a single upsert.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key    VARCHAR(200) PRIMARY KEY,
+    tokens        DOUBLE PRECISION NOT NULL,
+    updated_at_ms BIGINT NOT NULL,
+    last_allowed  BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+-- Used by the hourly prune of untouched buckets
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_updated ON rate_limit_buckets(updated_at_ms);
+
+-- =====================================================
+-- Rollback (if needed):
+-- =====================================================
+-- DROP TABLE IF EXISTS rate_limit_buckets;
@@ -0,0 +1,16 @@
+-- =============================================
+-- BULK REFERRAL IMPORT
+-- referral_import_block_seq: each nextval reserves
+--   a block of 100 referral numbers for a CSV
+--   import (REF-{year}-B{block * 100 + n}).
+-- =============================================
+
+CREATE SEQUENCE IF NOT EXISTS referral_import_block_seq START WITH 1;
+
+-- Duplicate-key preload: active referrals of one charity
+CREATE INDEX IF NOT EXISTS idx_referrals_charity_status
+    ON referrals(charity_id, status);
+
+-- Rollback:
+-- DROP INDEX IF EXISTS idx_referrals_charity_status;
+-- DROP SEQUENCE IF EXISTS referral_import_block_seq;
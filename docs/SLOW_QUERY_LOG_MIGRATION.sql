@@ -0,0 +1,33 @@
+-- =====================================================
+-- Migration: Slow-query log
+-- Description: History of SQL statements slower than
+--              app.slow-query.threshold-ms, written by SlowQueryLog
+--              when app.slow-query.flush.enabled=true. Bind values
+--              are never stored, only their types; string literals
+--              in sql_text are masked. Rows older than
+--              app.slow-query.flush.retention-days are pruned on
+--              each flush.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS slow_query_log (
+    id                BIGSERIAL PRIMARY KEY,
+    recorded_at       TIMESTAMP NOT NULL,
+    duration_ms       DOUBLE PRECISION NOT NULL,
+    sql_text          TEXT NOT NULL,
+    parameter_types   TEXT,
+    batch_size        INTEGER NOT NULL DEFAULT 0,
+    repository_method VARCHAR(300),
+    caller            VARCHAR(300),
+    controller        VARCHAR(300)
+);
+
+-- Used by the retention prune and for reading recent history
+CREATE INDEX IF NOT EXISTS idx_slow_query_log_recorded ON slow_query_log(recorded_at);
+
+-- "Which repository methods are slow most often"
+CREATE INDEX IF NOT EXISTS idx_slow_query_log_repository_method ON slow_query_log(repository_method, recorded_at);
+
+-- =====================================================
+-- Rollback (if needed):
+-- =====================================================
+-- DROP TABLE IF EXISTS slow_query_log;
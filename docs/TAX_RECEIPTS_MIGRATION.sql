@@ -0,0 +1,61 @@
+-- =====================================================
+-- Migration: Year-end donor tax receipts
+-- Description: Batch runs of the receipt generator (TaxReceiptBatchService)
+--              and one receipt row per donor per charity per tax year.
+--              A receipt's PDF lives in StorageService under
+--              receipts/{year}/charity-{id}/{receipt_number}.pdf.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS tax_receipt_batches (
+    id                  BIGSERIAL PRIMARY KEY,
+    tax_year            INTEGER NOT NULL,
+    charity_id          BIGINT REFERENCES charities(id),
+    status              VARCHAR(30) NOT NULL,
+    donations_processed INTEGER NOT NULL DEFAULT 0,
+    receipts_generated  INTEGER NOT NULL DEFAULT 0,
+    receipts_emailed    INTEGER NOT NULL DEFAULT 0,
+    receipts_skipped    INTEGER NOT NULL DEFAULT 0,
+    receipts_failed     INTEGER NOT NULL DEFAULT 0,
+    last_error          TEXT,
+    started_by          VARCHAR(100),
+    started_at          TIMESTAMP,
+    heartbeat_at        TIMESTAMP,
+    completed_at        TIMESTAMP
+);
+
+-- Stall detection / resume
+CREATE INDEX IF NOT EXISTS idx_tax_receipt_batches_running
+    ON tax_receipt_batches(heartbeat_at)
+    WHERE status = 'RUNNING';
+
+CREATE TABLE IF NOT EXISTS donor_tax_receipts (
+    id              BIGSERIAL PRIMARY KEY,
+    batch_id        BIGINT REFERENCES tax_receipt_batches(id),
+    tax_year        INTEGER NOT NULL,
+    charity_id      BIGINT NOT NULL REFERENCES charities(id),
+    donor_id        BIGINT REFERENCES donors(id),
+    recipient_key   VARCHAR(255) NOT NULL,
+    recipient_name  VARCHAR(255),
+    recipient_email VARCHAR(255),
+    receipt_number  VARCHAR(50) NOT NULL,
+    donation_count  INTEGER NOT NULL,
+    total_amount    NUMERIC(12, 2) NOT NULL,
+    storage_key     VARCHAR(500),
+    download_token  VARCHAR(64) NOT NULL UNIQUE,
+    emailed_at      TIMESTAMP,
+    created_at      TIMESTAMP,
+    updated_at      TIMESTAMP,
+    CONSTRAINT uq_donor_tax_receipts_recipient UNIQUE (tax_year, charity_id, recipient_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_donor_tax_receipts_donor ON donor_tax_receipts(donor_id);
+
+-- Cursor query for the batch: receipt-eligible donations by donation date
+CREATE INDEX IF NOT EXISTS idx_donations_donated_at_charity ON donations(donated_at, charity_id);
+
+-- =====================================================
+-- Rollback (if needed):
+-- DROP TABLE IF EXISTS donor_tax_receipts;
+-- DROP TABLE IF EXISTS tax_receipt_batches;
+-- DROP INDEX IF EXISTS idx_donations_donated_at_charity;
+-- =====================================================
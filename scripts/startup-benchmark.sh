@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Time-to-first-request benchmark: start the app, poll until a page is served,
+# report the wall-clock time from launch and fail past a budget, e.g. in CI
+# after `./mvnw package`:
+#
+#   scripts/startup-benchmark.sh target/spring-security-app-1.0.0.jar 15000
+#
+# The app needs its usual environment (database, profile); pass JVM options in
+# JAVA_OPTS, e.g. JAVA_OPTS="-XX:SharedArchiveFile=app.jsa". The app's own
+# measurement is logged as "First request (...) served N ms after JVM start".
+set -euo pipefail
+
+JAR=${1:?usage: startup-benchmark.sh <jar> [budget-ms]}
+BUDGET_MS=${2:-0}
+PORT=${PORT:-8080}
+URL="http://localhost:${PORT}/login"
+TIMEOUT_S=${TIMEOUT_S:-180}
+
+start=$(date +%s%N)
+java ${JAVA_OPTS:-} -jar "$JAR" --server.port="$PORT" > startup-benchmark.log 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true' EXIT
+
+until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)" = "200" ]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+        echo "App exited before serving a request; see startup-benchmark.log" >&2
+        exit 1
+    fi
+    if [ $(( ($(date +%s%N) - start) / 1000000000 )) -ge "$TIMEOUT_S" ]; then
+        echo "No response from $URL within ${TIMEOUT_S}s; see startup-benchmark.log" >&2
+        exit 1
+    fi
+    sleep 0.1
+done
+
+elapsed_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+echo "Time to first request: ${elapsed_ms} ms"
+grep -m1 "First request" startup-benchmark.log || true
+
+if [ "$BUDGET_MS" -gt 0 ] && [ "$elapsed_ms" -gt "$BUDGET_MS" ]; then
+    echo "Over the startup budget of ${BUDGET_MS} ms" >&2
+    exit 1
+fi
@@ -1,7 +1,11 @@
 package com.learning.learning.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -14,12 +18,38 @@ import java.util.concurrent.Executor;
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    // Opt-in virtual-thread mode (VIRTUAL_THREADS_ENABLED=true). Spring Boot
+    // applies the same flag to Tomcat's request threads; both only take
+    // effect on a Java 21+ runtime; on Java 17 the platform pools are kept.
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    // Virtual threads are cheap, but the APIs behind @Async tasks are not:
+    // cap how many run at once.
+    @Value("${app.async.virtual-concurrency-limit:50}")
+    private int virtualConcurrencyLimit;
+
     /**
      * Custom executor for async tasks
      * This ensures we have a proper thread pool for email sending
      */
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreadsEnabled) {
+            if (Runtime.version().feature() >= 21) {
+                logger.info("@Async tasks run on virtual threads (max {} concurrent)", virtualConcurrencyLimit);
+                SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("EmailAsync-");
+                executor.setVirtualThreads(true);
+                executor.setConcurrencyLimit(virtualConcurrencyLimit);
+                return executor;
+            }
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                    Runtime.version().feature());
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(5);
@@ -28,4 +58,4 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package com.learning.learning.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The session store, minus the write that would otherwise follow every
+ * request. SessionRepositoryFilter sets the last-accessed time on each
+ * request, and that alone makes the JDBC repository UPDATE the session row.
+ * Here the new time is only passed on once the stored one is touchInterval
+ * old, so a request that changes nothing else costs the store one read. The
+ * price is that an idle session can expire up to touchInterval early.
+ *
+ * Any other change (an attribute, a new id, the timeout) is saved as before;
+ * a changed attribute alone doesn't rewrite the session row either. Relies on
+ * save-mode=on-set-attribute: reading an attribute doesn't need a write.
+ * Wrapped around the repository by {@link SessionStoreConfig}.
+ */
+public class LastAccessThrottlingSessionRepository<S extends Session>
+        implements FindByIndexNameSessionRepository<LastAccessThrottlingSessionRepository.TrackedSession<S>>,
+        DisposableBean {
+
+    private final FindByIndexNameSessionRepository<S> delegate;
+    private final Duration touchInterval;
+
+    private LastAccessThrottlingSessionRepository(FindByIndexNameSessionRepository<S> delegate,
+                                                  Duration touchInterval) {
+        this.delegate = delegate;
+        this.touchInterval = touchInterval;
+    }
+
+    public static <S extends Session> LastAccessThrottlingSessionRepository<S> wrap(
+            FindByIndexNameSessionRepository<S> delegate, Duration touchInterval) {
+        return new LastAccessThrottlingSessionRepository<>(delegate, touchInterval);
+    }
+
+    @Override
+    public TrackedSession<S> createSession() {
+        TrackedSession<S> session = new TrackedSession<>(delegate.createSession(), touchInterval);
+        session.changed = true;
+        return session;
+    }
+
+    @Override
+    public void save(TrackedSession<S> session) {
+        if (!session.changed) {
+            return;
+        }
+        delegate.save(session.session);
+        session.changed = false;
+    }
+
+    @Override
+    public TrackedSession<S> findById(String id) {
+        S session = delegate.findById(id);
+        return session != null ? new TrackedSession<>(session, touchInterval) : null;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, TrackedSession<S>> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        Map<String, TrackedSession<S>> sessions = new LinkedHashMap<>();
+        delegate.findByIndexNameAndIndexValue(indexName, indexValue)
+                .forEach((id, session) -> sessions.put(id, new TrackedSession<>(session, touchInterval)));
+        return sessions;
+    }
+
+    // Stops the JDBC repository's cleanup scheduler, as it would unwrapped
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
+
+    /**
+     * A stored session plus whether this request changed anything worth a
+     * write. Expiry is judged on the stored access time, as the cleanup job
+     * judges it.
+     */
+    public static final class TrackedSession<S extends Session> implements Session {
+
+        private final S session;
+        private final Duration touchInterval;
+        private boolean changed;
+
+        private TrackedSession(S session, Duration touchInterval) {
+            this.session = session;
+            this.touchInterval = touchInterval;
+        }
+
+        @Override
+        public String getId() {
+            return session.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            changed = true;
+            return session.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return session.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return session.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            changed = true;
+            session.setAttribute(attributeName, attributeValue);
+        }
+
+        // Filters routinely remove attributes that aren't there; that needs no write
+        @Override
+        public void removeAttribute(String attributeName) {
+            if (session.getAttributeNames().contains(attributeName)) {
+                changed = true;
+                session.removeAttribute(attributeName);
+            }
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return session.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            if (!lastAccessedTime.isBefore(session.getLastAccessedTime().plus(touchInterval))) {
+                session.setLastAccessedTime(lastAccessedTime);
+                changed = true;
+            }
+        }
+
+        // The stored time: HttpSession's "previous request" reading, within touchInterval
+        @Override
+        public Instant getLastAccessedTime() {
+            return session.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            changed = true;
+            session.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return session.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return session.isExpired();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.learning.learning.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-in-view (one EntityManager per request, so views can lazy-load), as
+ * Spring Boot would register it, except for the streaming data exports,
+ * document ZIP downloads and direct uploads. There the request-wide session
+ * would hold its JDBC connection for the whole transfer; without it
+ * DataExportService's chunk transactions each borrow a connection and give it
+ * back before the chunk is written, a ZIP's document list is loaded up front,
+ * before the archive starts streaming, and an upload's intent is looked up
+ * before its body is read.
+ *
+ * Defining the interceptor bean here makes Boot's own registration back off.
+ */
+@Configuration
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns("/admin/export/**", "/charity-facilitator/*/export/**",
+                        "/charity-partner/*/*/*/documents/download-all", "/direct-upload/**");
+    }
+}
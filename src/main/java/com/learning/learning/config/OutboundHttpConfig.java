@@ -0,0 +1,114 @@
+package com.learning.learning.config;
+
+import com.learning.learning.service.http.CircuitBreaker;
+import com.learning.learning.service.http.OutboundIntegration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Shared outbound HTTP client for calls to external APIs.
+ *
+ * One pooled Apache HttpClient keeps connections alive across calls (no TLS
+ * handshake per request). Each integration gets its own RestTemplate over that
+ * pool with its own response and pool-lease timeouts, plus a bulkhead and
+ * circuit breaker (see OutboundIntegration). Automatic retries are off so a
+ * call never outlives its timeout.
+ */
+@Configuration
+public class OutboundHttpConfig {
+
+    @Value("${app.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${app.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${app.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.http.idle-evict-seconds:30}")
+    private long idleEvictSeconds;
+
+    @Value("${app.http.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${app.http.circuit.open-seconds:30}")
+    private long circuitOpenSeconds;
+
+    // Turnstile runs on the public form's request thread: short timeouts, no queueing
+    @Value("${app.http.turnstile.response-timeout-ms:3000}")
+    private long turnstileResponseTimeoutMs;
+
+    @Value("${app.http.turnstile.max-concurrent:20}")
+    private int turnstileMaxConcurrent;
+
+    @Value("${app.http.turnstile.bulkhead-wait-ms:0}")
+    private long turnstileBulkheadWaitMs;
+
+    @Value("${app.http.resend.response-timeout-ms:10000}")
+    private long resendResponseTimeoutMs;
+
+    @Value("${app.http.resend.max-concurrent:10}")
+    private int resendMaxConcurrent;
+
+    @Value("${app.http.resend.bulkhead-wait-ms:2000}")
+    private long resendBulkheadWaitMs;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "outbound").bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public OutboundIntegration turnstileHttp(CloseableHttpClient outboundHttpClient, MeterRegistry meterRegistry) {
+        return integration("turnstile", outboundHttpClient, meterRegistry,
+                turnstileResponseTimeoutMs, turnstileMaxConcurrent, turnstileBulkheadWaitMs);
+    }
+
+    @Bean
+    public OutboundIntegration resendHttp(CloseableHttpClient outboundHttpClient, MeterRegistry meterRegistry) {
+        return integration("resend", outboundHttpClient, meterRegistry,
+                resendResponseTimeoutMs, resendMaxConcurrent, resendBulkheadWaitMs);
+    }
+
+    private OutboundIntegration integration(String name, CloseableHttpClient client, MeterRegistry meterRegistry,
+                                            long responseTimeoutMs, int maxConcurrent, long bulkheadWaitMs) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(client);
+        requestFactory.setReadTimeout(Duration.ofMillis(responseTimeoutMs));
+        // Waiting for a pooled connection counts against the caller too
+        requestFactory.setConnectionRequestTimeout(Duration.ofMillis(Math.max(bulkheadWaitMs, 500)));
+
+        return new OutboundIntegration(name, new RestTemplate(requestFactory), maxConcurrent, bulkheadWaitMs,
+                new CircuitBreaker(circuitFailureThreshold, circuitOpenSeconds * 1000), meterRegistry);
+    }
+}
@@ -0,0 +1,144 @@
+package com.learning.learning.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-replica routing for {@code @Transactional(readOnly = true)} work.
+ *
+ * Off by default. When {@code app.datasource.replica.enabled=true}, this
+ * replaces Spring Boot's single auto-configured DataSource with:
+ *
+ *   LazyConnectionDataSourceProxy
+ *     → ReadReplicaRoutingDataSource
+ *         → "primary"   (spring.datasource.*, spring.datasource.hikari.*)
+ *         → "replica-N" (one Hikari pool per URL in app.datasource.replica.urls)
+ *
+ * With open-in-view one Hibernate session spans the whole request, and by
+ * default it keeps the connection its first transaction was given — a write
+ * after a read-only call would go to the replica. Here sessions give the
+ * connection back after each transaction instead, so every transaction is
+ * routed on its own.
+ *
+ * To try it locally without a real replica, list the primary's JDBC URL in
+ * app.datasource.replica.urls (once or several times) — every URL gets its
+ * own pool, so the routing is observable in the logs via the pool names.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaDataSourceConfig.class);
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Value("${app.datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${app.datasource.replica.stickiness-seconds:5}")
+    private long stickinessSeconds;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment) {
+        // What Boot's own Hikari pool would get: the connection from
+        // spring.datasource.*, tuning from spring.datasource.hikari.*
+        Bindable<HikariDataSource> hikari = Bindable.ofInstance(properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build());
+        HikariDataSource primary = Binder.get(environment).bind(HIKARI_PREFIX, hikari)
+                .orElseGet(hikari.getValue());
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        pools.add(primary);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadReplicaRoutingDataSource.PRIMARY, primary);
+
+        List<String> replicaKeys = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url == null || url.isBlank()) {
+                continue;
+            }
+            String key = ReadReplicaRoutingDataSource.REPLICA_PREFIX + replicaKeys.size();
+            // Same tuning as the primary, but its own connection and size
+            HikariDataSource replica = Binder.get(environment)
+                    .bindOrCreate(HIKARI_PREFIX, HikariDataSource.class);
+            replica.setPoolName(key);
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            pools.add(replica);
+            targets.put(key, replica);
+            replicaKeys.add(key);
+        }
+
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(replicaKeys);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        logger.info("Read-replica routing enabled: {} replica pool(s), read-your-writes window {}s",
+                replicaKeys.size(), stickinessSeconds);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReplicaStickinessFilter> replicaStickinessFilter() {
+        FilterRegistrationBean<ReplicaStickinessFilter> registration =
+                new FilterRegistrationBean<>(new ReplicaStickinessFilter(stickinessSeconds * 1000L));
+        registration.addUrlPatterns("/*");
+        // Ahead of Spring Security so the login POST's user lookup also hits the primary.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
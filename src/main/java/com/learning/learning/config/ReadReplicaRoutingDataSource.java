@@ -0,0 +1,63 @@
+package com.learning.learning.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections to the primary database or to one of the read replicas.
+ *
+ * A connection goes to a replica only when the current transaction was
+ * declared {@code @Transactional(readOnly = true)} AND the current request
+ * has not asked to stay on the primary (see {@link ReplicaStickinessFilter}).
+ * Everything else — writes, non-transactional reads, background jobs — uses
+ * the primary. Replicas are picked round-robin.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy: the transaction manager
+ * opens its connection before the read-only flag is bound to the thread, so
+ * the routing decision has to be deferred until the first statement runs.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA_PREFIX = "replica-";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final List<String> replicaKeys;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(List<String> replicaKeys) {
+        this.replicaKeys = List.copyOf(replicaKeys);
+    }
+
+    /**
+     * Pin every connection opened on this thread to the primary until
+     * {@link #clearForcePrimary()} is called. Used for read-your-own-writes.
+     */
+    public static void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void clearForcePrimary() {
+        FORCE_PRIMARY.remove();
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty()
+                || isPrimaryForced()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int index = Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+        return replicaKeys.get(index);
+    }
+}
@@ -0,0 +1,84 @@
+package com.learning.learning.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Replica-lag protection ("read your own writes").
+ *
+ * Any state-changing request (POST, PUT, DELETE, PATCH) runs entirely on the
+ * primary and drops a short-lived cookie. For as long as that cookie is valid,
+ * the same browser's follow-up requests — typically the redirect after a form
+ * POST — also stay on the primary, so a user never sees a replica that has not
+ * caught up with what they just saved.
+ *
+ * A cookie (rather than a session attribute) is used so anonymous public
+ * forms are covered too, and so the pin survives across instances.
+ * Registered by {@link ReadReplicaDataSourceConfig} only when replicas are enabled.
+ */
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "SN_PRIMARY_UNTIL";
+
+    private final long stickinessMillis;
+
+    public ReplicaStickinessFilter(long stickinessMillis) {
+        this.stickinessMillis = stickinessMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !isSafeMethod(request.getMethod());
+
+        if (write) {
+            // Set before the chain runs: a redirect commits the response and
+            // any cookie added afterwards would be silently dropped.
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + stickinessMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setSecure(request.isSecure());
+            cookie.setMaxAge((int) Math.max(1, stickinessMillis / 1000));
+            response.addCookie(cookie);
+        }
+
+        if (write || pinnedUntil(request) > now) {
+            ReadReplicaRoutingDataSource.forcePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadReplicaRoutingDataSource.clearForcePrimary();
+        }
+    }
+
+    private long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0L;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    // Clamp so a hand-edited cookie cannot pin forever.
+                    return Math.min(Long.parseLong(cookie.getValue()),
+                            System.currentTimeMillis() + stickinessMillis);
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+        return 0L;
+    }
+
+    private static boolean isSafeMethod(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
@@ -0,0 +1,165 @@
+package com.learning.learning.config;
+
+import com.learning.learning.service.EmailService;
+import com.learning.learning.service.ResendEmailService;
+import com.learning.learning.service.StripeService;
+import com.learning.learning.service.profiling.RequestProfile;
+import com.learning.learning.service.profiling.RequestProfileStore;
+import com.learning.learning.service.storage.StorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Request profiling (/admin/request-profiling): the filter that picks and
+ * records profiled requests, plus the instrumentation feeding their
+ * {@link RequestProfile} — SQL through a {@link StatementListener}, time in
+ * StorageService, StripeService and the email services through method
+ * advice, and view render time through a handler interceptor. All of it
+ * does nothing beyond a ThreadLocal read for requests that aren't profiled;
+ * app.request-profiling.enabled=false leaves it out entirely.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.request-profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestProfilingConfig implements WebMvcConfigurer {
+
+    @Value("${app.request-profiling.sample-percent:0}")
+    private double samplePercent;
+
+    @Value("${app.request-profiling.response-buffer-bytes:262144}")
+    private int responseBufferBytes;
+
+    @Bean
+    public FilterRegistrationBean<RequestProfilingFilter> requestProfilingFilter(RequestProfileStore store) {
+        FilterRegistrationBean<RequestProfilingFilter> registration = new FilterRegistrationBean<>(
+                new RequestProfilingFilter(store, samplePercent, responseBufferBytes));
+        registration.addUrlPatterns("/*");
+        // Right after Spring Session, so the admin's session switch can be read
+        // and security is included in the measured time
+        registration.setOrder(SessionRepositoryFilter.DEFAULT_ORDER + 1);
+        return registration;
+    }
+
+    @Bean
+    public static StatementListener requestProfileStatementListener() {
+        return execution -> {
+            // The statement may outlive the profile (e.g. closed after the request)
+            RequestProfile profile = RequestProfile.current();
+            if (profile != null) {
+                profile.record(RequestProfile.Category.SQL, execution.elapsedNanos());
+            }
+        };
+    }
+
+    @Bean
+    public static ProfiledCallsPostProcessor profiledCallsPostProcessor() {
+        return new ProfiledCallsPostProcessor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ProfilingInterceptor());
+    }
+
+    /**
+     * Times the public methods of the storage, Stripe and email services. A
+     * storage call returning a stream covers opening it, not reading it.
+     */
+    static final class ProfiledCallsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+        ProfiledCallsPostProcessor() {
+            setProxyTargetClass(true);
+            StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+                @Override
+                public boolean matches(Method method, Class<?> targetClass) {
+                    return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+                }
+            };
+            pointcut.setClassFilter(clazz -> category(clazz) != null);
+            this.advisor = new DefaultPointcutAdvisor(pointcut, (MethodInterceptor) ProfiledCallsPostProcessor::invoke);
+        }
+
+        private static Object invoke(MethodInvocation invocation) throws Throwable {
+            RequestProfile profile = RequestProfile.current();
+            RequestProfile.Category category = profile != null && invocation.getThis() != null
+                    ? category(invocation.getThis().getClass())
+                    : null;
+            if (category == null) {
+                return invocation.proceed();
+            }
+            boolean outermost = profile.enter(category);
+            long started = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                profile.exit(category, outermost, System.nanoTime() - started);
+            }
+        }
+
+        private static RequestProfile.Category category(Class<?> clazz) {
+            if (StorageService.class.isAssignableFrom(clazz)) {
+                return RequestProfile.Category.STORAGE;
+            }
+            if (StripeService.class.isAssignableFrom(clazz)) {
+                return RequestProfile.Category.STRIPE;
+            }
+            if (EmailService.class.isAssignableFrom(clazz) || ResendEmailService.class.isAssignableFrom(clazz)) {
+                return RequestProfile.Category.EMAIL;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Names the profiled request after its handler mapping and times view rendering.
+     */
+    static final class ProfilingInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            RequestProfile profile = RequestProfile.current();
+            if (profile != null) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                profile.describe(pattern != null ? request.getMethod() + " " + pattern : null,
+                        request.getRemoteUser());
+            }
+            return true;
+        }
+
+        @Override
+        public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                               ModelAndView modelAndView) {
+            RequestProfile profile = RequestProfile.current();
+            if (profile != null && modelAndView != null) {
+                profile.renderStarted();
+            }
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                    Exception ex) {
+            RequestProfile profile = RequestProfile.current();
+            if (profile != null) {
+                profile.renderFinished();
+            }
+        }
+    }
+}
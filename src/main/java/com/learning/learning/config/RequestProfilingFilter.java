@@ -0,0 +1,134 @@
+package com.learning.learning.config;
+
+import com.learning.learning.service.profiling.RequestProfile;
+import com.learning.learning.service.profiling.RequestProfileStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests are profiled and records them. A request is
+ * profiled when the admin's session has profiling switched on
+ * (/admin/request-profiling) or when it falls in app.request-profiling.sample-percent.
+ *
+ * Only the admin-session requests get a Server-Timing header; sampled
+ * requests belong to other users and are only recorded. The header is added
+ * when the response commits, so the response buffer is enlarged for those
+ * requests to let a typical page finish rendering first; a response bigger
+ * than the buffer commits early and goes without it. Registered by
+ * {@link RequestProfilingConfig}.
+ */
+public class RequestProfilingFilter extends OncePerRequestFilter {
+
+    public static final String SESSION_ATTRIBUTE = "requestProfiling";
+
+    private final RequestProfileStore store;
+    private final double samplePercent;
+    private final int responseBufferBytes;
+
+    public RequestProfilingFilter(RequestProfileStore store, double samplePercent, int responseBufferBytes) {
+        this.store = store;
+        this.samplePercent = samplePercent;
+        this.responseBufferBytes = responseBufferBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/images/")
+                || path.startsWith("/help/") || path.equals("/favicon.ico");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean sessionEnabled = isEnabledForSession(request);
+        if (!sessionEnabled && !isSampled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestProfile profile = RequestProfile.start();
+        ServerTimingResponse timedResponse = null;
+        if (sessionEnabled) {
+            if (response.getBufferSize() < responseBufferBytes) {
+                response.setBufferSize(responseBufferBytes);
+            }
+            timedResponse = new ServerTimingResponse(response, profile);
+        }
+        try {
+            filterChain.doFilter(request, timedResponse != null ? timedResponse : response);
+        } finally {
+            if (timedResponse != null) {
+                timedResponse.addServerTiming();
+            }
+            RequestProfile.clear();
+            store.record(toProfiledRequest(request, response, profile));
+        }
+    }
+
+    private boolean isSampled() {
+        return samplePercent > 0 && ThreadLocalRandom.current().nextDouble(100) < samplePercent;
+    }
+
+    private static boolean isEnabledForSession(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null && Boolean.TRUE.equals(session.getAttribute(SESSION_ATTRIBUTE));
+    }
+
+    private static RequestProfileStore.ProfiledRequest toProfiledRequest(HttpServletRequest request,
+                                                                         HttpServletResponse response,
+                                                                         RequestProfile profile) {
+        String endpoint = profile.endpoint() != null
+                ? profile.endpoint()
+                : request.getMethod() + " " + RequestProfileStore.UNMAPPED;
+        return new RequestProfileStore.ProfiledRequest(
+                LocalDateTime.now(),
+                endpoint,
+                request.getRequestURI(),
+                profile.username(),
+                response.getStatus(),
+                profile.totalMillis(),
+                profile.count(RequestProfile.Category.SQL),
+                profile.millis(RequestProfile.Category.SQL),
+                profile.count(RequestProfile.Category.STORAGE),
+                profile.millis(RequestProfile.Category.STORAGE),
+                profile.count(RequestProfile.Category.STRIPE),
+                profile.millis(RequestProfile.Category.STRIPE),
+                profile.count(RequestProfile.Category.EMAIL),
+                profile.millis(RequestProfile.Category.EMAIL),
+                profile.renderMillis());
+    }
+
+    private static final class ServerTimingResponse extends OnCommittedResponseWrapper {
+
+        private final RequestProfile profile;
+        private boolean added;
+
+        ServerTimingResponse(HttpServletResponse response, RequestProfile profile) {
+            super(response);
+            this.profile = profile;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addServerTiming();
+        }
+
+        void addServerTiming() {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (!added && !response.isCommitted()) {
+                added = true;
+                response.setHeader("Server-Timing", profile.serverTiming());
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.learning.learning.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} housekeeping jobs (expired rate-limit buckets,
+ * Spring Session's expired-session cleanup, etc.). Off with
+ * app.scheduling.enabled=false, for the class data sharing training run: most
+ * jobs go to the database as soon as the context is up.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+@EnableScheduling
+public class SchedulingConfig {
+}
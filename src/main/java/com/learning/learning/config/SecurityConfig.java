@@ -58,16 +58,25 @@ public class SecurityConfig {
                         .requestMatchers("/demo/**").permitAll()
                         .requestMatchers("/invite/**").permitAll()
                         .requestMatchers("/referral/invite/**").permitAll()
+                        // Direct-upload target for local storage; the upload token authorizes
+                        .requestMatchers("/direct-upload/**").permitAll()
                         .requestMatchers("/stay-partner/**").permitAll()
                         .requestMatchers("/charity-application/**").permitAll()
                         .requestMatchers("/location-partner/register/**").permitAll()
+                        // Partner calendar feeds are authorised by the secret token in the URL
+                        .requestMatchers("/calendar/partner/**").permitAll()
+                        // Donation receipts are authorised by the secret token in the emailed link
+                        .requestMatchers("/receipts/**").permitAll()
                         .requestMatchers("/help", "/help/**").permitAll()
                         .requestMatchers("/error").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Public donate page disabled — donations are recorded by charity partners
                         // .requestMatchers("/donate/**").permitAll()
                         .requestMatchers("/api/stripe/**").permitAll()
                         // Role-based access control
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/facilitator/documents/**").hasAnyRole("FACILITATOR", "ADMIN")
                         .requestMatchers("/facilitator/**").hasRole("FACILITATOR")
                         .requestMatchers("/charity-facilitator/**").hasAnyRole("CHARITY_FACILITATOR", "MULTI_FACILITATOR")
                         .requestMatchers("/multi-facilitator/**").hasRole("MULTI_FACILITATOR")
@@ -94,7 +103,7 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .csrf(csrf -> csrf
-                        .ignoringRequestMatchers("/api/stripe/webhook")
+                        .ignoringRequestMatchers("/api/stripe/webhook", "/direct-upload/**")
                         // Store the CSRF token in a cookie rather than the HttpSession.
                         // The public application forms (charity, stay-partner) are long,
                         // and a session-bound token silently expires with the session —
@@ -115,7 +124,7 @@ public class SecurityConfig {
                         .logoutUrl("/logout")
                         .logoutSuccessUrl("/login?logout=true")
                         .invalidateHttpSession(true)
-                        .deleteCookies("JSESSIONID")
+                        .deleteCookies("JSESSIONID", "SESSION")
                         .permitAll()
                 )
                 .exceptionHandling(exception -> exception
@@ -0,0 +1,138 @@
+package com.learning.learning.config;
+
+import jakarta.persistence.Entity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.SQLErrorCodesFactory;
+import org.springframework.jdbc.support.lob.DefaultLobHandler;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.JdbcHttpSessionConfiguration;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Session attribute serialization for the JDBC session store.
+ *
+ * Spring Session picks up a ConversionService named
+ * "springSessionConversionService" for turning attributes into bytes. This one
+ * keeps plain JDK serialization but refuses JPA entities (directly, or inside
+ * collections/maps such as the flash-attribute map) — an entity in the session
+ * serializes its whole lazy graph and goes stale the moment it is stored.
+ * Store an id or a small DTO instead. Unusually large attributes are logged
+ * so they can be trimmed.
+ *
+ * Also keeps the store's cost per request down: its reads and writes run in
+ * plain JDBC transactions rather than JPA ones (each of which would open a
+ * second EntityManager and connection next to the open-in-view one), and a
+ * request that only touched the session is not written back
+ * ({@link LastAccessThrottlingSessionRepository}).
+ */
+@Configuration
+public class SessionStoreConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionStoreConfig.class);
+
+    @Value("${app.session.attribute-warn-bytes:16384}")
+    private int attributeWarnBytes;
+
+    @Bean("springSessionConversionService")
+    public ConversionService springSessionConversionService() {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, new EntityRejectingSerializer(attributeWarnBytes));
+        conversionService.addConverter(byte[].class, Object.class,
+                new DeserializingConverter(getClass().getClassLoader()));
+        return conversionService;
+    }
+
+    @Bean
+    public static BeanPostProcessor sessionStorePostProcessor(
+            ObjectProvider<DataSource> dataSource,
+            @Value("${app.session.touch-interval-seconds:60}") long touchIntervalSeconds) {
+        return new BeanPostProcessor() {
+            // Before the configuration builds the repository from it
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof JdbcHttpSessionConfiguration configuration) {
+                    // Postgres, said up front: otherwise its JdbcTemplate's error
+                    // translator and its LOB handler choice (Oracle or not) each open a
+                    // connection at startup to ask, and the CDS training run has no database
+                    SQLErrorCodesFactory.getInstance().registerDatabase(dataSource.getObject(), "PostgreSQL");
+                    configuration.setLobHandler(new DefaultLobHandler());
+                    // Same propagation as Spring Session's own template, on the same DataSource
+                    TransactionTemplate transactions = new TransactionTemplate(
+                            new DataSourceTransactionManager(dataSource.getObject()));
+                    transactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                    configuration.setTransactionOperations(transactions);
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JdbcIndexedSessionRepository repository) {
+                    return LastAccessThrottlingSessionRepository.wrap(repository,
+                            Duration.ofSeconds(touchIntervalSeconds));
+                }
+                return bean;
+            }
+        };
+    }
+
+    static final class EntityRejectingSerializer implements Converter<Object, byte[]> {
+
+        private static final int MAX_DEPTH = 4;
+
+        private final SerializingConverter delegate = new SerializingConverter();
+        private final int warnBytes;
+
+        EntityRejectingSerializer(int warnBytes) {
+            this.warnBytes = warnBytes;
+        }
+
+        @Override
+        public byte[] convert(Object source) {
+            rejectEntities(source, 0);
+            byte[] bytes = delegate.convert(source);
+            if (bytes.length > warnBytes) {
+                logger.warn("Large session attribute of type {}: {} bytes", source.getClass().getName(), bytes.length);
+            }
+            return bytes;
+        }
+
+        private void rejectEntities(Object value, int depth) {
+            if (value == null || depth > MAX_DEPTH) {
+                return;
+            }
+            if (value.getClass().isAnnotationPresent(Entity.class)) {
+                throw new IllegalArgumentException("Refusing to store JPA entity "
+                        + value.getClass().getSimpleName()
+                        + " in the HTTP session — store its id or a DTO instead");
+            }
+            if (value instanceof Map<?, ?> map) {
+                for (Object element : map.values()) {
+                    rejectEntities(element, depth + 1);
+                }
+            } else if (value instanceof Collection<?> collection) {
+                for (Object element : collection) {
+                    rejectEntities(element, depth + 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.learning.learning.config;
+
+import com.learning.learning.service.profiling.QueryOrigin;
+import com.learning.learning.service.profiling.SlowQueryLog;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slow-query log (/admin/slow-queries): a {@link StatementListener} that
+ * hands statements over app.slow-query.threshold-ms to {@link SlowQueryLog},
+ * and advice on every Spring Data repository that tells {@link QueryOrigin}
+ * which repository method is running, so a slow statement can be traced
+ * back to it. app.slow-query.enabled=false leaves both out.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    @Bean
+    public static StatementListener slowQueryStatementListener(
+            ObjectProvider<SlowQueryLog> slowQueryLog,
+            @Value("${app.slow-query.threshold-ms:250}") long thresholdMillis) {
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        return execution -> {
+            if (execution.elapsedNanos() >= thresholdNanos) {
+                slowQueryLog.ifAvailable(log -> log.record(execution.sql(), execution.parameterTypes(),
+                        execution.batchSize(), execution.elapsedNanos()));
+            }
+        };
+    }
+
+    /**
+     * Runs before each repository factory bean creates its repository, so the
+     * advice is part of the repository proxy from the start.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryOriginPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+                                String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+                                proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+                                    String previous = QueryOrigin.enterRepository(
+                                            repository + "." + invocation.getMethod().getName());
+                                    try {
+                                        return invocation.proceed();
+                                    } finally {
+                                        QueryOrigin.exitRepository(previous);
+                                    }
+                                });
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.learning.learning.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start measurement, and the bean part of the fast-startup profile
+ * (application-fast-startup.properties; the class data sharing archive is
+ * built in the Dockerfile).
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupConfig.class);
+
+    @Value("${app.startup.first-request-budget-ms:0}")
+    private long firstRequestBudgetMs;
+
+    @Bean
+    public FilterRegistrationBean<StartupTimingFilter> startupTimingFilter(MeterRegistry meterRegistry) {
+        StartupTimingFilter filter = new StartupTimingFilter(firstRequestBudgetMs);
+        TimeGauge.builder("application.first-request.time", filter, TimeUnit.MILLISECONDS,
+                        StartupTimingFilter::firstRequestMillis)
+                .description("Time from JVM start until the first HTTP request was served")
+                .register(meterRegistry);
+
+        FilterRegistrationBean<StartupTimingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/*");
+        // Outermost, so the measured request includes every other filter
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * fast-startup: beans listed in app.startup.lazy-beans (rarely used
+     * controllers such as DebugController and the public application flows,
+     * with the services only they use) are created on their first request
+     * instead of during startup. A listed bean that another eager bean
+     * depends on is still created at startup; unknown names are skipped.
+     */
+    @Bean
+    @Profile("fast-startup")
+    public static BeanFactoryPostProcessor lazyStartupBeans(Environment environment) {
+        List<String> beanNames = Binder.get(environment)
+                .bind("app.startup.lazy-beans", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return beanFactory -> {
+            int marked = 0;
+            for (String beanName : beanNames) {
+                if (beanFactory.containsBeanDefinition(beanName)) {
+                    beanFactory.getBeanDefinition(beanName).setLazyInit(true);
+                    marked++;
+                } else {
+                    logger.debug("app.startup.lazy-beans: no bean named {}", beanName);
+                }
+            }
+            logger.info("fast-startup: {} bean(s) deferred to first use", marked);
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.learning.learning.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures time-to-first-request: how long after the JVM started the first
+ * HTTP request (typically the platform's health check) was answered. That is
+ * what a cold start costs a user, JVM boot and any work deferred past context
+ * refresh included, which application.ready.time doesn't show.
+ *
+ * Logged once, published as the application.first-request.time gauge, and
+ * logged as a warning when over app.startup.first-request-budget-ms, so a
+ * startup regression shows up in the deploy log. After the first request
+ * the filter only checks a flag. Registered by {@link StartupConfig}.
+ */
+public class StartupTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingFilter.class);
+
+    private final AtomicBoolean recorded = new AtomicBoolean();
+    private final long budgetMillis;
+    private volatile double firstRequestMillis = Double.NaN;
+
+    public StartupTimingFilter(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Milliseconds from JVM start to the first response, NaN until then.
+     */
+    public double firstRequestMillis() {
+        return firstRequestMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!recorded.get() && recorded.compareAndSet(false, true)) {
+                long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                firstRequestMillis = uptime;
+                if (budgetMillis > 0 && uptime > budgetMillis) {
+                    logger.warn("First request ({} {}) served {} ms after JVM start, over the {} ms startup budget",
+                            request.getMethod(), request.getRequestURI(), uptime, budgetMillis);
+                } else {
+                    logger.info("First request ({} {}) served {} ms after JVM start",
+                            request.getMethod(), request.getRequestURI(), uptime);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.learning.learning.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The one JDBC interception layer: times each execute call on the statements
+ * of its connections and reports it, with the SQL and the types of the bind
+ * parameters, to every {@link StatementListener} bean (request profiling,
+ * the slow-query log, the query-count tests). For a query the time is to the
+ * first rows, not to reading the whole result.
+ *
+ * Listeners are looked up on the first connection rather than when the
+ * DataSource is created, as they may depend on beans that need it. With no
+ * listener registered, connections are handed out unwrapped. Wrapped around
+ * the application DataSource by {@link StatementInterceptionConfig}.
+ */
+public class StatementInterceptingDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<StatementListener> listenerProvider;
+    private volatile List<StatementListener> listeners;
+
+    public StatementInterceptingDataSource(DataSource targetDataSource,
+                                           ObjectProvider<StatementListener> listenerProvider) {
+        super(targetDataSource);
+        this.listenerProvider = listenerProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return intercepted(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return intercepted(super.getConnection(username, password));
+    }
+
+    private Connection intercepted(Connection target) {
+        List<StatementListener> current = listeners();
+        if (current.isEmpty()) {
+            return target;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement statement && isStatementFactory(method)) {
+                        // prepareStatement / prepareCall take the SQL up front; createStatement doesn't
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                                new Class<?>[]{method.getReturnType()},
+                                new InterceptedStatement(statement, sql, current));
+                    }
+                    return result;
+                });
+    }
+
+    private List<StatementListener> listeners() {
+        List<StatementListener> resolved = listeners;
+        if (resolved == null) {
+            resolved = listenerProvider.orderedStream().toList();
+            listeners = resolved;
+        }
+        return resolved;
+    }
+
+    private static final class InterceptedStatement implements InvocationHandler {
+
+        private final Statement target;
+        private final List<StatementListener> listeners;
+        private final List<String> parameterTypes = new ArrayList<>();
+        private String sql;
+        private int batchSize;
+
+        InterceptedStatement(Statement target, String sql, List<StatementListener> listeners) {
+            this.target = target;
+            this.sql = sql;
+            this.listeners = listeners;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && index >= 1) {
+                parameterType(index, name, args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameterTypes.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+                if (args != null && args.length == 1 && args[0] instanceof String batchSql) {
+                    sql = batchSql;
+                }
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            return StatementInterceptingDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            if (args != null && args.length > 0 && args[0] instanceof String executedSql) {
+                sql = executedSql;
+            }
+            long started = System.nanoTime();
+            try {
+                return StatementInterceptingDataSource.invoke(target, method, args);
+            } finally {
+                StatementListener.Execution execution = new StatementListener.Execution(
+                        sql, String.join(", ", parameterTypes), batchSize, System.nanoTime() - started);
+                for (StatementListener listener : listeners) {
+                    listener.afterExecute(execution);
+                }
+                if (method.getName().equals("executeBatch")) {
+                    batchSize = 0;
+                }
+            }
+        }
+
+        // setString(1, ..) -> "String"; setNull and null values -> "null";
+        // setObject(1, value) -> the value's class. Rows of a batch share one shape.
+        private void parameterType(int index, String setter, Object value) {
+            String type;
+            if (setter.equals("setNull") || value == null) {
+                type = "null";
+            } else if (setter.equals("setObject")) {
+                type = value.getClass().getSimpleName();
+            } else {
+                type = setter.substring(3);
+            }
+            while (parameterTypes.size() < index) {
+                parameterTypes.add("?");
+            }
+            parameterTypes.set(index - 1, type);
+        }
+    }
+
+    private static boolean isStatementFactory(Method method) {
+        String name = method.getName();
+        return name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement");
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
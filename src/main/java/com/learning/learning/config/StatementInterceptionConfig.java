@@ -0,0 +1,31 @@
+package com.learning.learning.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in {@link StatementInterceptingDataSource},
+ * once, for whichever {@link StatementListener} beans the enabled features
+ * register (RequestProfilingConfig, SlowQueryConfig).
+ */
+@Configuration
+public class StatementInterceptionConfig {
+
+    @Bean
+    public static BeanPostProcessor statementInterceptingDataSourcePostProcessor(
+            ObjectProvider<StatementListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementInterceptingDataSource)) {
+                    return new StatementInterceptingDataSource(dataSource, listeners);
+                }
+                return bean;
+            }
+        };
+    }
+}
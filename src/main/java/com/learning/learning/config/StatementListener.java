@@ -0,0 +1,21 @@
+package com.learning.learning.config;
+
+/**
+ * Told about every SQL statement executed through the application
+ * DataSource. Listeners are beans; {@link StatementInterceptingDataSource}
+ * picks them all up and calls them on the thread that ran the statement,
+ * so they must be quick and must not throw.
+ */
+@FunctionalInterface
+public interface StatementListener {
+
+    void afterExecute(Execution execution);
+
+    /**
+     * One execute call. parameterTypes lists the type of each bind parameter
+     * in order, e.g. "Long, String, null" — never the values. batchSize is the
+     * number of rows for executeBatch and 0 otherwise. sql is null for a
+     * plain Statement whose SQL was never seen (shouldn't happen in practice).
+     */
+    record Execution(String sql, String parameterTypes, int batchSize, long elapsedNanos) {}
+}
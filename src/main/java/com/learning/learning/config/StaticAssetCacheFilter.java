@@ -0,0 +1,108 @@
+package com.learning.learning.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Cache-Control for static assets.
+ *
+ * Templates link assets through @{...}, which the resource chain rewrites to a
+ * content-hashed URL (styles-{md5}.css, see spring.web.resources.chain in
+ * application.properties). Such a URL only ever serves one content - a changed
+ * file gets a new URL - so it is cached for a year and marked immutable, and
+ * browsers don't even revalidate it on reload. Anything requested by its plain
+ * name (the static help pages and their screenshots, old bookmarks) gets a
+ * short max-age instead, after which it is revalidated with Last-Modified.
+ *
+ * Only successful and 304 responses are cacheable: a 404 for an asset that
+ * isn't deployed yet, or an error, must not stick in browsers for a year. The
+ * header is set before the chain runs (the resource handler leaves it alone,
+ * and Spring Security only adds its own default when none is set) and swapped
+ * for no-store whenever the response's status turns out otherwise.
+ * Registered by {@link StaticAssetConfig}.
+ */
+public class StaticAssetCacheFilter extends OncePerRequestFilter {
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    static final String NO_STORE = "no-store";
+
+    // ContentVersionStrategy inserts "-" + the MD5 hex of the content before the extension
+    private static final Pattern FINGERPRINTED = Pattern.compile(".+-[0-9a-f]{32}\\.[A-Za-z0-9]+$");
+
+    private final String unversioned;
+
+    public StaticAssetCacheFilter(long unversionedMaxAgeSeconds) {
+        this.unversioned = "public, max-age=" + unversionedMaxAgeSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            boolean fingerprinted = FINGERPRINTED.matcher(request.getRequestURI()).matches();
+            String cacheControl = fingerprinted ? IMMUTABLE : unversioned;
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response = new StatusAwareCacheControl(response, cacheControl);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static boolean isCacheable(int status) {
+        return (status >= 200 && status < 300) || status == HttpServletResponse.SC_NOT_MODIFIED;
+    }
+
+    /**
+     * Keeps Cache-Control in step with the status: the asset's header while it
+     * is cacheable, no-store once it isn't. Statuses are always set before the
+     * body is written, so the header change lands before the response commits.
+     */
+    private static class StatusAwareCacheControl extends HttpServletResponseWrapper {
+
+        private final String cacheControl;
+
+        StatusAwareCacheControl(HttpServletResponse response, String cacheControl) {
+            super(response);
+            this.cacheControl = cacheControl;
+        }
+
+        private void cacheFor(int status) {
+            if (!isCommitted()) {
+                setHeader(HttpHeaders.CACHE_CONTROL, isCacheable(status) ? cacheControl : NO_STORE);
+            }
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            cacheFor(sc);
+            super.setStatus(sc);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            cacheFor(sc);
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            cacheFor(sc);
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            cacheFor(HttpServletResponse.SC_FOUND);
+            super.sendRedirect(location);
+        }
+    }
+}
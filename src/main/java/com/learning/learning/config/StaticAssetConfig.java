@@ -0,0 +1,26 @@
+package com.learning.learning.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caching for the static asset paths (/css, /js, /images and the /help pages).
+ * Fingerprinting and the precompressed .br/.gz variants are configured by
+ * spring.web.resources.chain.* and the pom's compress-static-assets step.
+ */
+@Configuration
+public class StaticAssetConfig {
+
+    @Value("${app.static-assets.unversioned-max-age-seconds:3600}")
+    private long unversionedMaxAgeSeconds;
+
+    @Bean
+    public FilterRegistrationBean<StaticAssetCacheFilter> staticAssetCacheFilter() {
+        FilterRegistrationBean<StaticAssetCacheFilter> registration =
+                new FilterRegistrationBean<>(new StaticAssetCacheFilter(unversionedMaxAgeSeconds));
+        registration.addUrlPatterns("/css/*", "/js/*", "/images/*", "/help/*");
+        return registration;
+    }
+}
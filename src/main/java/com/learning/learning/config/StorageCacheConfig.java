@@ -0,0 +1,49 @@
+package com.learning.learning.config;
+
+import com.learning.learning.service.storage.CachingStorageService;
+import com.learning.learning.service.storage.LocalStorageService;
+import com.learning.learning.service.storage.S3StorageService;
+import com.learning.learning.service.storage.StorageService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Puts the on-disk read cache (CachingStorageService) in front of the storage
+ * backend chosen by storage.type. Services keep injecting StorageService and
+ * get the cached one; the backend beans are looked up by their concrete type.
+ */
+@Configuration
+@ConditionalOnProperty(name = "storage.cache.enabled", havingValue = "true")
+public class StorageCacheConfig {
+
+    @Value("${storage.cache.dir:${java.io.tmpdir}/safelynested-storage-cache}")
+    private String cacheDir;
+
+    @Value("${storage.cache.max-size-mb:512}")
+    private long maxSizeMb;
+
+    @Value("${storage.cache.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    @Bean
+    @Primary
+    public StorageService cachingStorageService(ObjectProvider<S3StorageService> s3StorageService,
+                                                ObjectProvider<LocalStorageService> localStorageService,
+                                                MeterRegistry meterRegistry) throws IOException {
+        StorageService backend = s3StorageService.getIfAvailable();
+        if (backend == null) {
+            backend = localStorageService.getObject();
+        }
+        return new CachingStorageService(backend, Paths.get(cacheDir), maxSizeMb * 1024 * 1024,
+                Duration.ofMinutes(maxAgeMinutes).toMillis(), meterRegistry);
+    }
+}
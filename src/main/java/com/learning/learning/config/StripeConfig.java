@@ -1,7 +1,6 @@
 package com.learning.learning.config;
 
 import com.stripe.Stripe;
-import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,10 +20,23 @@ public class StripeConfig {
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
 
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = secretKey;
-        logger.info("Stripe SDK initialized (key starts with: {}...)", secretKey.substring(0, Math.min(12, secretKey.length())));
+    private volatile boolean initialized;
+
+    /**
+     * Point the Stripe SDK at our account. Called by StripeService before
+     * each API call instead of at startup, so a cold start doesn't load and
+     * initialize the SDK for what is an occasional donation.
+     */
+    public void ensureInitialized() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    Stripe.apiKey = secretKey;
+                    initialized = true;
+                    logger.info("Stripe SDK initialized (key starts with: {}...)", secretKey.substring(0, Math.min(12, secretKey.length())));
+                }
+            }
+        }
     }
 
     public String getPublishableKey() {
@@ -10,6 +10,7 @@ import com.learning.learning.repository.CharityRepository;
 import com.learning.learning.repository.DonationRepository;
 import com.learning.learning.entity.MultiFacilitatorCharity;
 import com.learning.learning.repository.UserRepository;
+import com.learning.learning.service.CharityService;
 import com.learning.learning.service.MultiFacilitatorService;
 import com.learning.learning.service.UserService;
 import java.security.Principal;
@@ -35,6 +36,9 @@ public class AdminController {
     @Autowired
     private CharityRepository charityRepository;
 
+    @Autowired
+    private CharityService charityService;
+
     @Autowired
     private DonationRepository donationRepository;
 
@@ -286,35 +290,7 @@ public class AdminController {
             RedirectAttributes redirectAttributes) {
 
         try {
-            Charity existingCharity = charityRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Charity not found"));
-
-            // Check for duplicate name (excluding current)
-            charityRepository.findByCharityName(updatedCharity.getCharityName())
-                    .ifPresent(c -> {
-                        if (!c.getId().equals(id)) {
-                            throw new RuntimeException("Charity name already exists");
-                        }
-                    });
-
-            // Update fields
-            existingCharity.setCharityName(updatedCharity.getCharityName());
-            existingCharity.setOrganizationType(updatedCharity.getOrganizationType());
-            existingCharity.setEinTaxId(updatedCharity.getEinTaxId());
-            existingCharity.setContactName(updatedCharity.getContactName());
-            existingCharity.setContactEmail(updatedCharity.getContactEmail());
-            existingCharity.setContactPhone(updatedCharity.getContactPhone());
-            existingCharity.setAddress(updatedCharity.getAddress());
-            existingCharity.setCity(updatedCharity.getCity());
-            existingCharity.setState(updatedCharity.getState());
-            existingCharity.setZipCode(updatedCharity.getZipCode());
-            existingCharity.setDescription(updatedCharity.getDescription());
-            existingCharity.setMissionStatement(updatedCharity.getMissionStatement());
-            existingCharity.setMaxReferralsPerMonth(updatedCharity.getMaxReferralsPerMonth());
-            existingCharity.setAllowedZipCodes(updatedCharity.getAllowedZipCodes());
-            existingCharity.setIsActive(updatedCharity.getIsActive());
-
-            charityRepository.save(existingCharity);
+            charityService.updateCharityByAdmin(id, updatedCharity);
             redirectAttributes.addFlashAttribute("success", "Charity updated successfully!");
             return "redirect:/admin/charities";
         } catch (Exception e) {
@@ -424,14 +400,18 @@ public class AdminController {
         BigDecimal totalAmountUsedAll = BigDecimal.ZERO;
         int donationsWithStays = 0;
 
+        // One query for every funded booking, grouped by donation (the referral is
+        // fetched with it because the report shows its needs description)
+        Map<Long, List<Booking>> bookingsByDonation = bookingRepository
+                .findAllFundedAndBookingStatusNot(Booking.BookingStatus.CANCELLED)
+                .stream()
+                .collect(Collectors.groupingBy(b -> b.getFundingDonation().getId()));
+
         for (Donation donation : filtered) {
-            List<Booking> bookings = bookingRepository.findByFundingDonationId(donation.getId())
-                    .stream()
-                    .filter(b -> b.getBookingStatus() != Booking.BookingStatus.CANCELLED)
-                    .collect(Collectors.toList());
+            List<Booking> bookings = bookingsByDonation.getOrDefault(donation.getId(), List.of());
             donationBookings.put(donation.getId(), bookings);
 
-            BigDecimal used = bookingRepository.sumFundedAmountByDonationId(donation.getId());
+            BigDecimal used = donation.getAmountUsed();
             donationAmountUsed.put(donation.getId(), used);
 
             if (!bookings.isEmpty()) {
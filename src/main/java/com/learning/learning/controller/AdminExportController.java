@@ -0,0 +1,54 @@
+package com.learning.learning.controller;
+
+import com.learning.learning.service.DataExportService;
+import com.learning.learning.service.export.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Admin-wide data exports (CSV or XLSX) for auditors and grant reporting.
+ * Output is streamed straight to the response.
+ */
+@Controller
+@RequestMapping("/admin/export")
+public class AdminExportController {
+
+    @Autowired
+    private DataExportService dataExportService;
+
+    /**
+     * All donations, or one charity's with ?charityId=.
+     */
+    @GetMapping("/donations")
+    public void donations(@RequestParam(required = false) Long charityId,
+                          @RequestParam(defaultValue = "csv") String format,
+                          HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        String scope = charityId != null ? "charity-" + charityId + "-" : "";
+        prepare(response, exportFormat, scope + "donations");
+        dataExportService.exportDonations(charityId, exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * Every donation-funded booking with its donor and charity.
+     */
+    @GetMapping("/funding")
+    public void funding(@RequestParam(defaultValue = "csv") String format,
+                        HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        prepare(response, exportFormat, "funding");
+        dataExportService.exportFunding(exportFormat, response.getOutputStream());
+    }
+
+    private static void prepare(HttpServletResponse response, ExportFormat format, String name) {
+        String filename = name + "-" + LocalDate.now() + "." + format.getExtension();
+        response.setContentType(format.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        response.setHeader("Cache-Control", "no-store");
+    }
+}
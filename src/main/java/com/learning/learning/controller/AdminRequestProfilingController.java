@@ -0,0 +1,67 @@
+package com.learning.learning.controller;
+
+import com.learning.learning.config.RequestProfilingFilter;
+import com.learning.learning.service.profiling.RequestProfileStore;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+/**
+ * Admin-only view of profiled requests: the slowest recent requests per
+ * endpoint on this instance, and the switch that profiles the admin's own
+ * session (each response then carries a Server-Timing header, shown in the
+ * browser's network panel under "Timing").
+ */
+@Controller
+@RequestMapping("/admin/request-profiling")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminRequestProfilingController {
+
+    @Autowired
+    private RequestProfileStore requestProfileStore;
+
+    @Value("${app.request-profiling.enabled:true}")
+    private boolean profilingEnabled;
+
+    @Value("${app.request-profiling.sample-percent:0}")
+    private double samplePercent;
+
+    @GetMapping
+    public String page(Model model, HttpSession session) {
+        model.addAttribute("endpoints", requestProfileStore.slowestByEndpoint());
+        model.addAttribute("profilingEnabled", profilingEnabled);
+        model.addAttribute("sessionProfiling",
+                Boolean.TRUE.equals(session.getAttribute(RequestProfilingFilter.SESSION_ATTRIBUTE)));
+        model.addAttribute("samplePercent", samplePercent);
+        return "admin/request-profiling";
+    }
+
+    @PostMapping("/session")
+    public String toggleSessionProfiling(@RequestParam boolean enabled, HttpSession session,
+                                         RedirectAttributes redirectAttributes) {
+        if (enabled) {
+            session.setAttribute(RequestProfilingFilter.SESSION_ATTRIBUTE, Boolean.TRUE);
+            redirectAttributes.addFlashAttribute("success",
+                    "Profiling is on for your session. Your requests now carry a Server-Timing header.");
+        } else {
+            session.removeAttribute(RequestProfilingFilter.SESSION_ATTRIBUTE);
+            redirectAttributes.addFlashAttribute("success", "Profiling is off for your session.");
+        }
+        return "redirect:/admin/request-profiling";
+    }
+
+    @PostMapping("/clear")
+    public String clear(RedirectAttributes redirectAttributes) {
+        requestProfileStore.clear();
+        redirectAttributes.addFlashAttribute("success", "Recorded requests cleared.");
+        return "redirect:/admin/request-profiling";
+    }
+}
@@ -0,0 +1,46 @@
+package com.learning.learning.controller;
+
+import com.learning.learning.service.profiling.SlowQueryLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+/**
+ * Admin-only view of the slow-query log: the most recent SQL statements on
+ * this instance that ran longer than app.slow-query.threshold-ms, with the
+ * repository method and controller they came from.
+ */
+@Controller
+@RequestMapping("/admin/slow-queries")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminSlowQueryController {
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Value("${app.slow-query.enabled:true}")
+    private boolean slowQueryEnabled;
+
+    @GetMapping
+    public String page(Model model) {
+        model.addAttribute("queries", slowQueryLog.recent());
+        model.addAttribute("slowQueryEnabled", slowQueryEnabled);
+        model.addAttribute("thresholdMillis", slowQueryLog.thresholdMillis());
+        model.addAttribute("bufferSize", slowQueryLog.bufferSize());
+        model.addAttribute("flushEnabled", slowQueryLog.flushEnabled());
+        return "admin/slow-queries";
+    }
+
+    @PostMapping("/clear")
+    public String clear(RedirectAttributes redirectAttributes) {
+        slowQueryLog.clear();
+        redirectAttributes.addFlashAttribute("success", "Recorded slow queries cleared.");
+        return "redirect:/admin/slow-queries";
+    }
+}
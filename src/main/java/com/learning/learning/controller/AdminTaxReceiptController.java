@@ -0,0 +1,51 @@
+package com.learning.learning.controller;
+
+import com.learning.learning.service.TaxReceiptBatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints (JSON) for the year-end donor receipt batch.
+ * POST starts a run for every charity or one charity; GET polls progress.
+ */
+@RestController
+@RequestMapping("/admin/tax-receipts")
+public class AdminTaxReceiptController {
+
+    @Autowired
+    private TaxReceiptBatchService taxReceiptBatchService;
+
+    @GetMapping
+    public List<TaxReceiptBatchService.BatchSummary> recentBatches(@RequestParam(required = false) Long charityId) {
+        return taxReceiptBatchService.getRecentBatches(charityId);
+    }
+
+    @GetMapping("/{batchId}")
+    public ResponseEntity<?> batch(@PathVariable Long batchId) {
+        try {
+            return ResponseEntity.ok(taxReceiptBatchService.getBatch(batchId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> startBatch(@RequestParam int taxYear,
+                                        @RequestParam(required = false) Long charityId,
+                                        Principal principal) {
+        try {
+            Long batchId = taxReceiptBatchService.startBatch(taxYear, charityId, principal.getName()).getId();
+            return ResponseEntity.accepted().body(taxReceiptBatchService.getBatch(batchId));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+}
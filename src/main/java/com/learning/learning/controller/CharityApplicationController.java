@@ -2,6 +2,7 @@ package com.learning.learning.controller;
 
 import com.learning.learning.entity.CharityApplication;
 import com.learning.learning.entity.RegistrationToken;
+import com.learning.learning.security.ClientIpResolver;
 import com.learning.learning.security.SubmissionRateLimiter;
 import com.learning.learning.service.CharityApplicationService;
 import com.learning.learning.service.RegistrationTokenService;
@@ -42,6 +43,9 @@ public class CharityApplicationController {
     @Autowired
     private SubmissionRateLimiter rateLimiter;
 
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
     @GetMapping("/apply")
     public String showApplicationForm(HttpSession session, Model model) {
         // Stamp the render time so the POST handler can reject instant (bot) submits.
@@ -75,7 +79,7 @@ public class CharityApplicationController {
             HttpSession session,
             RedirectAttributes redirectAttributes) {
 
-        String clientIp = clientIp(request);
+        String clientIp = clientIpResolver.resolve(request);
 
         // 1) Honeypot — a hidden field real users never see. Bots fill it.
         //    Silently pretend success so the bot doesn't retry or adapt.
@@ -157,15 +161,6 @@ public class CharityApplicationController {
         }
     }
 
-    /** Best-effort client IP, honouring a reverse proxy / Cloudflare X-Forwarded-For header. */
-    private static String clientIp(HttpServletRequest request) {
-        String forwarded = request.getHeader("X-Forwarded-For");
-        if (forwarded != null && !forwarded.isBlank()) {
-            return forwarded.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
-    }
-
     /**
      * Flashes the submitted field values so an error redirect back to the apply
      * form can repopulate what the applicant already typed, rather than clearing it.
@@ -4,6 +4,7 @@ import com.learning.learning.dto.BookingDto;
 import com.learning.learning.entity.Booking;
 import com.learning.learning.entity.Charity;
 import com.learning.learning.entity.CharityLocation;
+import com.learning.learning.entity.LocationAvailability;
 import com.learning.learning.entity.Referral;
 import com.learning.learning.repository.BookingRepository;
 import com.learning.learning.repository.CharityLocationRepository;
@@ -11,10 +12,21 @@ import com.learning.learning.repository.CharityRepository;
 import com.learning.learning.repository.PartnerLocationRepository;
 import com.learning.learning.repository.ReferralRepository;
 import com.learning.learning.service.BookingService;
+import com.learning.learning.service.DataExportService;
+import com.learning.learning.service.LocationAvailabilityService;
 import com.learning.learning.service.MultiFacilitatorService;
+import com.learning.learning.service.NearbyPropertyService;
 import com.learning.learning.service.ReferralService;
+import com.learning.learning.service.TaxReceiptBatchService;
+import com.learning.learning.service.export.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
@@ -23,6 +35,8 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +79,18 @@ public class CharityFacilitatorController {
     @Autowired
     private PartnerLocationRepository partnerLocationRepository;
 
+    @Autowired
+    private LocationAvailabilityService locationAvailabilityService;
+
+    @Autowired
+    private NearbyPropertyService nearbyPropertyService;
+
+    @Autowired
+    private TaxReceiptBatchService taxReceiptBatchService;
+
+    @Autowired
+    private DataExportService dataExportService;
+
     /**
      * Tells templates whether the logged-in user is a multi-charity
      * facilitator, so the operating-as banner can render a "back to
@@ -401,6 +427,151 @@ public class CharityFacilitatorController {
         }
     }
 
+    /**
+     * Partner-property availability search (JSON): which of this charity's
+     * linked partner properties have an AVAILABLE window covering every night
+     * from checkIn to checkOut? Optional guests (capacity) and city filters.
+     * URL: GET /charity-facilitator/{charityId}/partner-availability?checkIn=...&checkOut=...
+     */
+    @GetMapping(value = "/partner-availability", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<AvailabilitySearchPage> searchPartnerAvailability(
+            @PathVariable Long charityId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(required = false) Integer guests,
+            @RequestParam(required = false) String city,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (authorize(username, charityId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!checkOut.isAfter(checkIn)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Page<LocationAvailability> windows = locationAvailabilityService.searchAvailableForCharity(
+                charityId, checkIn, checkOut, guests, city,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+
+        return ResponseEntity.ok(new AvailabilitySearchPage(
+                windows.map(LocationAvailabilityService.AvailableProperty::from).getContent(),
+                windows.getNumber(),
+                windows.getSize(),
+                windows.getTotalElements(),
+                windows.getTotalPages()));
+    }
+
+    public record AvailabilitySearchPage(
+            List<LocationAvailabilityService.AvailableProperty> results,
+            int page,
+            int size,
+            long totalResults,
+            int totalPages
+    ) {}
+
+    /**
+     * Nearest properties to a ZIP code (JSON), for placing participants in
+     * crisis close to where they are. Without dates: the charity's locations
+     * and linked partner properties within the radius. With checkIn/checkOut:
+     * only partner properties with an AVAILABLE window covering those nights.
+     * URL: GET /charity-facilitator/{charityId}/nearby-properties?zip=74103&radius=50
+     */
+    @GetMapping(value = "/nearby-properties", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<?> nearbyProperties(
+            @PathVariable Long charityId,
+            @RequestParam String zip,
+            @RequestParam(defaultValue = "50") double radius,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(required = false) Integer guests) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (authorize(username, charityId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        int cappedLimit = Math.min(Math.max(limit, 1), 50);
+        try {
+            List<NearbyPropertyService.NearbyProperty> results = (checkIn != null && checkOut != null)
+                    ? nearbyPropertyService.findNearbyAvailable(charityId, zip, radius, cappedLimit, checkIn, checkOut, guests)
+                    : nearbyPropertyService.findNearby(charityId, zip, radius, cappedLimit);
+            return ResponseEntity.ok(results);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Year-end donor receipts for this charity (JSON): POST starts a batch for
+     * the tax year, GET lists recent batches with their progress.
+     * URL: /charity-facilitator/{charityId}/tax-receipts?taxYear=2025
+     */
+    @GetMapping(value = "/tax-receipts", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<List<TaxReceiptBatchService.BatchSummary>> taxReceiptBatches(@PathVariable Long charityId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (authorize(username, charityId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(taxReceiptBatchService.getRecentBatches(charityId));
+    }
+
+    @PostMapping(value = "/tax-receipts", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<?> startTaxReceiptBatch(@PathVariable Long charityId, @RequestParam int taxYear) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (authorize(username, charityId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            Long batchId = taxReceiptBatchService.startBatch(taxYear, charityId, username).getId();
+            return ResponseEntity.accepted().body(taxReceiptBatchService.getBatch(batchId));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Download this charity's referrals, bookings or donations as CSV or XLSX.
+     * Rows are streamed straight to the response, so large exports don't
+     * buffer in memory.
+     * URL: /charity-facilitator/{charityId}/export/bookings?format=xlsx
+     */
+    @GetMapping("/export/{dataset}")
+    public void export(@PathVariable Long charityId,
+                       @PathVariable String dataset,
+                       @RequestParam(defaultValue = "csv") String format,
+                       HttpServletResponse response) throws IOException {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Optional<Charity> charityOpt = authorize(username, charityId);
+        if (charityOpt.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        if (!List.of("referrals", "bookings", "donations").contains(dataset)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        String filename = "charity-" + charityId + "-" + dataset + "-" + LocalDate.now() + "." + exportFormat.getExtension();
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        response.setHeader("Cache-Control", "no-store");
+
+        switch (dataset) {
+            case "referrals" -> dataExportService.exportReferrals(charityId, exportFormat, response.getOutputStream());
+            case "bookings" -> dataExportService.exportBookings(charityId, exportFormat, response.getOutputStream());
+            default -> dataExportService.exportDonations(charityId, exportFormat, response.getOutputStream());
+        }
+    }
+
     /**
      * Create Booking
      */
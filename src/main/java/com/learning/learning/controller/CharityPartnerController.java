@@ -3,6 +3,8 @@ package com.learning.learning.controller;
 import com.learning.learning.entity.*;
 import com.learning.learning.repository.*;
 import com.learning.learning.service.CharityService;
+import com.learning.learning.service.DirectUploadService;
+import com.learning.learning.service.DocumentArchiveService;
 import com.learning.learning.service.DocumentService;
 import com.learning.learning.service.DonationService;
 import com.learning.learning.service.DonorDashboardService;
@@ -10,10 +12,15 @@ import com.learning.learning.service.DonorService;
 import com.learning.learning.service.DonorSetupRequestService;
 import com.learning.learning.service.InviteService;
 import com.learning.learning.service.MultiFacilitatorService;
+import com.learning.learning.service.ReferralImportService;
 import com.learning.learning.service.StripeService;
 import com.learning.learning.service.TeamInviteService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -34,17 +41,27 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Controller
 @RequestMapping("/charity-partner")
 public class CharityPartnerController {
 
+    // Rows per page on the referrals and documents lists
+    private static final int LIST_PAGE_SIZE = 50;
+
     @Autowired
     private CharityService charityService;
 
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private DirectUploadService directUploadService;
+
+    @Autowired
+    private DocumentArchiveService documentArchiveService;
+
     @Autowired
     private InviteService inviteService;
 
@@ -87,6 +104,9 @@ public class CharityPartnerController {
     @Autowired
     private StripeService stripeService;
 
+    @Autowired
+    private ReferralImportService referralImportService;
+
     // Adds pending donor setup request count to all charity-partner views for sidebar badge
     @ModelAttribute("pendingDonorSetupCount")
     public Long pendingDonorSetupCount(Principal principal) {
@@ -285,6 +305,7 @@ public class CharityPartnerController {
     public String listReferrals(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "0") int page,
             Model model,
             Principal principal
     ) {
@@ -292,23 +313,11 @@ public class CharityPartnerController {
         Charity charity = charityService.getCharityForUser(username);  // Get full charity object
         Long charityId = charity.getId();
 
-        List<Referral> referrals;
-
-        if (search != null && !search.isEmpty()) {
-            referrals = referralRepository.searchReferralsByCharity(charityId, search);
-        } else if (status != null && !status.isEmpty()) {
-            try {
-                Referral.ReferralStatus referralStatus = Referral.ReferralStatus.valueOf(status.toUpperCase());
-                referrals = referralRepository.findByCharityIdAndStatusOrderByCreatedAtDesc(charityId, referralStatus);
-            } catch (IllegalArgumentException e) {
-                referrals = referralRepository.findByCharityIdOrderByCreatedAtDesc(charityId);
-            }
-        } else {
-            referrals = referralRepository.findByCharityIdOrderByCreatedAtDesc(charityId);
-        }
+        Page<Referral> referrals = findReferralsPage(charityId, status, search, page);
 
         model.addAttribute("charity", charity);  // ADD THIS LINE - needed for sidebar
-        model.addAttribute("referrals", referrals);
+        model.addAttribute("referrals", referrals.getContent());
+        model.addAttribute("referralsPage", referrals);
         model.addAttribute("statuses", Referral.ReferralStatus.values());
         model.addAttribute("currentStatus", status);
         model.addAttribute("searchTerm", search);
@@ -316,6 +325,27 @@ public class CharityPartnerController {
         return "charity-partner/referrals";
     }
 
+    /**
+     * One page of a charity's referrals, newest first: matching the search
+     * term if there is one, else with the status if it is a valid one.
+     */
+    private Page<Referral> findReferralsPage(Long charityId, String status, String search, int page) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), LIST_PAGE_SIZE);
+        if (search != null && !search.isEmpty()) {
+            return referralRepository.searchReferralsByCharity(charityId, search, pageRequest);
+        }
+        if (status != null && !status.isEmpty()) {
+            try {
+                Referral.ReferralStatus referralStatus = Referral.ReferralStatus.valueOf(status.toUpperCase());
+                return referralRepository.findByCharityIdAndStatusOrderByCreatedAtDesc(charityId, referralStatus,
+                        pageRequest);
+            } catch (IllegalArgumentException e) {
+                // Unknown status: fall through to all referrals
+            }
+        }
+        return referralRepository.findByCharityIdOrderByCreatedAtDesc(charityId, pageRequest);
+    }
+
     /**
      * View single referral (read-only after submission)
      */
@@ -498,28 +528,18 @@ public class CharityPartnerController {
             @PathVariable Long charityId,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "0") int page,
             Model model,
             Principal principal
     ) {
         Charity charity = resolvePartnerCharity(principal, charityId);
         if (charity == null) return "redirect:/access-denied";
 
-        List<Referral> referrals;
-        if (search != null && !search.isEmpty()) {
-            referrals = referralRepository.searchReferralsByCharity(charityId, search);
-        } else if (status != null && !status.isEmpty()) {
-            try {
-                Referral.ReferralStatus referralStatus = Referral.ReferralStatus.valueOf(status.toUpperCase());
-                referrals = referralRepository.findByCharityIdAndStatusOrderByCreatedAtDesc(charityId, referralStatus);
-            } catch (IllegalArgumentException e) {
-                referrals = referralRepository.findByCharityIdOrderByCreatedAtDesc(charityId);
-            }
-        } else {
-            referrals = referralRepository.findByCharityIdOrderByCreatedAtDesc(charityId);
-        }
+        Page<Referral> referrals = findReferralsPage(charityId, status, search, page);
 
         model.addAttribute("charity", charity);
-        model.addAttribute("referrals", referrals);
+        model.addAttribute("referrals", referrals.getContent());
+        model.addAttribute("referralsPage", referrals);
         model.addAttribute("statuses", Referral.ReferralStatus.values());
         model.addAttribute("currentStatus", status);
         model.addAttribute("searchTerm", search);
@@ -571,6 +591,56 @@ public class CharityPartnerController {
         return "charity-partner/referral-form";
     }
 
+    /**
+     * Bulk import form: upload a CSV of existing cases.
+     */
+    @GetMapping("/{charityId}/referrals/import")
+    public String showReferralImportForm(@PathVariable Long charityId, Model model, Principal principal) {
+        Charity charity = resolvePartnerCharity(principal, charityId);
+        if (charity == null) return "redirect:/access-denied";
+
+        model.addAttribute("charity", charity);
+        model.addAttribute("remainingThisMonth", charityService.getRemainingReferralsThisMonth(charityId));
+        model.addAttribute("maxRows", referralImportService.getMaxRows());
+        return "charity-partner/referral-import";
+    }
+
+    /**
+     * Import (or with dryRun, only validate) a CSV of referrals and show the
+     * per-row report.
+     */
+    @PostMapping("/{charityId}/referrals/import")
+    public String importReferrals(
+            @PathVariable Long charityId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            Model model,
+            Principal principal
+    ) {
+        Charity charity = resolvePartnerCharity(principal, charityId);
+        if (charity == null) return "redirect:/access-denied";
+
+        model.addAttribute("charity", charity);
+        model.addAttribute("maxRows", referralImportService.getMaxRows());
+
+        if (file == null || file.isEmpty()) {
+            model.addAttribute("error", "Please choose a CSV file to import");
+        } else {
+            try {
+                ReferralImportService.ImportReport report = referralImportService.importReferrals(
+                        charityId, principal.getName(), file.getInputStream(), dryRun);
+                model.addAttribute("report", report);
+                if (!dryRun && report.imported() > 0) {
+                    model.addAttribute("success", report.imported() + " referral(s) imported");
+                }
+            } catch (IOException | RuntimeException e) {
+                model.addAttribute("error", e.getMessage());
+            }
+        }
+        model.addAttribute("remainingThisMonth", charityService.getRemainingReferralsThisMonth(charityId));
+        return "charity-partner/referral-import";
+    }
+
     @PostMapping("/{charityId}/referrals/new")
     public String createReferralScoped(
             @PathVariable Long charityId,
@@ -696,11 +766,13 @@ public class CharityPartnerController {
      * List all documents for charity
      */
     @GetMapping("/documents")
-    public String listDocuments(Model model, Principal principal) {
+    public String listDocuments(@RequestParam(defaultValue = "0") int page, Model model, Principal principal) {
         String username = principal.getName();
 
-        List<Document> documents = documentService.getDocumentsForCharity(username);
-        model.addAttribute("documents", documents);
+        Page<Document> documents = documentService.getDocumentsForCharity(username,
+                PageRequest.of(Math.max(page, 0), LIST_PAGE_SIZE));
+        model.addAttribute("documents", documents.getContent());
+        model.addAttribute("documentsPage", documents);
         model.addAttribute("documentTypes", Document.DocumentType.values());
 
         return "charity-partner/documents";
@@ -1520,15 +1592,18 @@ public class CharityPartnerController {
     @GetMapping("/{charityId}/documents")
     public String listDocumentsScoped(
             @PathVariable Long charityId,
+            @RequestParam(defaultValue = "0") int page,
             Model model,
             Principal principal
     ) {
         Charity charity = resolvePartnerCharity(principal, charityId);
         if (charity == null) return "redirect:/access-denied";
 
-        List<Document> documents = documentService.getDocumentsForCharityById(charityId);
+        Page<Document> documents = documentService.getDocumentsForCharityById(charityId,
+                PageRequest.of(Math.max(page, 0), LIST_PAGE_SIZE));
         model.addAttribute("charity", charity);
-        model.addAttribute("documents", documents);
+        model.addAttribute("documents", documents.getContent());
+        model.addAttribute("documentsPage", documents);
         model.addAttribute("documentTypes", Document.DocumentType.values());
 
         return "charity-partner/documents";
@@ -1595,6 +1670,71 @@ public class CharityPartnerController {
         }
     }
 
+    /**
+     * Start a browser-direct upload (see direct-upload.js). A bad request
+     * makes the page fall back to the regular multipart upload, which reports
+     * the validation error.
+     */
+    @PostMapping("/{charityId}/documents/direct-upload")
+    @ResponseBody
+    public ResponseEntity<DirectUploadService.StartedUpload> startDirectUploadScoped(
+            @PathVariable Long charityId,
+            @RequestParam String fileName,
+            @RequestParam String contentType,
+            @RequestParam long size,
+            @RequestParam String sha256,
+            @RequestParam(required = false) Long referralId,
+            @RequestParam(required = false) Long inviteId,
+            @RequestParam Document.DocumentType documentType,
+            @RequestParam(required = false) String description,
+            Principal principal
+    ) {
+        Charity charity = resolvePartnerCharity(principal, charityId);
+        if (charity == null) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return ResponseEntity.ok(directUploadService.startForCharity(charityId, referralId, inviteId,
+                    fileName, contentType, size, sha256, documentType, description, principal.getName()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Finish a browser-direct upload: the page posts here once the file is in
+     * storage. Redirects like the multipart upload above.
+     */
+    @PostMapping("/{charityId}/documents/direct-upload/finalize")
+    public String finalizeDirectUploadScoped(
+            @PathVariable Long charityId,
+            @RequestParam String uploadToken,
+            Principal principal,
+            RedirectAttributes redirectAttributes
+    ) {
+        Charity charity = resolvePartnerCharity(principal, charityId);
+        if (charity == null) return "redirect:/access-denied";
+
+        try {
+            Document document = directUploadService.finalizeForCharity(uploadToken, charityId, principal.getName());
+            if (document.getInvite() != null) {
+                redirectAttributes.addFlashAttribute("success", "Document uploaded to invite successfully");
+                return "redirect:/charity-partner/" + charityId + "/invites";
+            }
+
+            redirectAttributes.addFlashAttribute("success", "Document uploaded successfully");
+            if (document.getReferral() != null) {
+                return "redirect:/charity-partner/" + charityId + "/referrals/" + document.getReferral().getId();
+            }
+            return "redirect:/charity-partner/" + charityId + "/documents";
+
+        } catch (IOException | RuntimeException e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to upload document: " + e.getMessage());
+            return "redirect:/charity-partner/" + charityId + "/documents/upload";
+        }
+    }
+
     @GetMapping("/{charityId}/documents/{id}/download")
     public ResponseEntity<Resource> downloadDocumentScoped(
             @PathVariable Long charityId,
@@ -1619,6 +1759,99 @@ public class CharityPartnerController {
         }
     }
 
+    /**
+     * All of a referral's documents as one ZIP, streamed as it is built.
+     */
+    @GetMapping("/{charityId}/referrals/{id}/documents/download-all")
+    public void downloadReferralDocumentsScoped(
+            @PathVariable Long charityId,
+            @PathVariable Long id,
+            Principal principal,
+            HttpServletResponse response
+    ) throws IOException {
+        Referral referral = resolvePartnerCharity(principal, charityId) == null ? null
+                : referralRepository.findByIdAndCharityId(id, charityId).orElse(null);
+        if (referral == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        streamDocumentArchive(response, "referral-" + referral.getReferralNumber(),
+                documentService.getDocumentsForReferralByCharity(id, charityId));
+    }
+
+    /**
+     * All documents uploaded on an invite as one ZIP.
+     */
+    @GetMapping("/{charityId}/invites/{id}/documents/download-all")
+    public void downloadInviteDocumentsScoped(
+            @PathVariable Long charityId,
+            @PathVariable Long id,
+            Principal principal,
+            HttpServletResponse response
+    ) throws IOException {
+        if (resolvePartnerCharity(principal, charityId) == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        streamDocumentArchive(response, "invite-" + id,
+                documentService.getDocumentsForInviteByCharity(id, charityId));
+    }
+
+    /**
+     * A donor's documents at this charity as one ZIP.
+     */
+    @GetMapping("/{charityId}/donors/{id}/documents/download-all")
+    public void downloadDonorDocumentsScoped(
+            @PathVariable Long charityId,
+            @PathVariable Long id,
+            Principal principal,
+            HttpServletResponse response
+    ) throws IOException {
+        if (resolvePartnerCharity(principal, charityId) == null
+                || !donorService.getDonorByIdWithCharities(id).isAssociatedWithCharity(charityId)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        streamDocumentArchive(response, "donor-" + id,
+                documentService.getDocumentsForDonorByCharity(id, charityId));
+    }
+
+    private void streamDocumentArchive(HttpServletResponse response, String name, List<Document> documents)
+            throws IOException {
+        String filename = name.replaceAll("[^A-Za-z0-9._-]", "_") + "-documents-" + LocalDate.now() + ".zip";
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        documentArchiveService.writeArchive(documents, response.getOutputStream());
+    }
+
+    /**
+     * Small JPEG preview of a document. A document's thumbnail never changes,
+     * so the browser may keep it for a year without revalidating.
+     */
+    @GetMapping("/{charityId}/documents/{id}/thumbnail")
+    public ResponseEntity<Resource> documentThumbnailScoped(
+            @PathVariable Long charityId,
+            @PathVariable Long id,
+            Principal principal
+    ) {
+        Charity charity = resolvePartnerCharity(principal, charityId);
+        if (charity == null) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return documentService.getThumbnailForCharity(id, charityId)
+                    .map(resource -> ResponseEntity.ok()
+                            .contentType(MediaType.IMAGE_JPEG)
+                            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                            .body(resource))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading thumbnail", e);
+        }
+    }
+
     @PostMapping("/{charityId}/documents/{id}/delete")
     public String deleteDocumentScoped(
             @PathVariable Long charityId,
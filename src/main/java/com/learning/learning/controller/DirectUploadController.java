@@ -0,0 +1,38 @@
+package com.learning.learning.controller;
+
+import com.learning.learning.service.DirectUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Upload target for browser-direct uploads when storage is local (there is
+ * no S3 URL to send the file to). The upload token is the only credential,
+ * like a pre-signed URL, so this is public and exempt from CSRF.
+ */
+@RestController
+public class DirectUploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectUploadController.class);
+
+    @Autowired
+    private DirectUploadService directUploadService;
+
+    @PutMapping("/direct-upload/{uploadToken}")
+    public ResponseEntity<Void> receive(@PathVariable String uploadToken, HttpServletRequest request) {
+        try {
+            directUploadService.receive(uploadToken, request.getInputStream());
+            return ResponseEntity.ok().build();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Direct upload rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
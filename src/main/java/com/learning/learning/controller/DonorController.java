@@ -154,9 +154,8 @@ public class DonorController {
             Map<String, Object> usage = new HashMap<>();
             Long bookingCount = bookingRepository.countByFundingDonationIdAndBookingStatusNot(
                     donation.getId(), Booking.BookingStatus.CANCELLED);
-            BigDecimal amountUsed = bookingRepository.sumFundedAmountByDonationId(donation.getId());
-            BigDecimal netAmount = donation.getNetAmount() != null ? donation.getNetAmount() : BigDecimal.ZERO;
-            BigDecimal amountRemaining = netAmount.subtract(amountUsed);
+            BigDecimal amountUsed = donation.getAmountUsed();
+            BigDecimal amountRemaining = donation.getAmountRemaining();
             usage.put("bookingCount", bookingCount);
             usage.put("amountUsed", amountUsed);
             usage.put("amountRemaining", amountRemaining);
@@ -118,8 +118,7 @@ public class DonorDashboardController {
         // Compute usage per donation
         java.util.Map<Long, java.math.BigDecimal> donationAmountUsed = new java.util.HashMap<>();
         for (Donation donation : donations) {
-            java.math.BigDecimal used = bookingRepository.sumFundedAmountByDonationId(donation.getId());
-            donationAmountUsed.put(donation.getId(), used);
+            donationAmountUsed.put(donation.getId(), donation.getAmountUsed());
         }
 
         model.addAttribute("donor", donor);
@@ -228,15 +227,17 @@ public class DonorDashboardController {
         BigDecimal totalAmountFundedAll = BigDecimal.ZERO;
         BigDecimal totalAmountUsedAll = BigDecimal.ZERO;
 
+        // One query for all of the donor's funded bookings, grouped by donation
+        Map<Long, List<Booking>> bookingsByDonation = bookingRepository
+                .findFundedByDonorIdAndBookingStatusNot(donor.getId(), Booking.BookingStatus.CANCELLED)
+                .stream()
+                .collect(java.util.stream.Collectors.groupingBy(b -> b.getFundingDonation().getId()));
+
         for (Donation donation : donations) {
-            List<Booking> bookings = bookingRepository.findByFundingDonationId(donation.getId())
-                    .stream()
-                    .filter(b -> b.getBookingStatus() != Booking.BookingStatus.CANCELLED)
-                    .collect(java.util.stream.Collectors.toList());
+            List<Booking> bookings = bookingsByDonation.getOrDefault(donation.getId(), List.of());
             donationBookings.put(donation.getId(), bookings);
 
-            BigDecimal used = bookingRepository.sumFundedAmountByDonationId(donation.getId());
-            if (used == null) used = BigDecimal.ZERO;
+            BigDecimal used = donation.getAmountUsed();
             donationAmountUsed.put(donation.getId(), used);
 
             // Pre-compute percentage used for template
@@ -6,14 +6,23 @@ package com.learning.learning.controller;
 import com.learning.learning.dto.BookingDto;
 import com.learning.learning.entity.Booking;
 import com.learning.learning.entity.CharityLocation;
+import com.learning.learning.entity.Document;
 import com.learning.learning.entity.Referral;
 import com.learning.learning.repository.BookingRepository;
 import com.learning.learning.repository.CharityLocationRepository;
 import com.learning.learning.repository.PartnerLocationRepository;
+import com.learning.learning.repository.DocumentRepository;
 import com.learning.learning.service.BookingService;
+import com.learning.learning.service.CharityService;
+import com.learning.learning.service.DocumentService;
+import com.learning.learning.service.DocumentVerificationQueueService;
 import com.learning.learning.service.ReferralService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
@@ -22,6 +31,7 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +55,15 @@ public class FacilitatorController {
     @Autowired
     private PartnerLocationRepository partnerLocationRepository;
 
+    @Autowired
+    private DocumentVerificationQueueService documentVerificationQueueService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private CharityService charityService;
+
     /**
      * Facilitator Dashboard - Overview
      */
@@ -415,4 +434,93 @@ public class FacilitatorController {
 
         return "redirect:/facilitator/bookings/" + id;
     }
+
+    /**
+     * Document Verification Queue - claims the next batch of unverified
+     * documents for this reviewer
+     */
+    @GetMapping("/documents/queue")
+    public String documentQueue(
+            @RequestParam(required = false) Long charityId,
+            @RequestParam(required = false) Document.DocumentType type,
+            @RequestParam(defaultValue = "10") int size,
+            Model model) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+
+        List<DocumentRepository.VerificationQueueItem> documents =
+                documentVerificationQueueService.claimNext(username, charityId, type, size);
+
+        model.addAttribute("username", username);
+        model.addAttribute("documents", documents);
+        model.addAttribute("charities", charityService.getAllCharities());
+        model.addAttribute("documentTypes", Document.DocumentType.values());
+        model.addAttribute("selectedCharityId", charityId);
+        model.addAttribute("selectedType", type);
+        model.addAttribute("size", size);
+
+        return "facilitator/document-queue";
+    }
+
+    /**
+     * Verify Document from the queue
+     */
+    @PostMapping("/documents/{id}/verify")
+    public String verifyDocument(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long charityId,
+            @RequestParam(required = false) Document.DocumentType type,
+            RedirectAttributes redirectAttributes) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        try {
+            documentVerificationQueueService.verify(id, username);
+            redirectAttributes.addFlashAttribute("success", "Document verified successfully!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error verifying document: " + e.getMessage());
+        }
+
+        redirectAttributes.addAttribute("charityId", charityId);
+        redirectAttributes.addAttribute("type", type);
+        return "redirect:/facilitator/documents/queue";
+    }
+
+    /**
+     * Stop Reviewing - release this reviewer's claimed Documents back to the queue
+     */
+    @PostMapping("/documents/queue/release")
+    public String releaseDocuments(RedirectAttributes redirectAttributes) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        try {
+            int released = documentVerificationQueueService.releaseAll(username);
+            redirectAttributes.addFlashAttribute("success", released + " document(s) returned to the queue.");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error releasing documents: " + e.getMessage());
+        }
+
+        // Admins use the queue too, and can't open the facilitator dashboard
+        return "redirect:/home";
+    }
+
+    /**
+     * Download Document for review
+     */
+    @GetMapping("/documents/{id}/download")
+    public ResponseEntity<Resource> downloadDocument(@PathVariable Long id) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        try {
+            Document document = documentService.getDocumentWithAccessCheck(id, username);
+            Resource resource = documentService.downloadDocument(id, username);
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(document.getMimeType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + document.getFileName() + "\"")
+                    .body(resource);
+
+        } catch (IOException e) {
+            throw new RuntimeException("Error downloading file", e);
+        }
+    }
 }
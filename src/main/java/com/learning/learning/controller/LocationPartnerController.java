@@ -6,6 +6,7 @@ import com.learning.learning.entity.PartnerLocation;
 import com.learning.learning.entity.StayPartnerApplication;
 import com.learning.learning.service.LocationAvailabilityService;
 import com.learning.learning.service.LocationPartnerService;
+import com.learning.learning.service.PartnerCalendarFeedService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +41,9 @@ public class LocationPartnerController {
     @Autowired
     private LocationAvailabilityService availabilityService;
 
+    @Autowired
+    private PartnerCalendarFeedService calendarFeedService;
+
     // ============================================================
     // DASHBOARD
     // ============================================================
@@ -54,9 +58,19 @@ public class LocationPartnerController {
         model.addAttribute("partner", partner);
         model.addAttribute("locations", locations);
         model.addAttribute("activeCount", activeCount);
+        model.addAttribute("calendarFeedUrl", calendarFeedService.getFeedUrl(partner));
         return "location-partner/dashboard";
     }
 
+    @PostMapping("/calendar-feed/regenerate")
+    public String regenerateCalendarFeed(Principal principal, RedirectAttributes redirectAttributes) {
+        LocationPartner partner = locationPartnerService.getPartnerForUser(principal.getName());
+        calendarFeedService.regenerateToken(partner);
+        redirectAttributes.addFlashAttribute("success",
+                "Calendar link regenerated. Calendars subscribed to the old link will stop updating.");
+        return "redirect:/location-partner/dashboard";
+    }
+
     // ============================================================
     // PROPERTIES
     // ============================================================
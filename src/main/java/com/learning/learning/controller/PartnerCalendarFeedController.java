@@ -0,0 +1,58 @@
+package com.learning.learning.controller;
+
+import com.learning.learning.repository.LocationPartnerRepository;
+import com.learning.learning.service.PartnerCalendarFeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Public iCalendar feed for a Location Partner's bookings. Authorised by the
+ * unguessable token in the URL (calendar apps can't log in). Polls that carry
+ * a matching If-None-Match get a 304 after a single indexed lookup on
+ * location_partners; the availability table is only read when the feed changed.
+ * The ETag is the partner's change counter plus the day the feed's history
+ * window starts, which moves daily as old stays age out.
+ */
+@RestController
+public class PartnerCalendarFeedController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", java.nio.charset.StandardCharsets.UTF_8);
+
+    @Autowired
+    private PartnerCalendarFeedService calendarFeedService;
+
+    @GetMapping("/calendar/partner/{token}.ics")
+    public ResponseEntity<StreamingResponseBody> feed(@PathVariable String token, WebRequest webRequest) {
+        Optional<LocationPartnerRepository.CalendarFeedState> state = calendarFeedService.findFeed(token);
+        if (state.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Long partnerId = state.get().getPartnerId();
+        LocalDate since = calendarFeedService.historyStart();
+        String etag = "\"" + partnerId + "-" + state.get().getCalendarVersion() + "-" + since + "\"";
+
+        // Sets the 304 status and ETag header itself when the client is up to date
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        StreamingResponseBody body = out -> calendarFeedService.writeFeed(partnerId, since, out);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                // Private: the URL is a bearer secret, keep it out of shared caches
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(TEXT_CALENDAR)
+                .header("Content-Disposition", "inline; filename=\"bookings.ics\"")
+                .body(body);
+    }
+}
@@ -2,6 +2,7 @@ package com.learning.learning.controller;
 
 import com.learning.learning.entity.Charity;
 import com.learning.learning.entity.CharityLocation;
+import com.learning.learning.entity.LocationAvailability;
 import com.learning.learning.entity.PartnerLocation;
 import com.learning.learning.entity.Document;
 import com.learning.learning.entity.Referral;
@@ -10,11 +11,19 @@ import com.learning.learning.repository.CharityLocationRepository;
 import com.learning.learning.repository.PartnerLocationRepository;
 import com.learning.learning.repository.PartnerLocationCharityRepository;
 import com.learning.learning.repository.ReferralInviteRepository;
+import com.learning.learning.service.DirectUploadService;
 import com.learning.learning.service.DocumentService;
+import com.learning.learning.service.LocationAvailabilityService;
 import com.learning.learning.service.ReferralService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -22,9 +31,11 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Public controller for handling invite acceptance and location selection.
@@ -37,6 +48,9 @@ public class PublicInviteController {
 
     private static final Logger logger = LoggerFactory.getLogger(PublicInviteController.class);
 
+    /** Cap on partner properties shown when the participant filters by dates. */
+    private static final int MAX_PARTNER_SEARCH_RESULTS = 50;
+
     @Autowired
     private ReferralInviteRepository inviteRepository;
 
@@ -49,18 +63,28 @@ public class PublicInviteController {
     @Autowired
     private PartnerLocationCharityRepository partnerLocationCharityRepository;
 
+    @Autowired
+    private LocationAvailabilityService locationAvailabilityService;
+
     @Autowired
     private ReferralService referralService;
 
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private DirectUploadService directUploadService;
+
     /**
      * Display the invite acceptance page with available locations
      * URL: /invite/{token}
      */
     @GetMapping("/{token}")
-    public String viewInvite(@PathVariable String token, Model model) {
+    public String viewInvite(@PathVariable String token,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+                             @RequestParam(required = false) Integer guests,
+                             Model model) {
         logger.info("Invite accessed with token: {}", token);
 
         // Find the invite by token
@@ -129,9 +153,22 @@ public class PublicInviteController {
             return a.getLocationName().compareToIgnoreCase(b.getLocationName());
         });
 
-        // Partner properties linked to this charity (offered alongside charity locations)
-        List<PartnerLocation> partnerLocations =
-                partnerLocationRepository.findActiveLinkedToCharity(charityId);
+        // Partner properties linked to this charity (offered alongside charity locations).
+        // When the participant gives dates, only properties with an AVAILABLE window
+        // covering those nights are offered — one availability-search query.
+        List<PartnerLocation> partnerLocations;
+        if (checkIn != null && checkOut != null && checkOut.isAfter(checkIn)) {
+            partnerLocations = locationAvailabilityService
+                    .searchAvailableForCharity(charityId, checkIn, checkOut, guests, null,
+                            PageRequest.of(0, MAX_PARTNER_SEARCH_RESULTS))
+                    .map(LocationAvailability::getPartnerLocation)
+                    .getContent();
+            model.addAttribute("checkIn", checkIn);
+            model.addAttribute("checkOut", checkOut);
+            model.addAttribute("guests", guests);
+        } else {
+            partnerLocations = partnerLocationRepository.findActiveLinkedToCharity(charityId);
+        }
 
         model.addAttribute("invite", invite);
         model.addAttribute("locations", availableLocations);
@@ -441,6 +478,25 @@ public class PublicInviteController {
         return "public/invite-document-upload";
     }
 
+    /**
+     * Thumbnail of a document the participant uploaded on this invite.
+     * URL: /referral/invite/{token}/documents/{id}/thumbnail
+     */
+    @GetMapping("/{token}/documents/{id}/thumbnail")
+    @ResponseBody
+    public ResponseEntity<Resource> documentThumbnail(@PathVariable String token, @PathVariable Long id) {
+        try {
+            return documentService.getThumbnailForInviteToken(token, id)
+                    .map(resource -> ResponseEntity.ok()
+                            .contentType(MediaType.IMAGE_JPEG)
+                            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                            .body(resource))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Handle document upload from participant
      * URL: POST /invite/{token}/documents/upload
@@ -487,4 +543,52 @@ public class PublicInviteController {
 
         return "redirect:/referral/invite/" + token + "/documents";
     }
+
+    /**
+     * Start a browser-direct upload from the participant's phone (see
+     * direct-upload.js). A bad request makes the page fall back to the
+     * regular multipart upload above.
+     * URL: POST /referral/invite/{token}/documents/direct-upload
+     */
+    @PostMapping("/{token}/documents/direct-upload")
+    @ResponseBody
+    public ResponseEntity<DirectUploadService.StartedUpload> startDirectUpload(
+            @PathVariable String token,
+            @RequestParam String fileName,
+            @RequestParam String contentType,
+            @RequestParam long size,
+            @RequestParam String sha256,
+            @RequestParam Document.DocumentType documentType,
+            @RequestParam(required = false) String description
+    ) {
+        try {
+            return ResponseEntity.ok(directUploadService.startForParticipant(
+                    token, fileName, contentType, size, sha256, documentType, description));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Finish a browser-direct upload once the file is in storage.
+     * URL: POST /referral/invite/{token}/documents/direct-upload/finalize
+     */
+    @PostMapping("/{token}/documents/direct-upload/finalize")
+    public String finalizeDirectUpload(
+            @PathVariable String token,
+            @RequestParam String uploadToken,
+            RedirectAttributes redirectAttributes
+    ) {
+        try {
+            Document document = directUploadService.finalizeForParticipant(uploadToken, token);
+            logger.info("Participant uploaded document {} for invite {} (direct upload)",
+                    document.getId(), document.getInvite().getId());
+            redirectAttributes.addFlashAttribute("success", "Document uploaded successfully!");
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to finalize direct upload: {}", e.getMessage());
+            redirectAttributes.addFlashAttribute("error", "Failed to upload document: " + e.getMessage());
+        }
+
+        return "redirect:/referral/invite/" + token + "/documents";
+    }
 }
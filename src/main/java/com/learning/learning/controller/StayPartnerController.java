@@ -1,7 +1,11 @@
 package com.learning.learning.controller;
 
+import com.learning.learning.dto.StayPartnerApplicationStatusDto;
 import com.learning.learning.entity.StayPartnerApplication;
+import com.learning.learning.security.ClientIpResolver;
+import com.learning.learning.security.SubmissionRateLimiter;
 import com.learning.learning.service.StayPartnerApplicationService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Public controller for Stay Partner applications.
@@ -22,9 +27,28 @@ public class StayPartnerController {
 
     private static final Logger logger = LoggerFactory.getLogger(StayPartnerController.class);
 
+    /** Rate limit: max submissions per IP within the window below. */
+    private static final int RATE_LIMIT_MAX = 10;
+    private static final long RATE_LIMIT_WINDOW_MS = 60 * 60 * 1000L; // 1 hour
+
+    /** Text, select and radio fields carried back to the form after an error. */
+    private static final List<String> FORM_FIELDS = List.of(
+            "applicantType", "firstName", "lastName", "email", "phone",
+            "businessName", "contactName", "businessEmail", "businessPhone", "taxId",
+            "propertyType", "propertyName", "numberOfBedrooms", "maxGuests", "description",
+            "streetAddress", "city", "state", "zipCode", "country",
+            "nightlyRate", "amenities", "availabilityNotes", "accessibilityFeatures",
+            "preferredContactMethod", "additionalNotes");
+
     @Autowired
     private StayPartnerApplicationService applicationService;
 
+    @Autowired
+    private SubmissionRateLimiter rateLimiter;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
     /**
      * Display the application form
      */
@@ -76,8 +100,19 @@ public class StayPartnerController {
             @RequestParam(required = false) String additionalNotes,
             // Terms acceptance — required checkbox; absent param means "not checked"
             @RequestParam(required = false) Boolean agreeToTerms,
+            HttpServletRequest request,
             RedirectAttributes redirectAttributes) {
 
+        // Rate limit — cap how many applications one source can fire off.
+        String clientIp = clientIpResolver.resolve(request);
+        if (!rateLimiter.allow("stay-partner-apply:" + clientIp, RATE_LIMIT_MAX, RATE_LIMIT_WINDOW_MS)) {
+            logger.warn("Stay partner application rate-limited for IP {}", clientIp);
+            repopulate(redirectAttributes, request);
+            redirectAttributes.addFlashAttribute("error",
+                    "Too many applications have been submitted from your connection. Please try again later.");
+            return "redirect:/stay-partner/apply";
+        }
+
         try {
             // Server-side enforcement of the Terms checkbox — an unchecked
             // checkbox doesn't post a value at all, so null = not accepted.
@@ -135,11 +170,26 @@ public class StayPartnerController {
 
         } catch (RuntimeException e) {
             logger.error("Error submitting stay partner application: {}", e.getMessage());
+            repopulate(redirectAttributes, request);
             redirectAttributes.addFlashAttribute("error", e.getMessage());
             return "redirect:/stay-partner/apply";
         }
     }
 
+    /**
+     * Flashes the submitted field values so an error redirect back to the apply
+     * form can repopulate what the applicant already typed, rather than clearing it.
+     * Raw parameters, so a value that didn't parse comes back as typed.
+     */
+    private void repopulate(RedirectAttributes ra, HttpServletRequest request) {
+        for (String field : FORM_FIELDS) {
+            String value = request.getParameter(field);
+            ra.addFlashAttribute(field, value == null ? "" : value);
+        }
+        ra.addFlashAttribute("petsAllowed", request.getParameter("petsAllowed") != null);
+        ra.addFlashAttribute("agreeToTerms", request.getParameter("agreeToTerms") != null);
+    }
+
     /**
      * Show confirmation page after successful submission
      */
@@ -176,7 +226,8 @@ public class StayPartnerController {
                 applicationNumber.trim().toUpperCase(), email.trim().toLowerCase());
 
         if (application != null) {
-            redirectAttributes.addFlashAttribute("app", application);
+            // Flash attributes live in the (JDBC-backed) session: pass a DTO, not the entity.
+            redirectAttributes.addFlashAttribute("app", StayPartnerApplicationStatusDto.from(application));
             redirectAttributes.addFlashAttribute("found", true);
         } else {
             redirectAttributes.addFlashAttribute("found", false);
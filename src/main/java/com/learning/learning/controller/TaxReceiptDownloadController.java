@@ -0,0 +1,58 @@
+package com.learning.learning.controller;
+
+import com.learning.learning.entity.DonorTaxReceipt;
+import com.learning.learning.repository.DonorTaxReceiptRepository;
+import com.learning.learning.service.storage.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Public download of a year-end donation receipt. The link in the receipt
+ * email carries an unguessable token, so anonymous online donors without an
+ * account can still fetch their PDF.
+ */
+@RestController
+public class TaxReceiptDownloadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaxReceiptDownloadController.class);
+
+    @Autowired
+    private DonorTaxReceiptRepository receiptRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @GetMapping("/receipts/{token}")
+    public ResponseEntity<InputStreamResource> download(@PathVariable String token) {
+        if (token.length() > 64) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<DonorTaxReceipt> receipt = receiptRepository.findByDownloadToken(token);
+        if (receipt.isEmpty() || receipt.get().getStorageKey() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .cacheControl(CacheControl.noStore())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"donation-receipt-" + receipt.get().getReceiptNumber() + ".pdf\"")
+                    .body(new InputStreamResource(storageService.retrieve(receipt.get().getStorageKey())));
+        } catch (IOException e) {
+            logger.error("Failed to read receipt {}: {}", receipt.get().getReceiptNumber(), e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.learning.learning.dto;
+
+import com.learning.learning.entity.StayPartnerApplication;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, serializable snapshot of a stay-partner application for the public
+ * status page. Passed as a flash attribute, so it ends up in the HTTP session —
+ * never put the JPA entity there (it drags its whole graph into the session
+ * store and is not Serializable).
+ */
+@Data
+public class StayPartnerApplicationStatusDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String applicationNumber;
+    private StayPartnerApplication.ApplicationStatus status;
+    private StayPartnerApplication.ApplicantType applicantType;
+    private String applicantDisplayName;
+    private String propertyName;
+    private String city;
+    private String state;
+    private String zipCode;
+    private LocalDateTime createdAt;
+    private LocalDateTime reviewedAt;
+    private String rejectionReason;
+
+    public static StayPartnerApplicationStatusDto from(StayPartnerApplication application) {
+        StayPartnerApplicationStatusDto dto = new StayPartnerApplicationStatusDto();
+        dto.setApplicationNumber(application.getApplicationNumber());
+        dto.setStatus(application.getStatus());
+        dto.setApplicantType(application.getApplicantType());
+        dto.setApplicantDisplayName(application.getApplicantDisplayName());
+        dto.setPropertyName(application.getPropertyName());
+        dto.setCity(application.getCity());
+        dto.setState(application.getState());
+        dto.setZipCode(application.getZipCode());
+        dto.setCreatedAt(application.getCreatedAt());
+        dto.setReviewedAt(application.getReviewedAt());
+        dto.setRejectionReason(application.getRejectionReason());
+        return dto;
+    }
+}
@@ -41,6 +41,14 @@ public class CharityLocation {
     @Column(name = "country", length = 100)
     private String country = "USA";
 
+    // Coordinates for nearest-property search. Filled from the offline ZIP
+    // centroid dataset when missing (see NearbyPropertyService).
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     // Contact
     @Column(name = "phone", length = 20)
     private String phone;
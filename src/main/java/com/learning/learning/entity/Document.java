@@ -62,6 +62,21 @@ public class Document {
     @Column(name = "mime_type", length = 100)
     private String mimeType;
 
+    // SHA-256 of the content. Documents of a charity with the same hash share
+    // one stored object (file_path) in document_blobs; NULL for documents not
+    // yet moved there by the backfill (DocumentBlobService)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Small JPEG preview under a key derived from file_path, generated in
+    // the background after upload (DocumentThumbnailService)
+    @Column(name = "thumbnail_key", length = 500)
+    private String thumbnailKey;
+
+    @Column(name = "thumbnail_status", length = 20)
+    @Enumerated(EnumType.STRING)
+    private ThumbnailStatus thumbnailStatus;
+
     // Metadata
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
@@ -76,6 +91,14 @@ public class Document {
     @JoinColumn(name = "verified_by")
     private User verifiedBy;
 
+    // Verification queue claim (DocumentVerificationQueueService)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "claimed_by")
+    private User claimedBy;
+
+    @Column(name = "claim_expires_at")
+    private LocalDateTime claimExpiresAt;
+
     // Timestamp
     @Column(name = "uploaded_at")
     private LocalDateTime uploadedAt;
@@ -85,6 +108,17 @@ public class Document {
         uploadedAt = LocalDateTime.now();
     }
 
+    public boolean hasThumbnail() {
+        return thumbnailStatus == ThumbnailStatus.READY && thumbnailKey != null;
+    }
+
+    public enum ThumbnailStatus {
+        PENDING,
+        READY,
+        FAILED,
+        UNSUPPORTED
+    }
+
     // Document Types Enum
     public enum DocumentType {
         // Beneficiary document types
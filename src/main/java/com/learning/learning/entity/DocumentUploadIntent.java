@@ -0,0 +1,97 @@
+package com.learning.learning.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DocumentUploadIntent - a browser-direct upload that has been started but
+ * not finalized yet (DirectUploadService).
+ *
+ * Records what the server validated before handing out the upload URL: the
+ * declared file (name, type, size, SHA-256), the content-addressed key it
+ * may be uploaded to and where the document will be attached. On finalize
+ * the stored object is checked against it and the Document is created
+ * through the regular DocumentService path, which re-checks access.
+ */
+@Entity
+@Table(name = "document_upload_intents")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUploadIntent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token", nullable = false, unique = true, length = 36)
+    private String token;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target", nullable = false, length = 20)
+    private Target target;
+
+    @Column(name = "charity_id", nullable = false)
+    private Long charityId;
+
+    @Column(name = "referral_id")
+    private Long referralId;
+
+    @Column(name = "invite_id")
+    private Long inviteId;
+
+    // Null for participant uploads through a public invite link
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "storage_key", nullable = false, length = 500)
+    private String storageKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "document_type", nullable = false, length = 50)
+    private Document.DocumentType documentType;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    // False when the charity already had this content: nothing to upload
+    @Column(name = "upload_required", nullable = false)
+    private Boolean uploadRequired = true;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public boolean isExpired() {
+        return LocalDateTime.now().isAfter(expiresAt);
+    }
+
+    public enum Target {
+        CHARITY,      // referral or general charity document
+        INVITE,       // staff upload to an invite
+        PARTICIPANT   // participant upload through a public invite link
+    }
+}
@@ -46,6 +46,11 @@ public class Donation {
     @Column(name = "net_amount", precision = 10, scale = 2)
     private BigDecimal netAmount;
 
+    // Net amount not yet drawn by funded bookings. Maintained by
+    // DonationLedgerService together with donation_ledger_entries.
+    @Column(name = "remaining_amount", precision = 10, scale = 2)
+    private BigDecimal remainingAmount;
+
     // Nights calculation
     @Column(name = "nights_funded")
     private Integer nightsFunded;
@@ -136,6 +141,9 @@ public class Donation {
         if (donatedAt == null) {
             donatedAt = LocalDateTime.now();
         }
+        if (remainingAmount == null) {
+            remainingAmount = netAmount != null ? netAmount : BigDecimal.ZERO;
+        }
     }
 
     @PreUpdate
@@ -188,6 +196,16 @@ public class Donation {
         return total;
     }
 
+    public BigDecimal getAmountRemaining() {
+        if (remainingAmount != null) return remainingAmount;
+        return netAmount != null ? netAmount : BigDecimal.ZERO;
+    }
+
+    public BigDecimal getAmountUsed() {
+        BigDecimal net = netAmount != null ? netAmount : BigDecimal.ZERO;
+        return net.subtract(getAmountRemaining());
+    }
+
     public int getNightsUsed() {
         return situationFundings.stream()
                 .mapToInt(sf -> sf.getNightsUsed() != null ? sf.getNightsUsed() : 0)
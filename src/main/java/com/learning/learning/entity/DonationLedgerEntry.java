@@ -0,0 +1,76 @@
+package com.learning.learning.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DonationLedgerEntry - append-only record of money moving in or out of a
+ * donation's fundable balance.
+ *
+ * A DEBIT is written when a booking is funded from the donation, a CREDIT when
+ * that booking is cancelled. Rows are never updated or deleted; the running
+ * balance on Donation.remainingAmount is maintained alongside them in the same
+ * transaction and can always be rebuilt as netAmount - debits + credits.
+ */
+@Entity
+@Table(name = "donation_ledger_entries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "donation_id", nullable = false, updatable = false)
+    private Donation donation;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id", updatable = false)
+    private Booking booking;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20, updatable = false)
+    private EntryType entryType;
+
+    // Always positive; the direction comes from entryType
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2, updatable = false)
+    private BigDecimal amount;
+
+    // Donation's remaining amount immediately after this entry
+    @Column(name = "balance_after", nullable = false, precision = 10, scale = 2, updatable = false)
+    private BigDecimal balanceAfter;
+
+    @Column(name = "description", length = 500, updatable = false)
+    private String description;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum EntryType {
+        DEBIT("Booking Funded"),
+        CREDIT("Booking Cancelled");
+
+        private final String displayName;
+
+        EntryType(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.learning.learning.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DonorTaxReceipt - the year-end receipt for one donor at one charity.
+ *
+ * recipientKey identifies the donor across registered and anonymous online
+ * donations ("donor:{id}" or "email:{address}"). The PDF lives in
+ * StorageService under storageKey and is downloaded via the unguessable
+ * downloadToken link emailed to the donor.
+ */
+@Entity
+@Table(name = "donor_tax_receipts",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"tax_year", "charity_id", "recipient_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonorTaxReceipt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "batch_id")
+    private TaxReceiptBatch batch;
+
+    @Column(name = "tax_year", nullable = false)
+    private Integer taxYear;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "charity_id", nullable = false)
+    private Charity charity;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "donor_id")
+    private Donor donor;
+
+    @Column(name = "recipient_key", nullable = false)
+    private String recipientKey;
+
+    @Column(name = "recipient_name")
+    private String recipientName;
+
+    @Column(name = "recipient_email")
+    private String recipientEmail;
+
+    @Column(name = "receipt_number", nullable = false, length = 50)
+    private String receiptNumber;
+
+    @Column(name = "donation_count", nullable = false)
+    private Integer donationCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "storage_key", length = 500)
+    private String storageKey;
+
+    @Column(name = "download_token", nullable = false, unique = true, length = 64)
+    private String downloadToken;
+
+    @Column(name = "emailed_at")
+    private LocalDateTime emailedAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -54,6 +54,17 @@ public class LocationPartner {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // Secret token for the partner's read-only iCalendar feed URL
+    // (/calendar/partner/{token}.ics). Regenerating it revokes old subscriptions.
+    @Column(name = "calendar_feed_token", length = 64, unique = true)
+    private String calendarFeedToken;
+
+    // Bumped on every change to the partner's booked slices; the feed's ETag.
+    // Only ever written by LocationPartnerRepository.incrementCalendarVersion,
+    // never by entity flushes, so a stale in-memory copy can't roll it back.
+    @Column(name = "calendar_version", nullable = false, insertable = false, updatable = false)
+    private Long calendarVersion = 0L;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
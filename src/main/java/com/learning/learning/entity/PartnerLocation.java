@@ -45,6 +45,14 @@ public class PartnerLocation {
     @Column(name = "country", length = 100)
     private String country = "USA";
 
+    // Coordinates for nearest-property search. Filled from the offline ZIP
+    // centroid dataset when missing (see NearbyPropertyService).
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @Column(name = "number_of_bedrooms")
     private Integer numberOfBedrooms;
 
@@ -0,0 +1,93 @@
+package com.learning.learning.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * TaxReceiptBatch - one run of the year-end donor receipt generator.
+ *
+ * Progress counters and heartbeatAt are flushed while the run is in flight;
+ * a RUNNING batch whose heartbeat goes stale (instance crashed or restarted)
+ * is picked up again by TaxReceiptBatchService, which skips every recipient
+ * that already has a finished DonorTaxReceipt.
+ */
+@Entity
+@Table(name = "tax_receipt_batches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxReceiptBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tax_year", nullable = false)
+    private Integer taxYear;
+
+    // Null = every charity
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "charity_id")
+    private Charity charity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 30)
+    private BatchStatus status = BatchStatus.RUNNING;
+
+    @Column(name = "donations_processed", nullable = false)
+    private Integer donationsProcessed = 0;
+
+    @Column(name = "receipts_generated", nullable = false)
+    private Integer receiptsGenerated = 0;
+
+    @Column(name = "receipts_emailed", nullable = false)
+    private Integer receiptsEmailed = 0;
+
+    @Column(name = "receipts_skipped", nullable = false)
+    private Integer receiptsSkipped = 0;
+
+    @Column(name = "receipts_failed", nullable = false)
+    private Integer receiptsFailed = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "started_by", length = 100)
+    private String startedBy;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+        heartbeatAt = startedAt;
+    }
+
+    public enum BatchStatus {
+        RUNNING("Running"),
+        COMPLETED("Completed"),
+        COMPLETED_WITH_ERRORS("Completed With Errors"),
+        FAILED("Failed");
+
+        private final String displayName;
+
+        BatchStatus(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+}
@@ -8,13 +8,17 @@ import com.learning.learning.entity.Booking;
 import com.learning.learning.entity.Location;
 import com.learning.learning.entity.Referral;
 import com.learning.learning.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -80,4 +84,98 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.fundingDonation.id = :donationId AND b.bookingStatus != :status")
     Long countByFundingDonationIdAndBookingStatusNot(@Param("donationId") Long donationId, @Param("status") Booking.BookingStatus status);
-}
\ No newline at end of file
+
+    // Funding reports and donor stats: one query for all of a donor's (or every)
+    // funded booking, grouped by donation by the caller, instead of one per donation
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.fundingDonation.donor.id = :donorId AND b.bookingStatus != :status")
+    long countFundedByDonorIdAndBookingStatusNot(@Param("donorId") Long donorId, @Param("status") Booking.BookingStatus status);
+
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.fundingDonation.donor.id = :donorId " +
+            "AND b.fundingDonation.charity.id = :charityId AND b.bookingStatus != :status")
+    long countFundedByDonorIdAndCharityIdAndBookingStatusNot(@Param("donorId") Long donorId,
+                                                             @Param("charityId") Long charityId,
+                                                             @Param("status") Booking.BookingStatus status);
+
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.referral " +
+            "WHERE b.fundingDonation.donor.id = :donorId AND b.bookingStatus != :status ORDER BY b.id")
+    List<Booking> findFundedByDonorIdAndBookingStatusNot(@Param("donorId") Long donorId,
+                                                         @Param("status") Booking.BookingStatus status);
+
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.referral " +
+            "WHERE b.fundingDonation IS NOT NULL AND b.bookingStatus != :status ORDER BY b.id")
+    List<Booking> findAllFundedAndBookingStatusNot(@Param("status") Booking.BookingStatus status);
+
+    /**
+     * One keyset page of a charity's bookings for export (id > afterId).
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT b.id AS id, b.confirmationCode AS confirmationCode, r.referralNumber AS referralNumber,
+                   b.participantName AS participantName, b.locationName AS locationName,
+                   b.checkInDate AS checkInDate, b.checkOutDate AS checkOutDate, b.nights AS nights,
+                   b.bookingStatus AS bookingStatus, b.paymentStatus AS paymentStatus, b.cost AS cost,
+                   b.fundedAmount AS fundedAmount, d.id AS fundingDonationId, b.createdAt AS createdAt
+            FROM Booking b
+            JOIN b.referral r
+            LEFT JOIN b.fundingDonation d
+            WHERE r.charity.id = :charityId AND b.id > :afterId
+            ORDER BY b.id ASC
+            """)
+    List<BookingExportRow> findExportRowsForCharity(@Param("charityId") Long charityId,
+                                                    @Param("afterId") long afterId,
+                                                    Pageable page);
+
+    /**
+     * One keyset page of every donation-funded booking, for the admin funding export.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT b.id AS id, b.confirmationCode AS confirmationCode, c.charityName AS charityName,
+                   d.id AS donationId, dn.businessName AS donorBusinessName, u.firstName AS donorFirstName,
+                   u.lastName AS donorLastName, d.donorName AS donorName,
+                   b.checkInDate AS checkInDate, b.checkOutDate AS checkOutDate, b.nights AS nights,
+                   b.bookingStatus AS bookingStatus, b.fundedAmount AS fundedAmount, b.createdAt AS createdAt
+            FROM Booking b
+            JOIN b.fundingDonation d
+            JOIN d.charity c
+            LEFT JOIN d.donor dn
+            LEFT JOIN dn.user u
+            WHERE b.id > :afterId
+            ORDER BY b.id ASC
+            """)
+    List<FundingExportRow> findFundingExportRows(@Param("afterId") long afterId, Pageable page);
+
+    interface BookingExportRow {
+        Long getId();
+        String getConfirmationCode();
+        String getReferralNumber();
+        String getParticipantName();
+        String getLocationName();
+        LocalDate getCheckInDate();
+        LocalDate getCheckOutDate();
+        Integer getNights();
+        Booking.BookingStatus getBookingStatus();
+        Booking.PaymentStatus getPaymentStatus();
+        BigDecimal getCost();
+        BigDecimal getFundedAmount();
+        Long getFundingDonationId();
+        LocalDateTime getCreatedAt();
+    }
+
+    interface FundingExportRow {
+        Long getId();
+        String getConfirmationCode();
+        String getCharityName();
+        Long getDonationId();
+        String getDonorBusinessName();
+        String getDonorFirstName();
+        String getDonorLastName();
+        String getDonorName();
+        LocalDate getCheckInDate();
+        LocalDate getCheckOutDate();
+        Integer getNights();
+        Booking.BookingStatus getBookingStatus();
+        BigDecimal getFundedAmount();
+        LocalDateTime getCreatedAt();
+    }
+}
@@ -4,10 +4,14 @@ package com.learning.learning.repository;
 import com.learning.learning.entity.Charity;
 import com.learning.learning.entity.Document;
 import com.learning.learning.entity.Referral;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,7 +25,12 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
 
     List<Document> findByCharityId(Long charityId);
 
-    List<Document> findByCharityIdOrderByUploadedAtDesc(Long charityId);
+    // Documents page, a page at a time: the referral and uploader are shown per
+    // row, so fetch them with the list (to-one joins, so the SQL pages normally)
+    @Query(value = "SELECT d FROM Document d LEFT JOIN FETCH d.referral LEFT JOIN FETCH d.uploadedBy " +
+            "WHERE d.charity.id = :charityId ORDER BY d.uploadedAt DESC",
+            countQuery = "SELECT COUNT(d) FROM Document d WHERE d.charity.id = :charityId")
+    Page<Document> findByCharityIdOrderByUploadedAtDesc(@Param("charityId") Long charityId, Pageable pageable);
 
     // Find documents by referral
     List<Document> findByReferral(Referral referral);
@@ -146,4 +155,92 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     );
 
     Long countByDonorId(Long donorId);
-}
\ No newline at end of file
+
+    // ========================================
+    // THUMBNAILS
+    // ========================================
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.thumbnailKey = :thumbnailKey, d.thumbnailStatus = :status WHERE d.id = :id")
+    int updateThumbnail(@Param("id") Long id,
+                        @Param("thumbnailKey") String thumbnailKey,
+                        @Param("status") Document.ThumbnailStatus status);
+
+    // Thumbnail keys derived from a shared blob are shared by its documents
+    boolean existsByThumbnailKey(String thumbnailKey);
+
+    /**
+     * Documents still waiting for a thumbnail (PENDING and uploaded before the
+     * cutoff, or never processed at all), oldest first.
+     */
+    @Query("SELECT d.id AS id, d.filePath AS filePath, d.mimeType AS mimeType FROM Document d " +
+            "WHERE d.thumbnailStatus IS NULL OR (d.thumbnailStatus = 'PENDING' AND d.uploadedAt < :cutoff) " +
+            "ORDER BY d.id ASC")
+    List<ThumbnailWork> findThumbnailBacklog(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+
+    interface ThumbnailWork {
+        Long getId();
+        String getFilePath();
+        String getMimeType();
+    }
+
+    // ========================================
+    // VERIFICATION QUEUE
+    // ========================================
+
+    /**
+     * Queue rows for documents a reviewer has claimed, in queue order.
+     */
+    @Query("SELECT d.id AS id, d.fileName AS fileName, d.documentType AS documentType, " +
+            "d.mimeType AS mimeType, d.fileSize AS fileSize, d.uploadedAt AS uploadedAt, " +
+            "d.participantName AS participantName, c.charityName AS charityName, " +
+            "r.referralNumber AS referralNumber, d.claimExpiresAt AS claimExpiresAt " +
+            "FROM Document d JOIN d.charity c LEFT JOIN d.referral r " +
+            "WHERE d.id IN :ids ORDER BY d.uploadedAt ASC, d.id ASC")
+    List<VerificationQueueItem> findVerificationQueueItems(@Param("ids") List<Long> ids);
+
+    interface VerificationQueueItem {
+        Long getId();
+        String getFileName();
+        Document.DocumentType getDocumentType();
+        String getMimeType();
+        Long getFileSize();
+        LocalDateTime getUploadedAt();
+        String getParticipantName();
+        String getCharityName();
+        String getReferralNumber();
+        LocalDateTime getClaimExpiresAt();
+    }
+
+    // ========================================
+    // CONTENT-ADDRESSED STORAGE
+    // ========================================
+
+    // Duplicate detection: same content already uploaded to this charity
+    List<Document> findByCharityIdAndContentHash(Long charityId, String contentHash);
+
+    /**
+     * Documents stored before content addressing, oldest first.
+     */
+    @Query("SELECT d.id AS id, d.charity.id AS charityId, d.filePath AS filePath, " +
+            "d.fileSize AS fileSize, d.mimeType AS mimeType FROM Document d " +
+            "WHERE d.contentHash IS NULL AND d.id > :afterId ORDER BY d.id ASC")
+    List<BlobBackfillWork> findBlobBackfill(@Param("afterId") Long afterId, Pageable page);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.filePath = :blobKey, d.contentHash = :contentHash " +
+            "WHERE d.id = :id AND d.filePath = :oldPath")
+    int moveToBlob(@Param("id") Long id,
+                   @Param("oldPath") String oldPath,
+                   @Param("blobKey") String blobKey,
+                   @Param("contentHash") String contentHash);
+
+    interface BlobBackfillWork {
+        Long getId();
+        Long getCharityId();
+        String getFilePath();
+        Long getFileSize();
+        String getMimeType();
+    }
+}
@@ -0,0 +1,21 @@
+package com.learning.learning.repository;
+
+import com.learning.learning.entity.DocumentUploadIntent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentUploadIntentRepository extends JpaRepository<DocumentUploadIntent, Long> {
+
+    Optional<DocumentUploadIntent> findByToken(String token);
+
+    List<DocumentUploadIntent> findByExpiresAtBeforeOrderByIdAsc(LocalDateTime cutoff, Pageable page);
+
+    // Another upload of the same content still in progress
+    boolean existsByStorageKeyAndExpiresAtAfter(String storageKey, LocalDateTime now);
+}
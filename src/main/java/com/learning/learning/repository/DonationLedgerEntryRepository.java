@@ -0,0 +1,37 @@
+package com.learning.learning.repository;
+
+import com.learning.learning.entity.DonationLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface DonationLedgerEntryRepository extends JpaRepository<DonationLedgerEntry, Long> {
+
+    List<DonationLedgerEntry> findByDonationIdOrderByIdAsc(Long donationId);
+
+    // Net amount drawn from a donation according to the ledger (debits - credits)
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.entryType = com.learning.learning.entity.DonationLedgerEntry.EntryType.DEBIT " +
+           "THEN e.amount ELSE -e.amount END), 0) FROM DonationLedgerEntry e WHERE e.donation.id = :donationId")
+    BigDecimal sumNetDebitsByDonationId(@Param("donationId") Long donationId);
+
+    // Net amount currently drawn for one booking; 0 once it has been credited back
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.entryType = com.learning.learning.entity.DonationLedgerEntry.EntryType.DEBIT " +
+           "THEN e.amount ELSE -e.amount END), 0) FROM DonationLedgerEntry e WHERE e.booking.id = :bookingId")
+    BigDecimal sumNetDebitsByBookingId(@Param("bookingId") Long bookingId);
+
+    /**
+     * One row per donation: [donationId, netAmount, remainingAmount, ledger net debits].
+     * Used by the consistency check to find balances that drifted from the ledger.
+     */
+    @Query("SELECT d.id, d.netAmount, d.remainingAmount, " +
+           "COALESCE(SUM(CASE WHEN e.entryType = com.learning.learning.entity.DonationLedgerEntry.EntryType.DEBIT " +
+           "THEN e.amount ELSE -e.amount END), 0) " +
+           "FROM Donation d LEFT JOIN DonationLedgerEntry e ON e.donation = d " +
+           "GROUP BY d.id, d.netAmount, d.remainingAmount")
+    List<Object[]> findBalanceSnapshots();
+}
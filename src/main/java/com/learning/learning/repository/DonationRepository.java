@@ -1,8 +1,13 @@
 package com.learning.learning.repository;
 
 import com.learning.learning.entity.Donation;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,10 +15,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface DonationRepository extends JpaRepository<Donation, Long> {
 
+    // Row lock for balance changes; serialises concurrent bookings against one donation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Donation d WHERE d.id = :id")
+    Optional<Donation> findByIdForUpdate(@Param("id") Long id);
+
     // Find by donor
     List<Donation> findByDonorId(Long donorId);
 
@@ -118,8 +129,11 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
            "ORDER BY d.donatedAt DESC")
     List<Donation> findDonationsWithFundedBookings();
 
-    // Find all donations with eager fetch of donor and charity (for admin funding report)
-    @Query("SELECT d FROM Donation d LEFT JOIN FETCH d.donor JOIN FETCH d.charity ORDER BY d.donatedAt DESC")
+    // Find all donations with eager fetch of donor and charity (for admin funding report).
+    // The donor's user (and its eagerly loaded roles) is fetched too: the report shows
+    // each donor's name, which would otherwise load one user per donor.
+    @Query("SELECT d FROM Donation d LEFT JOIN FETCH d.donor dn LEFT JOIN FETCH dn.user u " +
+            "LEFT JOIN FETCH u.roles JOIN FETCH d.charity ORDER BY d.donatedAt DESC")
     List<Donation> findAllWithDonorAndCharity();
 
     // Stripe lookup
@@ -129,4 +143,91 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
 
     // Fee payment lookup
     Optional<Donation> findByFeeStripeSessionId(String feeStripeSessionId);
+
+    /**
+     * Receipt-eligible donations received in [from, to), as flat rows ordered
+     * so each donor's donations to a charity are contiguous (registered donors
+     * by id, then anonymous online donors by email). The date is date_received
+     * when recorded, otherwise the day of donated_at — the same date the
+     * receipt line shows. Streamed through a server-side cursor for the
+     * year-end receipt batch; charityId 0 = all charities.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            SELECT d.id AS donationId, c.id AS charityId,
+                   dn.id AS donorId, u.email AS donorUserEmail,
+                   d.donorEmail AS donorEmail, d.donorName AS donorName,
+                   d.grossAmount AS grossAmount, d.donatedAt AS donatedAt, d.dateReceived AS dateReceived
+            FROM Donation d
+            JOIN d.charity c
+            LEFT JOIN d.donor dn
+            LEFT JOIN dn.user u
+            WHERE ((d.dateReceived >= :fromDate AND d.dateReceived < :toDate)
+                   OR (d.dateReceived IS NULL AND d.donatedAt >= :from AND d.donatedAt < :to))
+              AND d.status IN ('VERIFIED', 'ALLOCATED', 'PARTIALLY_USED', 'FULLY_USED')
+              AND (:charityId = 0 OR c.id = :charityId)
+            ORDER BY c.id, dn.id NULLS LAST, LOWER(d.donorEmail), d.donatedAt, d.id
+            """)
+    Stream<ReceiptDonationView> streamForTaxReceipts(@Param("fromDate") java.time.LocalDate fromDate,
+                                                     @Param("toDate") java.time.LocalDate toDate,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to,
+                                                     @Param("charityId") long charityId);
+
+    interface ReceiptDonationView {
+        Long getDonationId();
+        Long getCharityId();
+        Long getDonorId();
+        String getDonorUserEmail();
+        String getDonorEmail();
+        String getDonorName();
+        BigDecimal getGrossAmount();
+        LocalDateTime getDonatedAt();
+        java.time.LocalDate getDateReceived();
+    }
+
+    /**
+     * One keyset page of donations for export (id > afterId); charityId 0 = all charities.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT d.id AS id, c.charityName AS charityName, dn.businessName AS donorBusinessName,
+                   u.firstName AS donorFirstName, u.lastName AS donorLastName, d.donorName AS donorName,
+                   COALESCE(u.email, d.donorEmail) AS donorEmail,
+                   d.grossAmount AS grossAmount, d.platformFee AS platformFee, d.facilitatorFee AS facilitatorFee,
+                   d.processingFee AS processingFee, d.netAmount AS netAmount, d.remainingAmount AS remainingAmount,
+                   d.nightsFunded AS nightsFunded, d.status AS status, d.verificationStatus AS verificationStatus,
+                   d.paymentSource AS paymentSource, d.donatedAt AS donatedAt, d.dateReceived AS dateReceived
+            FROM Donation d
+            JOIN d.charity c
+            LEFT JOIN d.donor dn
+            LEFT JOIN dn.user u
+            WHERE d.id > :afterId AND (:charityId = 0 OR c.id = :charityId)
+            ORDER BY d.id ASC
+            """)
+    List<DonationExportRow> findExportRows(@Param("charityId") long charityId,
+                                           @Param("afterId") long afterId,
+                                           Pageable page);
+
+    interface DonationExportRow {
+        Long getId();
+        String getCharityName();
+        String getDonorBusinessName();
+        String getDonorFirstName();
+        String getDonorLastName();
+        String getDonorName();
+        String getDonorEmail();
+        BigDecimal getGrossAmount();
+        BigDecimal getPlatformFee();
+        BigDecimal getFacilitatorFee();
+        BigDecimal getProcessingFee();
+        BigDecimal getNetAmount();
+        BigDecimal getRemainingAmount();
+        Integer getNightsFunded();
+        Donation.DonationStatus getStatus();
+        Donation.VerificationStatus getVerificationStatus();
+        String getPaymentSource();
+        LocalDateTime getDonatedAt();
+        java.time.LocalDate getDateReceived();
+    }
 }
@@ -0,0 +1,40 @@
+package com.learning.learning.repository;
+
+import com.learning.learning.entity.DonorTaxReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DonorTaxReceiptRepository extends JpaRepository<DonorTaxReceipt, Long> {
+
+    Optional<DonorTaxReceipt> findByTaxYearAndCharityIdAndRecipientKey(Integer taxYear, Long charityId, String recipientKey);
+
+    Optional<DonorTaxReceipt> findByDownloadToken(String downloadToken);
+
+    List<DonorTaxReceipt> findByDonorIdOrderByTaxYearDesc(Long donorId);
+
+    /**
+     * Every receipt of the year that needs no more work (stored, and emailed
+     * unless there is no address to email), keyed "charityId|recipientKey",
+     * with the donations it covers. Loaded once per run so a rerun or resume
+     * skips recipients whose donations haven't changed.
+     */
+    @Query("SELECT CONCAT(r.charity.id, '|', r.recipientKey) AS recipient, " +
+           "r.donationCount AS donationCount, r.totalAmount AS totalAmount FROM DonorTaxReceipt r " +
+           "WHERE r.taxYear = :taxYear AND r.storageKey IS NOT NULL " +
+           "AND (r.emailedAt IS NOT NULL OR r.recipientEmail IS NULL) " +
+           "AND (:charityId = 0 OR r.charity.id = :charityId)")
+    List<FinishedReceipt> findFinishedReceipts(@Param("taxYear") int taxYear, @Param("charityId") long charityId);
+
+    interface FinishedReceipt {
+        String getRecipient();
+        Integer getDonationCount();
+        BigDecimal getTotalAmount();
+    }
+}
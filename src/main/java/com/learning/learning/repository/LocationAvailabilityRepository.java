@@ -1,11 +1,21 @@
 package com.learning.learning.repository;
 
 import com.learning.learning.entity.LocationAvailability;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LocationAvailabilityRepository extends JpaRepository<LocationAvailability, Long> {
@@ -21,16 +31,135 @@ public interface LocationAvailabilityRepository extends JpaRepository<LocationAv
     java.util.Optional<LocationAvailability> findByBookingId(Long bookingId);
 
     /**
-     * All availability rows whose date range overlaps the given window.
-     * Used by the admin partner-bookings calendar.
+     * Availability rows in the given status whose date range overlaps the window,
+     * with the location, partner, booking and the booking's referral and charity
+     * fetched in the same query. Used by the admin partner-bookings calendar,
+     * which reads all of them for every event.
      */
-    @org.springframework.data.jpa.repository.Query("""
+    @Query("""
             SELECT la FROM LocationAvailability la
+            JOIN FETCH la.partnerLocation pl
+            JOIN FETCH pl.locationPartner
+            LEFT JOIN FETCH la.booking b
+            LEFT JOIN FETCH b.referral r
+            LEFT JOIN FETCH r.charity
             WHERE la.startDate <= :rangeEnd
               AND la.endDate >= :rangeStart
+              AND la.status = :status
             ORDER BY la.startDate ASC
             """)
-    List<LocationAvailability> findOverlappingRange(
-            @org.springframework.data.repository.query.Param("rangeStart") LocalDate rangeStart,
-            @org.springframework.data.repository.query.Param("rangeEnd") LocalDate rangeEnd);
+    List<LocationAvailability> findOverlappingRangeWithDetails(
+            @Param("rangeStart") LocalDate rangeStart,
+            @Param("rangeEnd") LocalDate rangeEnd,
+            @Param("status") LocationAvailability.AvailabilityStatus status);
+
+    /**
+     * Availability search: AVAILABLE windows that fully contain the nights
+     * [checkIn, lastNight] on active partner properties linked to the charity.
+     * AVAILABLE windows on one property never overlap, so each property
+     * appears at most once. Pass minGuests = 0 / city = "" to skip a filter.
+     * Backed by idx_la_available_window (see PARTNER_AVAILABILITY_SEARCH_MIGRATION.sql).
+     */
+    @Query(value = """
+            SELECT la FROM LocationAvailability la
+            JOIN FETCH la.partnerLocation pl
+            JOIN PartnerLocationCharity plc ON plc.partnerLocation = pl
+            WHERE plc.charity.id = :charityId
+              AND la.status = com.learning.learning.entity.LocationAvailability.AvailabilityStatus.AVAILABLE
+              AND la.startDate <= :checkIn
+              AND la.endDate >= :lastNight
+              AND pl.isActive = true
+              AND (pl.maxGuests IS NULL OR pl.maxGuests >= :minGuests)
+              AND (:city = '' OR LOWER(pl.city) = :city)
+            ORDER BY pl.name ASC
+            """,
+            countQuery = """
+            SELECT COUNT(la) FROM LocationAvailability la
+            JOIN la.partnerLocation pl
+            JOIN PartnerLocationCharity plc ON plc.partnerLocation = pl
+            WHERE plc.charity.id = :charityId
+              AND la.status = com.learning.learning.entity.LocationAvailability.AvailabilityStatus.AVAILABLE
+              AND la.startDate <= :checkIn
+              AND la.endDate >= :lastNight
+              AND pl.isActive = true
+              AND (pl.maxGuests IS NULL OR pl.maxGuests >= :minGuests)
+              AND (:city = '' OR LOWER(pl.city) = :city)
+            """)
+    Page<LocationAvailability> searchAvailableForCharity(
+            @Param("charityId") Long charityId,
+            @Param("checkIn") LocalDate checkIn,
+            @Param("lastNight") LocalDate lastNight,
+            @Param("minGuests") int minGuests,
+            @Param("city") String city,
+            Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(la) > 0 FROM LocationAvailability la
+            JOIN PartnerLocationCharity plc ON plc.partnerLocation = la.partnerLocation
+            WHERE plc.charity.id = :charityId
+              AND la.partnerLocation.id = :partnerLocationId
+              AND la.status = com.learning.learning.entity.LocationAvailability.AvailabilityStatus.AVAILABLE
+              AND la.startDate <= :checkIn
+              AND la.endDate >= :lastNight
+            """)
+    boolean existsBookableWindow(
+            @Param("charityId") Long charityId,
+            @Param("partnerLocationId") Long partnerLocationId,
+            @Param("checkIn") LocalDate checkIn,
+            @Param("lastNight") LocalDate lastNight);
+
+    /**
+     * The AVAILABLE window on one property that fully contains [checkIn, lastNight],
+     * row-locked so two concurrent bookings cannot both split the same window.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT la FROM LocationAvailability la
+            WHERE la.partnerLocation.id = :partnerLocationId
+              AND la.status = com.learning.learning.entity.LocationAvailability.AvailabilityStatus.AVAILABLE
+              AND la.startDate <= :checkIn
+              AND la.endDate >= :lastNight
+            ORDER BY la.startDate ASC
+            """)
+    List<LocationAvailability> findContainingAvailableWindowsForUpdate(
+            @Param("partnerLocationId") Long partnerLocationId,
+            @Param("checkIn") LocalDate checkIn,
+            @Param("lastNight") LocalDate lastNight);
+
+    /**
+     * BOOKED slices across all of a partner's properties, as flat rows for the
+     * partner's iCalendar feed. Streamed (caller must be in a transaction and
+     * close the stream) so large portfolios are written with constant memory.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("""
+            SELECT la.id AS id, la.startDate AS startDate, la.endDate AS endDate, la.updatedAt AS updatedAt,
+                   pl.name AS propertyName, pl.address AS propertyAddress,
+                   b.confirmationCode AS confirmationCode, b.bookingStatus AS bookingStatus,
+                   c.charityName AS charityName
+            FROM LocationAvailability la
+            JOIN la.partnerLocation pl
+            LEFT JOIN la.booking b
+            LEFT JOIN b.referral r
+            LEFT JOIN r.charity c
+            WHERE pl.locationPartner.id = :partnerId
+              AND la.status = com.learning.learning.entity.LocationAvailability.AvailabilityStatus.BOOKED
+              AND la.endDate >= :since
+            ORDER BY la.startDate ASC
+            """)
+    Stream<BookedSliceView> streamBookedSlicesForPartner(
+            @Param("partnerId") Long partnerId,
+            @Param("since") LocalDate since);
+
+    interface BookedSliceView {
+        Long getId();
+        LocalDate getStartDate();
+        LocalDate getEndDate();
+        LocalDateTime getUpdatedAt();
+        String getPropertyName();
+        String getPropertyAddress();
+        String getConfirmationCode();
+        com.learning.learning.entity.Booking.BookingStatus getBookingStatus();
+        String getCharityName();
+    }
 }
@@ -2,6 +2,9 @@ package com.learning.learning.repository;
 
 import com.learning.learning.entity.LocationPartner;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,4 +17,32 @@ public interface LocationPartnerRepository extends JpaRepository<LocationPartner
     Optional<LocationPartner> findByContactEmail(String contactEmail);
 
     java.util.List<LocationPartner> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Just the id and change counter for a calendar feed token — everything the
+     * feed endpoint needs to answer a conditional GET with 304.
+     */
+    @Query("SELECT lp.id AS partnerId, lp.calendarVersion AS calendarVersion FROM LocationPartner lp " +
+            "WHERE lp.calendarFeedToken = :token AND lp.isActive = true")
+    Optional<CalendarFeedState> findCalendarFeedStateByToken(@Param("token") String token);
+
+    @Modifying
+    @Query("UPDATE LocationPartner lp SET lp.calendarVersion = lp.calendarVersion + 1 WHERE lp.id = :partnerId")
+    int incrementCalendarVersion(@Param("partnerId") Long partnerId);
+
+    /**
+     * Bump the feed of every partner with a booked slice referred by this
+     * charity (the charity's name is on those events).
+     */
+    @Modifying
+    @Query("UPDATE LocationPartner lp SET lp.calendarVersion = lp.calendarVersion + 1 WHERE lp.id IN (" +
+            "SELECT pl.locationPartner.id FROM LocationAvailability la JOIN la.partnerLocation pl " +
+            "JOIN la.booking b JOIN b.referral r WHERE r.charity.id = :charityId " +
+            "AND la.status = com.learning.learning.entity.LocationAvailability.AvailabilityStatus.BOOKED)")
+    int incrementCalendarVersionForCharity(@Param("charityId") Long charityId);
+
+    interface CalendarFeedState {
+        Long getPartnerId();
+        Long getCalendarVersion();
+    }
 }
@@ -2,6 +2,7 @@ package com.learning.learning.repository;
 
 import com.learning.learning.entity.PartnerLocationCharity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,4 +20,11 @@ public interface PartnerLocationCharityRepository extends JpaRepository<PartnerL
     boolean existsByPartnerLocationIdAndCharityId(Long partnerLocationId, Long charityId);
 
     long countByPartnerLocationId(Long partnerLocationId);
+
+    /**
+     * Every (partner_location_id, charity_id) pair, without loading either
+     * entity. Used to build the nearest-property index.
+     */
+    @Query("SELECT plc.partnerLocation.id, plc.charity.id FROM PartnerLocationCharity plc")
+    List<Object[]> findAllLinkIds();
 }
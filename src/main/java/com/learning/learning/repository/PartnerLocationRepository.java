@@ -17,6 +17,8 @@ public interface PartnerLocationRepository extends JpaRepository<PartnerLocation
 
     List<PartnerLocation> findByZipCodeAndIsActiveTrue(String zipCode);
 
+    List<PartnerLocation> findByIsActiveTrue();
+
     /**
      * Active partner locations linked (via partner_location_charities)
      * to the given charity. Used by the charity booking form to surface
@@ -7,8 +7,12 @@ package com.learning.learning.repository;
 import com.learning.learning.entity.Charity;
 import com.learning.learning.entity.Referral;
 import com.learning.learning.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -35,6 +39,12 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
 
     List<Referral> findByCharityIdAndStatusOrderByCreatedAtDesc(Long charityId, Referral.ReferralStatus status);
 
+    // Referrals list page, a page at a time
+    Page<Referral> findByCharityIdOrderByCreatedAtDesc(Long charityId, Pageable pageable);
+
+    Page<Referral> findByCharityIdAndStatusOrderByCreatedAtDesc(Long charityId, Referral.ReferralStatus status,
+                                                                 Pageable pageable);
+
     // Find by charity and referred by user
     List<Referral> findByCharityIdAndReferredByUser(Long charityId, User referredByUser);
 
@@ -78,6 +88,15 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
             "LOWER(r.referralNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
     List<Referral> searchReferralsByCharity(@Param("charityId") Long charityId, @Param("searchTerm") String searchTerm);
 
+    @Query("SELECT r FROM Referral r WHERE r.charity.id = :charityId AND " +
+            "(LOWER(r.participantName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(r.participantEmail) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(r.participantPhone) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(r.referralNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
+            "ORDER BY r.createdAt DESC")
+    Page<Referral> searchReferralsByCharity(@Param("charityId") Long charityId, @Param("searchTerm") String searchTerm,
+                                            Pageable pageable);
+
     // Search all referrals (facilitator)
     @Query("SELECT r FROM Referral r WHERE " +
             "LOWER(r.participantName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -182,6 +201,15 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
             @Param("participantName") String participantName
     );
 
+    /**
+     * Duplicate-detection keys for every active referral of a charity, loaded
+     * once per bulk import instead of querying per row.
+     */
+    @Query("SELECT LOWER(r.participantName) AS participantName, LOWER(r.participantEmail) AS participantEmail, " +
+            "r.participantPhone AS participantPhone FROM Referral r " +
+            "WHERE r.charity.id = :charityId AND r.status NOT IN ('CANCELLED', 'REJECTED')")
+    List<DuplicateKeyView> findActiveDuplicateKeys(@Param("charityId") Long charityId);
+
     // Check if referral number exists
     boolean existsByReferralNumber(String referralNumber);
 
@@ -225,5 +253,50 @@ public interface ReferralRepository extends JpaRepository<Referral, Long> {
     // Get pending referrals for a charity
     @Query("SELECT r FROM Referral r WHERE r.charity.id = :charityId AND r.status = 'PENDING' ORDER BY r.createdAt ASC")
     List<Referral> findPendingByCharityId(@Param("charityId") Long charityId);
-}
 
+    /**
+     * One keyset page of a charity's referrals for export (id > afterId,
+     * page size from the Pageable). Flat rows, so no entity graph is loaded.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT r.id AS id, r.referralNumber AS referralNumber, r.participantName AS participantName,
+                   r.participantAge AS participantAge, r.participantEmail AS participantEmail,
+                   r.participantPhone AS participantPhone, r.urgencyLevel AS urgencyLevel, r.status AS status,
+                   u.firstName AS referredByFirstName, u.lastName AS referredByLastName,
+                   cl.locationName AS selectedLocationName, pl.name AS selectedPartnerLocationName,
+                   r.createdAt AS createdAt, r.approvedAt AS approvedAt
+            FROM Referral r
+            LEFT JOIN r.referredByUser u
+            LEFT JOIN r.selectedLocation cl
+            LEFT JOIN r.selectedPartnerLocation pl
+            WHERE r.charity.id = :charityId AND r.id > :afterId
+            ORDER BY r.id ASC
+            """)
+    List<ReferralExportRow> findExportRows(@Param("charityId") Long charityId,
+                                           @Param("afterId") long afterId,
+                                           Pageable page);
+
+    interface ReferralExportRow {
+        Long getId();
+        String getReferralNumber();
+        String getParticipantName();
+        Integer getParticipantAge();
+        String getParticipantEmail();
+        String getParticipantPhone();
+        Referral.UrgencyLevel getUrgencyLevel();
+        Referral.ReferralStatus getStatus();
+        String getReferredByFirstName();
+        String getReferredByLastName();
+        String getSelectedLocationName();
+        String getSelectedPartnerLocationName();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getApprovedAt();
+    }
+
+    interface DuplicateKeyView {
+        String getParticipantName();
+        String getParticipantEmail();
+        String getParticipantPhone();
+    }
+}
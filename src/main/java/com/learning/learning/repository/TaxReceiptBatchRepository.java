@@ -0,0 +1,54 @@
+package com.learning.learning.repository;
+
+import com.learning.learning.entity.TaxReceiptBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TaxReceiptBatchRepository extends JpaRepository<TaxReceiptBatch, Long> {
+
+    List<TaxReceiptBatch> findTop20ByOrderByStartedAtDesc();
+
+    List<TaxReceiptBatch> findTop20ByCharityIdOrderByStartedAtDesc(Long charityId);
+
+    // charityId 0 = the all-charities batch
+    @Query("SELECT COUNT(b) > 0 FROM TaxReceiptBatch b LEFT JOIN b.charity c " +
+           "WHERE b.taxYear = :taxYear AND b.status = 'RUNNING' " +
+           "AND ((:charityId = 0 AND c IS NULL) OR c.id = :charityId)")
+    boolean existsRunning(@Param("taxYear") int taxYear, @Param("charityId") long charityId);
+
+    @Query("SELECT b FROM TaxReceiptBatch b WHERE b.status = 'RUNNING' AND b.heartbeatAt < :staleBefore")
+    List<TaxReceiptBatch> findStalled(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Claim a stalled batch for this instance. Only one instance's update
+     * matches the heartbeat it read, so a batch is never resumed twice.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE TaxReceiptBatch b SET b.heartbeatAt = :now " +
+           "WHERE b.id = :id AND b.status = 'RUNNING' AND b.heartbeatAt = :seenHeartbeat")
+    int claim(@Param("id") Long id, @Param("seenHeartbeat") LocalDateTime seenHeartbeat, @Param("now") LocalDateTime now);
+
+    // Own transaction: called from inside the batch's long read-only cursor transaction
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE TaxReceiptBatch b SET b.donationsProcessed = :donations, b.receiptsGenerated = :generated, " +
+           "b.receiptsEmailed = :emailed, b.receiptsSkipped = :skipped, b.receiptsFailed = :failed, " +
+           "b.heartbeatAt = :now WHERE b.id = :id")
+    int updateProgress(@Param("id") Long id,
+                       @Param("donations") int donations,
+                       @Param("generated") int generated,
+                       @Param("emailed") int emailed,
+                       @Param("skipped") int skipped,
+                       @Param("failed") int failed,
+                       @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,36 @@
+package com.learning.learning.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The client IP that public-form rate limits and CAPTCHA checks are keyed on.
+ *
+ * Not the first X-Forwarded-For entry: the client writes that one, so a
+ * spammer could pick a fresh "IP" per request. With
+ * server.forward-headers-strategy=native, Tomcat's RemoteIpValve sets the
+ * remote address to the rightmost X-Forwarded-For entry that a trusted proxy
+ * didn't add (server.tomcat.remoteip.internal-proxies: private ranges by
+ * default), which is what this returns.
+ *
+ * app.client-ip.header names a header set by an edge proxy instead, e.g.
+ * CF-Connecting-IP behind Cloudflare. Only set it when the app is reachable
+ * solely through that proxy, or the header can be forged as well.
+ */
+@Component
+public class ClientIpResolver {
+
+    @Value("${app.client-ip.header:}")
+    private String clientIpHeader;
+
+    public String resolve(HttpServletRequest request) {
+        if (!clientIpHeader.isBlank()) {
+            String ip = request.getHeader(clientIpHeader);
+            if (ip != null && !ip.isBlank()) {
+                return ip.trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,47 @@
+package com.learning.learning.security;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory sliding-window rate limiter. State lives in this instance's heap,
+ * so limits are per node. Used on its own for single-node deployments and as
+ * the fallback when the shared store is unavailable.
+ * Stale keys are pruned lazily as they are queried.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Map<String, Deque<Long>> hits = new ConcurrentHashMap<>();
+
+    @Override
+    public Decision tryAcquire(String key, int maxRequests, long windowMillis) {
+        long now = System.currentTimeMillis();
+        Decision[] decision = new Decision[1];
+
+        // compute() locks only this key's entry, so checks for different
+        // sources never wait on each other (a method-wide lock serialized every
+        // caller). Nothing inside blocks, so it is also safe on virtual threads.
+        hits.compute(key, (k, timestamps) -> {
+            if (timestamps == null) {
+                timestamps = new ArrayDeque<>();
+            }
+
+            // Drop timestamps that have aged out of the window.
+            while (!timestamps.isEmpty() && now - timestamps.peekFirst() > windowMillis) {
+                timestamps.pollFirst();
+            }
+
+            if (timestamps.size() >= maxRequests) {
+                Long oldest = timestamps.peekFirst();
+                decision[0] = Decision.denied(oldest != null ? oldest + windowMillis - now : windowMillis);
+            } else {
+                timestamps.addLast(now);
+                decision[0] = Decision.ALLOWED;
+            }
+            return timestamps;
+        });
+        return decision[0];
+    }
+}
@@ -0,0 +1,77 @@
+package com.learning.learning.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Postgres-backed token bucket shared by every application instance.
+ *
+ * Each check is ONE atomic upsert on rate_limit_buckets: the row is refilled
+ * for the time elapsed since its last update, a token is taken if one is
+ * available, and the outcome is returned — the row lock taken by
+ * ON CONFLICT DO UPDATE serializes concurrent checks from all nodes.
+ *
+ * Bucket capacity = maxRequests, refilled evenly over windowMillis, so a
+ * source can burst up to the limit and then gets one attempt per
+ * windowMillis / maxRequests. Table: docs/RATE_LIMIT_MIGRATION.sql.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    // "refilled" = tokens after topping up for elapsed time, capped at capacity.
+    private static final String REFILLED =
+            "LEAST(:capacity, b.tokens + GREATEST(0, :now - b.updated_at_ms) * :rate)";
+
+    private static final String UPSERT = """
+            INSERT INTO rate_limit_buckets AS b (bucket_key, tokens, updated_at_ms, last_allowed)
+            VALUES (:key, :capacity - 1, :now, TRUE)
+            ON CONFLICT (bucket_key) DO UPDATE SET
+                tokens = CASE WHEN %1$s >= 1 THEN %1$s - 1 ELSE %1$s END,
+                last_allowed = %1$s >= 1,
+                updated_at_ms = :now
+            RETURNING tokens, last_allowed
+            """.formatted(REFILLED);
+
+    // A bucket untouched for a day is full again by any sane window; drop it.
+    private static final long STALE_AFTER_MILLIS = 24 * 60 * 60 * 1000L;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Decision tryAcquire(String key, int maxRequests, long windowMillis) {
+        double rate = (double) maxRequests / Math.max(1L, windowMillis); // tokens per ms
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("capacity", (double) maxRequests)
+                .addValue("now", System.currentTimeMillis())
+                .addValue("rate", rate);
+
+        return jdbcTemplate.queryForObject(UPSERT, params, (rs, rowNum) -> {
+            if (rs.getBoolean("last_allowed")) {
+                return Decision.ALLOWED;
+            }
+            double tokens = rs.getDouble("tokens");
+            return Decision.denied((long) Math.ceil((1 - tokens) / rate));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.prune-interval-ms:3600000}")
+    public void pruneStaleBuckets() {
+        int removed = jdbcTemplate.update(
+                "DELETE FROM rate_limit_buckets WHERE updated_at_ms < :cutoff",
+                new MapSqlParameterSource("cutoff", System.currentTimeMillis() - STALE_AFTER_MILLIS));
+        if (removed > 0) {
+            logger.info("Pruned {} stale rate-limit buckets", removed);
+        }
+    }
+}
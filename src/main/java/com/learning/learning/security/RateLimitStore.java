@@ -0,0 +1,30 @@
+package com.learning.learning.security;
+
+/**
+ * Backend that holds rate-limit state. {@link SubmissionRateLimiter} is the
+ * only caller; it layers a near-cache and in-memory fallback on top.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Records an attempt against {@code key} and reports whether it is allowed.
+     *
+     * @param key          identity to rate-limit (e.g. "charity-apply:1.2.3.4")
+     * @param maxRequests  max allowed attempts within the window
+     * @param windowMillis size of the window in milliseconds
+     */
+    Decision tryAcquire(String key, int maxRequests, long windowMillis);
+
+    /**
+     * @param allowed          whether the attempt may proceed
+     * @param retryAfterMillis when denied, how long until an attempt could succeed (0 when allowed)
+     */
+    record Decision(boolean allowed, long retryAfterMillis) {
+
+        static final Decision ALLOWED = new Decision(true, 0L);
+
+        static Decision denied(long retryAfterMillis) {
+            return new Decision(false, Math.max(0L, retryAfterMillis));
+        }
+    }
+}
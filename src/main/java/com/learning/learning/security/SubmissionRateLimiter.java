@@ -1,47 +1,86 @@
 package com.learning.learning.security;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * In-memory sliding-window rate limiter keyed by an arbitrary string
- * (typically the client IP). Used to cap how often a single source can submit
- * public forms.
+ * Rate limiter keyed by an arbitrary string (typically the client IP). Used to
+ * cap how often a single source can submit public forms.
  *
- * Not distributed — state lives in this instance's heap, which is fine for a
- * single-node deployment. Stale keys are pruned lazily as they are queried.
+ * When a shared {@link RateLimitStore} is configured
+ * ({@code app.rate-limit.store=jdbc}) the limit is enforced across every
+ * instance behind the load balancer. Two things keep that cheap and safe:
+ *
+ * - Near-cache of denials: once the store says "no" for a key, further
+ *   attempts on this node are denied locally until the store's retry-after
+ *   elapses, so a spammer hammering the form costs no DB round trips.
+ * - Fallback: if the store throws, this node falls back to its in-memory
+ *   limiter for a short cool-down before trying the store again.
+ *
+ * Without a shared store, the in-memory limiter is used on its own.
  */
 @Component
 public class SubmissionRateLimiter {
 
-    private final Map<String, Deque<Long>> hits = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionRateLimiter.class);
+
+    /** After a store failure, skip the store for this long. */
+    private static final long STORE_COOLDOWN_MILLIS = 30_000L;
+    /** Bound on near-cache entries; it is cleared wholesale if exceeded. */
+    private static final int MAX_DENIED_KEYS = 10_000;
+
+    private final InMemoryRateLimitStore localStore = new InMemoryRateLimitStore();
+    private final Map<String, Long> deniedUntil = new ConcurrentHashMap<>();
+    private volatile long storeUnavailableUntil = 0L;
+
+    @Autowired(required = false)
+    private RateLimitStore sharedStore;
 
     /**
      * Records an attempt and reports whether it is allowed.
      *
      * @param key          identity to rate-limit (e.g. "charity-apply:1.2.3.4")
      * @param maxRequests  max allowed attempts within the window
-     * @param windowMillis size of the sliding window in milliseconds
+     * @param windowMillis size of the window in milliseconds
      * @return true if the attempt is within the limit, false if it should be blocked
      */
-    public synchronized boolean allow(String key, int maxRequests, long windowMillis) {
+    public boolean allow(String key, int maxRequests, long windowMillis) {
         long now = System.currentTimeMillis();
-        Deque<Long> timestamps = hits.computeIfAbsent(key, k -> new ArrayDeque<>());
 
-        // Drop timestamps that have aged out of the window.
-        while (!timestamps.isEmpty() && now - timestamps.peekFirst() > windowMillis) {
-            timestamps.pollFirst();
+        Long blockedUntil = deniedUntil.get(key);
+        if (blockedUntil != null) {
+            if (now < blockedUntil) {
+                return false;
+            }
+            deniedUntil.remove(key, blockedUntil);
         }
 
-        if (timestamps.size() >= maxRequests) {
-            return false;
+        RateLimitStore.Decision decision = decide(key, maxRequests, windowMillis, now);
+        if (!decision.allowed() && decision.retryAfterMillis() > 0) {
+            if (deniedUntil.size() >= MAX_DENIED_KEYS) {
+                deniedUntil.clear();
+            }
+            deniedUntil.put(key, now + decision.retryAfterMillis());
         }
+        return decision.allowed();
+    }
 
-        timestamps.addLast(now);
-        return true;
+    private RateLimitStore.Decision decide(String key, int maxRequests, long windowMillis, long now) {
+        if (sharedStore != null && now >= storeUnavailableUntil) {
+            try {
+                return sharedStore.tryAcquire(key, maxRequests, windowMillis);
+            } catch (DataAccessException e) {
+                storeUnavailableUntil = now + STORE_COOLDOWN_MILLIS;
+                logger.warn("Shared rate-limit store unavailable, using in-memory limits for {}s: {}",
+                        STORE_COOLDOWN_MILLIS / 1000, e.getMessage());
+            }
+        }
+        return localStore.tryAcquire(key, maxRequests, windowMillis);
     }
 }
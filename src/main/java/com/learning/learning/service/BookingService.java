@@ -51,12 +51,18 @@ public class BookingService {
     @Autowired
     private LocationAvailabilityService locationAvailabilityService;
 
+    @Autowired
+    private PartnerCalendarFeedService partnerCalendarFeedService;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private DonationRepository donationRepository;
 
+    @Autowired
+    private DonationLedgerService donationLedgerService;
+
     @Autowired
     private EmailService emailService;
 
@@ -91,12 +97,6 @@ public class BookingService {
             if (!Boolean.TRUE.equals(partnerLocation.getIsActive())) {
                 throw new RuntimeException("That partner property is not active.");
             }
-            // The partner property must be linked to the referral's charity
-            Long charityId = referral.getCharity() != null ? referral.getCharity().getId() : null;
-            if (charityId == null
-                    || !partnerLocationCharityRepository.existsByPartnerLocationIdAndCharityId(partnerLocation.getId(), charityId)) {
-                throw new RuntimeException("Your charity is not linked to that partner property.");
-            }
             displayLocationName = partnerLocation.getName();
             displayLocationAddress = partnerLocation.getAddress();
         } else {
@@ -124,6 +124,21 @@ public class BookingService {
             throw new RuntimeException("Booking must be for at least 1 night");
         }
 
+        // Partner property: a single availability-search lookup confirms it is linked
+        // to the referral's charity AND has an AVAILABLE window covering every night.
+        if (usingPartner) {
+            Long charityId = referral.getCharity() != null ? referral.getCharity().getId() : null;
+            boolean bookable = charityId != null && locationAvailabilityService.isBookableForCharity(
+                    charityId, partnerLocation.getId(), bookingDto.getCheckInDate(), bookingDto.getCheckOutDate());
+            if (!bookable) {
+                if (charityId == null
+                        || !partnerLocationCharityRepository.existsByPartnerLocationIdAndCharityId(partnerLocation.getId(), charityId)) {
+                    throw new RuntimeException("Your charity is not linked to that partner property.");
+                }
+                throw new RuntimeException("The selected dates are not within an available window for this property.");
+            }
+        }
+
         // Cost from form (no auto-calc since CharityLocation doesn't have nightly rate)
         BigDecimal cost = bookingDto.getCost();
 
@@ -181,12 +196,11 @@ public class BookingService {
 
         // Handle donation funding
         if (bookingDto.getFundingDonationId() != null) {
-            Donation donation = donationRepository.findById(bookingDto.getFundingDonationId())
+            // Locked so the balance can't change between this check and the ledger debit below
+            Donation donation = donationRepository.findByIdForUpdate(bookingDto.getFundingDonationId())
                     .orElseThrow(() -> new RuntimeException("Funding donation not found"));
 
-            BigDecimal usedAmount = bookingRepository.sumFundedAmountByDonationId(donation.getId());
-            BigDecimal totalAvailable = donation.getNetAmount() != null ? donation.getNetAmount() : BigDecimal.ZERO;
-            BigDecimal remainingBalance = totalAvailable.subtract(usedAmount);
+            BigDecimal remainingBalance = donation.getAmountRemaining();
 
             BigDecimal bookingCost = cost != null ? cost : BigDecimal.ZERO;
             if (bookingCost.compareTo(remainingBalance) > 0) {
@@ -198,12 +212,6 @@ public class BookingService {
             booking.setPaymentStatus(Booking.PaymentStatus.PROGRAM_FUNDED);
             booking.setPaymentMethod("PROGRAM_FUNDED");
             booking.setPaidBy(donation.getDonorDisplayName());
-
-            // Update donation status
-            if (donation.getStatus() == Donation.DonationStatus.VERIFIED) {
-                donation.setStatus(Donation.DonationStatus.ALLOCATED);
-                donationRepository.save(donation);
-            }
         }
 
         // Save booking
@@ -217,6 +225,12 @@ public class BookingService {
             savedBooking = bookingRepository.save(savedBooking);
         }
 
+        // Draw the funded amount from the donation's ledger (also moves its status)
+        if (savedBooking.getFundingDonation() != null) {
+            donationLedgerService.debitForBooking(savedBooking.getFundingDonation().getId(),
+                    savedBooking, savedBooking.getFundedAmount());
+        }
+
         // For partner-location bookings, consume the matching availability window.
         // Throws if the dates don't fall within an AVAILABLE window.
         if (usingPartner) {
@@ -328,8 +342,18 @@ public class BookingService {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
+        Booking.BookingStatus previousStatus = booking.getBookingStatus();
         booking.setBookingStatus(status);
 
+        // Cancelled bookings don't hold donation funds
+        if (booking.getFundingDonation() != null && previousStatus != status) {
+            if (status == Booking.BookingStatus.CANCELLED) {
+                donationLedgerService.creditForCancelledBooking(booking);
+            } else if (previousStatus == Booking.BookingStatus.CANCELLED) {
+                donationLedgerService.debitForReinstatedBooking(booking);
+            }
+        }
+
         // Update actual check-in/out times based on status
         if (status == Booking.BookingStatus.CHECKED_IN && booking.getActualCheckIn() == null) {
             booking.setActualCheckIn(LocalDateTime.now());
@@ -344,6 +368,9 @@ public class BookingService {
             booking.setAdminNotes(existingNotes + LocalDateTime.now() + ": " + notes);
         }
 
+        // Status is shown on the partner's calendar feed
+        partnerCalendarFeedService.markChanged(booking.getPartnerLocation());
+
         return bookingRepository.save(booking);
     }
 
@@ -390,9 +417,9 @@ public class BookingService {
             }
         }
 
-        // Recalculate donation status if this booking was donation-funded
+        // Return the funded amount to the donation (also moves its status)
         if (booking.getFundingDonation() != null) {
-            recalculateDonationStatus(booking.getFundingDonation().getId());
+            donationLedgerService.creditForCancelledBooking(savedBooking);
         }
 
         return savedBooking;
@@ -414,6 +441,8 @@ public class BookingService {
             booking.setAdminNotes(existingNotes + LocalDateTime.now() + ": Check-in - " + notes);
         }
 
+        partnerCalendarFeedService.markChanged(booking.getPartnerLocation());
+
         return bookingRepository.save(booking);
     }
 
@@ -433,6 +462,8 @@ public class BookingService {
             booking.setAdminNotes(existingNotes + LocalDateTime.now() + ": Check-out - " + notes);
         }
 
+        partnerCalendarFeedService.markChanged(booking.getPartnerLocation());
+
         return bookingRepository.save(booking);
     }
 
@@ -459,9 +490,8 @@ public class BookingService {
         List<AvailableDonation> available = new ArrayList<>();
 
         for (Donation donation : donations) {
-            BigDecimal usedAmount = bookingRepository.sumFundedAmountByDonationId(donation.getId());
             BigDecimal totalNet = donation.getNetAmount() != null ? donation.getNetAmount() : BigDecimal.ZERO;
-            BigDecimal remaining = totalNet.subtract(usedAmount);
+            BigDecimal remaining = donation.getAmountRemaining();
 
             if (remaining.compareTo(BigDecimal.ZERO) > 0) {
                 available.add(new AvailableDonation(
@@ -477,32 +507,6 @@ public class BookingService {
         return available;
     }
 
-    /**
-     * Recalculate a donation's status after booking changes
-     */
-    private void recalculateDonationStatus(Long donationId) {
-        Donation donation = donationRepository.findById(donationId).orElse(null);
-        if (donation == null) return;
-
-        BigDecimal usedAmount = bookingRepository.sumFundedAmountByDonationId(donationId);
-        BigDecimal totalNet = donation.getNetAmount() != null ? donation.getNetAmount() : BigDecimal.ZERO;
-
-        if (usedAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            // No active bookings using this donation - revert to VERIFIED
-            if (donation.getStatus() == Donation.DonationStatus.ALLOCATED ||
-                donation.getStatus() == Donation.DonationStatus.PARTIALLY_USED) {
-                donation.setStatus(Donation.DonationStatus.VERIFIED);
-                donationRepository.save(donation);
-            }
-        } else if (usedAmount.compareTo(totalNet) >= 0) {
-            donation.setStatus(Donation.DonationStatus.FULLY_USED);
-            donationRepository.save(donation);
-        } else {
-            donation.setStatus(Donation.DonationStatus.PARTIALLY_USED);
-            donationRepository.save(donation);
-        }
-    }
-
     // DTO for available donations
     public record AvailableDonation(
             Long donationId,
@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -28,6 +29,9 @@ public class CharityService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PartnerCalendarFeedService partnerCalendarFeedService;
+
     // ========================================
     // MULTI-TENANT: GET CHARITY FOR CURRENT USER
     // ========================================
@@ -173,6 +177,10 @@ public class CharityService {
             if (existingByName.isPresent() && !existingByName.get().getId().equals(charityId)) {
                 throw new RuntimeException("Charity name already exists");
             }
+            if (!updatedCharity.getCharityName().equals(existingCharity.getCharityName())) {
+                // The charity's name is on its bookings in partners' calendar feeds
+                partnerCalendarFeedService.markCharityChanged(charityId);
+            }
             existingCharity.setCharityName(updatedCharity.getCharityName());
         }
 
@@ -216,6 +224,46 @@ public class CharityService {
         return charityRepository.save(existingCharity);
     }
 
+    /**
+     * Update charity from the admin form, which posts every field: each one
+     * is replaced, blanks included.
+     */
+    @Transactional
+    public Charity updateCharityByAdmin(Long charityId, Charity updatedCharity) {
+        Charity existingCharity = charityRepository.findById(charityId)
+                .orElseThrow(() -> new RuntimeException("Charity not found"));
+
+        // Check for duplicate name (excluding current)
+        charityRepository.findByCharityName(updatedCharity.getCharityName())
+                .ifPresent(c -> {
+                    if (!c.getId().equals(charityId)) {
+                        throw new RuntimeException("Charity name already exists");
+                    }
+                });
+        if (!Objects.equals(updatedCharity.getCharityName(), existingCharity.getCharityName())) {
+            // The charity's name is on its bookings in partners' calendar feeds
+            partnerCalendarFeedService.markCharityChanged(charityId);
+        }
+
+        existingCharity.setCharityName(updatedCharity.getCharityName());
+        existingCharity.setOrganizationType(updatedCharity.getOrganizationType());
+        existingCharity.setEinTaxId(updatedCharity.getEinTaxId());
+        existingCharity.setContactName(updatedCharity.getContactName());
+        existingCharity.setContactEmail(updatedCharity.getContactEmail());
+        existingCharity.setContactPhone(updatedCharity.getContactPhone());
+        existingCharity.setAddress(updatedCharity.getAddress());
+        existingCharity.setCity(updatedCharity.getCity());
+        existingCharity.setState(updatedCharity.getState());
+        existingCharity.setZipCode(updatedCharity.getZipCode());
+        existingCharity.setDescription(updatedCharity.getDescription());
+        existingCharity.setMissionStatement(updatedCharity.getMissionStatement());
+        existingCharity.setMaxReferralsPerMonth(updatedCharity.getMaxReferralsPerMonth());
+        existingCharity.setAllowedZipCodes(updatedCharity.getAllowedZipCodes());
+        existingCharity.setIsActive(updatedCharity.getIsActive());
+
+        return charityRepository.save(existingCharity);
+    }
+
     /**
      * Deactivate charity (soft delete)
      */
@@ -0,0 +1,173 @@
+package com.learning.learning.service;
+
+import com.learning.learning.repository.BookingRepository;
+import com.learning.learning.repository.DonationRepository;
+import com.learning.learning.repository.ReferralRepository;
+import com.learning.learning.service.export.ExportFormat;
+import com.learning.learning.service.export.TabularWriter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * CSV / XLSX exports for auditors and grant reporting.
+ *
+ * Rows are read in keyset chunks (id > last id seen) of flat projections, each
+ * chunk in its own short read-only transaction, and written to the output
+ * stream before the next chunk is fetched. Memory stays at one chunk no matter
+ * how many rows are exported, and a slow client never holds a transaction or
+ * a pooled connection open while it downloads — the export URLs are left out
+ * of open-in-view (OpenEntityManagerInViewConfig), which would otherwise keep
+ * the first chunk's connection for the rest of the request.
+ */
+@Service
+public class DataExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ReferralRepository referralRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTx;
+
+    @PostConstruct
+    void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    public int exportReferrals(Long charityId, ExportFormat format, OutputStream out) throws IOException {
+        return export(format, out, "Referrals",
+                List.of("Referral #", "Participant", "Age", "Email", "Phone", "Urgency", "Status",
+                        "Referred By", "Selected Location", "Selected Partner Property", "Created", "Approved"),
+                (afterId, page) -> referralRepository.findExportRows(charityId, afterId, page),
+                ReferralRepository.ReferralExportRow::getId,
+                r -> new Object[]{
+                        r.getReferralNumber(), r.getParticipantName(), r.getParticipantAge(),
+                        r.getParticipantEmail(), r.getParticipantPhone(), r.getUrgencyLevel(), r.getStatus(),
+                        fullName(r.getReferredByFirstName(), r.getReferredByLastName()),
+                        r.getSelectedLocationName(), r.getSelectedPartnerLocationName(),
+                        r.getCreatedAt(), r.getApprovedAt()});
+    }
+
+    public int exportBookings(Long charityId, ExportFormat format, OutputStream out) throws IOException {
+        return export(format, out, "Bookings",
+                List.of("Confirmation Code", "Referral #", "Participant", "Location", "Check-In", "Check-Out",
+                        "Nights", "Status", "Payment Status", "Cost", "Funded Amount", "Funding Donation ID", "Created"),
+                (afterId, page) -> bookingRepository.findExportRowsForCharity(charityId, afterId, page),
+                BookingRepository.BookingExportRow::getId,
+                b -> new Object[]{
+                        b.getConfirmationCode(), b.getReferralNumber(), b.getParticipantName(), b.getLocationName(),
+                        b.getCheckInDate(), b.getCheckOutDate(), b.getNights(), b.getBookingStatus(),
+                        b.getPaymentStatus(), b.getCost(), b.getFundedAmount(), b.getFundingDonationId(),
+                        b.getCreatedAt()});
+    }
+
+    /**
+     * @param charityId one charity, or null for every charity (admin)
+     */
+    public int exportDonations(Long charityId, ExportFormat format, OutputStream out) throws IOException {
+        long charityFilter = charityId != null ? charityId : 0L;
+        return export(format, out, "Donations",
+                List.of("Donation ID", "Charity", "Donor", "Donor Email", "Gross", "Platform Fee", "Facilitator Fee",
+                        "Processing Fee", "Net", "Remaining", "Nights Funded", "Status", "Verification",
+                        "Payment Source", "Donated", "Received"),
+                (afterId, page) -> donationRepository.findExportRows(charityFilter, afterId, page),
+                DonationRepository.DonationExportRow::getId,
+                d -> new Object[]{
+                        d.getId(), d.getCharityName(),
+                        donorName(d.getDonorBusinessName(), d.getDonorFirstName(), d.getDonorLastName(), d.getDonorName()),
+                        d.getDonorEmail(), d.getGrossAmount(), d.getPlatformFee(), d.getFacilitatorFee(),
+                        d.getProcessingFee(), d.getNetAmount(), d.getRemainingAmount(), d.getNightsFunded(),
+                        d.getStatus(), d.getVerificationStatus(), d.getPaymentSource(), d.getDonatedAt(),
+                        d.getDateReceived()});
+    }
+
+    /**
+     * Every donation-funded booking across all charities (admin).
+     */
+    public int exportFunding(ExportFormat format, OutputStream out) throws IOException {
+        return export(format, out, "Funding",
+                List.of("Confirmation Code", "Charity", "Donation ID", "Donor", "Check-In", "Check-Out", "Nights",
+                        "Booking Status", "Funded Amount", "Created"),
+                bookingRepository::findFundingExportRows,
+                BookingRepository.FundingExportRow::getId,
+                f -> new Object[]{
+                        f.getConfirmationCode(), f.getCharityName(), f.getDonationId(),
+                        donorName(f.getDonorBusinessName(), f.getDonorFirstName(), f.getDonorLastName(), f.getDonorName()),
+                        f.getCheckInDate(), f.getCheckOutDate(), f.getNights(), f.getBookingStatus(),
+                        f.getFundedAmount(), f.getCreatedAt()});
+    }
+
+    private <T> int export(ExportFormat format, OutputStream out, String sheetName, List<String> header,
+                           BiFunction<Long, Pageable, List<T>> fetchChunk,
+                           Function<T, Long> idOf,
+                           Function<T, Object[]> toRow) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int total = 0;
+        Pageable page = PageRequest.ofSize(CHUNK_SIZE);
+
+        try (TabularWriter writer = format.open(out, sheetName)) {
+            writer.writeHeader(header);
+            long afterId = 0L;
+            while (true) {
+                final long cursor = afterId;
+                List<T> chunk = readOnlyTx.execute(status -> fetchChunk.apply(cursor, page));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                for (T row : chunk) {
+                    writer.writeRow(toRow.apply(row));
+                }
+                total += chunk.size();
+                afterId = idOf.apply(chunk.get(chunk.size() - 1));
+                if (chunk.size() < CHUNK_SIZE) {
+                    break;
+                }
+            }
+        }
+
+        logger.info("Exported {} {} row(s) as {} in {} ms",
+                total, sheetName.toLowerCase(), format, System.currentTimeMillis() - startTime);
+        return total;
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        String name = ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+        return name.isEmpty() ? null : name;
+    }
+
+    private static String donorName(String businessName, String firstName, String lastName, String donorName) {
+        if (businessName != null && !businessName.isBlank()) {
+            return businessName;
+        }
+        String name = fullName(firstName, lastName);
+        if (name != null) {
+            return name;
+        }
+        return donorName != null && !donorName.isBlank() ? donorName : "Anonymous";
+    }
+}
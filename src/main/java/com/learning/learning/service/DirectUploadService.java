@@ -0,0 +1,365 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.Document;
+import com.learning.learning.entity.DocumentUploadIntent;
+import com.learning.learning.entity.ReferralInvite;
+import com.learning.learning.repository.DocumentUploadIntentRepository;
+import com.learning.learning.repository.ReferralInviteRepository;
+import com.learning.learning.repository.ReferralRepository;
+import com.learning.learning.service.storage.StorageService;
+import com.learning.learning.service.storage.StoredObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Browser-direct document uploads, so large files over slow connections don't
+ * hold a Tomcat thread (or pass through the JVM at all with S3).
+ *
+ * 1. start: the browser declares name, type, size and SHA-256. They are
+ *    validated like a multipart upload and, unless a staff member uploads a
+ *    file the charity already has, the browser gets a pre-signed PUT for the
+ *    file's content-addressed key; the signature pins type, size and checksum.
+ *    Participants always upload: whether the charity holds a file is not
+ *    theirs to find out. Their copy of a file it has lands on the same key,
+ *    and finalize just takes another reference on it.
+ * 2. The browser PUTs the file straight to S3. Local storage has no such
+ *    endpoint, so the file goes to {@link #receive} on the app instead.
+ * 3. finalize: the object is checked with a HEAD and the Document is created
+ *    through the regular DocumentService path.
+ *
+ * Intents not finalized in time are removed by {@link #cleanUpExpired}, along
+ * with any object uploaded for them that no document uses.
+ */
+@Service
+public class DirectUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectUploadService.class);
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final int CLEANUP_BATCH_SIZE = 200;
+
+    @Autowired
+    private DocumentUploadIntentRepository intentRepository;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentBlobService blobService;
+
+    @Autowired
+    private ImageNormalizationService imageNormalizationService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private ReferralRepository referralRepository;
+
+    @Autowired
+    private ReferralInviteRepository referralInviteRepository;
+
+    @Value("${app.documents.direct-upload.expiry-minutes:30}")
+    private int expiryMinutes;
+
+    /**
+     * @param uploadRequired false if the charity already has this file (staff
+     *                       uploads only); the browser can finalize straight away
+     * @param url            where to PUT the file (when uploadRequired)
+     * @param headers        headers to send with the PUT, exactly as given
+     */
+    public record StartedUpload(String uploadToken, boolean uploadRequired, String url, Map<String, String> headers) {}
+
+    /**
+     * A file as declared by the browser; once finalized, its content is the
+     * object already uploaded to its blob key.
+     */
+    record DeclaredFile(String fileName, String contentType, long size, String sha256) implements DocumentContent {
+        @Override
+        public DocumentBlobService.StoredBlob store(DocumentBlobService blobService, Long charityId)
+                throws IOException {
+            return blobService.adopt(charityId, sha256, size);
+        }
+    }
+
+    // ========================================
+    // START
+    // ========================================
+
+    /**
+     * Start an upload to a charity's referral, invite or general documents.
+     * The caller has already authorized the user against this charityId.
+     */
+    @Transactional
+    public StartedUpload startForCharity(Long charityId, Long referralId, Long inviteId,
+                                         String fileName, String contentType, long size, String sha256,
+                                         Document.DocumentType documentType, String description, String username) {
+        DocumentUploadIntent intent = new DocumentUploadIntent();
+        if (inviteId != null) {
+            ReferralInvite invite = referralInviteRepository.findById(inviteId)
+                    .orElseThrow(() -> new RuntimeException("Invite not found"));
+            if (invite.getCharity() == null || !invite.getCharity().getId().equals(charityId)) {
+                throw new RuntimeException("Access denied: Invite does not belong to your charity");
+            }
+            intent.setTarget(DocumentUploadIntent.Target.INVITE);
+            intent.setInviteId(inviteId);
+        } else {
+            if (referralId != null) {
+                referralRepository.findByIdAndCharityId(referralId, charityId)
+                        .orElseThrow(() -> new RuntimeException("Referral not found or access denied"));
+            }
+            intent.setTarget(DocumentUploadIntent.Target.CHARITY);
+            intent.setReferralId(referralId);
+        }
+        intent.setCharityId(charityId);
+        intent.setCreatedBy(username);
+        return start(intent, new DeclaredFile(fileName, contentType, size, sha256), documentType, description);
+    }
+
+    /**
+     * Start an upload by a participant through a public invite link.
+     */
+    @Transactional
+    public StartedUpload startForParticipant(String inviteToken,
+                                             String fileName, String contentType, long size, String sha256,
+                                             Document.DocumentType documentType, String description) {
+        ReferralInvite invite = validInvite(inviteToken);
+        if (invite.getCharity() == null) {
+            throw new RuntimeException("Invite has no associated charity");
+        }
+
+        DocumentUploadIntent intent = new DocumentUploadIntent();
+        intent.setTarget(DocumentUploadIntent.Target.PARTICIPANT);
+        intent.setCharityId(invite.getCharity().getId());
+        intent.setInviteId(invite.getId());
+        return start(intent, new DeclaredFile(fileName, contentType, size, sha256), documentType, description);
+    }
+
+    private StartedUpload start(DocumentUploadIntent intent, DeclaredFile file,
+                                Document.DocumentType documentType, String description) {
+        documentService.validateContent(file);
+        if (imageNormalizationService.applies(file.contentType())) {
+            // Refused so the page falls back to the form upload, which normalizes it
+            throw new RuntimeException("Images are uploaded through the form");
+        }
+        if (file.fileName() == null || file.fileName().isBlank()) {
+            throw new RuntimeException("Invalid file name");
+        }
+        if (file.sha256() == null || !SHA256_HEX.matcher(file.sha256()).matches()) {
+            throw new RuntimeException("Invalid file checksum");
+        }
+
+        String storageKey = DocumentBlobService.blobKey(intent.getCharityId(), file.sha256());
+        boolean uploadRequired = intent.getTarget() == DocumentUploadIntent.Target.PARTICIPANT
+                || !blobService.isStored(intent.getCharityId(), file.sha256());
+
+        intent.setToken(UUID.randomUUID().toString());
+        intent.setFileName(file.fileName());
+        intent.setContentType(file.contentType());
+        intent.setSizeBytes(file.size());
+        intent.setContentHash(file.sha256());
+        intent.setStorageKey(storageKey);
+        intent.setDocumentType(documentType);
+        intent.setDescription(description);
+        intent.setUploadRequired(uploadRequired);
+        intent.setExpiresAt(LocalDateTime.now().plusMinutes(expiryMinutes));
+        intentRepository.save(intent);
+
+        if (!uploadRequired) {
+            return new StartedUpload(intent.getToken(), false, null, Map.of());
+        }
+
+        String sha256Base64 = Base64.getEncoder().encodeToString(HexFormat.of().parseHex(file.sha256()));
+        return storageService.presignUpload(storageKey, file.contentType(), file.size(), sha256Base64, expiryMinutes)
+                .map(presigned -> new StartedUpload(intent.getToken(), true, presigned.url(), presigned.headers()))
+                .orElseGet(() -> new StartedUpload(intent.getToken(), true,
+                        "/direct-upload/" + intent.getToken(), Map.of("Content-Type", file.contentType())));
+    }
+
+    // ========================================
+    // RECEIVE (local storage only)
+    // ========================================
+
+    /**
+     * Accept the file body for an intent when the storage backend has no
+     * direct upload URL (local storage). The body must match the declared
+     * size and checksum.
+     */
+    public void receive(String uploadToken, InputStream body) throws IOException {
+        DocumentUploadIntent intent = intentRepository.findByToken(uploadToken)
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        if (intent.isExpired() || !intent.getUploadRequired()) {
+            throw new RuntimeException("Upload is no longer accepted");
+        }
+
+        Path temp = Files.createTempFile("direct-upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            long size = 0;
+            byte[] buffer = new byte[8192];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    size += read;
+                    if (size > intent.getSizeBytes()) {
+                        throw new RuntimeException("File is larger than declared");
+                    }
+                    sha256.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (size != intent.getSizeBytes()
+                    || !HexFormat.of().formatHex(sha256.digest()).equals(intent.getContentHash())) {
+                throw new RuntimeException("File does not match what was declared");
+            }
+
+            // The key is the checksum: an object already there has these bytes
+            // (a participant's copy of a file the charity has), and rewriting it
+            // in place could hand a concurrent download half a file
+            if (!storageService.exists(intent.getStorageKey())) {
+                try (InputStream in = Files.newInputStream(temp)) {
+                    storageService.store(in, intent.getStorageKey(), intent.getContentType(), size);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ========================================
+    // FINALIZE
+    // ========================================
+
+    /**
+     * Create the document for a finished staff upload. The caller has already
+     * authorized the user against this charityId.
+     */
+    @Transactional
+    public Document finalizeForCharity(String uploadToken, Long charityId, String username) throws IOException {
+        DocumentUploadIntent intent = intentRepository.findByToken(uploadToken)
+                .filter(i -> i.getTarget() != DocumentUploadIntent.Target.PARTICIPANT)
+                .filter(i -> i.getCharityId().equals(charityId) && username.equals(i.getCreatedBy()))
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        DeclaredFile file = checkUploaded(intent);
+
+        Document document = intent.getTarget() == DocumentUploadIntent.Target.INVITE
+                ? documentService.uploadDocumentForInviteByCharity(file, intent.getInviteId(), charityId,
+                        intent.getDocumentType(), intent.getDescription(), username)
+                : documentService.uploadDocumentForCharity(file, intent.getReferralId(), charityId,
+                        intent.getDocumentType(), intent.getDescription(), username);
+        intentRepository.delete(intent);
+        return document;
+    }
+
+    /**
+     * Create the document for a finished participant upload.
+     */
+    @Transactional
+    public Document finalizeForParticipant(String uploadToken, String inviteToken) throws IOException {
+        ReferralInvite invite = validInvite(inviteToken);
+        DocumentUploadIntent intent = intentRepository.findByToken(uploadToken)
+                .filter(i -> i.getTarget() == DocumentUploadIntent.Target.PARTICIPANT)
+                .filter(i -> i.getInviteId().equals(invite.getId()))
+                .orElseThrow(() -> new RuntimeException("Upload not found"));
+        DeclaredFile file = checkUploaded(intent);
+
+        Document document = documentService.uploadDocumentByParticipant(file, inviteToken,
+                intent.getDocumentType(), intent.getDescription(), invite.getRecipientName());
+        intentRepository.delete(intent);
+        return document;
+    }
+
+    /**
+     * The stored object must be there and match the declared size (and type,
+     * where the backend records one). The checksum was enforced on upload.
+     */
+    private DeclaredFile checkUploaded(DocumentUploadIntent intent) {
+        if (intent.isExpired()) {
+            throw new RuntimeException("Upload expired. Please upload the file again.");
+        }
+        StoredObject stored = storageService.head(intent.getStorageKey())
+                .orElseThrow(() -> new RuntimeException("The file was not received. Please upload it again."));
+        if (stored.size() != intent.getSizeBytes()) {
+            throw new RuntimeException("The uploaded file does not match. Please upload it again.");
+        }
+        if (stored.contentType() != null && !stored.contentType().equals(intent.getContentType())) {
+            throw new RuntimeException("The uploaded file does not match. Please upload it again.");
+        }
+        return new DeclaredFile(intent.getFileName(), intent.getContentType(), intent.getSizeBytes(),
+                intent.getContentHash());
+    }
+
+    // ========================================
+    // CLEANUP
+    // ========================================
+
+    /**
+     * Remove intents that were never finalized, and objects uploaded for them
+     * that no document (and no other upload in progress) uses. Whether a
+     * document uses the object is settled under the blob row's lock
+     * ({@link DocumentBlobService#deleteUnreferenced}), so a finalize that
+     * hasn't committed yet can't lose its file.
+     */
+    @Scheduled(fixedDelayString = "${app.documents.direct-upload.cleanup-interval-ms:3600000}",
+            initialDelayString = "${app.documents.direct-upload.cleanup-initial-delay-ms:600000}")
+    public void cleanUpExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<DocumentUploadIntent> expired =
+                intentRepository.findByExpiresAtBeforeOrderByIdAsc(now, PageRequest.ofSize(CLEANUP_BATCH_SIZE));
+        int objectsDeleted = 0;
+        for (DocumentUploadIntent intent : expired) {
+            try {
+                if (intent.getUploadRequired()
+                        && !intentRepository.existsByStorageKeyAndExpiresAtAfter(intent.getStorageKey(), now)
+                        && blobService.deleteUnreferenced(
+                                intent.getCharityId(), intent.getContentHash(), intent.getSizeBytes())) {
+                    objectsDeleted++;
+                }
+                intentRepository.delete(intent);
+            } catch (Exception e) {
+                logger.warn("Could not clean up upload intent {}: {}", intent.getId(), e.getMessage());
+            }
+        }
+        if (!expired.isEmpty()) {
+            logger.info("Removed {} expired upload intent(s), {} unfinalized file(s)", expired.size(), objectsDeleted);
+        }
+    }
+
+    private ReferralInvite validInvite(String inviteToken) {
+        ReferralInvite invite = referralInviteRepository.findByInviteToken(inviteToken)
+                .orElseThrow(() -> new RuntimeException("Invalid invite token"));
+        if (invite.isExpired() || invite.getStatus() == ReferralInvite.InviteStatus.CANCELLED) {
+            throw new RuntimeException("This invite is no longer valid.");
+        }
+        return invite;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
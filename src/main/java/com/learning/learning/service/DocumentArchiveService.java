@@ -0,0 +1,262 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.Document;
+import com.learning.learning.service.storage.StorageService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a set of documents (a referral's, an invite's, a donor's) to the
+ * client as one ZIP archive.
+ *
+ * The archive is written straight to the response as it is built; nothing is
+ * assembled in memory or on disk. While one file is being written, the next
+ * few are already being fetched from storage on a small shared pool: each
+ * prefetch opens the object and reads at most prefetch-bytes of it ahead, so
+ * a download holds (window + 1) read-ahead buffers at most, however large the
+ * archive. Most documents fit in the read-ahead entirely; larger ones stream
+ * the remainder as they are written.
+ *
+ * A file that can't be fetched doesn't abort the download: it is listed in
+ * MANIFEST.txt, the archive's last entry, along with every file included.
+ */
+@Service
+public class DocumentArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentArchiveService.class);
+
+    static final String MANIFEST_NAME = "MANIFEST.txt";
+
+    @Autowired
+    private StorageService storageService;
+
+    @Value("${app.documents.archive.prefetch-threads:4}")
+    private int prefetchThreads;
+
+    @Value("${app.documents.archive.prefetch-window:3}")
+    private int prefetchWindow;
+
+    @Value("${app.documents.archive.prefetch-bytes:1048576}")
+    private int prefetchBytes;
+
+    private ThreadPoolExecutor prefetchers;
+
+    /**
+     * A document fetched ahead of being written: the first bytes in memory and
+     * the rest still on the open stream, or why it couldn't be fetched.
+     */
+    private record Prefetched(Document document, InputStream content, String error) {
+
+        void closeQuietly() {
+            if (content != null) {
+                try {
+                    content.close();
+                } catch (IOException ignored) {
+                    // Nothing more to read from it either way
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        // When every prefetcher is busy the download thread fetches the file
+        // itself (no read-ahead), rather than queueing without bound
+        prefetchers = new ThreadPoolExecutor(prefetchThreads, prefetchThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(prefetchThreads * prefetchWindow), r -> {
+            Thread thread = new Thread(r, "DocumentArchive-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        prefetchers.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        prefetchers.shutdownNow();
+    }
+
+    /**
+     * Write the documents to out as a ZIP archive, in order. Fails only if the
+     * client goes away (out throws); storage failures go to the manifest.
+     *
+     * @return the number of documents included
+     */
+    public int writeArchive(List<Document> documents, OutputStream out) throws IOException {
+        Iterator<Document> pending = documents.iterator();
+        Deque<CompletableFuture<Prefetched>> window = new ArrayDeque<>();
+        Set<String> usedNames = new HashSet<>(Set.of(MANIFEST_NAME.toLowerCase()));
+        List<String> included = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        byte[] buffer = new byte[8192];
+
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // Uploads are mostly JPEG/PNG/PDF, already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+        try {
+            fillWindow(window, pending);
+            while (!window.isEmpty()) {
+                Prefetched next = window.removeFirst().join();
+                fillWindow(window, pending);
+
+                String name = entryName(next.document(), usedNames);
+                if (next.error() != null) {
+                    failed.add(name + " - " + next.error());
+                    continue;
+                }
+
+                zip.putNextEntry(new ZipEntry(name));
+                try (InputStream in = next.content()) {
+                    copyEntry(in, zip, buffer);
+                } catch (StorageReadException e) {
+                    // Part of the file is already in the archive and can't be
+                    // taken back; say so rather than leave a silently short file
+                    logger.warn("Archive entry for document {} cut short: {}",
+                            next.document().getId(), e.getCause().getMessage());
+                    failed.add(name + " - incomplete, storage read failed part-way: " + e.getCause().getMessage());
+                    zip.closeEntry();
+                    continue;
+                }
+                zip.closeEntry();
+                included.add(name);
+            }
+
+            writeManifest(zip, included, failed);
+            zip.finish();
+        } finally {
+            // Client gone or finished early: release whatever is still prefetching
+            for (CompletableFuture<Prefetched> future : window) {
+                future.thenAccept(Prefetched::closeQuietly);
+            }
+        }
+        zip.flush();
+
+        if (!failed.isEmpty()) {
+            logger.warn("Document archive written with {} of {} file(s) missing or incomplete",
+                    failed.size(), documents.size());
+        }
+        return included.size();
+    }
+
+    private void fillWindow(Deque<CompletableFuture<Prefetched>> window, Iterator<Document> pending) {
+        while (window.size() < Math.max(1, prefetchWindow) && pending.hasNext()) {
+            Document document = pending.next();
+            window.addLast(CompletableFuture.supplyAsync(() -> prefetch(document), prefetchers));
+        }
+    }
+
+    private Prefetched prefetch(Document document) {
+        InputStream in = null;
+        try {
+            in = storageService.retrieve(document.getFilePath());
+            byte[] head = in.readNBytes(prefetchBytes);
+            if (head.length < prefetchBytes) {
+                in.close();
+                return new Prefetched(document, new ByteArrayInputStream(head), null);
+            }
+            return new Prefetched(document, new SequenceInputStream(new ByteArrayInputStream(head), in), null);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not fetch document {} ({}) for archive: {}",
+                    document.getId(), document.getFilePath(), e.getMessage());
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // Already failed
+                }
+            }
+            return new Prefetched(document, null, "could not be retrieved from storage");
+        }
+    }
+
+    /**
+     * Copy one entry, telling storage read failures (recorded in the manifest)
+     * apart from write failures (the client is gone; abort).
+     */
+    private static void copyEntry(InputStream in, OutputStream zip, byte[] buffer) throws IOException {
+        while (true) {
+            int read;
+            try {
+                read = in.read(buffer);
+            } catch (IOException e) {
+                throw new StorageReadException(e);
+            }
+            if (read == -1) {
+                return;
+            }
+            zip.write(buffer, 0, read);
+        }
+    }
+
+    private static void writeManifest(ZipOutputStream zip, List<String> included, List<String> failed)
+            throws IOException {
+        StringBuilder manifest = new StringBuilder();
+        manifest.append("Included (").append(included.size()).append("):\n");
+        included.forEach(name -> manifest.append("  ").append(name).append('\n'));
+        if (!failed.isEmpty()) {
+            manifest.append("\nMissing or incomplete (").append(failed.size()).append("):\n");
+            failed.forEach(line -> manifest.append("  ").append(line).append('\n'));
+        }
+
+        zip.putNextEntry(new ZipEntry(MANIFEST_NAME));
+        zip.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    /**
+     * File name for a document inside the archive: the uploaded name without
+     * any path, made unique ("scan (2).pdf") when several documents share it.
+     */
+    static String entryName(Document document, Set<String> usedNames) {
+        String name = document.getFileName();
+        if (name != null) {
+            name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1).trim();
+        }
+        if (name == null || name.isEmpty() || name.equals(".") || name.equals("..")) {
+            name = "document-" + document.getId();
+        }
+
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int n = 2; !usedNames.add(candidate.toLowerCase()); n++) {
+            candidate = base + " (" + n + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private static class StorageReadException extends IOException {
+        StorageReadException(IOException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.Document;
+import com.learning.learning.repository.DocumentRepository;
+import com.learning.learning.service.storage.StorageService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Content-addressed storage for uploaded documents.
+ *
+ * Every upload is hashed (SHA-256) and stored once per charity under
+ * "{charityId}/blobs/{hash[0..2]}/{hash}"; document_blobs counts the
+ * documents pointing at each object. Uploading a file the charity already
+ * has (the same ID card on several invites, say) only bumps the count and
+ * skips the transfer to storage; the object is deleted when the last
+ * document referencing it is.
+ *
+ * Counts change through single-row upserts/updates, which keep the blob row
+ * locked until the caller's transaction ends, so an upload racing the delete
+ * of the last reference either takes its reference first or waits and
+ * stores the object again.
+ *
+ * Documents stored before this (content_hash NULL) are moved to their blob
+ * key in small batches by the backfill job.
+ *
+ * A normalized image (ImageNormalizationService) is hashed as stored, so
+ * dedup applies to the normalized bytes; its original, if kept, lives under
+ * "{charityId}/originals/" and goes when the blob does.
+ */
+@Service
+public class DocumentBlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentBlobService.class);
+
+    private static final String ACQUIRE_SQL =
+            "INSERT INTO document_blobs (charity_id, content_hash, storage_key, size_bytes, ref_count, created_at) " +
+            "VALUES (?, ?, ?, ?, 1, NOW()) " +
+            "ON CONFLICT (charity_id, content_hash) DO UPDATE SET ref_count = document_blobs.ref_count + 1 " +
+            "RETURNING ref_count";
+
+    private static final String RELEASE_SQL =
+            "UPDATE document_blobs SET ref_count = ref_count - 1 " +
+            "WHERE charity_id = ? AND content_hash = ? RETURNING ref_count";
+
+    private static final String STORED_SQL =
+            "SELECT COUNT(*) FROM document_blobs WHERE charity_id = ? AND content_hash = ? AND ref_count > 0";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM document_blobs WHERE charity_id = ? AND content_hash = ? AND ref_count <= 0";
+
+    // Locks the blob row, inserting an unreferenced one if there is none yet;
+    // waits for a transaction that is inserting or updating it
+    private static final String CLAIM_SQL =
+            "INSERT INTO document_blobs (charity_id, content_hash, storage_key, size_bytes, ref_count, created_at) " +
+            "VALUES (?, ?, ?, ?, 0, NOW()) " +
+            "ON CONFLICT (charity_id, content_hash) DO UPDATE SET ref_count = document_blobs.ref_count " +
+            "RETURNING ref_count";
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentThumbnailService thumbnailService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.documents.dedup-backfill.enabled:true}")
+    private boolean backfillEnabled;
+
+    @Value("${app.documents.dedup-backfill.batch-size:100}")
+    private int backfillBatchSize;
+
+    private TransactionTemplate writeTx;
+
+    // Last document id the backfill looked at on this instance. Documents it
+    // could not move (object missing) are skipped until the next restart.
+    private volatile long backfillCursor = 0;
+
+    /**
+     * @param created true if this upload stored a new object, false if the
+     *                charity already had the same content
+     */
+    public record StoredBlob(String contentHash, String storageKey, boolean created) {}
+
+    private record ContentDigest(String hash, long size) {}
+
+    @PostConstruct
+    void init() {
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Store an upload for a charity, or reuse the copy it already has. Must be
+     * called in the transaction that saves the document, so the reference is
+     * rolled back with it.
+     */
+    public StoredBlob store(Long charityId, MultipartFile file) throws IOException {
+        // The container has already spooled the upload to memory or a temp
+        // file; hashing it is a local read, the remote transfer only happens
+        // for content the charity doesn't have yet
+        ContentDigest digest;
+        try (InputStream in = file.getInputStream()) {
+            digest = digest(in);
+        }
+
+        String storageKey = blobKey(charityId, digest.hash());
+        if (acquire(charityId, digest.hash(), storageKey, digest.size()) == 1) {
+            storageService.store(file, storageKey);
+            return new StoredBlob(digest.hash(), storageKey, true);
+        }
+
+        logger.debug("Upload matches stored blob {} of charity {}; not stored again", digest.hash(), charityId);
+        return new StoredBlob(digest.hash(), storageKey, false);
+    }
+
+    /**
+     * Store content produced on the server (a normalized image), or reuse the
+     * charity's copy. Same transaction rule as store(MultipartFile).
+     */
+    public StoredBlob store(Long charityId, byte[] content, String contentType) throws IOException {
+        ContentDigest digest = digest(new ByteArrayInputStream(content));
+        String storageKey = blobKey(charityId, digest.hash());
+        if (acquire(charityId, digest.hash(), storageKey, digest.size()) == 1) {
+            storageService.store(new ByteArrayInputStream(content), storageKey, contentType, content.length);
+            return new StoredBlob(digest.hash(), storageKey, true);
+        }
+        return new StoredBlob(digest.hash(), storageKey, false);
+    }
+
+    /**
+     * Keep the upload a blob was derived from (the image before
+     * normalization). Deleted together with the blob.
+     */
+    public void storeOriginal(Long charityId, String contentHash, MultipartFile original) throws IOException {
+        storageService.store(original, originalKey(charityId, contentHash));
+    }
+
+    /**
+     * Take a reference on content the browser uploaded straight to its blob
+     * key (DirectUploadService has checked the object is there). Must be
+     * called in the transaction that saves the document.
+     *
+     * The first reference checks again, under the blob row's lock: a cleanup
+     * of an abandoned upload of the same file may have deleted the object in
+     * the meantime ({@link #deleteUnreferenced}).
+     */
+    public StoredBlob adopt(Long charityId, String contentHash, long size) throws IOException {
+        String storageKey = blobKey(charityId, contentHash);
+        boolean created = acquire(charityId, contentHash, storageKey, size) == 1;
+        if (created && !storageService.exists(storageKey)) {
+            throw new RuntimeException("The file was not received. Please upload it again.");
+        }
+        return new StoredBlob(contentHash, storageKey, created);
+    }
+
+    /**
+     * Delete an object uploaded to a blob key that no document references (a
+     * direct upload that was never finalized). Decided and done under the
+     * blob row's lock, so a finalize taking the first reference at the same
+     * time either commits first and the object stays, or waits and then
+     * finds it gone.
+     *
+     * @return true if an object was deleted
+     */
+    public boolean deleteUnreferenced(Long charityId, String contentHash, long size) {
+        String storageKey = blobKey(charityId, contentHash);
+        Boolean deleted = writeTx.execute(status -> {
+            Integer refCount = jdbcTemplate.queryForObject(
+                    CLAIM_SQL, Integer.class, charityId, contentHash, storageKey, size);
+            try {
+                if ((refCount != null && refCount > 0) || !storageService.exists(storageKey)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                storageService.delete(storageKey);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            jdbcTemplate.update(DELETE_SQL, charityId, contentHash);
+            return true;
+        });
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    /**
+     * Whether the charity already has this content stored (in use by at
+     * least one document).
+     */
+    public boolean isStored(Long charityId, String contentHash) {
+        Integer count = jdbcTemplate.queryForObject(STORED_SQL, Integer.class, charityId, contentHash);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Drop a document's reference to its content (the document is being
+     * deleted). The object and its thumbnail are deleted once no other
+     * document uses them.
+     */
+    public void release(Document document) throws IOException {
+        if (document.getContentHash() == null) {
+            // Not moved by the backfill yet: the object is this document's own
+            storageService.delete(document.getFilePath());
+            thumbnailService.deleteThumbnail(document);
+            return;
+        }
+
+        String sharedThumbnailKey = thumbnailService.thumbnailKeyFor(document.getFilePath());
+        if (document.getThumbnailKey() != null && !document.getThumbnailKey().equals(sharedThumbnailKey)) {
+            // Rendered before the backfill moved the document, so not shared
+            thumbnailService.deleteThumbnail(document);
+        }
+
+        Long charityId = document.getCharity().getId();
+        List<Integer> remaining = jdbcTemplate.queryForList(
+                RELEASE_SQL, Integer.class, charityId, document.getContentHash());
+        if (remaining.isEmpty()) {
+            // Leave the object rather than risk deleting content still in use
+            logger.warn("No blob record for document {} ({}); object {} left in place",
+                    document.getId(), document.getContentHash(), document.getFilePath());
+            return;
+        }
+        if (remaining.get(0) > 0) {
+            return;
+        }
+
+        jdbcTemplate.update(DELETE_SQL, charityId, document.getContentHash());
+        storageService.delete(document.getFilePath());
+        thumbnailService.deleteThumbnail(sharedThumbnailKey);
+        String originalKey = originalKey(charityId, document.getContentHash());
+        if (storageService.exists(originalKey)) {
+            storageService.delete(originalKey);
+        }
+    }
+
+    /**
+     * Move documents stored under per-upload keys to their content-addressed
+     * blob, a batch per run. Duplicates collapse into one object as they go.
+     */
+    @Scheduled(fixedDelayString = "${app.documents.dedup-backfill.interval-ms:600000}",
+            initialDelayString = "${app.documents.dedup-backfill.initial-delay-ms:300000}")
+    public void backfill() {
+        if (!backfillEnabled) {
+            return;
+        }
+        List<DocumentRepository.BlobBackfillWork> batch =
+                documentRepository.findBlobBackfill(backfillCursor, PageRequest.ofSize(backfillBatchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int moved = 0;
+        for (DocumentRepository.BlobBackfillWork work : batch) {
+            backfillCursor = work.getId();
+            try {
+                if (moveToBlob(work)) {
+                    moved++;
+                }
+            } catch (Exception e) {
+                logger.warn("Dedup backfill skipped document {} ({}): {}",
+                        work.getId(), work.getFilePath(), e.getMessage());
+            }
+        }
+        logger.info("Dedup backfill moved {} of {} document(s), up to id {}", moved, batch.size(), backfillCursor);
+    }
+
+    private boolean moveToBlob(DocumentRepository.BlobBackfillWork work) throws IOException {
+        String oldPath = work.getFilePath();
+        ContentDigest digest;
+        try (InputStream in = storageService.retrieve(oldPath)) {
+            digest = digest(in);
+        }
+        String blobKey = blobKey(work.getCharityId(), digest.hash());
+
+        Boolean moved = writeTx.execute(status -> {
+            if (acquire(work.getCharityId(), digest.hash(), blobKey, digest.size()) == 1) {
+                try (InputStream in = storageService.retrieve(oldPath)) {
+                    storageService.store(in, blobKey, work.getMimeType(), digest.size());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            if (documentRepository.moveToBlob(work.getId(), oldPath, blobKey, digest.hash()) == 0) {
+                // Deleted (or moved by another instance) in the meantime
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        });
+
+        if (!Boolean.TRUE.equals(moved)) {
+            return false;
+        }
+        // Only once the document points at the blob
+        try {
+            storageService.delete(oldPath);
+        } catch (IOException e) {
+            logger.warn("Moved document {} but could not delete old object {}: {}",
+                    work.getId(), oldPath, e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Take a reference on a charity's blob, creating its record if needed.
+     *
+     * @return the reference count after this one; 1 means the object still
+     *         has to be stored
+     */
+    private int acquire(Long charityId, String contentHash, String storageKey, long size) {
+        Integer refCount = jdbcTemplate.queryForObject(
+                ACQUIRE_SQL, Integer.class, charityId, contentHash, storageKey, size);
+        return refCount != null ? refCount : 1;
+    }
+
+    static String blobKey(Long charityId, String contentHash) {
+        return charityId + "/blobs/" + contentHash.substring(0, 2) + "/" + contentHash;
+    }
+
+    /**
+     * Where the pre-normalization upload of a blob is kept. A separate prefix
+     * so a storage lifecycle rule can move these to a cold storage class.
+     */
+    static String originalKey(Long charityId, String contentHash) {
+        return charityId + "/originals/" + contentHash.substring(0, 2) + "/" + contentHash;
+    }
+
+    private static ContentDigest digest(InputStream in) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[8192];
+        long size = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            sha256.update(buffer, 0, read);
+            size += read;
+        }
+        return new ContentDigest(HexFormat.of().formatHex(sha256.digest()), size);
+    }
+}
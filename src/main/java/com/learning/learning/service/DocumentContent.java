@@ -0,0 +1,50 @@
+package com.learning.learning.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+/**
+ * The file behind a document being created: either a multipart upload that
+ * still has to be stored, or a file the browser already uploaded straight to
+ * storage (DirectUploadService).
+ */
+public interface DocumentContent {
+
+    String fileName();
+
+    String contentType();
+
+    long size();
+
+    /**
+     * Store the content for a charity (or take a reference on the copy it
+     * already has) and return where it lives.
+     */
+    DocumentBlobService.StoredBlob store(DocumentBlobService blobService, Long charityId) throws IOException;
+
+    static DocumentContent of(MultipartFile file) {
+        return new DocumentContent() {
+            @Override
+            public String fileName() {
+                return file.getOriginalFilename();
+            }
+
+            @Override
+            public String contentType() {
+                return file.getContentType();
+            }
+
+            @Override
+            public long size() {
+                return file.getSize();
+            }
+
+            @Override
+            public DocumentBlobService.StoredBlob store(DocumentBlobService blobService, Long charityId)
+                    throws IOException {
+                return blobService.store(charityId, file);
+            }
+        };
+    }
+}
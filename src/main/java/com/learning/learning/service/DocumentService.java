@@ -16,6 +16,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -25,7 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 
 @Service
 public class DocumentService {
@@ -54,6 +56,15 @@ public class DocumentService {
     @Autowired
     private com.learning.learning.repository.CharityRepository charityRepository;
 
+    @Autowired
+    private DocumentThumbnailService thumbnailService;
+
+    @Autowired
+    private DocumentBlobService blobService;
+
+    @Autowired
+    private ImageNormalizationService imageNormalizationService;
+
     // Allowed file types
     private static final List<String> ALLOWED_MIME_TYPES = List.of(
             "application/pdf",
@@ -82,7 +93,7 @@ public class DocumentService {
             String username
     ) throws IOException {
         Charity charity = charityService.getCharityForUser(username);
-        return uploadDocumentInternal(file, referralId, charity, documentType, description, username);
+        return uploadDocumentInternal(imageNormalizationService.prepare(file), referralId, charity, documentType, description, username);
     }
 
     /**
@@ -99,21 +110,37 @@ public class DocumentService {
             Document.DocumentType documentType,
             String description,
             String username
+    ) throws IOException {
+        return uploadDocumentForCharity(imageNormalizationService.prepare(file), referralId, charityId, documentType, description, username);
+    }
+
+    /**
+     * Charity-scoped upload of content already stored or still to be stored
+     * (multipart or browser-direct upload).
+     */
+    @Transactional
+    public Document uploadDocumentForCharity(
+            DocumentContent content,
+            Long referralId,
+            Long charityId,
+            Document.DocumentType documentType,
+            String description,
+            String username
     ) throws IOException {
         Charity charity = charityRepository.findById(charityId)
                 .orElseThrow(() -> new RuntimeException("Charity not found: " + charityId));
-        return uploadDocumentInternal(file, referralId, charity, documentType, description, username);
+        return uploadDocumentInternal(content, referralId, charity, documentType, description, username);
     }
 
     private Document uploadDocumentInternal(
-            MultipartFile file,
+            DocumentContent content,
             Long referralId,
             Charity charity,
             Document.DocumentType documentType,
             String description,
             String username
     ) throws IOException {
-        validateFile(file);
+        validateContent(content);
 
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -124,12 +151,8 @@ public class DocumentService {
                     .orElseThrow(() -> new RuntimeException("Referral not found or access denied"));
         }
 
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-        String uniqueFileName = generateUniqueFileName(originalFileName);
-
-        String storageKey = charity.getId() + "/" + (referralId != null ? referralId : "general") + "/" + uniqueFileName;
-
-        storageService.store(file, storageKey);
+        String originalFileName = StringUtils.cleanPath(content.fileName());
+        DocumentBlobService.StoredBlob blob = content.store(blobService, charity.getId());
 
         Document document = new Document();
         document.setReferral(referral);
@@ -137,13 +160,14 @@ public class DocumentService {
         document.setUploadedBy(user);
         document.setDocumentType(documentType);
         document.setFileName(originalFileName);
-        document.setFilePath(storageKey);
-        document.setFileSize(file.getSize());
-        document.setMimeType(file.getContentType());
+        document.setFilePath(blob.storageKey());
+        document.setContentHash(blob.contentHash());
+        document.setFileSize(content.size());
+        document.setMimeType(content.contentType());
         document.setDescription(description);
         document.setIsVerified(false);
 
-        Document savedDocument = documentRepository.save(document);
+        Document savedDocument = saveNewDocument(document);
 
         if (referral != null && referral.getDocumentsRequired()) {
             referral.setDocumentsUploaded(true);
@@ -178,7 +202,7 @@ public class DocumentService {
             String username
     ) throws IOException {
         Charity charity = charityService.getCharityForUser(username);
-        return uploadDocumentForInviteInternal(file, inviteId, charity, documentType, description, username);
+        return uploadDocumentForInviteInternal(imageNormalizationService.prepare(file), inviteId, charity, documentType, description, username);
     }
 
     /**
@@ -193,21 +217,34 @@ public class DocumentService {
             Document.DocumentType documentType,
             String description,
             String username
+    ) throws IOException {
+        return uploadDocumentForInviteByCharity(
+                imageNormalizationService.prepare(file), inviteId, charityId, documentType, description, username);
+    }
+
+    @Transactional
+    public Document uploadDocumentForInviteByCharity(
+            DocumentContent content,
+            Long inviteId,
+            Long charityId,
+            Document.DocumentType documentType,
+            String description,
+            String username
     ) throws IOException {
         Charity charity = charityRepository.findById(charityId)
                 .orElseThrow(() -> new RuntimeException("Charity not found: " + charityId));
-        return uploadDocumentForInviteInternal(file, inviteId, charity, documentType, description, username);
+        return uploadDocumentForInviteInternal(content, inviteId, charity, documentType, description, username);
     }
 
     private Document uploadDocumentForInviteInternal(
-            MultipartFile file,
+            DocumentContent content,
             Long inviteId,
             Charity charity,
             Document.DocumentType documentType,
             String description,
             String username
     ) throws IOException {
-        validateFile(file);
+        validateContent(content);
 
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -219,11 +256,8 @@ public class DocumentService {
             throw new RuntimeException("Access denied: Invite does not belong to your charity");
         }
 
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-        String uniqueFileName = generateUniqueFileName(originalFileName);
-        String storageKey = charity.getId() + "/invites/" + inviteId + "/" + uniqueFileName;
-
-        storageService.store(file, storageKey);
+        String originalFileName = StringUtils.cleanPath(content.fileName());
+        DocumentBlobService.StoredBlob blob = content.store(blobService, charity.getId());
 
         Document document = new Document();
         document.setInvite(invite);
@@ -232,14 +266,15 @@ public class DocumentService {
         document.setUploadedBy(user);
         document.setDocumentType(documentType);
         document.setFileName(originalFileName);
-        document.setFilePath(storageKey);
-        document.setFileSize(file.getSize());
-        document.setMimeType(file.getContentType());
+        document.setFilePath(blob.storageKey());
+        document.setContentHash(blob.contentHash());
+        document.setFileSize(content.size());
+        document.setMimeType(content.contentType());
         document.setDescription(description);
         document.setIsVerified(false);
         document.setUploadedByParticipant(false);
 
-        return documentRepository.save(document);
+        return saveNewDocument(document);
     }
 
     /**
@@ -252,9 +287,20 @@ public class DocumentService {
             Document.DocumentType documentType,
             String description,
             String participantName
+    ) throws IOException {
+        return uploadDocumentByParticipant(imageNormalizationService.prepare(file), inviteToken, documentType, description, participantName);
+    }
+
+    @Transactional
+    public Document uploadDocumentByParticipant(
+            DocumentContent content,
+            String inviteToken,
+            Document.DocumentType documentType,
+            String description,
+            String participantName
     ) throws IOException {
         // Validate file
-        validateFile(file);
+        validateContent(content);
 
         // Get invite by token
         ReferralInvite invite = referralInviteRepository.findByInviteToken(inviteToken)
@@ -270,15 +316,9 @@ public class DocumentService {
             throw new RuntimeException("Invite has no associated charity");
         }
 
-        // Generate unique file name
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-        String uniqueFileName = generateUniqueFileName(originalFileName);
-
-        // Create storage key: {charityId}/invites/{inviteId}/participant/{uniqueFileName}
-        String storageKey = charity.getId() + "/invites/" + invite.getId() + "/participant/" + uniqueFileName;
-
-        // Store file
-        storageService.store(file, storageKey);
+        // Store file (content-addressed: a repeat upload reuses the stored copy)
+        String originalFileName = StringUtils.cleanPath(content.fileName());
+        DocumentBlobService.StoredBlob blob = content.store(blobService, charity.getId());
 
         // Create document record
         Document document = new Document();
@@ -288,15 +328,16 @@ public class DocumentService {
         document.setUploadedBy(null); // No user - uploaded by participant
         document.setDocumentType(documentType);
         document.setFileName(originalFileName);
-        document.setFilePath(storageKey);
-        document.setFileSize(file.getSize());
-        document.setMimeType(file.getContentType());
+        document.setFilePath(blob.storageKey());
+        document.setContentHash(blob.contentHash());
+        document.setFileSize(content.size());
+        document.setMimeType(content.contentType());
         document.setDescription(description);
         document.setIsVerified(false);
         document.setUploadedByParticipant(true);
         document.setParticipantName(participantName != null ? participantName : invite.getRecipientName());
 
-        return documentRepository.save(document);
+        return saveNewDocument(document);
     }
 
     /**
@@ -332,9 +373,21 @@ public class DocumentService {
             Document.DocumentType documentType,
             String description,
             String username
+    ) throws IOException {
+        return uploadDonorDocument(imageNormalizationService.prepare(file), donorId, charityId, documentType, description, username);
+    }
+
+    @Transactional
+    public Document uploadDonorDocument(
+            DocumentContent content,
+            Long donorId,
+            Long charityId,
+            Document.DocumentType documentType,
+            String description,
+            String username
     ) throws IOException {
         // Validate file
-        validateFile(file);
+        validateContent(content);
 
         // Get user
         User user = userRepository.findByUsername(username)
@@ -359,15 +412,9 @@ public class DocumentService {
             throw new RuntimeException("Access denied: Cannot upload documents for this donor");
         }
 
-        // Generate unique file name
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-        String uniqueFileName = generateUniqueFileName(originalFileName);
-
-        // Create storage key: {charityId}/donors/{donorId}/{uniqueFileName}
-        String storageKey = charityId + "/donors/" + donorId + "/" + uniqueFileName;
-
-        // Store file
-        storageService.store(file, storageKey);
+        // Store file (content-addressed: a repeat upload reuses the stored copy)
+        String originalFileName = StringUtils.cleanPath(content.fileName());
+        DocumentBlobService.StoredBlob blob = content.store(blobService, charityId);
 
         // Create document record
         Document document = new Document();
@@ -376,13 +423,14 @@ public class DocumentService {
         document.setUploadedBy(user);
         document.setDocumentType(documentType);
         document.setFileName(originalFileName);
-        document.setFilePath(storageKey);
-        document.setFileSize(file.getSize());
-        document.setMimeType(file.getContentType());
+        document.setFilePath(blob.storageKey());
+        document.setContentHash(blob.contentHash());
+        document.setFileSize(content.size());
+        document.setMimeType(content.contentType());
         document.setDescription(description);
         document.setIsVerified(false);
 
-        return documentRepository.save(document);
+        return saveNewDocument(document);
     }
 
     /**
@@ -459,6 +507,14 @@ public class DocumentService {
         throw new RuntimeException("Access denied");
     }
 
+    /**
+     * Charity-scoped overload — caller has already checked the donor is
+     * associated with this charity.
+     */
+    public List<Document> getDocumentsForDonorByCharity(Long donorId, Long charityId) {
+        return documentRepository.findByDonorIdAndCharityId(donorId, charityId);
+    }
+
     /**
      * Get document count for a donor
      */
@@ -527,16 +583,16 @@ public class DocumentService {
     /**
      * Get all documents for current user's charity
      */
-    public List<Document> getDocumentsForCharity(String username) {
+    public Page<Document> getDocumentsForCharity(String username, Pageable pageable) {
         Long charityId = charityService.getCharityIdForUser(username);
-        return documentRepository.findByCharityIdOrderByUploadedAtDesc(charityId);
+        return documentRepository.findByCharityIdOrderByUploadedAtDesc(charityId, pageable);
     }
 
     /**
      * Charity-scoped overload — caller has already authorized the user.
      */
-    public List<Document> getDocumentsForCharityById(Long charityId) {
-        return documentRepository.findByCharityIdOrderByUploadedAtDesc(charityId);
+    public Page<Document> getDocumentsForCharityById(Long charityId, Pageable pageable) {
+        return documentRepository.findByCharityIdOrderByUploadedAtDesc(charityId, pageable);
     }
 
     /**
@@ -562,13 +618,45 @@ public class DocumentService {
         return new InputStreamResource(inputStream);
     }
 
+    /**
+     * Charity-scoped thumbnail — caller has already authorized the user.
+     * Returns empty if the document has no thumbnail (yet).
+     */
+    public Optional<Resource> getThumbnailForCharity(Long documentId, Long charityId) throws IOException {
+        Document document = getDocumentForCharity(documentId, charityId);
+        if (!document.hasThumbnail()) {
+            return Optional.empty();
+        }
+        return Optional.of(new InputStreamResource(thumbnailService.openThumbnail(document)));
+    }
+
+    /**
+     * Thumbnail of a document uploaded through an invite link (public access).
+     * Returns empty if the invite has expired or been cancelled, or the
+     * document isn't on this invite or has no thumbnail.
+     */
+    public Optional<Resource> getThumbnailForInviteToken(String inviteToken, Long documentId) throws IOException {
+        ReferralInvite invite = referralInviteRepository.findByInviteToken(inviteToken)
+                .orElseThrow(() -> new RuntimeException("Invalid invite token"));
+        // Same validity check as the invite's documents page
+        if (invite.isExpired() || invite.getStatus() == ReferralInvite.InviteStatus.CANCELLED) {
+            return Optional.empty();
+        }
+        Document document = documentRepository.findById(documentId).orElse(null);
+        if (document == null || document.getInvite() == null
+                || !document.getInvite().getId().equals(invite.getId()) || !document.hasThumbnail()) {
+            return Optional.empty();
+        }
+        return Optional.of(new InputStreamResource(thumbnailService.openThumbnail(document)));
+    }
+
     /**
      * Charity-scoped delete — caller has already authorized the user.
      */
     @Transactional
     public void deleteDocumentForCharity(Long documentId, Long charityId) throws IOException {
         Document document = getDocumentForCharity(documentId, charityId);
-        storageService.delete(document.getFilePath());
+        blobService.release(document);
         documentRepository.delete(document);
     }
 
@@ -598,6 +686,13 @@ public class DocumentService {
         return documentRepository.findByInviteIdAndCharityId(inviteId, charityId);
     }
 
+    /**
+     * Charity-scoped overload — caller has already authorized the user.
+     */
+    public List<Document> getDocumentsForInviteByCharity(Long inviteId, Long charityId) {
+        return documentRepository.findByInviteIdAndCharityId(inviteId, charityId);
+    }
+
     /**
      * Get documents for an invite by token (for public access)
      */
@@ -728,8 +823,8 @@ public class DocumentService {
     public void deleteDocument(Long documentId, String username) throws IOException {
         Document document = getDocumentWithAccessCheck(documentId, username);
 
-        // Delete file from storage (local or S3)
-        storageService.delete(document.getFilePath());
+        // Drop its reference; the stored file (local or S3) goes with the last one
+        blobService.release(document);
 
         // Delete database record
         documentRepository.delete(document);
@@ -774,40 +869,46 @@ public class DocumentService {
     // ========================================
 
     /**
-     * Validate uploaded file
+     * Save a newly uploaded document and queue its thumbnail (unless its
+     * blob already has one).
      */
-    private void validateFile(MultipartFile file) {
-        if (file.isEmpty()) {
+    private Document saveNewDocument(Document document) {
+        String sharedThumbnailKey = thumbnailService.thumbnailKeyFor(document.getFilePath());
+        if (document.getContentHash() != null && documentRepository.existsByThumbnailKey(sharedThumbnailKey)) {
+            // Same content as a document that already has its thumbnail
+            document.setThumbnailKey(sharedThumbnailKey);
+            document.setThumbnailStatus(Document.ThumbnailStatus.READY);
+        } else {
+            document.setThumbnailStatus(thumbnailService.initialStatus(document.getMimeType()));
+        }
+        Document saved = documentRepository.save(document);
+        thumbnailService.generateAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Validate uploaded file (also checked before a direct upload is allowed)
+     */
+    void validateContent(DocumentContent content) {
+        if (content.size() <= 0) {
             throw new RuntimeException("Cannot upload empty file");
         }
 
-        if (file.getSize() > MAX_FILE_SIZE) {
+        if (content.size() > MAX_FILE_SIZE) {
             throw new RuntimeException("File size exceeds maximum allowed size of 10MB");
         }
 
-        String contentType = file.getContentType();
+        String contentType = content.contentType();
         if (contentType == null || !ALLOWED_MIME_TYPES.contains(contentType)) {
             throw new RuntimeException("File type not allowed. Allowed types: PDF, JPEG, PNG, GIF, DOC, DOCX");
         }
 
-        String fileName = file.getOriginalFilename();
+        String fileName = content.fileName();
         if (fileName != null && fileName.contains("..")) {
             throw new RuntimeException("Invalid file name");
         }
     }
 
-    /**
-     * Generate unique file name
-     */
-    private String generateUniqueFileName(String originalFileName) {
-        String extension = "";
-        int dotIndex = originalFileName.lastIndexOf('.');
-        if (dotIndex > 0) {
-            extension = originalFileName.substring(dotIndex);
-        }
-        return UUID.randomUUID().toString() + extension;
-    }
-
     /**
      * Get file extension
      */
@@ -0,0 +1,237 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.Document;
+import com.learning.learning.repository.DocumentRepository;
+import com.learning.learning.service.storage.StorageService;
+import com.learning.learning.service.thumbnails.ThumbnailRenderer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates document thumbnails off the request thread.
+ *
+ * Uploads are marked PENDING and queued on a small bounded worker pool once
+ * the upload transaction commits. The worker reads the original from storage,
+ * renders a JPEG preview (ThumbnailRenderer) and stores it next to the
+ * original under "{filePath}.thumb.jpg", shared by documents with the same
+ * content-addressed blob. If the queue is full, or the instance restarts
+ * first, the periodic sweep picks the document up later; the same sweep
+ * backfills documents uploaded before thumbnails existed.
+ */
+@Service
+public class DocumentThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentThumbnailService.class);
+
+    private static final String THUMBNAIL_SUFFIX = ".thumb.jpg";
+    private static final int SWEEP_BATCH_SIZE = 50;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ThumbnailRenderer renderer;
+
+    @Value("${app.thumbnails.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.thumbnails.max-dimension:320}")
+    private int maxDimension;
+
+    @Value("${app.thumbnails.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${app.thumbnails.queue-capacity:200}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor workers;
+
+    // Documents queued or rendering on this instance, so the sweep doesn't double-queue
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "DocumentThumbnail-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Anything unfinished is still PENDING and is picked up by the next sweep
+        workers.shutdownNow();
+    }
+
+    /**
+     * Status a new document should be saved with.
+     */
+    public Document.ThumbnailStatus initialStatus(String mimeType) {
+        return enabled && renderer.supports(mimeType)
+                ? Document.ThumbnailStatus.PENDING
+                : Document.ThumbnailStatus.UNSUPPORTED;
+    }
+
+    /**
+     * Queue thumbnail generation for a just-saved document, once the current
+     * transaction commits (so the worker never races the upload's own commit).
+     */
+    public void generateAfterCommit(Document document) {
+        if (document.getThumbnailStatus() != Document.ThumbnailStatus.PENDING) {
+            return;
+        }
+        Long id = document.getId();
+        String filePath = document.getFilePath();
+        String mimeType = document.getMimeType();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(id, filePath, mimeType);
+                }
+            });
+        } else {
+            submit(id, filePath, mimeType);
+        }
+    }
+
+    /**
+     * Retry PENDING documents that were never processed (queue full, restart)
+     * and backfill documents from before thumbnails existed.
+     */
+    @Scheduled(fixedDelayString = "${app.thumbnails.sweep-interval-ms:300000}",
+            initialDelayString = "${app.thumbnails.sweep-initial-delay-ms:120000}")
+    public void sweepBacklog() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(2);
+        for (DocumentRepository.ThumbnailWork work
+                : documentRepository.findThumbnailBacklog(cutoff, PageRequest.ofSize(SWEEP_BATCH_SIZE))) {
+            if (!renderer.supports(work.getMimeType())) {
+                documentRepository.updateThumbnail(work.getId(), null, Document.ThumbnailStatus.UNSUPPORTED);
+                continue;
+            }
+            if (!submit(work.getId(), work.getFilePath(), work.getMimeType())) {
+                break; // queue full; continue next sweep
+            }
+        }
+    }
+
+    public InputStream openThumbnail(Document document) throws IOException {
+        if (!document.hasThumbnail()) {
+            throw new RuntimeException("Thumbnail not available");
+        }
+        return storageService.retrieve(document.getThumbnailKey());
+    }
+
+    /**
+     * Storage key of the thumbnail for the object at filePath. Documents
+     * sharing a content-addressed blob share its thumbnail.
+     */
+    public String thumbnailKeyFor(String filePath) {
+        return filePath + THUMBNAIL_SUFFIX;
+    }
+
+    /**
+     * Remove a document's thumbnail from storage (document is being deleted).
+     */
+    public void deleteThumbnail(Document document) {
+        deleteThumbnail(document.getThumbnailKey());
+    }
+
+    public void deleteThumbnail(String thumbnailKey) {
+        if (thumbnailKey == null) {
+            return;
+        }
+        try {
+            storageService.delete(thumbnailKey);
+        } catch (IOException e) {
+            logger.warn("Could not delete thumbnail {}: {}", thumbnailKey, e.getMessage());
+        }
+    }
+
+    private boolean submit(Long documentId, String filePath, String mimeType) {
+        if (!inFlight.add(documentId)) {
+            return true;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    generate(documentId, filePath, mimeType);
+                } finally {
+                    inFlight.remove(documentId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(documentId);
+            logger.debug("Thumbnail queue full; document {} left for the sweep", documentId);
+            return false;
+        }
+    }
+
+    private void generate(Long documentId, String filePath, String mimeType) {
+        long startTime = System.currentTimeMillis();
+        try {
+            byte[] jpeg;
+            try (InputStream original = storageService.retrieve(filePath)) {
+                jpeg = renderer.render(original, mimeType, maxDimension);
+            }
+            if (jpeg == null) {
+                documentRepository.updateThumbnail(documentId, null, Document.ThumbnailStatus.FAILED);
+                logger.info("No thumbnail for document {}: content could not be decoded", documentId);
+                return;
+            }
+
+            String thumbnailKey = thumbnailKeyFor(filePath);
+            storageService.store(new ByteArrayInputStream(jpeg), thumbnailKey, "image/jpeg", jpeg.length);
+            if (documentRepository.updateThumbnail(documentId, thumbnailKey, Document.ThumbnailStatus.READY) == 0) {
+                // Document was deleted while we were rendering; keep the
+                // thumbnail if another document of the same blob uses it
+                if (!documentRepository.existsByThumbnailKey(thumbnailKey)) {
+                    storageService.delete(thumbnailKey);
+                }
+                return;
+            }
+            logger.debug("Thumbnail for document {} ({} bytes) in {} ms",
+                    documentId, jpeg.length, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            logger.warn("Thumbnail generation failed for document {}: {}", documentId, e.getMessage());
+            try {
+                documentRepository.updateThumbnail(documentId, null, Document.ThumbnailStatus.FAILED);
+            } catch (RuntimeException updateError) {
+                logger.warn("Could not mark thumbnail failed for document {}: {}", documentId, updateError.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.Document;
+import com.learning.learning.entity.User;
+import com.learning.learning.repository.DocumentRepository;
+import com.learning.learning.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Work queue for document verification, so reviewers working at the same
+ * time each get different documents.
+ *
+ * A reviewer claims the next N unverified documents (oldest upload first,
+ * optionally for one charity and/or document type) with a lease. Claiming is
+ * a single UPDATE over a SELECT ... FOR UPDATE SKIP LOCKED: concurrent
+ * claims skip each other's rows instead of waiting or double-claiming, and
+ * the partial indexes in docs/DOCUMENT_VERIFICATION_QUEUE_MIGRATION.sql give
+ * the order, so a fetch reads about N rows (plus any claimed by others)
+ * however long the backlog. A reviewer's own claims stay eligible for them,
+ * so reloading the page returns and renews them; a claim nobody acts on
+ * lapses after lease-minutes and the document goes back to the queue.
+ * Lease expiry is set and compared on the database clock (NOW()) only, so
+ * app servers with skewed clocks still agree on it.
+ */
+@Service
+public class DocumentVerificationQueueService {
+
+    private static final int MAX_BATCH = 50;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.documents.verification.lease-minutes:15}")
+    private int leaseMinutes;
+
+    /**
+     * Claim (or renew) up to limit documents for a reviewer and return them
+     * in queue order.
+     *
+     * @param charityId    only this charity's documents, or null for all
+     * @param documentType only this type, or null for all
+     */
+    @Transactional
+    public List<DocumentRepository.VerificationQueueItem> claimNext(String username, Long charityId,
+                                                                    Document.DocumentType documentType, int limit) {
+        User reviewer = requireReviewer(username);
+
+        StringBuilder sql = new StringBuilder(
+                "UPDATE documents SET claimed_by = ?, claim_expires_at = NOW() + make_interval(mins => ?) " +
+                "WHERE id IN (" +
+                "SELECT id FROM documents WHERE is_verified = false " +
+                "AND (claim_expires_at IS NULL OR claim_expires_at < NOW() OR claimed_by = ?)");
+        List<Object> args = new ArrayList<>();
+        args.add(reviewer.getId());
+        args.add(leaseMinutes);
+        args.add(reviewer.getId());
+        if (charityId != null) {
+            sql.append(" AND charity_id = ?");
+            args.add(charityId);
+        }
+        if (documentType != null) {
+            sql.append(" AND document_type = ?");
+            args.add(documentType.name());
+        }
+        // Plain index order: the partial indexes return the next rows
+        // without sorting the backlog
+        sql.append(" ORDER BY uploaded_at ASC, id ASC LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id");
+        args.add(Math.max(1, Math.min(limit, MAX_BATCH)));
+
+        List<Long> ids = jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return documentRepository.findVerificationQueueItems(ids);
+    }
+
+    /**
+     * Verify a document. Refused while another reviewer holds an unexpired
+     * claim on it. The claim check and its release are one UPDATE, which
+     * also locks the row until the verification commits, so a claim taken
+     * in between can't be overridden.
+     */
+    @Transactional
+    public Document verify(Long documentId, String username) {
+        User reviewer = requireReviewer(username);
+        int released = jdbcTemplate.update(
+                "UPDATE documents SET claimed_by = NULL, claim_expires_at = NULL WHERE id = ? " +
+                "AND (claimed_by IS NULL OR claimed_by = ? OR claim_expires_at IS NULL OR claim_expires_at < NOW())",
+                documentId, reviewer.getId());
+        if (released == 0) {
+            if (!documentRepository.existsById(documentId)) {
+                throw new RuntimeException("Document not found");
+            }
+            throw new RuntimeException("Document is being reviewed by another user");
+        }
+
+        Document verified = documentService.verifyDocument(documentId, username);
+        verified.setClaimedBy(null);
+        verified.setClaimExpiresAt(null);
+        return documentRepository.save(verified);
+    }
+
+    /**
+     * Hand all of a reviewer's claims back to the queue, when they stop
+     * reviewing, rather than leave them locked until the lease runs out.
+     *
+     * @return the number of documents released
+     */
+    @Transactional
+    public int releaseAll(String username) {
+        User reviewer = requireReviewer(username);
+        return jdbcTemplate.update(
+                "UPDATE documents SET claimed_by = NULL, claim_expires_at = NULL " +
+                "WHERE claimed_by = ? AND is_verified = false", reviewer.getId());
+    }
+
+    private User requireReviewer(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.isFacilitator() && !user.isAdmin()) {
+            throw new RuntimeException("Only facilitators and admins can verify documents");
+        }
+        return user;
+    }
+}
@@ -0,0 +1,202 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.Booking;
+import com.learning.learning.entity.Donation;
+import com.learning.learning.entity.DonationLedgerEntry;
+import com.learning.learning.repository.DonationLedgerEntryRepository;
+import com.learning.learning.repository.DonationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Owns the fundable balance of donations.
+ *
+ * Every movement is appended to donation_ledger_entries and applied to
+ * Donation.remainingAmount in the caller's transaction, with the donation row
+ * locked, so balance reads are a column read instead of re-summing bookings
+ * and two concurrent bookings can't both spend the last dollars. Donation
+ * status (PARTIALLY_USED / FULLY_USED / back to VERIFIED) follows from the
+ * balance after each movement.
+ *
+ * {@link #reconcileBalances()} recomputes every balance from the ledger and
+ * repairs drift, so the ledger stays the source of truth.
+ */
+@Service
+public class DonationLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DonationLedgerService.class);
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private DonationLedgerEntryRepository ledgerRepository;
+
+    /**
+     * Draw a booking's cost from a donation. Throws if the remaining balance
+     * doesn't cover it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Donation debitForBooking(Long donationId, Booking booking, BigDecimal amount) {
+        Donation donation = donationRepository.findByIdForUpdate(donationId)
+                .orElseThrow(() -> new RuntimeException("Funding donation not found"));
+
+        BigDecimal remaining = donation.getAmountRemaining();
+        if (amount.compareTo(remaining) > 0) {
+            throw new RuntimeException("Not enough donation funds available. Booking cost: $" + amount + ", Available: $" + remaining);
+        }
+
+        append(donation, booking, DonationLedgerEntry.EntryType.DEBIT, amount,
+                "Booking " + describe(booking) + " funded");
+        return donation;
+    }
+
+    /**
+     * Return whatever a cancelled booking still holds to its donation. Safe to
+     * call more than once for the same booking.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void creditForCancelledBooking(Booking booking) {
+        if (booking.getFundingDonation() == null || booking.getId() == null) {
+            return;
+        }
+        Donation donation = donationRepository.findByIdForUpdate(booking.getFundingDonation().getId())
+                .orElseThrow(() -> new RuntimeException("Funding donation not found"));
+
+        // Checked under the donation lock so concurrent cancels can't both credit
+        BigDecimal held = ledgerRepository.sumNetDebitsByBookingId(booking.getId());
+        if (held.signum() <= 0) {
+            return;
+        }
+        append(donation, booking, DonationLedgerEntry.EntryType.CREDIT, held,
+                "Booking " + describe(booking) + " cancelled");
+    }
+
+    /**
+     * Draw funds again for a booking moved back out of CANCELLED.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void debitForReinstatedBooking(Booking booking) {
+        if (booking.getFundingDonation() == null || booking.getFundedAmount() == null
+                || booking.getFundedAmount().signum() <= 0) {
+            return;
+        }
+        if (ledgerRepository.sumNetDebitsByBookingId(booking.getId()).signum() > 0) {
+            return;
+        }
+        debitForBooking(booking.getFundingDonation().getId(), booking, booking.getFundedAmount());
+    }
+
+    @Transactional(readOnly = true)
+    public List<DonationLedgerEntry> getLedger(Long donationId) {
+        return ledgerRepository.findByDonationIdOrderByIdAsc(donationId);
+    }
+
+    /**
+     * Consistency check: rebuild remaining_amount = net_amount - (debits - credits)
+     * for every donation and fix any row that disagrees.
+     *
+     * @return number of donations whose balance was corrected
+     */
+    @Scheduled(cron = "${app.donation-ledger.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public int reconcileBalances() {
+        int corrected = 0;
+        for (Object[] row : ledgerRepository.findBalanceSnapshots()) {
+            Long donationId = (Long) row[0];
+            BigDecimal net = row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO;
+            BigDecimal stored = (BigDecimal) row[2];
+            BigDecimal expected = net.subtract((BigDecimal) row[3]);
+
+            if (stored != null && stored.compareTo(expected) == 0) {
+                continue;
+            }
+            Donation donation = donationRepository.findByIdForUpdate(donationId).orElse(null);
+            if (donation == null) continue;
+            // Re-read under the lock; a booking may have moved the balance since the snapshot
+            expected = net.subtract(ledgerRepository.sumNetDebitsByDonationId(donationId));
+            if (donation.getRemainingAmount() != null && donation.getRemainingAmount().compareTo(expected) == 0) {
+                continue;
+            }
+
+            logger.warn("Donation {} remaining_amount drifted: stored={}, ledger={}; correcting",
+                    donationId, stored, expected);
+            donation.setRemainingAmount(expected);
+            applyStatus(donation);
+            donationRepository.save(donation);
+            corrected++;
+        }
+        if (corrected > 0) {
+            logger.warn("Donation ledger reconciliation corrected {} balance(s)", corrected);
+        }
+        return corrected;
+    }
+
+    private void append(Donation donation, Booking booking, DonationLedgerEntry.EntryType type,
+                        BigDecimal amount, String description) {
+        BigDecimal balance = donation.getAmountRemaining();
+        balance = type == DonationLedgerEntry.EntryType.DEBIT ? balance.subtract(amount) : balance.add(amount);
+        donation.setRemainingAmount(balance);
+
+        DonationLedgerEntry entry = new DonationLedgerEntry();
+        entry.setDonation(donation);
+        entry.setBooking(booking);
+        entry.setEntryType(type);
+        entry.setAmount(amount);
+        entry.setBalanceAfter(balance);
+        entry.setDescription(description);
+        ledgerRepository.save(entry);
+
+        applyStatus(donation);
+        donationRepository.save(donation);
+    }
+
+    /**
+     * Derive the usage status from the balance. Only donations that are
+     * already available for funding move; PENDING and CANCELLED are left to
+     * the verification flow.
+     */
+    private void applyStatus(Donation donation) {
+        Donation.DonationStatus current = donation.getStatus();
+        if (current != Donation.DonationStatus.VERIFIED
+                && current != Donation.DonationStatus.ALLOCATED
+                && current != Donation.DonationStatus.PARTIALLY_USED
+                && current != Donation.DonationStatus.FULLY_USED) {
+            return;
+        }
+
+        BigDecimal net = donation.getNetAmount() != null ? donation.getNetAmount() : BigDecimal.ZERO;
+        BigDecimal remaining = donation.getAmountRemaining();
+        Donation.DonationStatus next;
+        if (remaining.signum() <= 0 && net.signum() > 0) {
+            next = Donation.DonationStatus.FULLY_USED;
+        } else if (remaining.compareTo(net) < 0) {
+            next = Donation.DonationStatus.PARTIALLY_USED;
+        } else if (current == Donation.DonationStatus.ALLOCATED) {
+            // Allocated to situations but no bookings drawn on it; keep as is
+            next = current;
+        } else {
+            next = Donation.DonationStatus.VERIFIED;
+        }
+
+        if (next != current) {
+            logger.info("Donation {} status {} → {} (remaining ${} of ${})",
+                    donation.getId(), current, next, remaining, net);
+            donation.setStatus(next);
+        }
+    }
+
+    private static String describe(Booking booking) {
+        if (booking == null) return "(none)";
+        if (booking.getConfirmationCode() != null) return booking.getConfirmationCode();
+        return "#" + booking.getId();
+    }
+}
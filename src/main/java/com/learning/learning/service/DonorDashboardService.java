@@ -72,18 +72,11 @@ public class DonorDashboardService {
 
         // Compute money-based stats from funded bookings
         BigDecimal totalAmountUsed = BigDecimal.ZERO;
-        int staysFunded = 0;
         for (Donation d : donations) {
-            BigDecimal used = bookingRepository.sumFundedAmountByDonationId(d.getId());
-            if (used != null) {
-                totalAmountUsed = totalAmountUsed.add(used);
-            }
-            Long bookingCount = bookingRepository.countByFundingDonationIdAndBookingStatusNot(
-                    d.getId(), Booking.BookingStatus.CANCELLED);
-            if (bookingCount != null) {
-                staysFunded += bookingCount.intValue();
-            }
+            totalAmountUsed = totalAmountUsed.add(d.getAmountUsed());
         }
+        int staysFunded = (int) bookingRepository.countFundedByDonorIdAndBookingStatusNot(
+                donorId, Booking.BookingStatus.CANCELLED);
         BigDecimal amountRemaining = totalNetFunds.subtract(totalAmountUsed);
         if (amountRemaining.compareTo(BigDecimal.ZERO) < 0) {
             amountRemaining = BigDecimal.ZERO;
@@ -162,18 +155,11 @@ public class DonorDashboardService {
 
         // Compute money-based stats from funded bookings
         BigDecimal totalAmountUsed = BigDecimal.ZERO;
-        int staysFunded = 0;
         for (Donation d : donations) {
-            BigDecimal used = bookingRepository.sumFundedAmountByDonationId(d.getId());
-            if (used != null) {
-                totalAmountUsed = totalAmountUsed.add(used);
-            }
-            Long bookingCount = bookingRepository.countByFundingDonationIdAndBookingStatusNot(
-                    d.getId(), Booking.BookingStatus.CANCELLED);
-            if (bookingCount != null) {
-                staysFunded += bookingCount.intValue();
-            }
+            totalAmountUsed = totalAmountUsed.add(d.getAmountUsed());
         }
+        int staysFunded = (int) bookingRepository.countFundedByDonorIdAndCharityIdAndBookingStatusNot(
+                donorId, charityId, Booking.BookingStatus.CANCELLED);
         BigDecimal amountRemaining = totalNetFunds.subtract(totalAmountUsed);
         if (amountRemaining.compareTo(BigDecimal.ZERO) < 0) {
             amountRemaining = BigDecimal.ZERO;
@@ -0,0 +1,79 @@
+package com.learning.learning.service;
+
+import com.learning.learning.service.email.BookingConfirmationEmail;
+import com.learning.learning.service.email.EmailModel;
+import com.learning.learning.service.email.ParticipantApprovalEmail;
+import com.learning.learning.service.email.PartnerApprovalEmail;
+import com.learning.learning.service.email.PartnerRejectionEmail;
+import com.learning.learning.service.email.TaxReceiptEmail;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders HTML email bodies from the Thymeleaf templates in
+ * classpath:email/, each from a small typed model (service.email).
+ *
+ * The engine is private to this service and separate from the web one, which
+ * runs with spring.thymeleaf.cache=false. Here templates are always cached
+ * and SpEL expressions compiled, and every template is rendered once at
+ * startup, so a message only costs the render itself; bulk sends (tax
+ * receipts) don't re-read or re-parse anything per email. Not a bean of its
+ * own on purpose: a TemplateEngine bean would replace Spring Boot's web one.
+ */
+@Service
+public class EmailTemplateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateService.class);
+
+    private SpringTemplateEngine engine;
+
+    @PostConstruct
+    void init() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("email/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null); // never expire: templates only change with a deploy
+
+        engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(true);
+
+        warmUp();
+    }
+
+    public String render(EmailModel model) {
+        Context context = new Context(Locale.getDefault());
+        context.setVariable("m", model);
+        return engine.process(model.template(), context);
+    }
+
+    /**
+     * Parse every template (and compile its expressions) now rather than on
+     * the first email, which also fails startup on a broken template.
+     */
+    private void warmUp() {
+        long started = System.nanoTime();
+        List<EmailModel> samples = List.of(
+                new ParticipantApprovalEmail("Sample", "REF-0", "Today"),
+                new PartnerApprovalEmail("REF-0", "Sample", "Today", "Notes", "http://localhost", "http://localhost"),
+                new PartnerRejectionEmail("REF-0", "Sample", "Reason", "http://localhost", "http://localhost"),
+                new BookingConfirmationEmail("Sample", "CODE", "Location", "Address", "TBD", "TBD", 1, "Notes"),
+                new TaxReceiptEmail("Sample", 2000, "Charity", "http://localhost", "0"));
+        samples.forEach(this::render);
+        logger.debug("Email templates ready: {} parsed in {} ms", samples.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+}
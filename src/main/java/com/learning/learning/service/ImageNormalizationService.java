@@ -0,0 +1,180 @@
+package com.learning.learning.service;
+
+import com.learning.learning.service.images.ImageNormalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional upload-time normalization of photos (app.documents.image-normalization.enabled).
+ *
+ * JPEG and PNG uploads are re-encoded by ImageNormalizer on a small bounded
+ * pool before they are stored: EXIF orientation applied, scaled down to
+ * max-dimension, recompressed at quality. The result replaces the upload if
+ * it is smaller (or had to be turned upright). Normalization is best effort:
+ * if the pool is busy, the image takes longer than time-budget-ms or can't
+ * be decoded, the upload is stored exactly as received.
+ *
+ * With keep-original, the untouched upload is also kept under the charity's
+ * "originals/" prefix (DocumentBlobService.originalKey), meant for a storage
+ * lifecycle rule that moves it to a cold storage class.
+ */
+@Service
+public class ImageNormalizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageNormalizationService.class);
+
+    @Autowired
+    private ImageNormalizer normalizer;
+
+    @Value("${app.documents.image-normalization.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.documents.image-normalization.max-dimension:2400}")
+    private int maxDimension;
+
+    @Value("${app.documents.image-normalization.quality:0.85}")
+    private float quality;
+
+    @Value("${app.documents.image-normalization.max-pixels:50000000}")
+    private long maxPixels;
+
+    @Value("${app.documents.image-normalization.keep-original:false}")
+    private boolean keepOriginal;
+
+    @Value("${app.documents.image-normalization.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${app.documents.image-normalization.queue-capacity:8}")
+    private int queueCapacity;
+
+    @Value("${app.documents.image-normalization.time-budget-ms:5000}")
+    private long timeBudgetMs;
+
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "ImageNormalizer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Whether uploads of this type are normalized. Such files can't be
+     * uploaded straight to storage, which would store them as they are.
+     */
+    public boolean applies(String contentType) {
+        return enabled && normalizer.supports(contentType);
+    }
+
+    /**
+     * The content to store for a multipart upload: the normalized image, or
+     * the upload itself when it isn't normalized.
+     */
+    public DocumentContent prepare(MultipartFile file) throws IOException {
+        DocumentContent upload = DocumentContent.of(file);
+        if (!applies(file.getContentType()) || file.isEmpty()) {
+            return upload;
+        }
+
+        byte[] original = file.getBytes();
+        long started = System.nanoTime();
+        ImageNormalizer.Normalized normalized;
+        Future<ImageNormalizer.Normalized> task;
+        try {
+            task = workers.submit(() ->
+                    normalizer.normalize(original, file.getContentType(), maxDimension, quality, maxPixels));
+        } catch (RejectedExecutionException e) {
+            logger.info("Image normalization queue full; storing upload of {} bytes as is", original.length);
+            return upload;
+        }
+        try {
+            normalized = task.get(timeBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The worker can't be stopped mid-decode, but the pool bounds how
+            // many of these run at once
+            task.cancel(true);
+            logger.warn("Image normalization exceeded {} ms; storing upload of {} bytes as is",
+                    timeBudgetMs, original.length);
+            return upload;
+        } catch (ExecutionException e) {
+            logger.warn("Image normalization failed; storing upload as is: {}", e.getCause().getMessage());
+            return upload;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return upload;
+        }
+
+        if (normalized == null || (normalized.content().length >= original.length && !normalized.reoriented())) {
+            return upload;
+        }
+        logger.debug("Normalized {} upload from {} to {} bytes in {} ms", file.getContentType(), original.length,
+                normalized.content().length, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return new NormalizedImage(fileNameFor(file.getOriginalFilename(), normalized.mimeType()),
+                normalized.mimeType(), normalized.content(), keepOriginal ? file : null);
+    }
+
+    /**
+     * Keep the upload's name, with the extension of the type it was
+     * re-encoded to (a PNG photo becomes .jpg).
+     */
+    static String fileNameFor(String fileName, String mimeType) {
+        if (fileName == null || !"image/jpeg".equals(mimeType)) {
+            return fileName;
+        }
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return fileName;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + ".jpg";
+    }
+
+    /**
+     * A re-encoded image, and the upload it came from if that is to be kept.
+     */
+    record NormalizedImage(String fileName, String contentType, byte[] content, MultipartFile original)
+            implements DocumentContent {
+
+        @Override
+        public long size() {
+            return content.length;
+        }
+
+        @Override
+        public DocumentBlobService.StoredBlob store(DocumentBlobService blobService, Long charityId)
+                throws IOException {
+            DocumentBlobService.StoredBlob blob = blobService.store(charityId, content, contentType);
+            if (original != null && blob.created()) {
+                blobService.storeOriginal(charityId, blob.contentHash(), original);
+            }
+            return blob;
+        }
+    }
+}
@@ -7,12 +7,15 @@ import com.learning.learning.repository.LocationAvailabilityRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
@@ -23,10 +26,50 @@ public class LocationAvailabilityService {
     @Autowired
     private LocationAvailabilityRepository availabilityRepository;
 
+    @Autowired
+    private PartnerCalendarFeedService partnerCalendarFeedService;
+
     public List<LocationAvailability> getAvailabilityForLocation(Long partnerLocationId) {
         return availabilityRepository.findByPartnerLocationIdOrderByStartDateAsc(partnerLocationId);
     }
 
+    /**
+     * "Which of this charity's linked partner properties have an AVAILABLE
+     * window covering every night from checkIn up to (not including) checkOut?"
+     * One indexed query; each result row is the containing window with its
+     * property fetched.
+     *
+     * @param minGuests optional — skip properties whose max_guests is below this
+     * @param city      optional — exact, case-insensitive city match
+     */
+    @Transactional(readOnly = true)
+    public Page<LocationAvailability> searchAvailableForCharity(Long charityId, LocalDate checkIn, LocalDate checkOut,
+                                                                Integer minGuests, String city, Pageable pageable) {
+        if (checkIn == null || checkOut == null) {
+            throw new RuntimeException("Check-in and check-out dates are required.");
+        }
+        if (!checkOut.isAfter(checkIn)) {
+            throw new RuntimeException("Check-out must be after check-in.");
+        }
+        String normalizedCity = city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+        return availabilityRepository.searchAvailableForCharity(
+                charityId, checkIn, checkOut.minusDays(1),
+                minGuests != null ? minGuests : 0, normalizedCity, pageable);
+    }
+
+    /**
+     * Same predicate as {@link #searchAvailableForCharity} narrowed to one
+     * property — used by booking creation to validate a partner-property
+     * booking with a single indexed lookup.
+     */
+    @Transactional(readOnly = true)
+    public boolean isBookableForCharity(Long charityId, Long partnerLocationId, LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            return false;
+        }
+        return availabilityRepository.existsBookableWindow(charityId, partnerLocationId, checkIn, checkOut.minusDays(1));
+    }
+
     @Transactional
     public LocationAvailability addWindow(PartnerLocation location, LocalDate startDate, LocalDate endDate,
                                            LocalTime startTime, LocalTime endTime, String notes) {
@@ -105,21 +148,13 @@ public class LocationAvailabilityService {
         // The last night occupied is checkOutDate - 1
         LocalDate lastNight = checkOutDate.minusDays(1);
 
-        // Find an AVAILABLE window that fully contains [checkInDate, lastNight]
-        List<LocationAvailability> windows = availabilityRepository.findByPartnerLocationIdOrderByStartDateAsc(location.getId());
-        LocationAvailability containing = null;
-        for (LocationAvailability w : windows) {
-            if (w.getStatus() != LocationAvailability.AvailabilityStatus.AVAILABLE) {
-                continue;
-            }
-            if (!w.getStartDate().isAfter(checkInDate) && !w.getEndDate().isBefore(lastNight)) {
-                containing = w;
-                break;
-            }
-        }
-        if (containing == null) {
+        // Find (and lock) the AVAILABLE window that fully contains [checkInDate, lastNight]
+        List<LocationAvailability> windows = availabilityRepository.findContainingAvailableWindowsForUpdate(
+                location.getId(), checkInDate, lastNight);
+        if (windows.isEmpty()) {
             throw new RuntimeException("The selected dates are not within an available window for this property.");
         }
+        LocationAvailability containing = windows.get(0);
 
         // Capture the original bounds before mutating
         LocalDate origStart = containing.getStartDate();
@@ -160,6 +195,7 @@ public class LocationAvailabilityService {
         containing.setStatus(LocationAvailability.AvailabilityStatus.BOOKED);
         containing.setBooking(booking);
         LocationAvailability booked = availabilityRepository.save(containing);
+        partnerCalendarFeedService.markChanged(location);
         logger.info("Booked partner_location_id={} window {} → {} for booking_id={}",
                 location.getId(), checkInDate, lastNight, booking != null ? booking.getId() : null);
         return booked;
@@ -181,7 +217,30 @@ public class LocationAvailabilityService {
         window.setStatus(LocationAvailability.AvailabilityStatus.AVAILABLE);
         window.setBooking(null);
         availabilityRepository.save(window);
+        partnerCalendarFeedService.markChanged(window.getPartnerLocation());
         logger.info("Released availability window id={} (was booked by booking_id={})",
                 window.getId(), booking.getId());
     }
+
+    // DTO for availability search results (one per matching partner property)
+    public record AvailableProperty(
+            Long partnerLocationId,
+            String name,
+            String address,
+            String city,
+            String state,
+            String zipCode,
+            Integer maxGuests,
+            Integer numberOfBedrooms,
+            Long windowId,
+            LocalDate windowStart,
+            LocalDate windowEnd
+    ) {
+        public static AvailableProperty from(LocationAvailability window) {
+            PartnerLocation pl = window.getPartnerLocation();
+            return new AvailableProperty(pl.getId(), pl.getName(), pl.getAddress(), pl.getCity(), pl.getState(),
+                    pl.getZipCode(), pl.getMaxGuests(), pl.getNumberOfBedrooms(),
+                    window.getId(), window.getStartDate(), window.getEndDate());
+        }
+    }
 }
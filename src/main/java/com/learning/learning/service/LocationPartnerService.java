@@ -36,6 +36,9 @@ public class LocationPartnerService {
     @Autowired
     private PartnerLocationRepository partnerLocationRepository;
 
+    @Autowired
+    private PartnerCalendarFeedService partnerCalendarFeedService;
+
     public LocationPartner getPartnerForUser(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
@@ -149,6 +152,10 @@ public class LocationPartnerService {
         if (name == null || name.isBlank()) {
             throw new RuntimeException("Property name is required.");
         }
+        if (!name.trim().equals(pl.getName())) {
+            // The property name is on the partner's calendar feed
+            partnerCalendarFeedService.markChanged(pl);
+        }
         pl.setName(name.trim());
         pl.setPropertyType(propertyType);
         pl.setNumberOfBedrooms(numberOfBedrooms);
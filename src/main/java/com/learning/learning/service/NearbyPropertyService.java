@@ -0,0 +1,201 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.CharityLocation;
+import com.learning.learning.entity.PartnerLocation;
+import com.learning.learning.repository.CharityLocationRepository;
+import com.learning.learning.repository.PartnerLocationCharityRepository;
+import com.learning.learning.repository.PartnerLocationRepository;
+import com.learning.learning.service.geo.GeoBucketIndex;
+import com.learning.learning.service.geo.GeoPoint;
+import com.learning.learning.service.geo.ZipCentroidDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * "Nearest properties within N miles of this ZIP" for charity locations and
+ * linked partner properties — fully offline.
+ *
+ * Property coordinates come from the latitude/longitude columns; rows missing
+ * them are backfilled from {@link ZipCentroidDirectory} when the index is
+ * rebuilt. The index itself is an immutable {@link GeoBucketIndex} snapshot,
+ * rebuilt on startup and then periodically, so queries never touch the DB for
+ * the geometric part.
+ */
+@Service
+public class NearbyPropertyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearbyPropertyService.class);
+
+    public static final String TYPE_CHARITY = "charity";
+    public static final String TYPE_PARTNER = "partner";
+
+    /** Upper bound on any radius a caller can request. */
+    private static final double MAX_RADIUS_MILES = 500.0;
+
+    @Autowired
+    private CharityLocationRepository charityLocationRepository;
+
+    @Autowired
+    private PartnerLocationRepository partnerLocationRepository;
+
+    @Autowired
+    private PartnerLocationCharityRepository partnerLocationCharityRepository;
+
+    @Autowired
+    private LocationAvailabilityService locationAvailabilityService;
+
+    @Autowired
+    private ZipCentroidDirectory zipCentroids;
+
+    @Value("${app.geo.index.enabled:true}")
+    private boolean indexEnabled;
+
+    private volatile GeoBucketIndex<IndexedProperty> index = GeoBucketIndex.empty();
+
+    /**
+     * Rebuild the spatial index from active locations, backfilling missing
+     * coordinates from ZIP centroids. Runs at startup and then every
+     * {@code app.geo.index-refresh-ms} (default 10 minutes), unless
+     * {@code app.geo.index.enabled} is false.
+     */
+    @Scheduled(fixedDelayString = "${app.geo.index-refresh-ms:600000}")
+    @Transactional
+    public void rebuildIndex() {
+        if (!indexEnabled) {
+            return;
+        }
+        List<GeoBucketIndex.Entry<IndexedProperty>> entries = new ArrayList<>();
+        int backfilled = 0;
+
+        for (CharityLocation location : charityLocationRepository.findAllActiveLocationsOrderByCharityAndName()) {
+            if (location.getLatitude() == null || location.getLongitude() == null) {
+                Optional<GeoPoint> centroid = zipCentroids.lookup(location.getZipCode());
+                if (centroid.isEmpty()) continue;
+                location.setLatitude(centroid.get().latitude());
+                location.setLongitude(centroid.get().longitude());
+                backfilled++;
+            }
+            entries.add(new GeoBucketIndex.Entry<>(
+                    new GeoPoint(location.getLatitude(), location.getLongitude()),
+                    new IndexedProperty(TYPE_CHARITY, location.getId(), location.getLocationName(),
+                            location.getCity(), location.getState(), location.getZipCode(),
+                            location.getCapacity(), Set.of(location.getCharity().getId()))));
+        }
+
+        Map<Long, Set<Long>> charitiesByPartnerLocation = new HashMap<>();
+        for (Object[] link : partnerLocationCharityRepository.findAllLinkIds()) {
+            charitiesByPartnerLocation.computeIfAbsent((Long) link[0], k -> new HashSet<>()).add((Long) link[1]);
+        }
+
+        for (PartnerLocation location : partnerLocationRepository.findByIsActiveTrue()) {
+            Set<Long> charityIds = charitiesByPartnerLocation.get(location.getId());
+            if (charityIds == null) continue; // not bookable by anyone yet
+            if (location.getLatitude() == null || location.getLongitude() == null) {
+                Optional<GeoPoint> centroid = zipCentroids.lookup(location.getZipCode());
+                if (centroid.isEmpty()) continue;
+                location.setLatitude(centroid.get().latitude());
+                location.setLongitude(centroid.get().longitude());
+                backfilled++;
+            }
+            entries.add(new GeoBucketIndex.Entry<>(
+                    new GeoPoint(location.getLatitude(), location.getLongitude()),
+                    new IndexedProperty(TYPE_PARTNER, location.getId(), location.getName(),
+                            location.getCity(), location.getState(), location.getZipCode(),
+                            location.getMaxGuests(), Set.copyOf(charityIds))));
+        }
+
+        index = GeoBucketIndex.build(entries);
+        logger.info("Nearest-property index rebuilt: {} properties ({} coordinates backfilled from ZIP centroids)",
+                entries.size(), backfilled);
+    }
+
+    /**
+     * Up to {@code limit} of the charity's own locations and linked partner
+     * properties within {@code radiusMiles} of the ZIP code, nearest first.
+     */
+    public List<NearbyProperty> findNearby(Long charityId, String zipCode, double radiusMiles, int limit) {
+        GeoPoint origin = resolveZip(zipCode);
+        return index.nearest(origin, limit, clampRadius(radiusMiles),
+                        p -> p.charityIds().contains(charityId))
+                .stream()
+                .map(NearbyProperty::from)
+                .toList();
+    }
+
+    /**
+     * Like {@link #findNearby}, restricted to partner properties that have an
+     * AVAILABLE window covering every night from checkIn to checkOut.
+     */
+    public List<NearbyProperty> findNearbyAvailable(Long charityId, String zipCode, double radiusMiles, int limit,
+                                                    LocalDate checkIn, LocalDate checkOut, Integer guests) {
+        GeoPoint origin = resolveZip(zipCode);
+        Set<Long> availableIds = locationAvailabilityService
+                .searchAvailableForCharity(charityId, checkIn, checkOut, guests, null, Pageable.unpaged())
+                .stream()
+                .map(w -> w.getPartnerLocation().getId())
+                .collect(Collectors.toSet());
+        if (availableIds.isEmpty()) {
+            return List.of();
+        }
+        return index.nearest(origin, limit, clampRadius(radiusMiles),
+                        p -> TYPE_PARTNER.equals(p.type()) && availableIds.contains(p.id()))
+                .stream()
+                .map(NearbyProperty::from)
+                .toList();
+    }
+
+    private GeoPoint resolveZip(String zipCode) {
+        return zipCentroids.lookup(zipCode)
+                .orElseThrow(() -> new RuntimeException("Unknown ZIP code: " + zipCode));
+    }
+
+    private static double clampRadius(double radiusMiles) {
+        return Math.max(1.0, Math.min(radiusMiles, MAX_RADIUS_MILES));
+    }
+
+    // Index payload — immutable, safe to share across request threads
+    public record IndexedProperty(
+            String type,
+            Long id,
+            String name,
+            String city,
+            String state,
+            String zipCode,
+            Integer capacity,
+            Set<Long> charityIds
+    ) {}
+
+    // DTO returned to callers
+    public record NearbyProperty(
+            String type,
+            Long id,
+            String name,
+            String city,
+            String state,
+            String zipCode,
+            Integer capacity,
+            double distanceMiles
+    ) {
+        static NearbyProperty from(GeoBucketIndex.Match<IndexedProperty> match) {
+            IndexedProperty p = match.value();
+            return new NearbyProperty(p.type(), p.id(), p.name(), p.city(), p.state(), p.zipCode(),
+                    p.capacity(), Math.round(match.distanceMiles() * 10) / 10.0);
+        }
+    }
+}
@@ -39,16 +39,13 @@ public class PartnerBookingsCalendarService {
 
     public List<CalendarEvent> getEvents(LocalDate rangeStart, LocalDate rangeEnd,
                                           Long partnerFilter, Long charityFilter) {
-        List<LocationAvailability> rows = availabilityRepository.findOverlappingRange(rangeStart, rangeEnd);
+        // Only show BOOKED slices on the calendar — AVAILABLE windows are kept
+        // private to the partner's own dashboard and aren't useful here.
+        List<LocationAvailability> rows = availabilityRepository.findOverlappingRangeWithDetails(
+                rangeStart, rangeEnd, LocationAvailability.AvailabilityStatus.BOOKED);
         List<CalendarEvent> events = new ArrayList<>();
 
         for (LocationAvailability row : rows) {
-            // Only show BOOKED slices on the calendar — AVAILABLE windows are kept
-            // private to the partner's own dashboard and aren't useful here.
-            if (row.getStatus() != LocationAvailability.AvailabilityStatus.BOOKED) {
-                continue;
-            }
-
             PartnerLocation pl = row.getPartnerLocation();
             if (pl == null) continue;
             LocationPartner partner = pl.getLocationPartner();
@@ -0,0 +1,248 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.LocationPartner;
+import com.learning.learning.entity.PartnerLocation;
+import com.learning.learning.repository.LocationAvailabilityRepository;
+import com.learning.learning.repository.LocationAvailabilityRepository.BookedSliceView;
+import com.learning.learning.repository.LocationPartnerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-only iCalendar (RFC 5545) feed of a stay partner's booked nights, for
+ * subscribing from Google/Apple/Outlook calendars.
+ *
+ * Calendar clients poll every few minutes, so the feed is built to be cheap
+ * when nothing changed: every partner carries a calendar_version counter that
+ * is bumped whenever one of its booked slices changes, and the controller uses
+ * it as a strong ETag. A matching If-None-Match is answered from the
+ * location_partners row alone. Full bodies are streamed row-by-row from a flat
+ * projection so large portfolios never materialise entity graphs.
+ *
+ * No participant PII is published — events carry only the confirmation code,
+ * the referring charity and the booking status.
+ */
+@Service
+public class PartnerCalendarFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartnerCalendarFeedService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter ICS_UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final String CRLF = "\r\n";
+    // RFC 5545 §3.1: lines SHOULD NOT be longer than 75 octets
+    private static final int MAX_LINE_OCTETS = 75;
+
+    @Autowired
+    private LocationPartnerRepository locationPartnerRepository;
+
+    @Autowired
+    private LocationAvailabilityRepository availabilityRepository;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    // Domain part of every event UID; the app's own host, so UIDs are ours
+    private String uidDomain;
+
+    // How far back booked stays stay in the feed; older events are dropped
+    @Value("${app.calendar-feed.history-days:90}")
+    private int historyDays;
+
+    @PostConstruct
+    void init() {
+        String host = URI.create(baseUrl).getHost();
+        uidDomain = host != null ? host : "localhost";
+    }
+
+    /**
+     * Bump the feed version for the partner that owns this property. Runs in
+     * the caller's transaction so the new ETag only becomes visible together
+     * with the change that caused it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markChanged(PartnerLocation location) {
+        if (location == null || location.getLocationPartner() == null) {
+            return;
+        }
+        locationPartnerRepository.incrementCalendarVersion(location.getLocationPartner().getId());
+    }
+
+    /**
+     * Bump the feed version of every partner showing this charity's name on a
+     * booking, after the charity is renamed. Same transaction rule as
+     * {@link #markChanged}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markCharityChanged(Long charityId) {
+        locationPartnerRepository.incrementCalendarVersionForCharity(charityId);
+    }
+
+    /**
+     * First day a booked stay must reach to still be in the feed. It moves
+     * daily, so it is part of the ETag along with the version: a feed whose
+     * oldest events have aged out is a changed feed.
+     */
+    public LocalDate historyStart() {
+        return LocalDate.now().minusDays(historyDays);
+    }
+
+    public Optional<LocationPartnerRepository.CalendarFeedState> findFeed(String token) {
+        if (token == null || token.isBlank() || token.length() > 64) {
+            return Optional.empty();
+        }
+        return locationPartnerRepository.findCalendarFeedStateByToken(token);
+    }
+
+    /**
+     * Subscription URL for the partner, issuing a token on first use.
+     */
+    @Transactional
+    public String getFeedUrl(LocationPartner partner) {
+        if (partner.getCalendarFeedToken() == null) {
+            partner.setCalendarFeedToken(newToken());
+            locationPartnerRepository.save(partner);
+        }
+        return baseUrl + "/calendar/partner/" + partner.getCalendarFeedToken() + ".ics";
+    }
+
+    /**
+     * Replace the feed token, cutting off every existing subscription.
+     */
+    @Transactional
+    public String regenerateToken(LocationPartner partner) {
+        partner.setCalendarFeedToken(newToken());
+        locationPartnerRepository.save(partner);
+        logger.info("Regenerated calendar feed token for location_partner_id={}", partner.getId());
+        return getFeedUrl(partner);
+    }
+
+    /**
+     * Write the full VCALENDAR for a partner: booked stays ending on or after
+     * since ({@link #historyStart()} when the ETag was computed). Must be
+     * called inside a transaction because the slices come from a streamed
+     * cursor.
+     */
+    @Transactional(readOnly = true)
+    public void writeFeed(Long partnerId, LocalDate since, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        String now = LocalDateTime.now(ZoneOffset.UTC).format(ICS_UTC);
+        try (Stream<BookedSliceView> slices = availabilityRepository.streamBookedSlicesForPartner(partnerId, since)) {
+            writeLine(writer, "BEGIN:VCALENDAR");
+            writeLine(writer, "VERSION:2.0");
+            writeLine(writer, "PRODID:-//SafelyNested//Partner Bookings//EN");
+            writeLine(writer, "CALSCALE:GREGORIAN");
+            writeLine(writer, "METHOD:PUBLISH");
+            writeLine(writer, "X-WR-CALNAME:" + escape("SafelyNested bookings"));
+            // Hint for clients that honour it; conditional GET keeps polling cheap
+            writeLine(writer, "REFRESH-INTERVAL;VALUE=DURATION:PT15M");
+            writeLine(writer, "X-PUBLISHED-TTL:PT15M");
+            slices.forEach(slice -> writeEvent(writer, slice, now));
+            writeLine(writer, "END:VCALENDAR");
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeEvent(Writer writer, BookedSliceView slice, String now) {
+        try {
+            String summary = "Booked";
+            if (slice.getConfirmationCode() != null) {
+                summary += " – " + slice.getConfirmationCode();
+            }
+            if (slice.getPropertyName() != null) {
+                summary += " (" + slice.getPropertyName() + ")";
+            }
+            StringBuilder description = new StringBuilder();
+            if (slice.getCharityName() != null) {
+                description.append("Referred by: ").append(slice.getCharityName()).append('\n');
+            }
+            if (slice.getBookingStatus() != null) {
+                description.append("Status: ").append(slice.getBookingStatus().name());
+            }
+
+            writeLine(writer, "BEGIN:VEVENT");
+            writeLine(writer, "UID:availability-" + slice.getId() + "@" + uidDomain);
+            writeLine(writer, "DTSTAMP:" + (slice.getUpdatedAt() != null ? toUtc(slice.getUpdatedAt()) : now));
+            writeLine(writer, "DTSTART;VALUE=DATE:" + slice.getStartDate().format(ICS_DATE));
+            // endDate is the last night; all-day DTEND is exclusive, i.e. the checkout day
+            writeLine(writer, "DTEND;VALUE=DATE:" + slice.getEndDate().plusDays(1).format(ICS_DATE));
+            writeLine(writer, "SUMMARY:" + escape(summary));
+            if (!description.isEmpty()) {
+                writeLine(writer, "DESCRIPTION:" + escape(description.toString()));
+            }
+            if (slice.getPropertyAddress() != null) {
+                writeLine(writer, "LOCATION:" + escape(slice.getPropertyAddress()));
+            }
+            writeLine(writer, "TRANSP:OPAQUE");
+            writeLine(writer, "END:VEVENT");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toUtc(LocalDateTime serverTime) {
+        return serverTime.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).format(ICS_UTC);
+    }
+
+    // RFC 5545 §3.3.11 TEXT escaping
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "\\n");
+    }
+
+    // Writes one content line, folding at 75 octets without splitting a UTF-8 sequence
+    private static void writeLine(Writer writer, String line) throws IOException {
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+        for (int i = 0; i < line.length(); ) {
+            int cp = line.codePointAt(i);
+            int cpOctets = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (octets + cpOctets > limit) {
+                writer.write(CRLF);
+                writer.write(' ');
+                octets = 1;
+            }
+            writer.write(Character.toChars(cp));
+            octets += cpOctets;
+            i += Character.charCount(cp);
+        }
+        writer.write(CRLF);
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,331 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.Referral;
+import com.learning.learning.entity.User;
+import com.learning.learning.repository.ReferralRepository;
+import com.learning.learning.repository.UserRepository;
+import com.learning.learning.service.imports.CsvRecordReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk referral import from a spreadsheet (CSV) for charities onboarding
+ * with an existing caseload.
+ *
+ * The file is parsed in one streaming pass. Duplicate checks run against
+ * hash sets of the charity's active referral emails / phones / names loaded
+ * once up front (and extended with each accepted row, so duplicates inside
+ * the file are caught too). Referral numbers are reserved in blocks from a
+ * sequence and valid rows are inserted with JDBC batch inserts. Rows that fail
+ * validation are skipped and listed in the returned report; the monthly
+ * referral limit caps how many rows are accepted.
+ *
+ * Sequence: docs/REFERRAL_IMPORT_MIGRATION.sql.
+ */
+@Service
+public class ReferralImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferralImportService.class);
+
+    // Numbers reserved per sequence call
+    private static final int NUMBER_BLOCK_SIZE = 100;
+    private static final int INSERT_BATCH_SIZE = 200;
+
+    private static final Pattern EMAIL =
+            Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    private static final String INSERT_SQL = """
+            INSERT INTO referrals (referral_number, charity_id, participant_name, participant_age,
+                                   participant_email, participant_phone, needs_description,
+                                   referred_by_user_id, urgency_level, status, documents_required,
+                                   documents_uploaded, allowed_zip_codes, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'PENDING', ?, FALSE, ?, ?, ?)
+            """;
+
+    // Accepted header spellings (lower-case, letters and digits only) → field
+    private static final Map<String, String> HEADER_ALIASES = Map.ofEntries(
+            Map.entry("participantname", "name"),
+            Map.entry("name", "name"),
+            Map.entry("fullname", "name"),
+            Map.entry("participantage", "age"),
+            Map.entry("age", "age"),
+            Map.entry("participantemail", "email"),
+            Map.entry("email", "email"),
+            Map.entry("emailaddress", "email"),
+            Map.entry("participantphone", "phone"),
+            Map.entry("phone", "phone"),
+            Map.entry("phonenumber", "phone"),
+            Map.entry("needsdescription", "needs"),
+            Map.entry("needs", "needs"),
+            Map.entry("description", "needs"),
+            Map.entry("urgencylevel", "urgency"),
+            Map.entry("urgency", "urgency"),
+            Map.entry("documentsrequired", "documentsRequired"),
+            Map.entry("allowedzipcodes", "zipCodes"),
+            Map.entry("zipcodes", "zipCodes")
+    );
+
+    @Autowired
+    private ReferralRepository referralRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CharityService charityService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.referral-import.max-rows:5000}")
+    private int maxRows;
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Validate and (unless dryRun) insert the referrals in a CSV file for a
+     * charity. The file needs a header row with at least a participant name
+     * column. Everything accepted is inserted in one transaction.
+     */
+    @Transactional
+    public ImportReport importReferrals(Long charityId, String username, InputStream csv, boolean dryRun) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        int remainingThisMonth = charityService.getRemainingReferralsThisMonth(charityId);
+
+        Set<String> knownEmails = new HashSet<>();
+        Set<String> knownPhones = new HashSet<>();
+        Set<String> knownNames = new HashSet<>();
+        for (ReferralRepository.DuplicateKeyView key : referralRepository.findActiveDuplicateKeys(charityId)) {
+            if (key.getParticipantEmail() != null) knownEmails.add(key.getParticipantEmail().trim());
+            String phone = phoneKey(key.getParticipantPhone());
+            if (phone != null) knownPhones.add(phone);
+            if (key.getParticipantName() != null) knownNames.add(key.getParticipantName().trim());
+        }
+
+        List<ImportRow> accepted = new ArrayList<>();
+        List<RowIssue> errors = new ArrayList<>();
+        List<RowIssue> warnings = new ArrayList<>();
+        int totalRows = 0;
+
+        try {
+            CsvRecordReader reader = new CsvRecordReader(
+                    new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)));
+            Map<String, Integer> columns = readHeader(reader.next());
+
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (isBlank(record)) {
+                    continue;
+                }
+                if (++totalRows > maxRows) {
+                    throw new RuntimeException("File has more than " + maxRows + " rows. Please split it into smaller files.");
+                }
+                long line = reader.getRecordLine();
+                ImportRow row;
+                try {
+                    row = parseRow(record, columns);
+                } catch (IllegalArgumentException e) {
+                    errors.add(new RowIssue(line, value(record, columns, "name"), e.getMessage()));
+                    continue;
+                }
+
+                String emailKey = row.email() != null ? row.email().toLowerCase(Locale.ROOT) : null;
+                String phoneKey = phoneKey(row.phone());
+                if (emailKey != null && knownEmails.contains(emailKey)) {
+                    errors.add(new RowIssue(line, row.name(), "An active referral already exists for " + row.email()));
+                    continue;
+                }
+                if (phoneKey != null && knownPhones.contains(phoneKey)) {
+                    errors.add(new RowIssue(line, row.name(), "An active referral already exists for phone " + row.phone()));
+                    continue;
+                }
+                if (accepted.size() >= remainingThisMonth) {
+                    errors.add(new RowIssue(line, row.name(), "Monthly referral limit reached"));
+                    continue;
+                }
+
+                String nameKey = row.name().toLowerCase(Locale.ROOT);
+                if (!knownNames.add(nameKey)) {
+                    warnings.add(new RowIssue(line, row.name(), "Possible duplicate: a referral with this name already exists"));
+                }
+                if (emailKey != null) knownEmails.add(emailKey);
+                if (phoneKey != null) knownPhones.add(phoneKey);
+                accepted.add(row);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read the CSV file: " + e.getMessage(), e);
+        }
+
+        if (!dryRun && !accepted.isEmpty()) {
+            insert(accepted, charityId, user.getId());
+            logger.info("Imported {} referral(s) for charity {} by {} ({} row(s) rejected)",
+                    accepted.size(), charityId, username, errors.size());
+        }
+        return new ImportReport(totalRows, accepted.size(), dryRun, errors, warnings);
+    }
+
+    private Map<String, Integer> readHeader(List<String> header) {
+        if (header == null) {
+            throw new RuntimeException("The CSV file is empty.");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String normalized = header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+            String field = HEADER_ALIASES.get(normalized);
+            if (field != null) {
+                columns.putIfAbsent(field, i);
+            }
+        }
+        if (!columns.containsKey("name")) {
+            throw new RuntimeException("The CSV header must include a participant_name column.");
+        }
+        return columns;
+    }
+
+    private ImportRow parseRow(List<String> record, Map<String, Integer> columns) {
+        String name = value(record, columns, "name");
+        if (name == null) {
+            throw new IllegalArgumentException("Participant name is required");
+        }
+        if (name.length() > 200) {
+            throw new IllegalArgumentException("Participant name is longer than 200 characters");
+        }
+
+        Integer age = null;
+        String ageText = value(record, columns, "age");
+        if (ageText != null) {
+            try {
+                age = Integer.parseInt(ageText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Age '" + ageText + "' is not a whole number");
+            }
+            if (age < 0 || age > 120) {
+                throw new IllegalArgumentException("Age must be between 0 and 120");
+            }
+        }
+
+        String email = value(record, columns, "email");
+        if (email != null && (email.length() > 100 || !EMAIL.matcher(email).matches())) {
+            throw new IllegalArgumentException("Email '" + email + "' is not a valid address");
+        }
+
+        String phone = value(record, columns, "phone");
+        if (phone != null && phone.length() > 20) {
+            throw new IllegalArgumentException("Phone number is longer than 20 characters");
+        }
+
+        Referral.UrgencyLevel urgency = Referral.UrgencyLevel.MEDIUM;
+        String urgencyText = value(record, columns, "urgency");
+        if (urgencyText != null) {
+            try {
+                urgency = Referral.UrgencyLevel.valueOf(urgencyText.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Urgency '" + urgencyText + "' must be LOW, MEDIUM, HIGH or URGENT");
+            }
+        }
+
+        boolean documentsRequired = false;
+        String documentsText = value(record, columns, "documentsRequired");
+        if (documentsText != null) {
+            switch (documentsText.toLowerCase(Locale.ROOT)) {
+                case "true", "yes", "y", "1" -> documentsRequired = true;
+                case "false", "no", "n", "0" -> documentsRequired = false;
+                default -> throw new IllegalArgumentException("Documents required '" + documentsText + "' must be yes or no");
+            }
+        }
+
+        return new ImportRow(name, age, email, phone, value(record, columns, "needs"), urgency,
+                documentsRequired, value(record, columns, "zipCodes"));
+    }
+
+    private void insert(List<ImportRow> rows, Long charityId, Long userId) {
+        List<String> numbers = reserveReferralNumbers(rows.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            batch.add(new Object[]{numbers.get(i), charityId, row.name(), row.age(), row.email(), row.phone(),
+                    row.needs(), userId, row.urgency().name(), row.documentsRequired(), row.zipCodes(), now, now});
+            if (batch.size() == INSERT_BATCH_SIZE || i == rows.size() - 1) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, new int[]{
+                        Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR,
+                        Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.BOOLEAN, Types.VARCHAR,
+                        Types.TIMESTAMP, Types.TIMESTAMP});
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Each nextval on referral_import_block_seq reserves NUMBER_BLOCK_SIZE
+     * consecutive numbers, so an import of n rows costs n / 100 round trips
+     * instead of a count() per row. The "B" marks imported numbers so they
+     * never collide with the single-entry REF-{year}-{count} scheme.
+     */
+    private List<String> reserveReferralNumbers(int count) {
+        String prefix = "REF-" + Year.now().getValue() + "-B";
+        List<String> numbers = new ArrayList<>(count);
+        while (numbers.size() < count) {
+            Long block = jdbcTemplate.queryForObject("SELECT nextval('referral_import_block_seq')", Long.class);
+            long first = block * NUMBER_BLOCK_SIZE;
+            for (int i = 0; i < NUMBER_BLOCK_SIZE && numbers.size() < count; i++) {
+                numbers.add(prefix + String.format("%06d", first + i));
+            }
+        }
+        return numbers;
+    }
+
+    private static String value(List<String> record, Map<String, Integer> columns, String field) {
+        Integer index = columns.get(field);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String phoneKey(String phone) {
+        if (phone == null) return null;
+        String digits = phone.replaceAll("\\D", "");
+        return digits.isEmpty() ? null : digits;
+    }
+
+    private static boolean isBlank(List<String> record) {
+        return record.stream().allMatch(String::isBlank);
+    }
+
+    private record ImportRow(String name, Integer age, String email, String phone, String needs,
+                             Referral.UrgencyLevel urgency, boolean documentsRequired, String zipCodes) {}
+
+    public record RowIssue(long line, String participantName, String message) {}
+
+    public record ImportReport(int totalRows, int imported, boolean dryRun,
+                               List<RowIssue> errors, List<RowIssue> warnings) {}
+}
@@ -7,6 +7,9 @@ import com.learning.learning.entity.ReferralInvite;
 import com.learning.learning.entity.User;
 import com.learning.learning.repository.ReferralRepository;
 import com.learning.learning.repository.UserRepository;
+import com.learning.learning.service.email.ParticipantApprovalEmail;
+import com.learning.learning.service.email.PartnerApprovalEmail;
+import com.learning.learning.service.email.PartnerRejectionEmail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +43,9 @@ public class ReferralService {
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private EmailTemplateService emailTemplateService;
+
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
@@ -333,7 +339,7 @@ public class ReferralService {
             helper.setTo(referral.getParticipantEmail());
             helper.setSubject("Good News! Your Referral Has Been Approved - SafelyNested");
 
-            String htmlContent = buildParticipantApprovalEmailHtml(referral);
+            String htmlContent = emailTemplateService.render(ParticipantApprovalEmail.of(referral));
             helper.setText(htmlContent, true);
 
             mailSender.send(message);
@@ -362,7 +368,7 @@ public class ReferralService {
             helper.setTo(referral.getReferredByUser().getEmail());
             helper.setSubject("Referral Approved: " + referral.getReferralNumber() + " - SafelyNested");
 
-            String htmlContent = buildCharityPartnerApprovalEmailHtml(referral);
+            String htmlContent = emailTemplateService.render(PartnerApprovalEmail.of(referral, baseUrl));
             helper.setText(htmlContent, true);
 
             mailSender.send(message);
@@ -392,7 +398,7 @@ public class ReferralService {
             helper.setTo(referral.getReferredByUser().getEmail());
             helper.setSubject("Referral Update: " + referral.getReferralNumber() + " - SafelyNested");
 
-            String htmlContent = buildCharityPartnerRejectionEmailHtml(referral, reason);
+            String htmlContent = emailTemplateService.render(PartnerRejectionEmail.of(referral, reason, baseUrl));
             helper.setText(htmlContent, true);
 
             mailSender.send(message);
@@ -404,207 +410,6 @@ public class ReferralService {
         }
     }
 
-    // ========================================
-    // EMAIL TEMPLATE BUILDERS
-    // ========================================
-
-    /**
-     * Build HTML email for participant approval
-     */
-    private String buildParticipantApprovalEmailHtml(Referral referral) {
-        return """
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 30px; text-align: center; border-radius: 10px 10px 0 0; }
-                    .content { background: #f9f9f9; padding: 30px; border-radius: 0 0 10px 10px; }
-                    .success-badge { background: #d1fae5; color: #065f46; padding: 10px 20px; border-radius: 20px; display: inline-block; font-weight: bold; margin: 20px 0; }
-                    .info-box { background: white; padding: 20px; border-radius: 8px; margin: 20px 0; border-left: 4px solid #667eea; }
-                    .footer { text-align: center; margin-top: 30px; color: #666; font-size: 12px; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>🎉 Great News!</h1>
-                    </div>
-                    <div class="content">
-                        <p>Dear <strong>%s</strong>,</p>
-                        
-                        <div class="success-badge">✓ Your Referral Has Been Approved</div>
-                        
-                        <p>We're pleased to inform you that your referral request has been reviewed and approved by our team.</p>
-                        
-                        <div class="info-box">
-                            <p><strong>Referral Number:</strong> %s</p>
-                            <p><strong>Status:</strong> Approved</p>
-                            <p><strong>Approved On:</strong> %s</p>
-                        </div>
-                        
-                        <h3>What Happens Next?</h3>
-                        <p>A shelter coordinator will be reaching out to you shortly with available accommodation options and next steps. Please keep your phone nearby and check your email regularly.</p>
-                        
-                        <p>If you have any questions or need immediate assistance, please contact the referring charity or our support team.</p>
-                        
-                        <p>We're here to help you through this process.</p>
-                        
-                        <p>Warm regards,<br><strong>The SafelyNested Team</strong></p>
-                    </div>
-                    <div class="footer">
-                        <p>This email was sent by SafelyNested Shelter Referral System.<br>
-                        Please do not reply directly to this email.</p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """.formatted(
-                referral.getParticipantName(),
-                referral.getReferralNumber(),
-                referral.getApprovedAt() != null ? referral.getApprovedAt().toLocalDate().toString() : "Today"
-        );
-    }
-
-    /**
-     * Build HTML email for charity partner approval notification
-     */
-    private String buildCharityPartnerApprovalEmailHtml(Referral referral) {
-        String viewUrl = baseUrl + "/charity-partner/referrals/" + referral.getId();
-
-        return """
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 30px; text-align: center; border-radius: 10px 10px 0 0; }
-                    .content { background: #f9f9f9; padding: 30px; border-radius: 0 0 10px 10px; }
-                    .success-badge { background: #d1fae5; color: #065f46; padding: 10px 20px; border-radius: 20px; display: inline-block; font-weight: bold; margin: 20px 0; }
-                    .info-box { background: white; padding: 20px; border-radius: 8px; margin: 20px 0; border-left: 4px solid #10b981; }
-                    .btn { display: inline-block; background: #667eea; color: white; padding: 12px 24px; text-decoration: none; border-radius: 5px; margin-top: 20px; }
-                    .footer { text-align: center; margin-top: 30px; color: #666; font-size: 12px; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>Referral Approved ✓</h1>
-                    </div>
-                    <div class="content">
-                        <p>Hello,</p>
-                        
-                        <div class="success-badge">Referral Approved</div>
-                        
-                        <p>Good news! The referral you submitted has been approved by our facilitator team.</p>
-                        
-                        <div class="info-box">
-                            <p><strong>Referral Number:</strong> %s</p>
-                            <p><strong>Participant:</strong> %s</p>
-                            <p><strong>Status:</strong> ✓ Approved</p>
-                            <p><strong>Approved On:</strong> %s</p>
-                            %s
-                        </div>
-                        
-                        <p>The participant will be notified and a booking can now be created for available shelter space.</p>
-                        
-                        <a href="%s" class="btn">View Referral Details</a>
-                        
-                        <p style="margin-top: 30px;">Thank you for your continued partnership in helping those in need.</p>
-                        
-                        <p>Best regards,<br><strong>SafelyNested Team</strong></p>
-                    </div>
-                    <div class="footer">
-                        <p>SafelyNested Shelter Referral System<br>
-                        <a href="%s">%s</a></p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """.formatted(
-                referral.getReferralNumber(),
-                referral.getParticipantName(),
-                referral.getApprovedAt() != null ? referral.getApprovedAt().toLocalDate().toString() : "Today",
-                referral.getFacilitatorNotes() != null && !referral.getFacilitatorNotes().isEmpty()
-                        ? "<p><strong>Notes:</strong> " + referral.getFacilitatorNotes() + "</p>" : "",
-                viewUrl,
-                baseUrl,
-                baseUrl
-        );
-    }
-
-    /**
-     * Build HTML email for charity partner rejection notification
-     */
-    private String buildCharityPartnerRejectionEmailHtml(Referral referral, String reason) {
-        String viewUrl = baseUrl + "/charity-partner/referrals/" + referral.getId();
-
-        return """
-            <!DOCTYPE html>
-            <html>
-            <head>
-                <style>
-                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
-                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
-                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); color: white; padding: 30px; text-align: center; border-radius: 10px 10px 0 0; }
-                    .content { background: #f9f9f9; padding: 30px; border-radius: 0 0 10px 10px; }
-                    .status-badge { background: #fee2e2; color: #991b1b; padding: 10px 20px; border-radius: 20px; display: inline-block; font-weight: bold; margin: 20px 0; }
-                    .info-box { background: white; padding: 20px; border-radius: 8px; margin: 20px 0; border-left: 4px solid #ef4444; }
-                    .reason-box { background: #fef3c7; padding: 15px; border-radius: 8px; margin: 20px 0; }
-                    .btn { display: inline-block; background: #667eea; color: white; padding: 12px 24px; text-decoration: none; border-radius: 5px; margin-top: 20px; }
-                    .footer { text-align: center; margin-top: 30px; color: #666; font-size: 12px; }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        <h1>Referral Update</h1>
-                    </div>
-                    <div class="content">
-                        <p>Hello,</p>
-                        
-                        <div class="status-badge">Referral Not Approved</div>
-                        
-                        <p>We regret to inform you that the referral you submitted could not be approved at this time.</p>
-                        
-                        <div class="info-box">
-                            <p><strong>Referral Number:</strong> %s</p>
-                            <p><strong>Participant:</strong> %s</p>
-                            <p><strong>Status:</strong> Not Approved</p>
-                        </div>
-                        
-                        <div class="reason-box">
-                            <p><strong>Reason:</strong></p>
-                            <p>%s</p>
-                        </div>
-                        
-                        <p>If you believe this decision was made in error or have additional information to provide, please contact our facilitator team or submit a new referral with updated information.</p>
-                        
-                        <a href="%s" class="btn">View Referral Details</a>
-                        
-                        <p style="margin-top: 30px;">We appreciate your understanding and continued efforts to help those in need.</p>
-                        
-                        <p>Best regards,<br><strong>SafelyNested Team</strong></p>
-                    </div>
-                    <div class="footer">
-                        <p>SafelyNested Shelter Referral System<br>
-                        <a href="%s">%s</a></p>
-                    </div>
-                </div>
-            </body>
-            </html>
-            """.formatted(
-                referral.getReferralNumber(),
-                referral.getParticipantName(),
-                reason,
-                viewUrl,
-                baseUrl,
-                baseUrl
-        );
-    }
-
     // ========================================
     // STATISTICS
     // ========================================
@@ -1,13 +1,15 @@
 package com.learning.learning.service;
 
+import com.learning.learning.service.http.OutboundIntegration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.List;
@@ -29,11 +31,11 @@ public class    ResendEmailService {
     @Value("${resend.from-email:onboarding@resend.dev}")
     private String fromEmail;
 
-    private final RestTemplate restTemplate;
-
-    public ResendEmailService() {
-        this.restTemplate = new RestTemplate();
-    }
+    // Pooled client with Resend's timeouts, bulkhead and circuit breaker.
+    // Fails closed: a refused call surfaces as ResendEmailException.
+    @Autowired
+    @Qualifier("resendHttp")
+    private OutboundIntegration resendHttp;
 
     /**
      * Check if Resend is configured
@@ -66,12 +68,12 @@ public class    ResendEmailService {
 
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = resendHttp.execute(rest -> rest.exchange(
                     RESEND_API_URL,
                     HttpMethod.POST,
                     request,
                     Map.class
-            );
+            ));
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 logger.info("Email sent successfully via Resend to: {}, response: {}", to, response.getBody());
@@ -119,12 +121,12 @@ public class    ResendEmailService {
 
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = resendHttp.execute(rest -> rest.exchange(
                     RESEND_API_URL,
                     HttpMethod.POST,
                     request,
                     Map.class
-            );
+            ));
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 logger.info("Plain text email sent via Resend to: {}, response: {}", to, response.getBody());
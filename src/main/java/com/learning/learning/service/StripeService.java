@@ -1,5 +1,6 @@
 package com.learning.learning.service;
 
+import com.learning.learning.config.StripeConfig;
 import com.learning.learning.entity.Charity;
 import com.learning.learning.entity.Donation;
 import com.learning.learning.entity.User;
@@ -59,6 +60,9 @@ public class StripeService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private StripeConfig stripeConfig;
+
     // ========================================
     // CREATE CHECKOUT SESSION
     // ========================================
@@ -127,6 +131,7 @@ public class StripeService {
             paramsBuilder.putMetadata("donor_name", donorName);
         }
 
+        stripeConfig.ensureInitialized();
         Session session = Session.create(paramsBuilder.build());
         logger.info("Created Stripe Checkout Session {} for charity {} (amount: {})",
                 session.getId(), charity.getCharityName(), grossAmount);
@@ -211,6 +216,7 @@ public class StripeService {
                 .putMetadata("recorder_username", recorderUsername)
                 .putMetadata("fee_structure_version", "v1.0");
 
+        stripeConfig.ensureInitialized();
         Session session = Session.create(paramsBuilder.build());
         logger.info("Created fee payment session {} for charity {} (donation: {}, fee: {})",
                 session.getId(), charity.getCharityName(), donationAmount, feeAmount);
@@ -247,6 +253,7 @@ public class StripeService {
                 String sessionId = rawJson.substring(quoteStart + 1, quoteEnd);
 
                 logger.info("Retrieving session {} from Stripe API", sessionId);
+                stripeConfig.ensureInitialized();
                 Session session = Session.retrieve(sessionId);
                 handleCheckoutCompleted(session);
             } catch (Exception e) {
@@ -419,6 +426,7 @@ public class StripeService {
     // ========================================
 
     public Session retrieveSession(String sessionId) throws Exception {
+        stripeConfig.ensureInitialized();
         return Session.retrieve(sessionId);
     }
 
@@ -0,0 +1,586 @@
+package com.learning.learning.service;
+
+import com.learning.learning.entity.Charity;
+import com.learning.learning.entity.Donor;
+import com.learning.learning.entity.DonorTaxReceipt;
+import com.learning.learning.entity.TaxReceiptBatch;
+import com.learning.learning.repository.CharityRepository;
+import com.learning.learning.repository.DonationRepository;
+import com.learning.learning.repository.DonationRepository.ReceiptDonationView;
+import com.learning.learning.repository.DonorTaxReceiptRepository;
+import com.learning.learning.repository.DonorTaxReceiptRepository.FinishedReceipt;
+import com.learning.learning.repository.TaxReceiptBatchRepository;
+import com.learning.learning.service.email.TaxReceiptEmail;
+import com.learning.learning.service.receipts.TaxReceiptPdfRenderer;
+import com.learning.learning.service.receipts.TaxReceiptPdfRenderer.ReceiptContent;
+import com.learning.learning.service.receipts.TaxReceiptPdfRenderer.ReceiptLine;
+import com.learning.learning.service.storage.StorageService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Year-end donation receipts: one PDF per donor per charity covering every
+ * receipt-eligible donation in the tax year.
+ *
+ * A batch streams donations through a server-side cursor, already ordered so
+ * each donor's donations to a charity arrive together, and hands each finished
+ * group to a bounded worker pool that renders the PDF, writes it to
+ * StorageService under receipts/, records a DonorTaxReceipt and emails the
+ * donor a download link. At most max-in-flight groups are buffered, so memory
+ * stays flat however many donations the year has.
+ *
+ * Progress and a heartbeat are flushed to tax_receipt_batches every few
+ * seconds. If an instance dies mid-run the heartbeat goes stale and the batch
+ * is claimed and resumed here. Recipients that already have a stored and
+ * emailed receipt for the same donations (count and total) are skipped, so a
+ * resume or rerun only redoes unfinished work; one whose donations changed
+ * since (a late or refunded gift) is reissued under the same receipt number
+ * and emailed again.
+ *
+ * A donation belongs to the year of its date_received, or of donated_at when
+ * no receipt date was recorded; the receipt line shows the same date.
+ */
+@Service
+public class TaxReceiptBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaxReceiptBatchService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final long PROGRESS_FLUSH_MILLIS = 5_000;
+    private static final String RECEIPTS_PREFIX = "receipts/";
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private DonorService donorService;
+
+    @Autowired
+    private CharityRepository charityRepository;
+
+    @Autowired
+    private TaxReceiptBatchRepository batchRepository;
+
+    @Autowired
+    private DonorTaxReceiptRepository receiptRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailTemplateService emailTemplateService;
+
+    @Autowired
+    private TaxReceiptPdfRenderer renderer;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Value("${app.tax-receipts.worker-threads:4}")
+    private int workerThreads;
+
+    // Donor groups queued or rendering at once per batch; bounds memory
+    @Value("${app.tax-receipts.max-in-flight:32}")
+    private int maxInFlight;
+
+    @Value("${app.tax-receipts.stale-after-minutes:10}")
+    private int staleAfterMinutes;
+
+    private ExecutorService batchRunner;
+    private ExecutorService workers;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+
+    // Batches executing on this instance, so the stall check never resumes its own
+    private final Set<Long> activeBatches = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        batchRunner = Executors.newFixedThreadPool(2, namedThreads("TaxReceiptBatch-"));
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), namedThreads("TaxReceiptWorker-"));
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupted batches stay RUNNING and are resumed once their heartbeat is stale
+        batchRunner.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Start a batch for the tax year, for one charity or (charityId null) all.
+     */
+    public TaxReceiptBatch startBatch(int taxYear, Long charityId, String username) {
+        if (taxYear < 2000 || taxYear > Year.now().getValue()) {
+            throw new RuntimeException("Invalid tax year: " + taxYear);
+        }
+        long charityKey = charityId != null ? charityId : 0L;
+        if (batchRepository.existsRunning(taxYear, charityKey)) {
+            throw new RuntimeException("A receipt batch for " + taxYear + " is already running.");
+        }
+
+        TaxReceiptBatch batch = new TaxReceiptBatch();
+        batch.setTaxYear(taxYear);
+        if (charityId != null) {
+            Charity charity = charityRepository.findById(charityId)
+                    .orElseThrow(() -> new RuntimeException("Charity not found"));
+            batch.setCharity(charity);
+        }
+        batch.setStartedBy(username);
+        batch = batchRepository.save(batch);
+
+        logger.info("Tax receipt batch {} started by {} for {} (charity_id={})",
+                batch.getId(), username, taxYear, charityId);
+        launch(batch.getId());
+        return batch;
+    }
+
+    public List<BatchSummary> getRecentBatches(Long charityId) {
+        List<TaxReceiptBatch> batches = charityId != null
+                ? batchRepository.findTop20ByCharityIdOrderByStartedAtDesc(charityId)
+                : batchRepository.findTop20ByOrderByStartedAtDesc();
+        return batches.stream().map(BatchSummary::from).toList();
+    }
+
+    public BatchSummary getBatch(Long batchId) {
+        return batchRepository.findById(batchId).map(BatchSummary::from)
+                .orElseThrow(() -> new RuntimeException("Receipt batch not found"));
+    }
+
+    /**
+     * Resume batches whose owner stopped heart-beating (crash or redeploy).
+     */
+    @Scheduled(fixedDelayString = "${app.tax-receipts.resume-check-ms:300000}", initialDelay = 60_000)
+    public void resumeStalledBatches() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(staleAfterMinutes);
+        for (TaxReceiptBatch batch : batchRepository.findStalled(staleBefore)) {
+            if (activeBatches.contains(batch.getId())) {
+                continue;
+            }
+            if (batchRepository.claim(batch.getId(), batch.getHeartbeatAt(), LocalDateTime.now()) == 1) {
+                logger.warn("Resuming stalled tax receipt batch {} (last heartbeat {})",
+                        batch.getId(), batch.getHeartbeatAt());
+                launch(batch.getId());
+            }
+        }
+    }
+
+    private void launch(Long batchId) {
+        if (activeBatches.add(batchId)) {
+            batchRunner.execute(() -> {
+                try {
+                    run(batchId);
+                } finally {
+                    activeBatches.remove(batchId);
+                }
+            });
+        }
+    }
+
+    private void run(Long batchId) {
+        TaxReceiptBatch batch = batchRepository.findById(batchId).orElse(null);
+        if (batch == null || batch.getStatus() != TaxReceiptBatch.BatchStatus.RUNNING) {
+            return;
+        }
+        long charityKey = batch.getCharity() != null ? batch.getCharity().getId() : 0L;
+        Map<String, FinishedReceipt> finished = new HashMap<>();
+        for (FinishedReceipt receipt : receiptRepository.findFinishedReceipts(batch.getTaxYear(), charityKey)) {
+            finished.put(receipt.getRecipient(), receipt);
+        }
+        BatchRun run = new BatchRun(batchId, batch.getTaxYear(), maxInFlight, finished);
+
+        LocalDate fromDate = LocalDate.of(run.taxYear, 1, 1);
+        LocalDate toDate = fromDate.plusYears(1);
+        LocalDateTime from = fromDate.atStartOfDay();
+        LocalDateTime to = toDate.atStartOfDay();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<ReceiptDonationView> rows = donationRepository.streamForTaxReceipts(fromDate, toDate, from, to, charityKey)) {
+                    RecipientGroup current = null;
+                    Iterator<ReceiptDonationView> it = rows.iterator();
+                    while (it.hasNext()) {
+                        ReceiptDonationView row = it.next();
+                        run.donations.incrementAndGet();
+                        String key = recipientKey(row);
+                        if (key == null) {
+                            continue; // anonymous with no email - nobody to issue a receipt to
+                        }
+                        if (current == null || !current.matches(row.getCharityId(), key)) {
+                            dispatch(run, current);
+                            current = new RecipientGroup(row.getCharityId(), key, row.getDonorId(), row.getDonorName());
+                        }
+                        current.add(row);
+                        run.flushProgressIfDue();
+                    }
+                    dispatch(run, current);
+                }
+            });
+            run.awaitWorkers();
+            run.flushProgress();
+            finish(run, run.failed.get() > 0
+                    ? TaxReceiptBatch.BatchStatus.COMPLETED_WITH_ERRORS
+                    : TaxReceiptBatch.BatchStatus.COMPLETED);
+        } catch (Exception e) {
+            if (e instanceof BatchInterruptedException || batchRunner.isShutdown()) {
+                // Shutting down: leave RUNNING so another instance (or this one after restart) resumes it
+                logger.warn("Tax receipt batch {} interrupted; it will be resumed", batchId);
+                return;
+            }
+            logger.error("Tax receipt batch {} failed: {}", batchId, e.getMessage(), e);
+            run.lastError = e.getMessage();
+            run.flushProgress();
+            finish(run, TaxReceiptBatch.BatchStatus.FAILED);
+        }
+    }
+
+    private void dispatch(BatchRun run, RecipientGroup group) {
+        if (group == null) {
+            return;
+        }
+        FinishedReceipt done = run.finished.get(group.charityId + "|" + group.recipientKey);
+        if (done != null && group.isCoveredBy(done.getDonationCount(), done.getTotalAmount())) {
+            run.skipped.incrementAndGet();
+            return;
+        }
+        try {
+            run.inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BatchInterruptedException();
+        }
+        workers.execute(() -> {
+            try {
+                processRecipient(run, group);
+            } catch (Exception e) {
+                run.failed.incrementAndGet();
+                run.lastError = e.getMessage();
+                logger.error("Receipt for {} at charity_id={} ({}) failed: {}",
+                        group.recipientKey, group.charityId, run.taxYear, e.getMessage());
+            } finally {
+                run.inFlight.release();
+            }
+        });
+    }
+
+    private void processRecipient(BatchRun run, RecipientGroup group) {
+        // 1. Find or create the receipt row (stable number, token and storage key across resumes)
+        PreparedReceipt prepared = writeTx.execute(status -> prepareReceipt(run, group));
+
+        // 2. Render and store the PDF outside any transaction
+        byte[] pdf = renderer.render(new ReceiptContent(
+                prepared.receiptNumber(),
+                run.taxYear,
+                LocalDate.now(),
+                prepared.charity().name(),
+                prepared.charity().address(),
+                prepared.charity().ein(),
+                prepared.recipientName(),
+                prepared.recipientEmail(),
+                group.lines,
+                group.total));
+        String storageKey = RECEIPTS_PREFIX + run.taxYear + "/charity-" + group.charityId + "/"
+                + prepared.receiptNumber() + ".pdf";
+        try {
+            storageService.store(new ByteArrayInputStream(pdf), storageKey, "application/pdf", pdf.length);
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Failed to store receipt " + prepared.receiptNumber(), e);
+        }
+        writeTx.executeWithoutResult(status -> receiptRepository.findById(prepared.receiptId()).ifPresent(r -> {
+            r.setStorageKey(storageKey);
+            receiptRepository.save(r);
+        }));
+        run.generated.incrementAndGet();
+
+        // 3. Email the download link (only once per receipt)
+        if (prepared.recipientEmail() != null && !prepared.alreadyEmailed()) {
+            emailService.sendHtmlEmail(prepared.recipientEmail(),
+                    "Your " + run.taxYear + " donation receipt from " + prepared.charity().name(),
+                    emailTemplateService.render(new TaxReceiptEmail(prepared.recipientName(), run.taxYear,
+                            prepared.charity().name(), baseUrl + "/receipts/" + prepared.downloadToken(),
+                            prepared.receiptNumber())));
+            writeTx.executeWithoutResult(status -> receiptRepository.findById(prepared.receiptId()).ifPresent(r -> {
+                r.setEmailedAt(LocalDateTime.now());
+                receiptRepository.save(r);
+            }));
+            run.emailed.incrementAndGet();
+        }
+    }
+
+    private PreparedReceipt prepareReceipt(BatchRun run, RecipientGroup group) {
+        CharityInfo charity = run.charities.computeIfAbsent(group.charityId, id -> charityRepository.findById(id)
+                .map(CharityInfo::from)
+                .orElseThrow(() -> new RuntimeException("Charity not found: " + id)));
+
+        Donor donor = group.donorId != null ? donorService.getDonorById(group.donorId) : null;
+        String recipientName;
+        String recipientEmail;
+        if (donor != null) {
+            recipientName = donor.getDisplayName();
+            recipientEmail = donor.getDonorEmail();
+        } else {
+            recipientName = group.donorName != null && !group.donorName.isBlank() ? group.donorName : "Donor";
+            recipientEmail = group.recipientKey.substring("email:".length());
+        }
+
+        DonorTaxReceipt receipt = receiptRepository
+                .findByTaxYearAndCharityIdAndRecipientKey(run.taxYear, group.charityId, group.recipientKey)
+                .orElseGet(DonorTaxReceipt::new);
+        if (receipt.getId() != null && !group.isCoveredBy(receipt.getDonationCount(), receipt.getTotalAmount())) {
+            // Donations changed since it was issued: the donor gets the corrected receipt
+            receipt.setEmailedAt(null);
+        }
+        if (receipt.getId() == null) {
+            receipt.setTaxYear(run.taxYear);
+            receipt.setCharity(charityRepository.getReferenceById(group.charityId));
+            receipt.setRecipientKey(group.recipientKey);
+            receipt.setDownloadToken(newToken());
+            // Placeholder until the id is known; the number embeds the id for uniqueness
+            receipt.setReceiptNumber("pending");
+        }
+        receipt.setBatch(batchRepository.getReferenceById(run.batchId));
+        receipt.setDonor(donor);
+        receipt.setRecipientName(recipientName);
+        receipt.setRecipientEmail(recipientEmail);
+        receipt.setDonationCount(group.lines.size());
+        receipt.setTotalAmount(group.total);
+        receipt = receiptRepository.saveAndFlush(receipt);
+        if ("pending".equals(receipt.getReceiptNumber())) {
+            receipt.setReceiptNumber(run.taxYear + "-" + group.charityId + "-" + receipt.getId());
+            receipt = receiptRepository.save(receipt);
+        }
+
+        return new PreparedReceipt(receipt.getId(), receipt.getReceiptNumber(), receipt.getDownloadToken(),
+                recipientName, recipientEmail, receipt.getEmailedAt() != null, charity);
+    }
+
+    private void finish(BatchRun run, TaxReceiptBatch.BatchStatus status) {
+        writeTx.executeWithoutResult(tx -> batchRepository.findById(run.batchId).ifPresent(batch -> {
+            batch.setStatus(status);
+            batch.setCompletedAt(LocalDateTime.now());
+            batch.setLastError(run.lastError);
+            batchRepository.save(batch);
+        }));
+        logger.info("Tax receipt batch {} {}: {} donations, {} generated, {} emailed, {} skipped, {} failed",
+                run.batchId, status, run.donations.get(), run.generated.get(), run.emailed.get(),
+                run.skipped.get(), run.failed.get());
+    }
+
+    private static String recipientKey(ReceiptDonationView row) {
+        if (row.getDonorId() != null) {
+            return "donor:" + row.getDonorId();
+        }
+        if (row.getDonorEmail() != null && !row.getDonorEmail().isBlank()) {
+            return "email:" + row.getDonorEmail().trim().toLowerCase(Locale.ROOT);
+        }
+        return null;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * State of one batch execution, shared by the streaming thread and workers.
+     */
+    private final class BatchRun {
+        final Long batchId;
+        final int taxYear;
+        final int permits;
+        final Semaphore inFlight;
+        final Map<String, FinishedReceipt> finished;
+        final Map<Long, CharityInfo> charities = new ConcurrentHashMap<>();
+        final AtomicInteger donations = new AtomicInteger();
+        final AtomicInteger generated = new AtomicInteger();
+        final AtomicInteger emailed = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile String lastError;
+        long lastFlush = System.currentTimeMillis();
+
+        BatchRun(Long batchId, int taxYear, int permits, Map<String, FinishedReceipt> finished) {
+            this.batchId = batchId;
+            this.taxYear = taxYear;
+            this.permits = permits;
+            this.inFlight = new Semaphore(permits);
+            this.finished = finished;
+        }
+
+        void flushProgressIfDue() {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new BatchInterruptedException();
+            }
+            if (System.currentTimeMillis() - lastFlush >= PROGRESS_FLUSH_MILLIS) {
+                flushProgress();
+            }
+        }
+
+        void flushProgress() {
+            lastFlush = System.currentTimeMillis();
+            batchRepository.updateProgress(batchId, donations.get(), generated.get(), emailed.get(),
+                    skipped.get(), failed.get(), LocalDateTime.now());
+        }
+
+        void awaitWorkers() {
+            try {
+                // Every permit back means every dispatched group has finished; heartbeat meanwhile
+                while (!inFlight.tryAcquire(permits, PROGRESS_FLUSH_MILLIS, TimeUnit.MILLISECONDS)) {
+                    flushProgress();
+                }
+                inFlight.release(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BatchInterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Consecutive donations from one donor to one charity.
+     */
+    private static final class RecipientGroup {
+        final Long charityId;
+        final String recipientKey;
+        final Long donorId;
+        final String donorName;
+        final List<ReceiptLine> lines = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        RecipientGroup(Long charityId, String recipientKey, Long donorId, String donorName) {
+            this.charityId = charityId;
+            this.recipientKey = recipientKey;
+            this.donorId = donorId;
+            this.donorName = donorName;
+        }
+
+        boolean matches(Long otherCharityId, String otherKey) {
+            return charityId.equals(otherCharityId) && recipientKey.equals(otherKey);
+        }
+
+        // Whether a receipt issued for this many donations and this total covers the group
+        boolean isCoveredBy(Integer donationCount, BigDecimal totalAmount) {
+            return donationCount != null && donationCount == lines.size()
+                    && totalAmount != null && totalAmount.compareTo(total) == 0;
+        }
+
+        void add(ReceiptDonationView row) {
+            BigDecimal amount = row.getGrossAmount() != null ? row.getGrossAmount() : BigDecimal.ZERO;
+            LocalDate date = row.getDateReceived() != null ? row.getDateReceived() : row.getDonatedAt().toLocalDate();
+            lines.add(new ReceiptLine(row.getDonationId(), date, amount));
+            total = total.add(amount);
+        }
+    }
+
+    private static final class BatchInterruptedException extends RuntimeException {
+    }
+
+    private record CharityInfo(String name, String address, String ein) {
+        static CharityInfo from(Charity charity) {
+            StringBuilder address = new StringBuilder();
+            if (charity.getAddress() != null) address.append(charity.getAddress());
+            String cityLine = String.join(", ",
+                    Stream.of(charity.getCity(), charity.getState())
+                            .filter(s -> s != null && !s.isBlank()).toList());
+            if (charity.getZipCode() != null) cityLine = (cityLine + " " + charity.getZipCode()).trim();
+            if (!cityLine.isEmpty()) {
+                if (!address.isEmpty()) address.append(", ");
+                address.append(cityLine);
+            }
+            return new CharityInfo(charity.getCharityName(),
+                    address.isEmpty() ? null : address.toString(),
+                    charity.getEinTaxId());
+        }
+    }
+
+    private record PreparedReceipt(Long receiptId, String receiptNumber, String downloadToken,
+                                   String recipientName, String recipientEmail, boolean alreadyEmailed,
+                                   CharityInfo charity) {}
+
+    public record BatchSummary(
+            Long id,
+            int taxYear,
+            Long charityId,
+            String status,
+            int donationsProcessed,
+            int receiptsGenerated,
+            int receiptsEmailed,
+            int receiptsSkipped,
+            int receiptsFailed,
+            String lastError,
+            String startedBy,
+            LocalDateTime startedAt,
+            LocalDateTime heartbeatAt,
+            LocalDateTime completedAt
+    ) {
+        static BatchSummary from(TaxReceiptBatch batch) {
+            return new BatchSummary(
+                    batch.getId(),
+                    batch.getTaxYear(),
+                    batch.getCharity() != null ? batch.getCharity().getId() : null,
+                    batch.getStatus().name(),
+                    batch.getDonationsProcessed(),
+                    batch.getReceiptsGenerated(),
+                    batch.getReceiptsEmailed(),
+                    batch.getReceiptsSkipped(),
+                    batch.getReceiptsFailed(),
+                    batch.getLastError(),
+                    batch.getStartedBy(),
+                    batch.getStartedAt(),
+                    batch.getHeartbeatAt(),
+                    batch.getCompletedAt());
+        }
+    }
+}
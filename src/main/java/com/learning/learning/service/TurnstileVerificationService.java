@@ -1,7 +1,10 @@
 package com.learning.learning.service;
 
+import com.learning.learning.service.http.OutboundIntegration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -10,7 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
 
@@ -27,7 +29,6 @@ import java.util.Map;
 public class TurnstileVerificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(TurnstileVerificationService.class);
-    private static final String VERIFY_URL = "https://challenges.cloudflare.com/turnstile/v0/siteverify";
 
     @Value("${app.turnstile.site-key:}")
     private String siteKey;
@@ -35,7 +36,17 @@ public class TurnstileVerificationService {
     @Value("${app.turnstile.secret-key:}")
     private String secretKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${app.turnstile.verify-url:https://challenges.cloudflare.com/turnstile/v0/siteverify}")
+    private String verifyUrl;
+
+    // What verify() returns when Cloudflare can't be asked (circuit open,
+    // bulkhead full, timeout). Open by default; see verify().
+    @Value("${app.turnstile.fail-open:true}")
+    private boolean failOpen;
+
+    @Autowired
+    @Qualifier("turnstileHttp")
+    private OutboundIntegration turnstileHttp;
 
     /** True only when both keys are configured — otherwise the CAPTCHA is off. */
     public boolean isEnabled() {
@@ -55,6 +66,9 @@ public class TurnstileVerificationService {
      *         When Cloudflare cannot be reached we fail open (return true) so a
      *         Cloudflare outage never blocks legitimate applicants — the honeypot,
      *         time-trap, rate limiter and content validation remain as backstops.
+     *         Set app.turnstile.fail-open=false to reject instead. Calls are
+     *         bounded by the turnstile integration's timeouts and bulkhead, so
+     *         a slow Cloudflare can't pin every request thread.
      */
     public boolean verify(String token, String remoteIp) {
         if (!isEnabled()) {
@@ -77,7 +91,12 @@ public class TurnstileVerificationService {
             }
 
             HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(form, headers);
-            ResponseEntity<Map> response = restTemplate.postForEntity(VERIFY_URL, request, Map.class);
+            ResponseEntity<Map> response = turnstileHttp.execute(
+                    rest -> rest.postForEntity(verifyUrl, request, Map.class),
+                    () -> null);
+            if (response == null) {
+                return failOpen; // refused locally: circuit open or too many checks in flight
+            }
 
             Object success = response.getBody() != null ? response.getBody().get("success") : null;
             boolean passed = Boolean.TRUE.equals(success);
@@ -87,9 +106,10 @@ public class TurnstileVerificationService {
             }
             return passed;
         } catch (Exception e) {
-            // Fail open on network/Cloudflare errors so real users aren't locked out.
-            logger.error("Turnstile verification error (allowing submission through): {}", e.getMessage());
-            return true;
+            // Network/Cloudflare error: the configured failure policy decides
+            logger.error("Turnstile verification error ({}): {}",
+                    failOpen ? "allowing submission through" : "rejecting submission", e.getMessage());
+            return failOpen;
         }
     }
 }
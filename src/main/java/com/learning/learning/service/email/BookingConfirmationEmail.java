@@ -0,0 +1,29 @@
+package com.learning.learning.service.email;
+
+import com.learning.learning.entity.Booking;
+
+/**
+ * @param specialInstructions shown in their own box, or null
+ */
+public record BookingConfirmationEmail(String participantName, String confirmationCode, String locationName,
+                                       String locationAddress, String checkIn, String checkOut, int nights,
+                                       String specialInstructions) implements EmailModel {
+
+    public static BookingConfirmationEmail of(Booking booking) {
+        return new BookingConfirmationEmail(
+                booking.getParticipantName() != null ? booking.getParticipantName() : "Guest",
+                booking.getConfirmationCode(),
+                booking.getLocationName() != null ? booking.getLocationName() : "To be confirmed",
+                booking.getLocationAddress() != null ? booking.getLocationAddress() : "",
+                booking.getCheckInDate() != null ? booking.getCheckInDate().toString() : "TBD",
+                booking.getCheckOutDate() != null ? booking.getCheckOutDate().toString() : "TBD",
+                booking.getNights() != null ? booking.getNights() : 0,
+                booking.getSpecialInstructions() != null && !booking.getSpecialInstructions().isEmpty()
+                        ? booking.getSpecialInstructions() : null);
+    }
+
+    @Override
+    public String template() {
+        return "booking-confirmation";
+    }
+}
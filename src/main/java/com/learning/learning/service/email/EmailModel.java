@@ -0,0 +1,13 @@
+package com.learning.learning.service.email;
+
+/**
+ * The data one email template renders (EmailTemplateService). Each message
+ * type is a record; templates read its components as ${m.name()}.
+ */
+public interface EmailModel {
+
+    /**
+     * Template under classpath:email/, without the .html suffix.
+     */
+    String template();
+}
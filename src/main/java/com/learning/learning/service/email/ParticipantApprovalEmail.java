@@ -0,0 +1,21 @@
+package com.learning.learning.service.email;
+
+import com.learning.learning.entity.Referral;
+
+public record ParticipantApprovalEmail(String participantName, String referralNumber, String approvedOn)
+        implements EmailModel {
+
+    public static ParticipantApprovalEmail of(Referral referral) {
+        return new ParticipantApprovalEmail(referral.getParticipantName(), referral.getReferralNumber(),
+                approvedOn(referral));
+    }
+
+    static String approvedOn(Referral referral) {
+        return referral.getApprovedAt() != null ? referral.getApprovedAt().toLocalDate().toString() : "Today";
+    }
+
+    @Override
+    public String template() {
+        return "participant-approval";
+    }
+}
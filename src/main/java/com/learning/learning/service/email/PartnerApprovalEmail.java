@@ -0,0 +1,23 @@
+package com.learning.learning.service.email;
+
+import com.learning.learning.entity.Referral;
+
+/**
+ * @param notes facilitator notes, or null
+ */
+public record PartnerApprovalEmail(String referralNumber, String participantName, String approvedOn,
+                                   String notes, String viewUrl, String baseUrl) implements EmailModel {
+
+    public static PartnerApprovalEmail of(Referral referral, String baseUrl) {
+        String notes = referral.getFacilitatorNotes() != null && !referral.getFacilitatorNotes().isEmpty()
+                ? referral.getFacilitatorNotes() : null;
+        return new PartnerApprovalEmail(referral.getReferralNumber(), referral.getParticipantName(),
+                ParticipantApprovalEmail.approvedOn(referral), notes,
+                baseUrl + "/charity-partner/referrals/" + referral.getId(), baseUrl);
+    }
+
+    @Override
+    public String template() {
+        return "partner-approval";
+    }
+}
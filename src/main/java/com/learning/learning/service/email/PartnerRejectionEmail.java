@@ -0,0 +1,17 @@
+package com.learning.learning.service.email;
+
+import com.learning.learning.entity.Referral;
+
+public record PartnerRejectionEmail(String referralNumber, String participantName, String reason,
+                                    String viewUrl, String baseUrl) implements EmailModel {
+
+    public static PartnerRejectionEmail of(Referral referral, String reason, String baseUrl) {
+        return new PartnerRejectionEmail(referral.getReferralNumber(), referral.getParticipantName(), reason,
+                baseUrl + "/charity-partner/referrals/" + referral.getId(), baseUrl);
+    }
+
+    @Override
+    public String template() {
+        return "partner-rejection";
+    }
+}
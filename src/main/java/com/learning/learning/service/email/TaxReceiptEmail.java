@@ -0,0 +1,10 @@
+package com.learning.learning.service.email;
+
+public record TaxReceiptEmail(String recipientName, int taxYear, String charityName, String downloadUrl,
+                              String receiptNumber) implements EmailModel {
+
+    @Override
+    public String template() {
+        return "tax-receipt";
+    }
+}
@@ -0,0 +1,64 @@
+package com.learning.learning.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV with a UTF-8 BOM (so Excel detects the encoding). Text cells
+ * starting with a formula character are prefixed with an apostrophe to stop
+ * spreadsheet formula injection from user-entered fields.
+ */
+class CsvTabularWriter implements TabularWriter {
+
+    private final Writer writer;
+
+    CsvTabularWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) throws IOException {
+        writer.write('\uFEFF');
+        writeRow(columns.toArray());
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCell(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCell(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = ExportValues.toText(value);
+        if (!(value instanceof Number) && ExportValues.looksLikeFormula(text)) {
+            text = "'" + text;
+        }
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (quote) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+}
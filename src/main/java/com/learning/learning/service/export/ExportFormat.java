@@ -0,0 +1,42 @@
+package com.learning.learning.service.export;
+
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * File formats supported by the data exports.
+ */
+public enum ExportFormat {
+    CSV("text/csv; charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public TabularWriter open(OutputStream out, String sheetName) {
+        return this == XLSX ? new XlsxTabularWriter(out, sheetName) : new CsvTabularWriter(out);
+    }
+
+    /**
+     * Parse a ?format= request value; anything unrecognised falls back to CSV.
+     */
+    public static ExportFormat fromParam(String value) {
+        if (value != null && value.trim().toLowerCase(Locale.ROOT).equals("xlsx")) {
+            return XLSX;
+        }
+        return CSV;
+    }
+}
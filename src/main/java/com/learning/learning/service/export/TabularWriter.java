@@ -0,0 +1,27 @@
+package com.learning.learning.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Row-at-a-time writer for an export file. Implementations write straight to
+ * the underlying stream (or to a bounded window, for XLSX) so memory use does
+ * not grow with the number of rows.
+ */
+public interface TabularWriter extends Closeable {
+
+    void writeHeader(List<String> columns) throws IOException;
+
+    /**
+     * Values may be null, String, Number, Boolean, Enum or java.time types.
+     */
+    void writeRow(Object... values) throws IOException;
+
+    /**
+     * Flush everything written so far and finish the file. Does not close
+     * the underlying stream, which belongs to the caller (the HTTP response).
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,86 @@
+package com.learning.learning.service.export;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * XLSX via POI's streaming SXSSF workbook: only the last WINDOW_ROWS rows are
+ * kept in memory, older rows are flushed to a compressed temp file and the
+ * workbook is zipped onto the output stream on close.
+ */
+class XlsxTabularWriter implements TabularWriter {
+
+    private static final int WINDOW_ROWS = 200;
+    // Excel's hard row limit, minus the header
+    private static final int MAX_DATA_ROWS = 1_048_575;
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final SXSSFSheet sheet;
+    private int nextRow = 0;
+
+    XlsxTabularWriter(OutputStream out, String sheetName) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(WINDOW_ROWS);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet(sheetName);
+    }
+
+    @Override
+    public void writeHeader(List<String> columns) {
+        CellStyle bold = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setBold(true);
+        bold.setFont(font);
+
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < columns.size(); i++) {
+            Cell cell = row.createCell(i);
+            cell.setCellValue(columns.get(i));
+            cell.setCellStyle(bold);
+        }
+        sheet.createFreezePane(0, 1);
+    }
+
+    @Override
+    public void writeRow(Object... values) {
+        if (nextRow > MAX_DATA_ROWS) {
+            throw new IllegalStateException("Export exceeds the XLSX row limit; use CSV instead.");
+        }
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof Boolean bool) {
+                cell.setCellValue(bool);
+            } else {
+                // Written as a string cell, so formula text is never evaluated
+                cell.setCellValue(ExportValues.toText(value));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.learning.learning.service.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable in-memory spatial index: points are bucketed into 1°×1°
+ * latitude/longitude cells (≈69 × ≤69 miles), so a radius query only
+ * measures the points in the handful of cells the search circle touches.
+ * Rebuilt wholesale rather than mutated, so readers never need a lock.
+ */
+public final class GeoBucketIndex<T> {
+
+    private static final double CELL_DEGREES = 1.0;
+    private static final double MILES_PER_DEGREE_LAT = 69.0;
+    /** Starting radius for k-nearest searches; doubled until k are found. */
+    private static final double INITIAL_KNN_RADIUS_MILES = 25.0;
+
+    public record Entry<T>(GeoPoint point, T value) {}
+
+    public record Match<T>(T value, double distanceMiles) {}
+
+    private final Map<Long, List<Entry<T>>> cells;
+    private final int size;
+
+    private GeoBucketIndex(Map<Long, List<Entry<T>>> cells, int size) {
+        this.cells = cells;
+        this.size = size;
+    }
+
+    public static <T> GeoBucketIndex<T> empty() {
+        return new GeoBucketIndex<>(Map.of(), 0);
+    }
+
+    public static <T> GeoBucketIndex<T> build(Collection<Entry<T>> entries) {
+        Map<Long, List<Entry<T>>> cells = new HashMap<>();
+        for (Entry<T> entry : entries) {
+            long key = cellKey(cell(entry.point().latitude()), cell(entry.point().longitude()));
+            cells.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+        }
+        return new GeoBucketIndex<>(cells, entries.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Every entry within {@code radiusMiles} of {@code center} that passes
+     * {@code filter}, nearest first.
+     */
+    public List<Match<T>> withinRadius(GeoPoint center, double radiusMiles, Predicate<T> filter) {
+        double latDelta = radiusMiles / MILES_PER_DEGREE_LAT;
+        double cosLat = Math.max(0.01, Math.cos(Math.toRadians(center.latitude())));
+        double lonDelta = Math.min(180.0, radiusMiles / (MILES_PER_DEGREE_LAT * cosLat));
+
+        int minLat = cell(center.latitude() - latDelta);
+        int maxLat = cell(center.latitude() + latDelta);
+        int minLon = cell(center.longitude() - lonDelta);
+        int maxLon = cell(center.longitude() + lonDelta);
+
+        List<Match<T>> matches = new ArrayList<>();
+        for (int lat = minLat; lat <= maxLat; lat++) {
+            for (int lon = minLon; lon <= maxLon; lon++) {
+                List<Entry<T>> bucket = cells.get(cellKey(lat, lon));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Entry<T> entry : bucket) {
+                    if (!filter.test(entry.value())) {
+                        continue;
+                    }
+                    double distance = center.distanceMilesTo(entry.point());
+                    if (distance <= radiusMiles) {
+                        matches.add(new Match<>(entry.value(), distance));
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::distanceMiles));
+        return matches;
+    }
+
+    /**
+     * Up to {@code k} entries nearest to {@code center}, no further than
+     * {@code maxRadiusMiles}. Searches a growing radius so dense areas
+     * only touch nearby cells.
+     */
+    public List<Match<T>> nearest(GeoPoint center, int k, double maxRadiusMiles, Predicate<T> filter) {
+        double radius = Math.min(INITIAL_KNN_RADIUS_MILES, maxRadiusMiles);
+        while (true) {
+            List<Match<T>> matches = withinRadius(center, radius, filter);
+            if (matches.size() >= k || radius >= maxRadiusMiles) {
+                return matches.size() > k ? matches.subList(0, k) : matches;
+            }
+            radius = Math.min(radius * 2, maxRadiusMiles);
+        }
+    }
+
+    private static int cell(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+}
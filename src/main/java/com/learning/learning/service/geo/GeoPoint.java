@@ -0,0 +1,22 @@
+package com.learning.learning.service.geo;
+
+/**
+ * A latitude/longitude pair in decimal degrees.
+ */
+public record GeoPoint(double latitude, double longitude) {
+
+    private static final double EARTH_RADIUS_MILES = 3958.8;
+
+    /**
+     * Great-circle (haversine) distance to another point, in miles.
+     */
+    public double distanceMilesTo(GeoPoint other) {
+        double lat1 = Math.toRadians(latitude);
+        double lat2 = Math.toRadians(other.latitude);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(other.longitude - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_MILES * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
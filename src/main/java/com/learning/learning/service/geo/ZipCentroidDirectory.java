@@ -0,0 +1,109 @@
+package com.learning.learning.service.geo;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline ZIP code → centroid lookup. Loaded once at startup from a bundled
+ * CSV ({@code zip,latitude,longitude}; lines starting with '#' are comments),
+ * so no external geocoding service is ever called.
+ *
+ * The file location is configurable via {@code app.geo.zip-centroids} (any
+ * Spring resource location, e.g. {@code file:/data/zips.csv}).
+ * See docs/ZIP_CENTROIDS_SETUP.md for how the bundled file is produced.
+ */
+@Component
+public class ZipCentroidDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipCentroidDirectory.class);
+
+    @Value("${app.geo.zip-centroids:classpath:geo/us-zip-centroids.csv}")
+    private String location;
+
+    private Map<String, GeoPoint> centroids = Map.of();
+
+    @PostConstruct
+    public void load() {
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        if (!resource.exists()) {
+            logger.warn("ZIP centroid dataset not found at {} — nearest-property search is disabled", location);
+            return;
+        }
+        Map<String, GeoPoint> loaded = new HashMap<>(48_000);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#") || line.startsWith("zip")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length < 3) {
+                    continue;
+                }
+                try {
+                    loaded.put(parts[0].trim(), new GeoPoint(
+                            Double.parseDouble(parts[1].trim()),
+                            Double.parseDouble(parts[2].trim())));
+                } catch (NumberFormatException e) {
+                    logger.debug("Skipping malformed ZIP centroid line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to load ZIP centroid dataset from {}: {}", location, e.getMessage());
+            return;
+        }
+        centroids = Map.copyOf(loaded);
+        if (centroids.isEmpty()) {
+            logger.warn("ZIP centroid dataset at {} has no rows (build with -Pzip-centroids) — "
+                    + "nearest-property search is disabled", location);
+            return;
+        }
+        logger.info("Loaded {} ZIP centroids from {}", centroids.size(), location);
+    }
+
+    /**
+     * Centroid for a US ZIP code. Accepts ZIP+4 ("74103-1234") and strips it
+     * to the 5-digit ZIP.
+     */
+    public Optional<GeoPoint> lookup(String zipCode) {
+        String zip = normalize(zipCode);
+        return zip == null ? Optional.empty() : Optional.ofNullable(centroids.get(zip));
+    }
+
+    public boolean isLoaded() {
+        return !centroids.isEmpty();
+    }
+
+    static String normalize(String zipCode) {
+        if (zipCode == null) {
+            return null;
+        }
+        String digits = zipCode.trim();
+        int dash = digits.indexOf('-');
+        if (dash > 0) {
+            digits = digits.substring(0, dash);
+        }
+        if (digits.isEmpty()) {
+            return null;
+        }
+        if (digits.length() < 5) {
+            // Leading zeros are often lost in spreadsheets ("2134" for 02134)
+            digits = "0".repeat(5 - digits.length()) + digits;
+        }
+        return digits.length() == 5 && digits.chars().allMatch(Character::isDigit) ? digits : null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.learning.learning.service.http;
+
+/**
+ * Consecutive-failure circuit breaker for one outbound integration.
+ *
+ * CLOSED: calls flow; failureThreshold failures in a row open the circuit.
+ * OPEN: calls are rejected without touching the network for openMillis.
+ * HALF_OPEN: a single trial call is let through; success closes the circuit,
+ * failure re-opens it for another openMillis.
+ *
+ * State changes are a few field writes under the monitor, never I/O.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0L;
+    private boolean trialInFlight = false;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * @return true if a call may proceed; every true must be followed by
+     *         {@link #onSuccess()} or {@link #onFailure()}
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+}
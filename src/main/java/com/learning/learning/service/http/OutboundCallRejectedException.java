@@ -0,0 +1,12 @@
+package com.learning.learning.service.http;
+
+/**
+ * Thrown when an outbound call is refused before reaching the network:
+ * the integration's circuit is open or its bulkhead is full.
+ */
+public class OutboundCallRejectedException extends RuntimeException {
+
+    public OutboundCallRejectedException(String message) {
+        super(message);
+    }
+}
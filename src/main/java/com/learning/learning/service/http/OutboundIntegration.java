@@ -0,0 +1,157 @@
+package com.learning.learning.service.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One external API (Turnstile, Resend, ...) reached through the shared pooled
+ * HTTP client. Each integration has its own timeouts (set on its RestTemplate),
+ * a bulkhead capping concurrent calls so a slow provider can only tie up that
+ * many request threads, a circuit breaker, and Micrometer timers:
+ *
+ *   outbound.http.client{integration, outcome}  latency per call
+ *   outbound.http.rejected{integration, reason} calls refused locally
+ *
+ * {@link #execute(Function)} fails closed (throws OutboundCallRejectedException
+ * when refused); {@link #execute(Function, Supplier)} fails open to the
+ * caller's fallback. Which one to use is the caller's policy.
+ */
+public class OutboundIntegration {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundIntegration.class);
+
+    private final String name;
+    private final RestTemplate restTemplate;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMillis;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Map<String, Timer> timers;
+    private final Counter rejectedBulkhead;
+    private final Counter rejectedCircuit;
+
+    public OutboundIntegration(String name, RestTemplate restTemplate, int maxConcurrentCalls,
+                               long bulkheadWaitMillis, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.restTemplate = restTemplate;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadWaitMillis = bulkheadWaitMillis;
+        this.circuitBreaker = circuitBreaker;
+
+        this.timers = Map.of(
+                "success", timer(meterRegistry, "success"),
+                "client_error", timer(meterRegistry, "client_error"),
+                "error", timer(meterRegistry, "error"));
+        this.rejectedBulkhead = Counter.builder("outbound.http.rejected")
+                .tag("integration", name).tag("reason", "bulkhead").register(meterRegistry);
+        this.rejectedCircuit = Counter.builder("outbound.http.rejected")
+                .tag("integration", name).tag("reason", "circuit_open").register(meterRegistry);
+        Gauge.builder("outbound.http.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("integration", name).register(meterRegistry);
+        Gauge.builder("outbound.http.circuit.open", circuitBreaker,
+                        cb -> cb.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .tag("integration", name).register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Run a call; fail closed.
+     *
+     * @throws OutboundCallRejectedException if the bulkhead is full or the circuit is open
+     */
+    public <T> T execute(Function<RestTemplate, T> call) {
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutboundCallRejectedException(name + " call interrupted while waiting for a slot");
+        }
+        if (!acquired) {
+            rejectedBulkhead.increment();
+            throw new OutboundCallRejectedException(name + " is at its concurrent call limit");
+        }
+
+        try {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                rejectedCircuit.increment();
+                throw new OutboundCallRejectedException(name + " is temporarily unavailable (circuit open)");
+            }
+
+            long start = System.nanoTime();
+            String outcome = "error";
+            try {
+                T result = call.apply(restTemplate);
+                outcome = "success";
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (HttpStatusCodeException e) {
+                // 4xx is our request's fault, not the provider's health (429 aside)
+                if (e.getStatusCode().is4xxClientError() && e.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS) {
+                    outcome = "client_error";
+                    circuitBreaker.onSuccess();
+                } else {
+                    recordFailure(e);
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                recordFailure(e);
+                throw e;
+            } finally {
+                timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Run a call; fail open to {@code whenUnavailable} if the call is refused
+     * locally. Errors from the call itself still propagate.
+     */
+    public <T> T execute(Function<RestTemplate, T> call, Supplier<T> whenUnavailable) {
+        try {
+            return execute(call);
+        } catch (OutboundCallRejectedException e) {
+            logger.warn("{}; using fallback", e.getMessage());
+            return whenUnavailable.get();
+        }
+    }
+
+    private void recordFailure(RuntimeException e) {
+        CircuitBreaker.State before = circuitBreaker.getState();
+        circuitBreaker.onFailure();
+        if (before != CircuitBreaker.State.OPEN && circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            logger.warn("Circuit for {} opened after failure: {}", name, e.getMessage());
+        }
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("outbound.http.client")
+                .description("Latency of calls to external HTTP APIs")
+                .tag("integration", name)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,262 @@
+package com.learning.learning.service.images;
+
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Normalizes an uploaded photo for storage: applies the EXIF orientation to
+ * the pixels, scales it down to a maximum dimension and re-encodes it.
+ *
+ * Images are decoded with source subsampling (the largest integer step that
+ * still leaves at least maxDimension pixels), so a 12-megapixel phone photo
+ * is never inflated to full resolution. JPEGs, and PNGs without
+ * transparency, come out as JPEG at the given quality; PNGs with
+ * transparency stay PNG. The output carries no metadata, which also drops
+ * GPS and camera details. Stateless and thread-safe.
+ */
+@Component
+public class ImageNormalizer {
+
+    /**
+     * @param reoriented true if the EXIF orientation was applied, so the
+     *                   result shows the image differently from the raw pixels
+     */
+    public record Normalized(byte[] content, String mimeType, boolean reoriented) {}
+
+    public boolean supports(String mimeType) {
+        return "image/jpeg".equals(mimeType) || "image/png".equals(mimeType);
+    }
+
+    /**
+     * @return the normalized image, or null if the content could not be
+     *         decoded or has more than maxPixels pixels
+     */
+    public Normalized normalize(byte[] content, String mimeType, int maxDimension, float quality,
+                                long maxPixels) throws IOException {
+        BufferedImage source = readImage(content, maxDimension, maxPixels);
+        if (source == null) {
+            return null;
+        }
+
+        boolean keepAlpha = "image/png".equals(mimeType) && source.getColorModel().hasAlpha();
+        BufferedImage image = fit(source, maxDimension, keepAlpha);
+
+        int orientation = "image/jpeg".equals(mimeType) ? exifOrientation(content) : 1;
+        if (orientation > 1) {
+            image = orient(image, orientation);
+        }
+
+        return keepAlpha
+                ? new Normalized(encodePng(image), "image/png", orientation > 1)
+                : new Normalized(encodeJpeg(image, quality), "image/jpeg", orientation > 1);
+    }
+
+    private static BufferedImage readImage(byte[] content, int maxDimension, long maxPixels) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / maxDimension);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | IllegalArgumentException e) {
+                // Unsupported variant (CMYK JPEG, say): leave the upload as it is
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage fit(BufferedImage source, int maxDimension, boolean keepAlpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        // Redraw even at the same size: it also converts indexed/grey/alpha
+        // images to a type the JPEG writer handles (transparency becomes white)
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+                keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            if (!keepAlpha) {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, targetWidth, targetHeight);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Apply an EXIF orientation (2-8) to the pixels.
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean swap = orientation >= 5;
+        int outWidth = swap ? h : w;
+        int[] src = image.getRGB(0, 0, w, h, null, 0, w);
+        int[] dst = new int[src.length];
+
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int dx;
+                int dy;
+                switch (orientation) {
+                    case 2 -> { dx = w - 1 - x; dy = y; }         // mirrored
+                    case 3 -> { dx = w - 1 - x; dy = h - 1 - y; } // rotated 180
+                    case 4 -> { dx = x; dy = h - 1 - y; }         // flipped vertically
+                    case 5 -> { dx = y; dy = x; }                 // transposed
+                    case 6 -> { dx = h - 1 - y; dy = x; }         // rotate 90 clockwise
+                    case 7 -> { dx = h - 1 - y; dy = w - 1 - x; } // transversed
+                    case 8 -> { dx = y; dy = w - 1 - x; }         // rotate 90 counter-clockwise
+                    default -> { return image; }
+                }
+                dst[dy * outWidth + dx] = src[y * w + x];
+            }
+        }
+
+        BufferedImage target = new BufferedImage(outWidth, swap ? w : h, image.getType());
+        target.setRGB(0, 0, outWidth, swap ? w : h, dst, 0, outWidth);
+        return target;
+    }
+
+    /**
+     * The orientation tag (1-8) from a JPEG's EXIF block; 1 (as stored) if
+     * there is none or it can't be read.
+     */
+    static int exifOrientation(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= jpeg.length) {
+            if ((jpeg[pos] & 0xFF) != 0xFF) {
+                return 1;
+            }
+            int marker = jpeg[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                pos++; // fill byte
+                continue;
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                return 1; // image data starts: no metadata after this
+            }
+            int segmentEnd = pos + 2 + readU16(jpeg, pos + 2, false);
+            if (segmentEnd > jpeg.length) {
+                return 1;
+            }
+            int body = pos + 4;
+            if (marker == 0xE1 && body + 6 <= segmentEnd
+                    && jpeg[body] == 'E' && jpeg[body + 1] == 'x' && jpeg[body + 2] == 'i' && jpeg[body + 3] == 'f'
+                    && jpeg[body + 4] == 0 && jpeg[body + 5] == 0) {
+                return tiffOrientation(jpeg, body + 6, segmentEnd);
+            }
+            pos = segmentEnd;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] data, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian;
+        if (data[tiff] == 'I' && data[tiff + 1] == 'I') {
+            littleEndian = true;
+        } else if (data[tiff] == 'M' && data[tiff + 1] == 'M') {
+            littleEndian = false;
+        } else {
+            return 1;
+        }
+
+        long ifdOffset = readU32(data, tiff + 4, littleEndian);
+        if (ifdOffset < 8 || tiff + ifdOffset + 2 > end) {
+            return 1;
+        }
+        int ifd = (int) (tiff + ifdOffset);
+        int entries = readU16(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                return 1;
+            }
+            if (readU16(data, entry, littleEndian) == 0x0112) {
+                int value = readU16(data, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readU16(byte[] data, int offset, boolean littleEndian) {
+        int a = data[offset] & 0xFF;
+        int b = data[offset + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static long readU32(byte[] data, int offset, boolean littleEndian) {
+        long high = readU16(data, littleEndian ? offset + 2 : offset, littleEndian);
+        long low = readU16(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * 1024);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * 1024);
+        if (!ImageIO.write(image, "png", out)) {
+            throw new IOException("No PNG writer available");
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+package com.learning.learning.service.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Optional;
+
+/**
+ * Where a slow SQL statement came from, for the slow-query log:
+ *
+ *   repositoryMethod — the Spring Data method running at the time, e.g.
+ *                      "BookingRepository.findFundedByDonorIdAndBookingStatusNot".
+ *                      Tracked by advice on every repository (SlowQueryConfig);
+ *                      null for lazy loading and plain JDBC.
+ *   caller           — the first application frame on the stack outside the
+ *                      repositories and this instrumentation, e.g.
+ *                      "DonorDashboardService.getStats:88".
+ *   controller       — the controller method on the stack, or failing that
+ *                      the request's mapping ("GET /admin/funding-report"),
+ *                      which is what lazy loading while a view renders shows.
+ *                      Null off the request thread (scheduled jobs).
+ *
+ * Only captured for statements over the threshold, so the stack walk costs
+ * nothing on the fast path.
+ */
+public record QueryOrigin(String repositoryMethod, String caller, String controller) {
+
+    private static final String APPLICATION_PACKAGE = "com.learning.learning.";
+    private static final String CONTROLLER_PACKAGE = APPLICATION_PACKAGE + "controller.";
+    private static final String REPOSITORY_PACKAGE = APPLICATION_PACKAGE + "repository.";
+    private static final String CONFIG_PACKAGE = APPLICATION_PACKAGE + "config.";
+    private static final String PROFILING_PACKAGE = APPLICATION_PACKAGE + "service.profiling.";
+
+    private static final ThreadLocal<String> CURRENT_REPOSITORY_METHOD = new ThreadLocal<>();
+
+    /**
+     * Marks a repository method as running on this thread. Returns the method
+     * it replaces (a repository calling another), to be handed back to
+     * {@link #exitRepository(String)}.
+     */
+    public static String enterRepository(String method) {
+        String previous = CURRENT_REPOSITORY_METHOD.get();
+        CURRENT_REPOSITORY_METHOD.set(method);
+        return previous;
+    }
+
+    public static void exitRepository(String previous) {
+        if (previous == null) {
+            CURRENT_REPOSITORY_METHOD.remove();
+        } else {
+            CURRENT_REPOSITORY_METHOD.set(previous);
+        }
+    }
+
+    public static QueryOrigin capture() {
+        String caller = StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> isCaller(frame.getClassName()))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName()
+                        + ":" + frame.getLineNumber())
+                .orElse(null));
+        String controller = StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(CONTROLLER_PACKAGE))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName())
+                .orElseGet(QueryOrigin::requestMapping));
+        return new QueryOrigin(CURRENT_REPOSITORY_METHOD.get(), caller, controller);
+    }
+
+    private static boolean isCaller(String className) {
+        return className.startsWith(APPLICATION_PACKAGE)
+                && !className.startsWith(REPOSITORY_PACKAGE)
+                && !className.startsWith(CONFIG_PACKAGE)
+                && !className.startsWith(PROFILING_PACKAGE);
+    }
+
+    private static String requestMapping() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        return Optional.ofNullable(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+                .map(pattern -> request.getMethod() + " " + pattern)
+                .orElse(null);
+    }
+
+    // "com.learning.learning.controller.AdminController$$SpringCGLIB$$0" -> "AdminController"
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int generated = name.indexOf("$$");
+        return generated > 0 ? name.substring(0, generated) : name;
+    }
+}
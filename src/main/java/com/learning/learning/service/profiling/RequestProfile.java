@@ -0,0 +1,157 @@
+package com.learning.learning.service.profiling;
+
+import java.util.Locale;
+
+/**
+ * Timing breakdown of one profiled request, bound to the request thread by
+ * RequestProfilingFilter. Everything that records into it (the SQL statement
+ * listener, the storage / Stripe / email advice, the render interceptor)
+ * first checks {@link #current()}, which is null for requests that aren't
+ * profiled — a ThreadLocal read is all profiling costs them.
+ *
+ * Only work on the request thread is seen: an @Async email, for example,
+ * costs the request nothing and isn't counted.
+ */
+public final class RequestProfile {
+
+    public enum Category {
+        SQL("db", "SQL statements"),
+        STORAGE("storage", "document storage calls"),
+        STRIPE("stripe", "Stripe calls"),
+        EMAIL("email", "email calls");
+
+        private final String metricName;
+        private final String description;
+
+        Category(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final ThreadLocal<RequestProfile> current = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[Category.values().length];
+    private final int[] counts = new int[Category.values().length];
+    private final int[] depth = new int[Category.values().length];
+    private long renderStartNanos;
+    private long renderEndNanos;
+    private String endpoint;
+    private String username;
+
+    private RequestProfile() {
+    }
+
+    /**
+     * The profile of the request running on this thread, or null when it isn't profiled.
+     */
+    public static RequestProfile current() {
+        return current.get();
+    }
+
+    public static RequestProfile start() {
+        RequestProfile profile = new RequestProfile();
+        current.set(profile);
+        return profile;
+    }
+
+    public static void clear() {
+        current.remove();
+    }
+
+    /**
+     * Marks the start of a call in the category. Returns false for a call
+     * nested in another of the same category (a caching storage backend
+     * calling S3, say), whose time the outer call already includes.
+     */
+    public boolean enter(Category category) {
+        return depth[category.ordinal()]++ == 0;
+    }
+
+    public void exit(Category category, boolean outermost, long elapsedNanos) {
+        depth[category.ordinal()]--;
+        if (outermost) {
+            record(category, elapsedNanos);
+        }
+    }
+
+    public void record(Category category, long elapsedNanos) {
+        nanos[category.ordinal()] += elapsedNanos;
+        counts[category.ordinal()]++;
+    }
+
+    /**
+     * Set once the handler is known. The endpoint is the method and mapping
+     * pattern, e.g. "GET /charity-partner/{charityId}/referrals", so every
+     * charity's requests share one entry.
+     */
+    public void describe(String endpoint, String username) {
+        this.endpoint = endpoint;
+        this.username = username;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public String username() {
+        return username;
+    }
+
+    public void renderStarted() {
+        renderStartNanos = System.nanoTime();
+    }
+
+    public void renderFinished() {
+        if (renderStartNanos != 0) {
+            renderEndNanos = System.nanoTime();
+        }
+    }
+
+    public int count(Category category) {
+        return counts[category.ordinal()];
+    }
+
+    public double millis(Category category) {
+        return nanos[category.ordinal()] / 1_000_000.0;
+    }
+
+    public double totalMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    /**
+     * View rendering so far: complete once the view has rendered, up to now
+     * while it is still rendering, 0 for requests without a view.
+     */
+    public double renderMillis() {
+        if (renderStartNanos == 0) {
+            return 0;
+        }
+        long end = renderEndNanos != 0 ? renderEndNanos : System.nanoTime();
+        return (end - renderStartNanos) / 1_000_000.0;
+    }
+
+    /**
+     * Server-Timing header value, e.g.
+     * {@code total;dur=182.4, db;dur=41.0;desc="23 SQL statements", render;dur=96.3}.
+     * Categories without calls are left out, apart from db.
+     */
+    public String serverTiming() {
+        StringBuilder header = new StringBuilder();
+        header.append(String.format(Locale.ROOT, "total;dur=%.1f", totalMillis()));
+        for (Category category : Category.values()) {
+            int count = counts[category.ordinal()];
+            if (count == 0 && category != Category.SQL) {
+                continue;
+            }
+            header.append(String.format(Locale.ROOT, ", %s;dur=%.1f;desc=\"%d %s\"",
+                    category.metricName, millis(category), count, category.description));
+        }
+        if (renderStartNanos != 0) {
+            header.append(String.format(Locale.ROOT, ", render;dur=%.1f", renderMillis()));
+        }
+        return header.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.learning.learning.service.profiling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The slowest recent profiled requests per endpoint, for the admin request
+ * profiling page. In memory and per instance: each endpoint keeps its
+ * slowest-per-endpoint requests from the last retention-minutes.
+ */
+@Service
+public class RequestProfileStore {
+
+    // Requests whose handler couldn't be resolved (404s, security redirects) share one entry
+    public static final String UNMAPPED = "(unmapped)";
+
+    @Value("${app.request-profiling.slowest-per-endpoint:5}")
+    private int slowestPerEndpoint;
+
+    @Value("${app.request-profiling.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${app.request-profiling.max-endpoints:300}")
+    private int maxEndpoints;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void record(ProfiledRequest request) {
+        String key = request.endpoint();
+        if (!endpoints.containsKey(key) && endpoints.size() >= maxEndpoints) {
+            key = UNMAPPED;
+        }
+        endpoints.computeIfAbsent(key, k -> new Endpoint()).add(request, slowestPerEndpoint, cutoff());
+    }
+
+    /**
+     * Endpoints with requests inside the retention window, slowest first.
+     */
+    public List<EndpointSummary> slowestByEndpoint() {
+        LocalDateTime cutoff = cutoff();
+        List<EndpointSummary> summaries = new ArrayList<>();
+        endpoints.forEach((endpoint, stats) -> {
+            EndpointSummary summary = stats.summary(endpoint, cutoff);
+            if (!summary.slowest().isEmpty()) {
+                summaries.add(summary);
+            }
+        });
+        summaries.sort(Comparator.comparingDouble((EndpointSummary s) -> s.slowest().get(0).totalMillis()).reversed());
+        return summaries;
+    }
+
+    public void clear() {
+        endpoints.clear();
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minusMinutes(retentionMinutes);
+    }
+
+    private static final class Endpoint {
+
+        private final List<ProfiledRequest> slowest = new ArrayList<>();
+        private long profiled;
+
+        synchronized void add(ProfiledRequest request, int limit, LocalDateTime cutoff) {
+            profiled++;
+            slowest.removeIf(r -> r.recordedAt().isBefore(cutoff));
+            slowest.add(request);
+            slowest.sort(Comparator.comparingDouble(ProfiledRequest::totalMillis).reversed());
+            while (slowest.size() > limit) {
+                slowest.remove(slowest.size() - 1);
+            }
+        }
+
+        synchronized EndpointSummary summary(String endpoint, LocalDateTime cutoff) {
+            List<ProfiledRequest> recent = slowest.stream()
+                    .filter(r -> !r.recordedAt().isBefore(cutoff))
+                    .toList();
+            return new EndpointSummary(endpoint, profiled, recent);
+        }
+    }
+
+    public record EndpointSummary(String endpoint, long profiledCount, List<ProfiledRequest> slowest) {}
+
+    /**
+     * One profiled request. The path is kept without its query string, which
+     * can carry search terms and other personal data.
+     */
+    public record ProfiledRequest(
+            LocalDateTime recordedAt,
+            String endpoint,
+            String path,
+            String username,
+            int status,
+            double totalMillis,
+            int sqlCount,
+            double sqlMillis,
+            int storageCount,
+            double storageMillis,
+            int stripeCount,
+            double stripeMillis,
+            int emailCount,
+            double emailMillis,
+            double renderMillis
+    ) {}
+}
@@ -0,0 +1,203 @@
+package com.learning.learning.service.profiling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statements that took longer than app.slow-query.threshold-ms, as
+ * reported by the slow-query StatementListener (SlowQueryConfig). Each one is logged at WARN and kept in a
+ * ring buffer of the last buffer-size statements for /admin/slow-queries
+ * (in memory, per instance). With app.slow-query.flush.enabled they are
+ * also written to slow_query_log (docs/SLOW_QUERY_LOG_MIGRATION.sql) every
+ * interval-ms, so they survive restarts and can be compared across instances.
+ *
+ * Bind values are never kept, only their types, and string and numeric
+ * literals in the SQL text are masked. That keeps out the values this app
+ * sends, which all go as binds or literals; identifiers are kept as-is.
+ */
+@Service
+public class SlowQueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final int MAX_SQL_LENGTH = 4000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    // Standalone numbers only: not the digits in identifiers like b1_0, nor $1 placeholders
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w$.])\\d+(?:\\.\\d+)?(?![\\w$])");
+
+    private static final String INSERT = """
+            INSERT INTO slow_query_log (recorded_at, duration_ms, sql_text, parameter_types,
+                                        batch_size, repository_method, caller, controller)
+            VALUES (:recordedAt, :durationMs, :sql, :parameterTypes,
+                    :batchSize, :repositoryMethod, :caller, :controller)
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${app.slow-query.threshold-ms:250}")
+    private long thresholdMillis;
+
+    @Value("${app.slow-query.buffer-size:500}")
+    private int bufferSize;
+
+    @Value("${app.slow-query.flush.enabled:false}")
+    private boolean flushEnabled;
+
+    @Value("${app.slow-query.flush.retention-days:30}")
+    private int retentionDays;
+
+    private final Deque<SlowQuery> recent = new ArrayDeque<>();
+    private final Deque<SlowQuery> unflushed = new ArrayDeque<>();
+
+    // The flush's own statements go through the same DataSource; don't record them
+    private final ThreadLocal<Boolean> flushing = ThreadLocal.withInitial(() -> false);
+
+    public void record(String sql, String parameterTypes, int batchSize, long elapsedNanos) {
+        if (flushing.get()) {
+            return;
+        }
+        QueryOrigin origin = QueryOrigin.capture();
+        SlowQuery query = new SlowQuery(
+                LocalDateTime.now(),
+                elapsedNanos / 1_000_000.0,
+                mask(sql),
+                parameterTypes,
+                batchSize,
+                origin.repositoryMethod(),
+                origin.caller(),
+                origin.controller());
+
+        logger.warn("Slow query ({} ms) from {} via {} [{}]: {}",
+                String.format(Locale.ROOT, "%.1f", query.durationMillis()),
+                query.controller() != null ? query.controller() : query.caller(),
+                query.repositoryMethod() != null ? query.repositoryMethod() : "-",
+                query.parameterTypes(),
+                query.sql());
+
+        synchronized (this) {
+            add(recent, query);
+            if (flushEnabled) {
+                add(unflushed, query);
+            }
+        }
+    }
+
+    /**
+     * Recorded statements, newest first.
+     */
+    public synchronized List<SlowQuery> recent() {
+        return new ArrayList<>(recent);
+    }
+
+    public synchronized void clear() {
+        recent.clear();
+    }
+
+    public long thresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public boolean flushEnabled() {
+        return flushEnabled;
+    }
+
+    @Scheduled(fixedDelayString = "${app.slow-query.flush.interval-ms:60000}",
+            initialDelayString = "${app.slow-query.flush.interval-ms:60000}")
+    public void flush() {
+        if (!flushEnabled) {
+            return;
+        }
+        List<SlowQuery> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(unflushed);
+            unflushed.clear();
+        }
+
+        flushing.set(true);
+        try {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT, batch.stream()
+                        .map(SlowQueryLog::parameters)
+                        .toArray(SqlParameterSource[]::new));
+            }
+            jdbcTemplate.update("DELETE FROM slow_query_log WHERE recorded_at < :cutoff",
+                    new MapSqlParameterSource("cutoff", LocalDateTime.now().minusDays(retentionDays)));
+        } catch (Exception e) {
+            // Not worth retrying: they are still in the ring buffer and the log
+            logger.error("Failed to write {} slow queries to slow_query_log: {}", batch.size(), e.getMessage());
+        } finally {
+            flushing.remove();
+        }
+    }
+
+    // Newest first; the oldest falls off once the buffer is full
+    private void add(Deque<SlowQuery> queries, SlowQuery query) {
+        queries.addFirst(query);
+        while (queries.size() > bufferSize) {
+            queries.removeLast();
+        }
+    }
+
+    /**
+     * Replaces string and numeric literals with '?'. Hibernate and JdbcTemplate
+     * send values as binds, but SQL built by hand could still carry a name,
+     * email or ID number inline.
+     */
+    static String mask(String sql) {
+        if (sql == null) {
+            return "(unknown)";
+        }
+        String masked = STRING_LITERAL.matcher(sql).replaceAll("'?'");
+        masked = NUMERIC_LITERAL.matcher(masked).replaceAll("?");
+        return masked.length() > MAX_SQL_LENGTH ? masked.substring(0, MAX_SQL_LENGTH) + "..." : masked;
+    }
+
+    private static SqlParameterSource parameters(SlowQuery query) {
+        return new MapSqlParameterSource()
+                .addValue("recordedAt", query.recordedAt())
+                .addValue("durationMs", query.durationMillis())
+                .addValue("sql", query.sql())
+                .addValue("parameterTypes", query.parameterTypes())
+                .addValue("batchSize", query.batchSize())
+                .addValue("repositoryMethod", query.repositoryMethod())
+                .addValue("caller", query.caller())
+                .addValue("controller", query.controller());
+    }
+
+    /**
+     * One slow statement. parameterTypes lists the type of each bind
+     * parameter in order, e.g. "Long, String, null"; batchSize is the number
+     * of rows for a batched statement and 0 otherwise.
+     */
+    public record SlowQuery(
+            LocalDateTime recordedAt,
+            double durationMillis,
+            String sql,
+            String parameterTypes,
+            int batchSize,
+            String repositoryMethod,
+            String caller,
+            String controller
+    ) {}
+}
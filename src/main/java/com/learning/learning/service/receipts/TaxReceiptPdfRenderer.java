@@ -0,0 +1,126 @@
+package com.learning.learning.service.receipts;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders a year-end donation receipt (one donor, one charity, one tax year)
+ * as a PDF. Stateless and thread-safe; the batch calls it from its worker pool.
+ */
+@Component
+public class TaxReceiptPdfRenderer {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.US);
+
+    private static final Font TITLE = new Font(Font.HELVETICA, 16, Font.BOLD);
+    private static final Font HEADING = new Font(Font.HELVETICA, 11, Font.BOLD);
+    private static final Font BODY = new Font(Font.HELVETICA, 10);
+    private static final Font SMALL = new Font(Font.HELVETICA, 8);
+
+    public byte[] render(ReceiptContent content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        Document document = new Document(PageSize.LETTER, 54, 54, 54, 54);
+        try {
+            PdfWriter.getInstance(document, out);
+            document.addTitle("Donation Receipt " + content.receiptNumber());
+            document.open();
+
+            document.add(new Paragraph(content.charityName(), TITLE));
+            if (content.charityAddress() != null) {
+                document.add(new Paragraph(content.charityAddress(), BODY));
+            }
+            if (content.charityEin() != null) {
+                document.add(new Paragraph("EIN: " + content.charityEin(), BODY));
+            }
+
+            Paragraph title = new Paragraph(content.taxYear() + " Annual Donation Receipt", HEADING);
+            title.setSpacingBefore(18);
+            document.add(title);
+            document.add(new Paragraph("Receipt #: " + content.receiptNumber(), BODY));
+            document.add(new Paragraph("Issued: " + content.issuedOn().format(DATE), BODY));
+
+            Paragraph donor = new Paragraph("Donor: " + content.recipientName(), BODY);
+            donor.setSpacingBefore(12);
+            document.add(donor);
+            if (content.recipientEmail() != null) {
+                document.add(new Paragraph(content.recipientEmail(), BODY));
+            }
+
+            PdfPTable table = new PdfPTable(new float[]{2f, 2f, 1.5f});
+            table.setWidthPercentage(100);
+            table.setSpacingBefore(16);
+            table.setHeaderRows(1);
+            addCell(table, "Date", HEADING, Element.ALIGN_LEFT);
+            addCell(table, "Reference", HEADING, Element.ALIGN_LEFT);
+            addCell(table, "Amount", HEADING, Element.ALIGN_RIGHT);
+            NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.US);
+            for (ReceiptLine line : content.lines()) {
+                addCell(table, line.date().format(DATE), BODY, Element.ALIGN_LEFT);
+                addCell(table, "Donation #" + line.donationId(), BODY, Element.ALIGN_LEFT);
+                addCell(table, currency.format(line.amount()), BODY, Element.ALIGN_RIGHT);
+            }
+            addCell(table, "", HEADING, Element.ALIGN_LEFT);
+            addCell(table, "Total", HEADING, Element.ALIGN_LEFT);
+            addCell(table, currency.format(content.total()), HEADING, Element.ALIGN_RIGHT);
+            document.add(table);
+
+            Paragraph statement = new Paragraph(
+                    "No goods or services were provided in exchange for these contributions. "
+                            + "Please keep this receipt for your tax records.", BODY);
+            statement.setSpacingBefore(18);
+            document.add(statement);
+
+            Paragraph footer = new Paragraph(
+                    "Issued through SafelyNested on behalf of " + content.charityName() + ".", SMALL);
+            footer.setSpacingBefore(24);
+            document.add(footer);
+        } catch (DocumentException e) {
+            throw new RuntimeException("Failed to render receipt " + content.receiptNumber(), e);
+        } finally {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void addCell(PdfPTable table, String text, Font font, int alignment) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, font));
+        cell.setHorizontalAlignment(alignment);
+        cell.setPadding(5);
+        cell.setBorderWidth(0.5f);
+        table.addCell(cell);
+    }
+
+    public record ReceiptContent(
+            String receiptNumber,
+            int taxYear,
+            LocalDate issuedOn,
+            String charityName,
+            String charityAddress,
+            String charityEin,
+            String recipientName,
+            String recipientEmail,
+            List<ReceiptLine> lines,
+            BigDecimal total
+    ) {}
+
+    public record ReceiptLine(Long donationId, LocalDate date, BigDecimal amount) {}
+}
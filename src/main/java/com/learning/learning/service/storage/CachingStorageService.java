@@ -0,0 +1,328 @@
+package com.learning.learning.service.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Read-through on-disk cache in front of another StorageService (S3 in
+ * production), so documents staff open repeatedly during review aren't
+ * fetched from the bucket every time.
+ *
+ * Fetched objects are written to a temp file and atomically renamed into the
+ * cache directory; the directory is bounded by total size and evicts the
+ * least recently read object first. Concurrent misses for the same key wait
+ * on a single fetch. store() and delete() drop the key from this instance's
+ * cache (a fetch still in flight for it is not cached); entries also expire
+ * after maxAge, which bounds staleness after writes made by other instances.
+ *
+ * Enabled with storage.cache.enabled=true (StorageCacheConfig); it wraps
+ * whichever backend storage.type selects.
+ */
+public class CachingStorageService implements StorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingStorageService.class);
+
+    private record Entry(long size, long cachedAt) {}
+
+    // Names of the files this cache writes: entries and in-progress fetches
+    private static final String ENTRY_SUFFIX = ".cache";
+    private static final String FETCH_PREFIX = "fetch-";
+    private static final String FETCH_SUFFIX = ".tmp";
+
+    private final StorageService backend;
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+
+    // Access-ordered: iteration starts at the least recently read entry.
+    // Guarded by itself, as is totalBytes; files are only added/removed under it.
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes = 0;
+
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter evictionCounter;
+
+    public CachingStorageService(StorageService backend, Path cacheDir, long maxBytes, long maxAgeMillis,
+                                 MeterRegistry meterRegistry) throws IOException {
+        this.backend = backend;
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+
+        // Nothing survives a restart: the index lives in memory. Only our own
+        // files are removed, in case storage.cache.dir points somewhere shared.
+        Files.createDirectories(cacheDir);
+        try (Stream<Path> leftovers = Files.list(cacheDir)) {
+            leftovers.filter(CachingStorageService::isCacheFile).forEach(this::deleteQuietly);
+        }
+
+        String backendType = backend.getStorageType();
+        hitCounter = Counter.builder("storage.cache.requests").tag("backend", backendType).tag("result", "hit")
+                .register(meterRegistry);
+        missCounter = Counter.builder("storage.cache.requests").tag("backend", backendType).tag("result", "miss")
+                .register(meterRegistry);
+        evictionCounter = Counter.builder("storage.cache.evictions").tag("backend", backendType)
+                .register(meterRegistry);
+        Gauge.builder("storage.cache.hit.ratio", this, CachingStorageService::hitRatio)
+                .tag("backend", backendType)
+                .register(meterRegistry);
+        Gauge.builder("storage.cache.size", this, CachingStorageService::cachedBytes)
+                .tag("backend", backendType)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        logger.info("Storage cache in {} (max {} MB) in front of {} storage",
+                cacheDir, maxBytes / (1024 * 1024), backendType);
+    }
+
+    @Override
+    public String store(MultipartFile file, String key) throws IOException {
+        try {
+            return backend.store(file, key);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public String store(InputStream inputStream, String key, String contentType, long size) throws IOException {
+        try {
+            return backend.store(inputStream, key, contentType, size);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public InputStream retrieve(String key) throws IOException {
+        InputStream cached = openCached(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            hitCounter.increment();
+            return cached;
+        }
+        misses.incrementAndGet();
+        missCounter.increment();
+
+        CompletableFuture<Void> fetch = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(key, fetch);
+        if (existing == null) {
+            try {
+                fetchIntoCache(key, fetch);
+                fetch.complete(null);
+            } catch (IOException | RuntimeException e) {
+                fetch.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, fetch);
+            }
+        } else {
+            awaitFetch(key, existing);
+        }
+
+        cached = openCached(key);
+        // Not cached after all (invalidated meanwhile, or larger than the
+        // whole cache): read straight from the backend
+        return cached != null ? cached : backend.retrieve(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            backend.delete(key);
+        } finally {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return backend.exists(key);
+    }
+
+    @Override
+    public Optional<StoredObject> head(String key) {
+        return backend.head(key);
+    }
+
+    @Override
+    public Optional<PresignedUpload> presignUpload(String key, String contentType, long size,
+                                                   String sha256Base64, int expirationMinutes) {
+        // Direct uploads bypass store(), but the signed checksum pins the
+        // content of the key, so nothing cached for it can become stale
+        return backend.presignUpload(key, contentType, size, sha256Base64, expirationMinutes);
+    }
+
+    @Override
+    public String getDownloadUrl(String key, int expirationMinutes) {
+        return backend.getDownloadUrl(key, expirationMinutes);
+    }
+
+    @Override
+    public String getStorageType() {
+        return backend.getStorageType();
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public long cachedBytes() {
+        synchronized (index) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * Open the cached copy of key, or return null if there is none (or it has
+     * expired). Opened under the index lock so eviction can't delete the file
+     * in between; an open file stays readable after it is evicted.
+     */
+    private InputStream openCached(String key) throws IOException {
+        synchronized (index) {
+            Entry entry = index.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - entry.cachedAt() > maxAgeMillis) {
+                removeEntry(key);
+                return null;
+            }
+            try {
+                return Files.newInputStream(pathFor(key));
+            } catch (IOException e) {
+                // Removed behind our back (tmp cleaner); forget it
+                removeEntry(key);
+                return null;
+            }
+        }
+    }
+
+    private void fetchIntoCache(String key, CompletableFuture<Void> fetch) throws IOException {
+        Path temp = Files.createTempFile(cacheDir, FETCH_PREFIX, FETCH_SUFFIX);
+        try {
+            long size;
+            try (InputStream in = backend.retrieve(key)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            synchronized (index) {
+                // store()/delete() for this key while we were fetching: what we
+                // have may be stale, so don't cache it
+                if (inFlight.get(key) != fetch) {
+                    return;
+                }
+                Files.move(temp, pathFor(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                Entry previous = index.put(key, new Entry(size, System.currentTimeMillis()));
+                if (previous != null) {
+                    totalBytes -= previous.size();
+                }
+                totalBytes += size;
+                evictOverflow();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void awaitFetch(String key, CompletableFuture<Void> fetch) throws IOException {
+        try {
+            fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to retrieve " + key + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void invalidate(String key) {
+        inFlight.remove(key);
+        synchronized (index) {
+            removeEntry(key);
+        }
+    }
+
+    // Caller holds the index lock
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue().size();
+            deleteQuietly(pathFor(entry.getKey()));
+            evictionCounter.increment();
+        }
+    }
+
+    // Caller holds the index lock
+    private void removeEntry(String key) {
+        Entry entry = index.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.size();
+            deleteQuietly(pathFor(key));
+        }
+    }
+
+    /**
+     * Cache file for a storage key. Keys are hashed so they map to flat,
+     * fixed-length file names whatever characters they contain.
+     */
+    private Path pathFor(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return cacheDir.resolve(HexFormat.of().formatHex(hash) + ENTRY_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static boolean isCacheFile(Path path) {
+        String name = path.getFileName().toString();
+        return Files.isRegularFile(path)
+                && (name.matches("[0-9a-f]{64}\\" + ENTRY_SUFFIX)
+                || (name.startsWith(FETCH_PREFIX) && name.endsWith(FETCH_SUFFIX)));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.debug("Could not delete cache file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.Optional;
 
 /**
  * Local filesystem storage implementation.
@@ -78,6 +79,24 @@ public class LocalStorageService implements StorageService {
         return Files.exists(filePath);
     }
 
+    @Override
+    public Optional<StoredObject> head(String key) {
+        Path filePath = Paths.get(uploadDir, key);
+        try {
+            return Optional.of(new StoredObject(Files.size(filePath), Files.probeContentType(filePath)));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<PresignedUpload> presignUpload(String key, String contentType, long size,
+                                                   String sha256Base64, int expirationMinutes) {
+        // No storage endpoint the browser could reach; DirectUploadService
+        // falls back to receiving the file itself
+        return Optional.empty();
+    }
+
     @Override
     public String getDownloadUrl(String key, int expirationMinutes) {
         // For local storage, return the relative path
@@ -0,0 +1,12 @@
+package com.learning.learning.service.storage;
+
+import java.util.Map;
+
+/**
+ * A pre-signed PUT the browser can send a file to directly.
+ *
+ * @param url     URL to PUT the file body to
+ * @param headers headers that are part of the signature and must be sent
+ *                exactly as given
+ */
+public record PresignedUpload(String url, Map<String, String> headers) {}
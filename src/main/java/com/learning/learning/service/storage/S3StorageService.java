@@ -4,6 +4,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -15,11 +17,16 @@ import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * AWS S3 storage implementation.
@@ -43,25 +50,72 @@ public class S3StorageService implements StorageService {
     @Value("${aws.secret-access-key}")
     private String secretAccessKey;
 
-    private S3Client s3Client;
-    private S3Presigner s3Presigner;
+    // Built on first use (or by warmUp once the app is ready) rather than at
+    // startup: creating the SDK clients loads and initializes a large part of
+    // the AWS SDK, which would otherwise hold up every cold start
+    private volatile S3Client s3Client;
+    private volatile S3Presigner s3Presigner;
 
     @PostConstruct
     public void init() {
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKeyId, secretAccessKey);
-        StaticCredentialsProvider credentialsProvider = StaticCredentialsProvider.create(credentials);
+        logger.info("S3 Storage Service configured for bucket: {} in region: {}", bucketName, region);
+    }
+
+    /**
+     * Create the clients in the background once the app is serving, so
+     * neither startup nor the first upload waits for them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread thread = new Thread(() -> {
+            try {
+                client();
+                presigner();
+            } catch (RuntimeException e) {
+                logger.warn("S3 client warm-up failed; retrying on first use: {}", e.getMessage());
+            }
+        }, "S3ClientWarmUp");
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-        this.s3Client = S3Client.builder()
-                .region(Region.of(region))
-                .credentialsProvider(credentialsProvider)
-                .build();
+    private S3Client client() {
+        S3Client client = s3Client;
+        if (client == null) {
+            synchronized (this) {
+                client = s3Client;
+                if (client == null) {
+                    client = S3Client.builder()
+                            .region(Region.of(region))
+                            .credentialsProvider(credentialsProvider())
+                            .build();
+                    s3Client = client;
+                    logger.info("S3 client created for bucket: {}", bucketName);
+                }
+            }
+        }
+        return client;
+    }
 
-        this.s3Presigner = S3Presigner.builder()
-                .region(Region.of(region))
-                .credentialsProvider(credentialsProvider)
-                .build();
+    private S3Presigner presigner() {
+        S3Presigner presigner = s3Presigner;
+        if (presigner == null) {
+            synchronized (this) {
+                presigner = s3Presigner;
+                if (presigner == null) {
+                    presigner = S3Presigner.builder()
+                            .region(Region.of(region))
+                            .credentialsProvider(credentialsProvider())
+                            .build();
+                    s3Presigner = presigner;
+                }
+            }
+        }
+        return presigner;
+    }
 
-        logger.info("S3 Storage Service initialized for bucket: {} in region: {}", bucketName, region);
+    private StaticCredentialsProvider credentialsProvider() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey));
     }
 
     @Override
@@ -79,7 +133,7 @@ public class S3StorageService implements StorageService {
                     .serverSideEncryption(ServerSideEncryption.AES256) // Enable server-side encryption
                     .build();
 
-            s3Client.putObject(putRequest, RequestBody.fromInputStream(inputStream, size));
+            client().putObject(putRequest, RequestBody.fromInputStream(inputStream, size));
 
             logger.info("File uploaded to S3: s3://{}/{}", bucketName, key);
             return key;
@@ -98,7 +152,7 @@ public class S3StorageService implements StorageService {
                     .key(key)
                     .build();
 
-            return s3Client.getObject(getRequest);
+            return client().getObject(getRequest);
 
         } catch (NoSuchKeyException e) {
             throw new IOException("File not found in S3: " + key, e);
@@ -116,7 +170,7 @@ public class S3StorageService implements StorageService {
                     .key(key)
                     .build();
 
-            s3Client.deleteObject(deleteRequest);
+            client().deleteObject(deleteRequest);
             logger.info("File deleted from S3: s3://{}/{}", bucketName, key);
 
         } catch (S3Exception e) {
@@ -133,7 +187,7 @@ public class S3StorageService implements StorageService {
                     .key(key)
                     .build();
 
-            s3Client.headObject(headRequest);
+            client().headObject(headRequest);
             return true;
 
         } catch (NoSuchKeyException e) {
@@ -144,6 +198,67 @@ public class S3StorageService implements StorageService {
         }
     }
 
+    @Override
+    public Optional<StoredObject> head(String key) {
+        try {
+            HeadObjectRequest headRequest = HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build();
+
+            HeadObjectResponse response = client().headObject(headRequest);
+            return Optional.of(new StoredObject(response.contentLength(), response.contentType()));
+
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            logger.error("Error reading metadata of file in S3: {}", e.getMessage());
+            throw new RuntimeException("Failed to read file metadata", e);
+        }
+    }
+
+    @Override
+    public Optional<PresignedUpload> presignUpload(String key, String contentType, long size,
+                                                   String sha256Base64, int expirationMinutes) {
+        try {
+            // Content type, length and checksum are signed: S3 rejects a body
+            // that doesn't match what the server validated
+            PutObjectRequest putRequest = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(contentType)
+                    .contentLength(size)
+                    .checksumSHA256(sha256Base64)
+                    .serverSideEncryption(ServerSideEncryption.AES256)
+                    .build();
+
+            PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                    .signatureDuration(Duration.ofMinutes(expirationMinutes))
+                    .putObjectRequest(putRequest)
+                    .build();
+
+            PresignedPutObjectRequest presignedRequest = presigner().presignPutObject(presignRequest);
+
+            // The browser sets Host and Content-Length itself
+            Map<String, String> headers = new LinkedHashMap<>();
+            presignedRequest.signedHeaders().forEach((name, values) -> {
+                if (!"host".equalsIgnoreCase(name) && !"content-length".equalsIgnoreCase(name)) {
+                    headers.put(name, String.join(",", values));
+                }
+            });
+
+            logger.debug("Generated pre-signed upload URL for key: {} (expires in {} minutes)", key, expirationMinutes);
+            return Optional.of(new PresignedUpload(presignedRequest.url().toString(), headers));
+
+        } catch (S3Exception e) {
+            logger.error("Failed to generate pre-signed upload URL: {}", e.getMessage());
+            throw new RuntimeException("Failed to generate upload URL", e);
+        }
+    }
+
     @Override
     public String getDownloadUrl(String key, int expirationMinutes) {
         try {
@@ -157,7 +272,7 @@ public class S3StorageService implements StorageService {
                     .getObjectRequest(getRequest)
                     .build();
 
-            PresignedGetObjectRequest presignedRequest = s3Presigner.presignGetObject(presignRequest);
+            PresignedGetObjectRequest presignedRequest = presigner().presignGetObject(presignRequest);
             String url = presignedRequest.url().toString();
 
             logger.debug("Generated pre-signed URL for key: {} (expires in {} minutes)", key, expirationMinutes);
@@ -4,6 +4,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Optional;
 
 /**
  * Storage service interface for file operations.
@@ -54,6 +55,30 @@ public interface StorageService {
      */
     boolean exists(String key);
 
+    /**
+     * Size and content type of a stored file (a HEAD request for S3)
+     *
+     * @param key The storage key to check
+     * @return the file's metadata, or empty if it doesn't exist
+     */
+    Optional<StoredObject> head(String key);
+
+    /**
+     * Get a URL the browser can upload a file to directly, bypassing the
+     * application server. The upload is only accepted with exactly this
+     * content type, size and SHA-256 checksum.
+     *
+     * @param key               The storage key the file will be stored under
+     * @param contentType       The MIME type of the file
+     * @param size              The size of the file in bytes
+     * @param sha256Base64      Base64 SHA-256 of the file contents
+     * @param expirationMinutes How long the URL should be valid
+     * @return the upload URL and headers to send, or empty if this backend
+     *         has no direct upload (local storage)
+     */
+    Optional<PresignedUpload> presignUpload(String key, String contentType, long size,
+                                            String sha256Base64, int expirationMinutes);
+
     /**
      * Get a URL for downloading the file.
      * For local storage, returns a relative path.
@@ -0,0 +1,9 @@
+package com.learning.learning.service.storage;
+
+/**
+ * Metadata of a stored file, as returned by {@link StorageService#head}.
+ *
+ * @param size        size in bytes
+ * @param contentType MIME type recorded with the file, or null if unknown
+ */
+public record StoredObject(long size, String contentType) {}
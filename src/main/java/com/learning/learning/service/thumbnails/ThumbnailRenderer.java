@@ -0,0 +1,130 @@
+package com.learning.learning.service.thumbnails;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Renders a small JPEG preview of an uploaded image or of a PDF's first page.
+ *
+ * Images are decoded with source subsampling, so a 12-megapixel phone photo
+ * is read at roughly twice the thumbnail size instead of being inflated to
+ * full resolution first. PDFs are rasterised at the scale that makes the
+ * first page fit the thumbnail. Stateless and thread-safe.
+ */
+@Component
+public class ThumbnailRenderer {
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    public boolean supports(String mimeType) {
+        return mimeType != null && (mimeType.equals("application/pdf")
+                || mimeType.equals("image/jpeg") || mimeType.equals("image/png") || mimeType.equals("image/gif"));
+    }
+
+    /**
+     * @return JPEG bytes no larger than maxDimension on either side, or null
+     *         if the content could not be decoded
+     */
+    public byte[] render(InputStream content, String mimeType, int maxDimension) throws IOException {
+        BufferedImage source = "application/pdf".equals(mimeType)
+                ? renderPdfFirstPage(content, maxDimension)
+                : readImage(content, maxDimension);
+        if (source == null) {
+            return null;
+        }
+        return encodeJpeg(fit(source, maxDimension));
+    }
+
+    private BufferedImage readImage(InputStream content, int maxDimension) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Keep ~2x the target so the final smooth downscale still has detail
+                int step = Math.max(1, longestSide / (maxDimension * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage renderPdfFirstPage(InputStream content, int maxDimension) throws IOException {
+        try (PDDocument pdf = Loader.loadPDF(content.readAllBytes())) {
+            if (pdf.getNumberOfPages() == 0) {
+                return null;
+            }
+            PDRectangle box = pdf.getPage(0).getCropBox();
+            float scale = maxDimension / Math.max(box.getWidth(), box.getHeight());
+            return new PDFRenderer(pdf).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    private static BufferedImage fit(BufferedImage source, int maxDimension) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        // Always redraw onto RGB: JPEG has no alpha, so transparency becomes white
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,84 @@
+// Browser-direct document uploads (see DirectUploadService).
+//
+// Forms opt in with data-direct-upload (start URL) and data-direct-finalize
+// (finalize URL). The file is hashed here, PUT straight to storage with the
+// URL the server hands out, and the upload is finished with a regular form
+// post so the page redirects and shows its messages as usual. Without
+// WebCrypto, or if any step fails, the form is submitted as a normal
+// multipart upload instead.
+(function () {
+    'use strict';
+
+    function toHex(buffer) {
+        return Array.from(new Uint8Array(buffer))
+            .map(function (b) { return b.toString(16).padStart(2, '0'); })
+            .join('');
+    }
+
+    function csrfToken(form) {
+        var input = form.querySelector('input[name="_csrf"]');
+        return input ? input.value : null;
+    }
+
+    async function directUpload(form, file) {
+        var fields = new FormData(form);
+        fields.delete('file');
+        fields.append('fileName', file.name);
+        fields.append('contentType', file.type);
+        fields.append('size', String(file.size));
+        fields.append('sha256', toHex(await crypto.subtle.digest('SHA-256', await file.arrayBuffer())));
+
+        var started = await fetch(form.dataset.directUpload, {
+            method: 'POST',
+            body: new URLSearchParams(fields),
+            credentials: 'same-origin'
+        });
+        if (!started.ok) {
+            throw new Error('start returned ' + started.status);
+        }
+        var upload = await started.json();
+
+        // Not needed when the charity already has this exact file
+        if (upload.uploadRequired) {
+            var put = await fetch(upload.url, { method: 'PUT', headers: upload.headers, body: file });
+            if (!put.ok) {
+                throw new Error('upload returned ' + put.status);
+            }
+        }
+
+        var finalize = document.createElement('form');
+        finalize.method = 'post';
+        finalize.action = form.dataset.directFinalize;
+        [['uploadToken', upload.uploadToken], ['_csrf', csrfToken(form)]].forEach(function (pair) {
+            if (pair[1] == null) return;
+            var input = document.createElement('input');
+            input.type = 'hidden';
+            input.name = pair[0];
+            input.value = pair[1];
+            finalize.appendChild(input);
+        });
+        document.body.appendChild(finalize);
+        finalize.submit();
+    }
+
+    document.querySelectorAll('form[data-direct-upload]').forEach(function (form) {
+        form.addEventListener('submit', function (e) {
+            var input = form.querySelector('input[type="file"]');
+            var file = input && input.files[0];
+            if (!file || !window.fetch || !window.crypto || !window.crypto.subtle) {
+                return;
+            }
+            e.preventDefault();
+
+            var button = form.querySelector('[type="submit"]');
+            if (button) button.disabled = true;
+
+            directUpload(form, file).catch(function (err) {
+                console.warn('Direct upload not possible, using regular upload:', err);
+                if (button) button.disabled = false;
+                // form.submit() doesn't fire this handler again
+                form.submit();
+            });
+        });
+    });
+})();
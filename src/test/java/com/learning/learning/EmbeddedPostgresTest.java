@@ -0,0 +1,58 @@
+package com.learning.learning;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base for Spring tests that run against a real Postgres, started once per
+ * test JVM from embedded binaries. Each application context gets a database
+ * of its own, so contexts cached side by side don't drop each other's schema
+ * (ddl-auto=create, application-test.properties) or see each other's rows.
+ */
+public abstract class EmbeddedPostgresTest {
+
+    private static final EmbeddedPostgres postgres = startPostgres();
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    // Called once for each context this class's tests start
+    @DynamicPropertySource
+    static void embeddedPostgres(DynamicPropertyRegistry registry) {
+        String url = jdbcUrl(createDatabase("test"));
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    /** Creates an empty database on the shared server; returns its name. */
+    protected static String createDatabase(String prefix) {
+        String name = prefix + "_" + databases.incrementAndGet();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + name);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create database " + name, e);
+        }
+        return name;
+    }
+
+    protected static String jdbcUrl(String database) {
+        return postgres.getJdbcUrl("postgres", database);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start embedded Postgres", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.learning.learning.config;
+
+import com.learning.learning.LearningApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The class data sharing training run in the Dockerfile: the context has to
+ * refresh with the profiles it uses and no database to talk to, since none
+ * exists at image build time. The datasource points at a local socket that
+ * counts connection attempts (and drops them); none may arrive while the
+ * context starts up and shuts down again, as the training run's does.
+ */
+class CdsTrainingProfileTest {
+
+    @Test
+    void contextRefreshesWithoutOpeningADatabaseConnection() throws IOException {
+        try (ServerSocket database = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            AtomicInteger attempts = new AtomicInteger();
+            Thread acceptor = new Thread(() -> {
+                while (!database.isClosed()) {
+                    try (Socket ignored = database.accept()) {
+                        attempts.incrementAndGet();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            }, "cds-training-database");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LearningApplication.class)
+                    .run("--spring.profiles.active=prod,fast-startup,cds-training",
+                            "--server.port=0",
+                            "--spring.datasource.url=jdbc:postgresql://localhost:" + database.getLocalPort()
+                                    + "/cds_training",
+                            "--spring.datasource.hikari.connection-timeout=2000")) {
+                assertThat(context.isActive()).isTrue();
+            }
+
+            assertThat(attempts.get())
+                    .as("database connections opened by the training run")
+                    .isZero();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.learning.learning.config;
+
+import com.learning.learning.EmbeddedPostgresTest;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read-replica routing with open-in-view: one EntityManager spans the whole
+ * request, so each transaction has to be routed on its own rather than
+ * reusing the connection the request's first transaction was given.
+ *
+ * The "replica" is a second, empty database on the same embedded Postgres,
+ * so current_database() tells where a statement ran and a write that lands
+ * there fails for want of the table.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.enabled=true",
+        "spring.datasource.hikari.connection-timeout=" + ReadReplicaRoutingTest.CONNECTION_TIMEOUT_MS
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest extends EmbeddedPostgresTest {
+
+    static final long CONNECTION_TIMEOUT_MS = 7000;
+
+    private static String replicaDatabase;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private EntityManager requestEntityManager;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        replicaDatabase = createDatabase("replica");
+        registry.add("app.datasource.replica.urls", () -> jdbcUrl(replicaDatabase));
+    }
+
+    // What OpenEntityManagerInViewInterceptor does around a request
+    @BeforeEach
+    void openEntityManagerInView() {
+        requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory,
+                new EntityManagerHolder(requestEntityManager));
+    }
+
+    @AfterEach
+    void closeEntityManagerInView() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        requestEntityManager.close();
+    }
+
+    @Test
+    void writeAfterReadOnlyTransactionReachesPrimary() throws SQLException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        String readDatabase = readOnly.execute(status -> currentDatabase());
+        assertThat(readDatabase).as("read-only work on the replica").isEqualTo(replicaDatabase);
+
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        String writeDatabase = write.execute(status -> currentDatabase());
+        assertThat(writeDatabase).as("the next transaction on the primary").isEqualTo(primaryDatabase());
+        // "relation users does not exist" on the replica
+        write.executeWithoutResult(status -> requestEntityManager
+                .createNativeQuery("UPDATE users SET username = username WHERE id < 0")
+                .executeUpdate());
+    }
+
+    @Test
+    void readOnlyTransactionAfterWriteUsesReplicaAgain() throws SQLException {
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        String writeDatabase = write.execute(status -> currentDatabase());
+        assertThat(writeDatabase).isEqualTo(primaryDatabase());
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        String readDatabase = readOnly.execute(status -> currentDatabase());
+        assertThat(readDatabase).isEqualTo(replicaDatabase);
+    }
+
+    @Test
+    void poolsGetSpringDatasourceHikariSettings() throws SQLException {
+        ReadReplicaRoutingDataSource routing = dataSource.unwrap(ReadReplicaRoutingDataSource.class);
+        assertThat(routing.getResolvedDataSources().values())
+                .hasSize(2)
+                .allSatisfy(pool -> assertThat(((HikariDataSource) pool).getConnectionTimeout())
+                        .isEqualTo(CONNECTION_TIMEOUT_MS));
+    }
+
+    private String currentDatabase() {
+        return (String) requestEntityManager.createNativeQuery("SELECT current_database()").getSingleResult();
+    }
+
+    // Asked of the primary pool directly, bypassing the routing
+    private String primaryDatabase() throws SQLException {
+        DataSource primary = dataSource.unwrap(ReadReplicaRoutingDataSource.class)
+                .getResolvedDataSources().get(ReadReplicaRoutingDataSource.PRIMARY);
+        return new JdbcTemplate(primary).queryForObject("SELECT current_database()", String.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.learning.learning.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Long-lived caching only for responses that actually served the asset.
+ */
+class StaticAssetCacheFilterTest {
+
+    private static final String FINGERPRINTED = "/css/styles-31b28159c77f999a1e602dd4cd1206e7.css";
+
+    private final StaticAssetCacheFilter filter = new StaticAssetCacheFilter(3600);
+
+    private MockHttpServletResponse serve(String uri, FilterChain handler) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, handler);
+        return response;
+    }
+
+    @Test
+    void servedAssetIsImmutable() throws Exception {
+        MockHttpServletResponse response = serve(FINGERPRINTED,
+                (req, res) -> res.getWriter().write("body {}"));
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(StaticAssetCacheFilter.IMMUTABLE);
+    }
+
+    @Test
+    void notModifiedKeepsTheAssetHeader() throws Exception {
+        MockHttpServletResponse response = serve("/help/index.html",
+                (req, res) -> ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_NOT_MODIFIED));
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("public, max-age=3600");
+    }
+
+    @Test
+    void missingAssetIsNotCached() throws Exception {
+        MockHttpServletResponse response = serve(FINGERPRINTED,
+                (req, res) -> ((HttpServletResponse) res).sendError(HttpServletResponse.SC_NOT_FOUND));
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_FOUND);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(StaticAssetCacheFilter.NO_STORE);
+    }
+
+    @Test
+    void errorStatusIsNotCached() throws Exception {
+        MockHttpServletResponse response = serve(FINGERPRINTED, (req, res) -> {
+            ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            res.getWriter().write("error");
+        });
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo(StaticAssetCacheFilter.NO_STORE);
+    }
+}
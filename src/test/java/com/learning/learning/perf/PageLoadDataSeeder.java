@@ -0,0 +1,203 @@
+package com.learning.learning.perf;
+
+import com.learning.learning.entity.Booking;
+import com.learning.learning.entity.Charity;
+import com.learning.learning.entity.Document;
+import com.learning.learning.entity.Donation;
+import com.learning.learning.entity.Donor;
+import com.learning.learning.entity.LocationAvailability;
+import com.learning.learning.entity.LocationPartner;
+import com.learning.learning.entity.PartnerLocation;
+import com.learning.learning.entity.Referral;
+import com.learning.learning.entity.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test data for {@link PageQueryCountTest}: one charity with its partner user,
+ * one donor and a few stay-partner properties, then any number of rounds of
+ * referrals, documents, donations, funded bookings and calendar rows. The
+ * accounts stay the same across rounds, so a page's statement count may only
+ * change with the row count if it queries per row.
+ */
+class PageLoadDataSeeder {
+
+    static final String PARTNER_USERNAME = "perf-partner";
+    static final String DONOR_USERNAME = "perf-donor";
+    static final String CHARITY_NAME = "Perf Test Charity";
+    static final String PARTICIPANT_PREFIX = "Perf Participant ";
+    static final String REFERRAL_PREFIX = "PERF-REF-";
+
+    // Bookings and their BOOKED calendar rows fall inside this window
+    static final LocalDate CALENDAR_START = LocalDate.of(2030, 1, 1);
+    static final int CALENDAR_DAYS = 28;
+
+    private static final int PARTNER_LOCATIONS = 5;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private Long charityId;
+    private Long partnerUserId;
+    private Long donorId;
+    private final List<Long> partnerLocationIds = new ArrayList<>();
+    private int seeded;
+
+    PageLoadDataSeeder(EntityManager entityManager, TransactionTemplate transactionTemplate) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    Long charityId() {
+        return charityId;
+    }
+
+    void seedAccounts() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Charity charity = new Charity();
+            charity.setCharityName(CHARITY_NAME);
+            charity.setContactEmail("perf-charity@example.org");
+            charity.setIsVerified(true);
+            entityManager.persist(charity);
+            charityId = charity.getId();
+
+            User partner = user(PARTNER_USERNAME, "Pat", "Partner");
+            partner.setCharity(charity);
+            entityManager.persist(partner);
+            partnerUserId = partner.getId();
+
+            User donorUser = user(DONOR_USERNAME, "Dana", "Donor");
+            entityManager.persist(donorUser);
+            Donor donor = new Donor();
+            donor.setUser(donorUser);
+            donor.setIsVerified(true);
+            entityManager.persist(donor);
+            donorId = donor.getId();
+
+            for (int i = 0; i < PARTNER_LOCATIONS; i++) {
+                LocationPartner stayPartner = new LocationPartner();
+                stayPartner.setBusinessName("Perf Stay Partner " + i);
+                stayPartner.setContactEmail("perf-stay-" + i + "@example.org");
+                entityManager.persist(stayPartner);
+
+                PartnerLocation property = new PartnerLocation();
+                property.setLocationPartner(stayPartner);
+                property.setName("Perf Property " + i);
+                property.setAddress(i + " Test Street");
+                property.setCity("Springfield");
+                property.setState("IL");
+                property.setZipCode("62701");
+                entityManager.persist(property);
+                partnerLocationIds.add(property.getId());
+            }
+        });
+    }
+
+    /**
+     * Adds {@code count} more of each row type to the charity and donor from
+     * {@link #seedAccounts()}, then refreshes the planner statistics.
+     */
+    void seed(int count) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Charity charity = entityManager.getReference(Charity.class, charityId);
+            User partner = entityManager.getReference(User.class, partnerUserId);
+            Donor donor = entityManager.getReference(Donor.class, donorId);
+
+            Referral.ReferralStatus[] referralStatuses = Referral.ReferralStatus.values();
+            Document.DocumentType[] documentTypes = Document.DocumentType.values();
+
+            for (int i = seeded; i < seeded + count; i++) {
+                Referral referral = new Referral();
+                referral.setReferralNumber(REFERRAL_PREFIX + i);
+                referral.setCharity(charity);
+                referral.setReferredByUser(partner);
+                referral.setParticipantName(PARTICIPANT_PREFIX + i);
+                referral.setParticipantEmail("participant" + i + "@example.org");
+                referral.setNeedsDescription("Needs a safe place to stay (" + i + ")");
+                referral.setStatus(referralStatuses[i % referralStatuses.length]);
+                entityManager.persist(referral);
+
+                if (i % 2 == 0) {
+                    Document document = new Document();
+                    document.setCharity(charity);
+                    document.setReferral(i % 4 == 0 ? referral : null);
+                    document.setUploadedBy(partner);
+                    document.setDocumentType(documentTypes[i % documentTypes.length]);
+                    document.setFileName("document-" + i + ".pdf");
+                    document.setFilePath(charityId + "/document-" + i + ".pdf");
+                    document.setMimeType("application/pdf");
+                    document.setFileSize(1024L);
+                    entityManager.persist(document);
+                }
+
+                Donation donation = new Donation();
+                donation.setDonor(donor);
+                donation.setCharity(charity);
+                donation.setGrossAmount(new BigDecimal("500.00"));
+                donation.setNetAmount(new BigDecimal("450.00"));
+                donation.setRemainingAmount(new BigDecimal("150.00"));
+                donation.setStatus(Donation.DonationStatus.PARTIALLY_USED);
+                entityManager.persist(donation);
+
+                LocalDate checkIn = CALENDAR_START.plusDays(i % CALENDAR_DAYS);
+                Booking booking = new Booking();
+                booking.setConfirmationCode("PERF-" + i);
+                booking.setReferral(referral);
+                booking.setParticipantName(PARTICIPANT_PREFIX + i);
+                booking.setLocationName("Perf Property " + (i % PARTNER_LOCATIONS));
+                booking.setCheckInDate(checkIn);
+                booking.setCheckOutDate(checkIn.plusDays(2));
+                booking.setBookingStatus(i % 10 == 9 ? Booking.BookingStatus.CANCELLED : Booking.BookingStatus.CONFIRMED);
+                booking.setFundingDonation(donation);
+                booking.setFundedAmount(new BigDecimal("300.00"));
+                entityManager.persist(booking);
+
+                PartnerLocation property = entityManager.getReference(PartnerLocation.class,
+                        partnerLocationIds.get(i % PARTNER_LOCATIONS));
+                LocationAvailability booked = new LocationAvailability();
+                booked.setPartnerLocation(property);
+                booked.setStartDate(checkIn);
+                booked.setEndDate(checkIn.plusDays(1));
+                booked.setStatus(LocationAvailability.AvailabilityStatus.BOOKED);
+                booked.setBooking(booking);
+                entityManager.persist(booked);
+
+                // Open windows share the range but are filtered out of the admin calendar
+                LocationAvailability open = new LocationAvailability();
+                open.setPartnerLocation(property);
+                open.setStartDate(checkIn.plusDays(3));
+                open.setEndDate(checkIn.plusDays(5));
+                open.setStatus(LocationAvailability.AvailabilityStatus.AVAILABLE);
+                entityManager.persist(open);
+
+                if (i % 200 == 199) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    charity = entityManager.getReference(Charity.class, charityId);
+                    partner = entityManager.getReference(User.class, partnerUserId);
+                    donor = entityManager.getReference(Donor.class, donorId);
+                }
+            }
+        });
+        seeded += count;
+        // Fresh statistics, as a live database has; otherwise the plans depend
+        // on whether autovacuum has got round to the new rows yet
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createNativeQuery("ANALYZE").executeUpdate());
+    }
+
+    private static User user(String username, String firstName, String lastName) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("{noop}not-used");
+        user.setEmail(username + "@example.org");
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+}
@@ -0,0 +1,170 @@
+package com.learning.learning.perf;
+
+import com.learning.learning.EmbeddedPostgresTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the heavy pages against per-row queries (N+1). Each page is rendered
+ * once with a handful of rows per table and again with thousands; a page that
+ * queries per referral, donation, booking or calendar row needs thousands more
+ * statements the second time and fails here. Each page also has a ceiling on
+ * its statement count and, in the {@link PerfBudget} tests, a response-time
+ * budget at bulk volume: the paged lists and dashboards stay well under a
+ * second, the funding reports list every funded booking and get more.
+ *
+ * Runs against a real Postgres, with the schema created from the entities
+ * (application-test.properties).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(StatementCountingListener.Config.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PageQueryCountTest extends EmbeddedPostgresTest {
+
+    private static final int BASELINE_ROWS = 10;
+    private static final int BULK_ROWS = 2_000;
+
+    // Statements a page may need beyond its baseline at bulk volume (a lazy
+    // association first touched on a later row, a different branch taken)
+    private static final int SCALING_SLACK = 3;
+
+    private static final int TIMED_RUNS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private PageLoadDataSeeder seeder;
+    private final Map<String, Integer> baselineStatements = new HashMap<>();
+
+    @BeforeAll
+    void seedAndMeasureBaseline() throws Exception {
+        seeder = new PageLoadDataSeeder(entityManager, transactionTemplate);
+        seeder.seedAccounts();
+        seeder.seed(BASELINE_ROWS);
+        for (Page page : pages()) {
+            baselineStatements.put(page.name(), measure(page).statements());
+        }
+        seeder.seed(BULK_ROWS);
+    }
+
+    List<Page> pages() {
+        Long charityId = seeder.charityId();
+        RequestPostProcessor partner = user(PageLoadDataSeeder.PARTNER_USERNAME).roles("CHARITY_PARTNER");
+        RequestPostProcessor donor = user(PageLoadDataSeeder.DONOR_USERNAME).roles("DONOR");
+        RequestPostProcessor admin = user("perf-admin").roles("ADMIN");
+        String calendarRange = "?start=" + PageLoadDataSeeder.CALENDAR_START + "T00:00:00Z"
+                + "&end=" + PageLoadDataSeeder.CALENDAR_START.plusDays(PageLoadDataSeeder.CALENDAR_DAYS + 7) + "T00:00:00Z";
+
+        return List.of(
+                new Page("partner dashboard", "/charity-partner/" + charityId + "/dashboard", partner,
+                        PageLoadDataSeeder.PARTICIPANT_PREFIX, 40, 1_500),
+                new Page("partner referrals", "/charity-partner/" + charityId + "/referrals", partner,
+                        PageLoadDataSeeder.REFERRAL_PREFIX, 40, 1_500),
+                new Page("partner documents", "/charity-partner/documents", partner,
+                        PageLoadDataSeeder.REFERRAL_PREFIX, 40, 1_500),
+                new Page("admin funding report", "/admin/funding-report", admin,
+                        PageLoadDataSeeder.PARTICIPANT_PREFIX, 30, 6_000),
+                new Page("donor funding report", "/donor/funding-report", donor,
+                        PageLoadDataSeeder.CHARITY_NAME, 30, 6_000),
+                new Page("donor dashboard", "/donor/dashboard", donor,
+                        PageLoadDataSeeder.CHARITY_NAME, 30, 1_500),
+                new Page("admin calendar events", "/admin/partner-bookings-calendar/events.json" + calendarRange, admin,
+                        PageLoadDataSeeder.CHARITY_NAME, 20, 1_500)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("pages")
+    void statementCountDoesNotGrowWithRows(Page page) throws Exception {
+        Measurement bulk = measure(page);
+        int baseline = baselineStatements.get(page.name());
+
+        assertThat(baseline)
+                .as("%s: no SQL statements counted; is StatementCountingListener installed?", page.name())
+                .isPositive();
+        assertThat(bulk.statements())
+                .as("%s: SQL statements with %d rows vs %d with %d rows (per-row query?)",
+                        page.name(), BASELINE_ROWS + BULK_ROWS, baseline, BASELINE_ROWS)
+                .isLessThanOrEqualTo(baseline + SCALING_SLACK);
+        assertThat(bulk.statements())
+                .as("%s: SQL statements per request", page.name())
+                .isLessThanOrEqualTo(page.maxStatements());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("pages")
+    @Tag(PerfBudget.TAG)
+    void respondsWithinBudget(Page page) throws Exception {
+        assertThat(measure(page).millis())
+                .as("%s: response time (ms) with %d rows", page.name(), BASELINE_ROWS + BULK_ROWS)
+                .isLessThanOrEqualTo(PerfBudget.ceiling(page.budgetMillis()));
+    }
+
+    /**
+     * Requests the page {@link #TIMED_RUNS} times; returns the first run's
+     * statement count (later runs may hit warmed caches) and the fastest time.
+     */
+    private Measurement measure(Page page) throws Exception {
+        int statements = -1;
+        long bestMillis = Long.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            SqlStatementCounter.start();
+            long started = System.nanoTime();
+            try {
+                mockMvc.perform(get(page.url()).with(page.user()))
+                        .andExpect(status().isOk())
+                        .andExpect(content().string(containsString(page.expectedText())));
+            } finally {
+                long millis = (System.nanoTime() - started) / 1_000_000;
+                int count = SqlStatementCounter.stop();
+                if (statements < 0) {
+                    statements = count;
+                }
+                bestMillis = Math.min(bestMillis, millis);
+            }
+        }
+        return new Measurement(statements, bestMillis);
+    }
+
+    record Page(String name, String url, RequestPostProcessor user, String expectedText, int maxStatements,
+                long budgetMillis) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    record Measurement(int statements, long millis) {
+    }
+}
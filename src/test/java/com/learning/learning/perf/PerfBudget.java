@@ -0,0 +1,27 @@
+package com.learning.learning.perf;
+
+/**
+ * Wall-clock budgets for the timing tests. They depend on the host, so those
+ * tests are tagged {@value #TAG} and left out of the default build;
+ * mvn -Pperf test runs them with everything else. -Dperf.budget-scale=2
+ * doubles every ceiling and halves every floor for a slow build host.
+ */
+public final class PerfBudget {
+
+    public static final String TAG = "perf";
+
+    private static final double SCALE = Double.parseDouble(System.getProperty("perf.budget-scale", "1"));
+
+    private PerfBudget() {
+    }
+
+    /** A time that must not be exceeded (ms per page, us per request), scaled. */
+    public static long ceiling(long budget) {
+        return Math.round(budget * SCALE);
+    }
+
+    /** A rate that must be reached (checks per second), scaled. */
+    public static long floor(long floor) {
+        return Math.round(floor / SCALE);
+    }
+}
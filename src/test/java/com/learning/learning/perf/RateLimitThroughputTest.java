@@ -0,0 +1,126 @@
+package com.learning.learning.perf;
+
+import com.learning.learning.EmbeddedPostgresTest;
+import com.learning.learning.security.SubmissionRateLimiter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks per second one node's {@link SubmissionRateLimiter} can make, as the
+ * public application forms call it: once per POST, keyed by client IP.
+ *
+ * - In memory (app.rate-limit.store=memory), each check from a new source.
+ * - Shared store (jdbc), each check from a new source: one upsert apiece.
+ * - Shared store, one source over its limit: the near-cache of denials
+ *   answers without going to the database, which is what keeps a flood
+ *   from one address off Postgres.
+ *
+ * After a warm-up, {@link #TIMED_RUNS} runs of each are timed and the fastest
+ * run's rate has to reach a {@link PerfBudget} floor. Runs against a real
+ * Postgres (application-test.properties, test-schema-fixups.sql).
+ */
+@SpringBootTest(properties = "app.rate-limit.store=jdbc")
+@ActiveProfiles("test")
+@Tag(PerfBudget.TAG)
+class RateLimitThroughputTest extends EmbeddedPostgresTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitThroughputTest.class);
+
+    private static final int MAX_REQUESTS = 10;
+    private static final long WINDOW_MS = 60 * 60 * 1000L;
+
+    private static final int CHECKS_PER_RUN = 2_000;
+    private static final int TIMED_RUNS = 5;
+    private static final long IN_MEMORY_FLOOR = 100_000;
+    private static final long SHARED_STORE_FLOOR = 500;
+    private static final long NEAR_CACHE_FLOOR = 100_000;
+
+    @Autowired
+    private SubmissionRateLimiter rateLimiter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Shared by the test methods: each gets a new instance but the same buckets
+    private static int source;
+
+    @Test
+    void inMemoryChecks() {
+        SubmissionRateLimiter inMemory = new SubmissionRateLimiter();
+
+        long perSecond = checksPerSecond("in memory, new sources",
+                i -> inMemory.allow(nextSource(), MAX_REQUESTS, WINDOW_MS), true);
+
+        assertThat(perSecond)
+                .as("in-memory checks per second")
+                .isGreaterThanOrEqualTo(PerfBudget.floor(IN_MEMORY_FLOOR));
+    }
+
+    @Test
+    void sharedStoreChecks() {
+        long perSecond = checksPerSecond("shared store, new sources",
+                i -> rateLimiter.allow(nextSource(), MAX_REQUESTS, WINDOW_MS), true);
+
+        // Not the in-memory fallback: every check left its bucket in Postgres
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_buckets", Long.class))
+                .isGreaterThanOrEqualTo((long) CHECKS_PER_RUN * (TIMED_RUNS + 1));
+
+        assertThat(perSecond)
+                .as("shared-store checks per second")
+                .isGreaterThanOrEqualTo(PerfBudget.floor(SHARED_STORE_FLOOR));
+    }
+
+    @Test
+    void floodFromOneSourceIsDeniedLocally() {
+        String key = nextSource();
+        for (int i = 0; i < MAX_REQUESTS; i++) {
+            assertThat(rateLimiter.allow(key, MAX_REQUESTS, WINDOW_MS)).isTrue();
+        }
+
+        long perSecond = checksPerSecond("shared store, one source over its limit",
+                i -> rateLimiter.allow(key, MAX_REQUESTS, WINDOW_MS), false);
+
+        assertThat(perSecond)
+                .as("denied checks per second for one source")
+                .isGreaterThanOrEqualTo(PerfBudget.floor(NEAR_CACHE_FLOOR));
+    }
+
+    /** Times the check, which must answer {@code expected} every time; returns the best run's rate. */
+    private static long checksPerSecond(String label, IntPredicate check, boolean expected) {
+        for (int i = 0; i < CHECKS_PER_RUN; i++) {
+            assertThat(check.test(i)).isEqualTo(expected);
+        }
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            int answered = 0;
+            long started = System.nanoTime();
+            for (int i = 0; i < CHECKS_PER_RUN; i++) {
+                if (check.test(i) == expected) {
+                    answered++;
+                }
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - started);
+            assertThat(answered).as("%s: checks answered %s", label, expected).isEqualTo(CHECKS_PER_RUN);
+        }
+
+        long perSecond = Math.round(CHECKS_PER_RUN * 1e9 / bestNanos);
+        logger.info("Rate limit, {}: {} checks/s", label, perSecond);
+        return perSecond;
+    }
+
+    private static String nextSource() {
+        source++;
+        return "throughput-test:10." + (source >> 16 & 0xff) + "." + (source >> 8 & 0xff) + "." + (source & 0xff);
+    }
+}
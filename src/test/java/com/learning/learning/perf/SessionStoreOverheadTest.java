@@ -0,0 +1,137 @@
+package com.learning.learning.perf;
+
+import com.learning.learning.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * What the JDBC session store adds to a request, done the way
+ * SessionRepositoryFilter and Spring Security do it: load the session by id,
+ * set its last-accessed time, read the security context, save. Every tenth
+ * request posts a form that leaves a flash message in the session and the
+ * next one consumes it, so those two write.
+ *
+ * After a warm-up, {@link #TIMED_RUNS} runs of {@link #REQUESTS_PER_RUN}
+ * requests are timed and the fastest run's mean has to stay under a
+ * millisecond (a {@link PerfBudget} test). Page views and form posts are also
+ * checked for how many statements they send.
+ *
+ * Runs against a real Postgres, with the session tables created by Spring
+ * Session (application-test.properties).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(StatementCountingListener.Config.class)
+class SessionStoreOverheadTest extends EmbeddedPostgresTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionStoreOverheadTest.class);
+
+    private static final int WARM_UP_REQUESTS = 500;
+    private static final int REQUESTS_PER_RUN = 500;
+    private static final int TIMED_RUNS = 5;
+    private static final int FORM_POST_EVERY = 10;
+    private static final long BUDGET_MICROS = 1_000;
+
+    private static final String FLASH_MAPS = "org.springframework.web.servlet.support.SessionFlashMapManager.FLASH_MAPS";
+
+    @Autowired
+    private SessionRepository<? extends Session> sessionRepository;
+
+    @Test
+    @Tag(PerfBudget.TAG)
+    void readAndWritePerRequestStaysUnderAMillisecond() {
+        String sessionId = signedInSession(sessionRepository);
+
+        for (int i = 0; i < WARM_UP_REQUESTS; i++) {
+            request(sessionRepository, sessionId, i);
+        }
+
+        List<Long> nanos = new ArrayList<>(TIMED_RUNS * REQUESTS_PER_RUN);
+        long bestRunNanos = Long.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            long runNanos = 0;
+            for (int i = 0; i < REQUESTS_PER_RUN; i++) {
+                long started = System.nanoTime();
+                request(sessionRepository, sessionId, i);
+                long elapsed = System.nanoTime() - started;
+                nanos.add(elapsed);
+                runNanos += elapsed;
+            }
+            bestRunNanos = Math.min(bestRunNanos, runNanos);
+        }
+
+        long meanMicros = bestRunNanos / REQUESTS_PER_RUN / 1_000;
+        Collections.sort(nanos);
+        long p99Micros = nanos.get((int) Math.ceil(nanos.size() * 0.99) - 1) / 1_000;
+        logger.info("Session store: {} us mean (fastest run), {} us p99 over all runs per request",
+                meanMicros, p99Micros);
+
+        assertThat(meanMicros)
+                .as("session read + write per request (us), p99 %d us", p99Micros)
+                .isLessThanOrEqualTo(PerfBudget.ceiling(BUDGET_MICROS));
+    }
+
+    @Test
+    void pageViewOnlyReadsTheSession() {
+        String sessionId = signedInSession(sessionRepository);
+
+        SqlStatementCounter.start();
+        request(sessionRepository, sessionId, 2);
+        assertThat(SqlStatementCounter.stop()).as("statements for a page view").isEqualTo(1);
+
+        SqlStatementCounter.start();
+        request(sessionRepository, sessionId, 0);
+        assertThat(SqlStatementCounter.stop()).as("statements for a form post").isGreaterThan(1);
+    }
+
+    /** One request's worth of session work. */
+    private static <S extends Session> void request(SessionRepository<S> sessionRepository, String sessionId, int n) {
+        S session = sessionRepository.findById(sessionId);
+        assertThat(session).as("session %s", sessionId).isNotNull();
+        session.setLastAccessedTime(Instant.now());
+
+        SecurityContext securityContext = session.getAttribute(
+                HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        assertThat(securityContext.getAuthentication().getName()).isEqualTo("perf-partner");
+
+        if (n % FORM_POST_EVERY == 0) {
+            session.setAttribute(FLASH_MAPS, new ArrayList<>(List.of(Map.of("success", "Saved " + n))));
+        } else if (n % FORM_POST_EVERY == 1) {
+            session.removeAttribute(FLASH_MAPS);
+        }
+        sessionRepository.save(session);
+    }
+
+    private static <S extends Session> String signedInSession(SessionRepository<S> sessionRepository) {
+        User user = new User("perf-partner", "", List.of(new SimpleGrantedAuthority("ROLE_CHARITY_PARTNER")));
+        SecurityContextImpl securityContext = new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+
+        S session = sessionRepository.createSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, securityContext);
+        sessionRepository.save(session);
+        return session.getId();
+    }
+}
@@ -0,0 +1,36 @@
+package com.learning.learning.perf;
+
+/**
+ * Per-thread count of the SQL statements executed, fed by
+ * {@link StatementCountingListener}. MockMvc handles a request on the
+ * calling thread, so counting from {@link #start()} to {@link #stop()} around
+ * a request sees exactly that request's statements; scheduled jobs running on
+ * other threads are not counted.
+ */
+final class SqlStatementCounter {
+
+    private static final ThreadLocal<int[]> current = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    static void start() {
+        current.set(new int[1]);
+    }
+
+    /**
+     * Stops counting on this thread and returns the statements seen since {@link #start()}.
+     */
+    static int stop() {
+        int[] count = current.get();
+        current.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    static void increment() {
+        int[] count = current.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
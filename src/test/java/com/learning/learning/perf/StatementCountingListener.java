@@ -0,0 +1,26 @@
+package com.learning.learning.perf;
+
+import com.learning.learning.config.StatementListener;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Counts every SQL statement executed through the application's DataSource
+ * (Hibernate, JdbcTemplate and Spring Session alike) into
+ * {@link SqlStatementCounter}, as one more listener on the app's own
+ * StatementInterceptingDataSource. Installed by {@link Config}.
+ */
+final class StatementCountingListener {
+
+    private StatementCountingListener() {
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Config {
+
+        @Bean
+        static StatementListener statementCountingListener() {
+            return execution -> SqlStatementCounter.increment();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.learning.learning.perf;
+
+import com.learning.learning.service.http.StubHttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Request threads under load from a slow backend, with
+ * spring.threads.virtual.enabled off (the default) and on. Tomcat is set up by
+ * Spring Boot's own auto-configuration, as in the app; each request blocks on
+ * a local stub standing in for Postgres, S3, Stripe or Resend.
+ *
+ * {@link #CONCURRENT_REQUESTS} requests are in flight at once. On platform
+ * threads Tomcat's 200-thread pool works through them in waves; on virtual
+ * threads they all wait on the backend together. Throughput and p99 latency
+ * of each mode are logged, checked against a budget and, when both modes ran,
+ * compared. Virtual threads need Java 21: on Java 17 that mode is skipped.
+ * The budgets are {@link PerfBudget} ceilings.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Tag(PerfBudget.TAG)
+class VirtualThreadLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    private static final int CONCURRENT_REQUESTS = 500;
+    private static final long BACKEND_DELAY_MS = 100;
+
+    // Three waves of the backend delay on 200 platform threads; one on virtual
+    private static final long PLATFORM_P99_BUDGET_MS = 2_000;
+    private static final long VIRTUAL_P99_BUDGET_MS = 1_000;
+
+    private final Map<Mode, LoadResult> results = new EnumMap<>(Mode.class);
+    private StubHttpServer backend;
+    private HttpClient client;
+
+    @BeforeAll
+    void startBackend() throws IOException {
+        backend = new StubHttpServer().delay(BACKEND_DELAY_MS);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @AfterAll
+    void stopBackend() {
+        backend.close();
+    }
+
+    @Test
+    @Order(1)
+    void platformThreads() throws Exception {
+        LoadResult result = run(Mode.PLATFORM);
+        assertThat(result.p99Millis())
+                .as("platform threads: p99 latency (ms) at %d concurrent requests", CONCURRENT_REQUESTS)
+                .isLessThanOrEqualTo(PerfBudget.ceiling(PLATFORM_P99_BUDGET_MS));
+    }
+
+    @Test
+    @Order(2)
+    void virtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21+");
+        LoadResult result = run(Mode.VIRTUAL);
+        assertThat(result.p99Millis())
+                .as("virtual threads: p99 latency (ms) at %d concurrent requests", CONCURRENT_REQUESTS)
+                .isLessThanOrEqualTo(PerfBudget.ceiling(VIRTUAL_P99_BUDGET_MS));
+    }
+
+    @Test
+    @Order(3)
+    void virtualThreadsDoNotLoseToPlatformThreads() {
+        assumeTrue(results.containsKey(Mode.PLATFORM) && results.containsKey(Mode.VIRTUAL),
+                "needs both modes to have run");
+        LoadResult platform = results.get(Mode.PLATFORM);
+        LoadResult virtual = results.get(Mode.VIRTUAL);
+        assertThat(virtual.requestsPerSecond())
+                .as("throughput (req/s), virtual vs platform %.0f", platform.requestsPerSecond())
+                .isGreaterThanOrEqualTo(platform.requestsPerSecond());
+        assertThat(virtual.p99Millis())
+                .as("p99 latency (ms), virtual vs platform %d", platform.p99Millis())
+                .isLessThanOrEqualTo(platform.p99Millis());
+    }
+
+    /**
+     * Starts the server in the given mode, warms it up with one round, then
+     * times a second round of {@link #CONCURRENT_REQUESTS} concurrent requests.
+     */
+    private LoadResult run(Mode mode) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SlowBackendApp.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "spring.threads.virtual.enabled=" + (mode == Mode.VIRTUAL),
+                        "load-test.backend-url=" + backend.url("/slow"))
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/load-test");
+
+            fire(uri);
+            Round round = fire(uri);
+
+            List<Long> latencies = new ArrayList<>(round.latencies());
+            Collections.sort(latencies);
+            LoadResult result = new LoadResult(
+                    CONCURRENT_REQUESTS * 1e9 / round.elapsedNanos(),
+                    latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1));
+            results.put(mode, result);
+            logger.info("{} threads: {} req/s, p99 {} ms at {} concurrent requests",
+                    mode.name().toLowerCase(), Math.round(result.requestsPerSecond()), result.p99Millis(),
+                    CONCURRENT_REQUESTS);
+            return result;
+        }
+    }
+
+    /**
+     * Sends every request at once; returns each one's latency in ms and the
+     * time from release to the last response.
+     */
+    private Round fire(URI uri) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<CompletableFuture<Long>> responses = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    go.await();
+                    HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+                    long sent = System.nanoTime();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sent);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }, runnable -> new Thread(runnable).start()));
+        }
+        long started = System.nanoTime();
+        go.countDown();
+
+        List<Long> latencies = new ArrayList<>();
+        for (CompletableFuture<Long> response : responses) {
+            latencies.add(response.get(60, TimeUnit.SECONDS));
+        }
+        return new Round(latencies, System.nanoTime() - started);
+    }
+
+    enum Mode { PLATFORM, VIRTUAL }
+
+    record Round(List<Long> latencies, long elapsedNanos) {
+    }
+
+    record LoadResult(double requestsPerSecond, long p99Millis) {
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class
+    })
+    static class SlowBackendApp {
+
+        @Bean
+        SlowBackendController slowBackendController() {
+            return new SlowBackendController();
+        }
+    }
+
+    @RestController
+    static class SlowBackendController {
+
+        @Value("${load-test.backend-url}")
+        private String backendUrl;
+
+        // Blocking I/O, as the request paths that call Postgres, S3, Stripe or Resend do
+        @GetMapping("/load-test")
+        String callBackend() throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) URI.create(backendUrl).toURL().openConnection();
+            try (InputStream in = connection.getInputStream()) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+}
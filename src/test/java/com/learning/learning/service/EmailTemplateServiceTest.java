@@ -0,0 +1,91 @@
+package com.learning.learning.service;
+
+import com.learning.learning.perf.PerfBudget;
+import com.learning.learning.service.email.BookingConfirmationEmail;
+import com.learning.learning.service.email.EmailModel;
+import com.learning.learning.service.email.ParticipantApprovalEmail;
+import com.learning.learning.service.email.PartnerApprovalEmail;
+import com.learning.learning.service.email.PartnerRejectionEmail;
+import com.learning.learning.service.email.TaxReceiptEmail;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Render cost per email, once the templates are parsed and cached: each
+ * message type is rendered {@link #RENDERS_PER_RUN} times per run and the
+ * fastest run's mean has to stay within a budget in microseconds, so bulk
+ * sends (tax receipts) don't pay milliseconds per email (a {@link PerfBudget}
+ * test). Output escaping is checked as well.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EmailTemplateServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateServiceTest.class);
+
+    private static final long BUDGET_MICROS = 500;
+    private static final int WARM_UP_RENDERS = 2_000;
+    private static final int RENDERS_PER_RUN = 2_000;
+    private static final int TIMED_RUNS = 5;
+
+    private EmailTemplateService emailTemplateService;
+
+    @BeforeAll
+    void startEngine() {
+        emailTemplateService = new EmailTemplateService();
+        emailTemplateService.init();
+    }
+
+    List<EmailModel> emails() {
+        return List.of(
+                new ParticipantApprovalEmail("Alex Doe", "REF-1001", "2026-10-01"),
+                new PartnerApprovalEmail("REF-1001", "Alex Doe", "2026-10-01", "Prefers ground floor",
+                        "https://example.org/charity-partner/referrals/1", "https://example.org"),
+                new PartnerRejectionEmail("REF-1001", "Alex Doe", "Outside service area",
+                        "https://example.org/charity-partner/referrals/1", "https://example.org"),
+                new BookingConfirmationEmail("Alex Doe", "CONF-42", "Harbor House", "1 Main St", "2026-11-01",
+                        "2026-11-04", 3, "Ring the bell"),
+                new TaxReceiptEmail("Sam Donor", 2026, "Safe Harbor", "https://example.org/receipts/1", "TR-2026-1"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("emails")
+    @Tag(PerfBudget.TAG)
+    void rendersWithinBudget(EmailModel email) {
+        for (int i = 0; i < WARM_UP_RENDERS; i++) {
+            emailTemplateService.render(email);
+        }
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < RENDERS_PER_RUN; i++) {
+                emailTemplateService.render(email);
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - started);
+        }
+
+        long micros = bestNanos / RENDERS_PER_RUN / 1_000;
+        logger.info("{}: {} us per render", email.template(), micros);
+        assertThat(micros)
+                .as("%s: render time per email (us)", email.template())
+                .isLessThanOrEqualTo(PerfBudget.ceiling(BUDGET_MICROS));
+    }
+
+    @Test
+    void escapesValues() {
+        String html = emailTemplateService.render(
+                new ParticipantApprovalEmail("<b>Alex</b>", "REF-1001", "2026-10-01"));
+
+        assertThat(html).contains("&lt;b&gt;Alex&lt;/b&gt;").doesNotContain("<b>Alex</b>").contains("REF-1001");
+    }
+}
@@ -0,0 +1,84 @@
+package com.learning.learning.service;
+
+import com.learning.learning.service.http.CircuitBreaker;
+import com.learning.learning.service.http.OutboundIntegration;
+import com.learning.learning.service.http.StubHttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TurnstileVerificationService with its default settings, against a stub in
+ * place of Cloudflare's siteverify endpoint.
+ */
+class TurnstileVerificationServiceTest {
+
+    private StubHttpServer stub;
+    private ApplicationContextRunner contextRunner;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubHttpServer();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setReadTimeout(1_000);
+        contextRunner = new ApplicationContextRunner()
+                .withBean(TurnstileVerificationService.class)
+                .withBean("turnstileHttp", OutboundIntegration.class, () -> new OutboundIntegration("turnstile",
+                        new RestTemplate(requestFactory), 5, 0, new CircuitBreaker(2, 60_000),
+                        new SimpleMeterRegistry()))
+                .withPropertyValues(
+                        "app.turnstile.site-key=site",
+                        "app.turnstile.secret-key=secret",
+                        "app.turnstile.verify-url=" + stub.url("/turnstile/v0/siteverify"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void passesWhenCloudflareSaysSo() {
+        stub.respond(200, "{\"success\":true}");
+        contextRunner.run(context ->
+                assertThat(context.getBean(TurnstileVerificationService.class).verify("token", "203.0.113.7"))
+                        .isTrue());
+    }
+
+    @Test
+    void rejectsWhenCloudflareFails() {
+        stub.respond(200, "{\"success\":false,\"error-codes\":[\"invalid-input-response\"]}");
+        contextRunner.run(context ->
+                assertThat(context.getBean(TurnstileVerificationService.class).verify("token", "203.0.113.7"))
+                        .isFalse());
+    }
+
+    @Test
+    void failsOpenByDefaultWhenCloudflareIsUnavailable() {
+        stub.respond(503, "{}");
+        contextRunner.run(context -> {
+            TurnstileVerificationService turnstile = context.getBean(TurnstileVerificationService.class);
+            // Errors, then the open circuit refusing the call locally
+            for (int i = 0; i < 3; i++) {
+                assertThat(turnstile.verify("token", "203.0.113.7")).isTrue();
+            }
+            assertThat(stub.requests()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void failsClosedWhenConfiguredTo() {
+        stub.respond(503, "{}");
+        contextRunner.withPropertyValues("app.turnstile.fail-open=false").run(context ->
+                assertThat(context.getBean(TurnstileVerificationService.class).verify("token", "203.0.113.7"))
+                        .isFalse());
+    }
+}
@@ -0,0 +1,132 @@
+package com.learning.learning.service.http;
+
+import com.learning.learning.config.OutboundHttpConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The integrations as OutboundHttpConfig builds them — shared pooled client,
+ * per-integration timeouts, bulkhead and circuit breaker — against a local
+ * stub server.
+ */
+class OutboundIntegrationTest {
+
+    private static final long RESPONSE_TIMEOUT_MS = 300;
+    private static final int FAILURE_THRESHOLD = 3;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StubHttpServer stub;
+    private CloseableHttpClient client;
+    private OutboundIntegration integration;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubHttpServer();
+        OutboundHttpConfig config = new OutboundHttpConfig();
+        ReflectionTestUtils.setField(config, "maxConnections", 10);
+        ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", 10);
+        ReflectionTestUtils.setField(config, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(config, "idleEvictSeconds", 30L);
+        ReflectionTestUtils.setField(config, "circuitFailureThreshold", FAILURE_THRESHOLD);
+        ReflectionTestUtils.setField(config, "circuitOpenSeconds", 1L);
+        ReflectionTestUtils.setField(config, "turnstileResponseTimeoutMs", RESPONSE_TIMEOUT_MS);
+        ReflectionTestUtils.setField(config, "turnstileMaxConcurrent", 1);
+        ReflectionTestUtils.setField(config, "turnstileBulkheadWaitMs", 0L);
+        client = config.outboundHttpClient(meterRegistry);
+        integration = config.turnstileHttp(client, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        stub.close();
+    }
+
+    @Test
+    void slowResponseTimesOut() {
+        stub.delay(2_000);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> get()).isInstanceOf(ResourceAccessException.class);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertThat(elapsedMillis).isLessThan(RESPONSE_TIMEOUT_MS + 700);
+    }
+
+    @Test
+    void failedCallIsNotRetried() throws IOException {
+        // A GET answered 503 with Retry-After is what HttpClient's default policy retries
+        stub.respond(503, "{}");
+
+        assertThatThrownBy(() -> get()).isInstanceOf(HttpServerErrorException.class);
+        assertThat(stub.requests()).isEqualTo(1);
+
+        // RestTemplate's GETs aren't repeatable anyway; the pooled client on its own
+        // is where a default retry policy would show up
+        int status = client.execute(new HttpGet(stub.url("/check")), response -> response.getCode());
+        assertThat(status).isEqualTo(503);
+        assertThat(stub.requests()).isEqualTo(2);
+    }
+
+    @Test
+    void circuitOpensAfterConsecutiveFailuresThenRecovers() throws InterruptedException {
+        stub.respond(500, "{}");
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> get()).isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThat(integration.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // Open: refused locally, the provider isn't called
+        assertThatThrownBy(() -> get()).isInstanceOf(OutboundCallRejectedException.class);
+        assertThat(stub.requests()).isEqualTo(FAILURE_THRESHOLD);
+        assertThat(integration.execute(rest -> "called", () -> "fallback")).isEqualTo("fallback");
+
+        // After open-seconds a trial call goes through and closes it again
+        stub.respond(200, "{\"ok\":true}");
+        Thread.sleep(1_100);
+        assertThat(get()).contains("ok");
+        assertThat(integration.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        stub.respond(400, "{}");
+        for (int i = 0; i < FAILURE_THRESHOLD + 2; i++) {
+            assertThatThrownBy(() -> get()).isInstanceOf(HttpClientErrorException.class);
+        }
+        assertThat(integration.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void bulkheadRejectsCallsOverTheLimit() throws Exception {
+        stub.delay(RESPONSE_TIMEOUT_MS / 2);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(this::get);
+        while (stub.requests() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> get()).isInstanceOf(OutboundCallRejectedException.class);
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("{}");
+        assertThat(meterRegistry.get("outbound.http.rejected").tag("reason", "bulkhead").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private String get() {
+        return integration.execute(rest -> rest.getForObject(stub.url("/check"), String.class));
+    }
+}
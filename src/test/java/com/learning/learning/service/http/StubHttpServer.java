@@ -0,0 +1,76 @@
+package com.learning.learning.service.http;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for an external API: answers every request with the
+ * configured status, JSON body and delay, and counts the requests it saw.
+ */
+public final class StubHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile int status = 200;
+    private volatile String body = "{}";
+    private volatile long delayMillis;
+
+    public StubHttpServer() throws IOException {
+        // Backlog sized for the load tests' bursts of concurrent connections
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1_000);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                // Would invite a retry from a client that retries 503s
+                exchange.getResponseHeaders().set("Retry-After", "0");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public StubHttpServer respond(int status, String body) {
+        this.status = status;
+        this.body = body;
+        return this;
+    }
+
+    public StubHttpServer delay(long millis) {
+        this.delayMillis = millis;
+        return this;
+    }
+
+    public String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,183 @@
+package com.learning.learning.service.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CachingStorageService in front of a LocalStorageService that is slowed
+ * down and counts its reads, standing in for S3.
+ */
+class CachingStorageServiceTest {
+
+    private static final long MAX_AGE_MILLIS = 60_000;
+
+    @TempDir
+    Path uploadDir;
+
+    @TempDir
+    Path cacheDir;
+
+    private SlowLocalStorageService backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new SlowLocalStorageService();
+        ReflectionTestUtils.setField(backend, "uploadDir", uploadDir.toString());
+    }
+
+    @Test
+    void secondReadIsServedFromDisk() throws IOException {
+        CachingStorageService cache = cache(1024 * 1024);
+        put("a.pdf", "first");
+
+        assertThat(read(cache, "a.pdf")).isEqualTo("first");
+        assertThat(read(cache, "a.pdf")).isEqualTo("first");
+
+        assertThat(backend.reads.get()).isEqualTo(1);
+        assertThat(cache.hitRatio()).isEqualTo(0.5);
+        assertThat(cache.cachedBytes()).isEqualTo("first".length());
+    }
+
+    @Test
+    void concurrentMissesFetchOnce() throws Exception {
+        CachingStorageService cache = cache(1024 * 1024);
+        put("shared.pdf", "shared content");
+        backend.delayMillis = 200;
+
+        int readers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return read(cache, "shared.pdf");
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("shared content");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(backend.reads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void storeInvalidatesCachedCopy() throws IOException {
+        CachingStorageService cache = cache(1024 * 1024);
+        put("a.pdf", "old");
+        assertThat(read(cache, "a.pdf")).isEqualTo("old");
+
+        byte[] replacement = "new".getBytes(StandardCharsets.UTF_8);
+        cache.store(new ByteArrayInputStream(replacement), "a.pdf", "application/pdf", replacement.length);
+
+        assertThat(read(cache, "a.pdf")).isEqualTo("new");
+        assertThat(backend.reads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void deleteInvalidatesCachedCopy() throws IOException {
+        CachingStorageService cache = cache(1024 * 1024);
+        put("a.pdf", "content");
+        read(cache, "a.pdf");
+
+        cache.delete("a.pdf");
+
+        assertThatThrownBy(() -> read(cache, "a.pdf")).isInstanceOf(IOException.class);
+        assertThat(cache.cachedBytes()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyReadFirst() throws IOException {
+        // Room for two 10-byte objects
+        CachingStorageService cache = cache(25);
+        put("a.pdf", "aaaaaaaaaa");
+        put("b.pdf", "bbbbbbbbbb");
+        put("c.pdf", "cccccccccc");
+
+        read(cache, "a.pdf");
+        read(cache, "b.pdf");
+        read(cache, "a.pdf");   // b is now the least recently read
+        read(cache, "c.pdf");   // evicts b
+        assertThat(backend.reads.get()).isEqualTo(3);
+
+        read(cache, "a.pdf");
+        assertThat(backend.reads.get()).as("a stays cached").isEqualTo(3);
+        read(cache, "b.pdf");
+        assertThat(backend.reads.get()).as("b was evicted").isEqualTo(4);
+        assertThat(cache.cachedBytes()).isLessThanOrEqualTo(25);
+    }
+
+    @Test
+    void startupClearsOnlyItsOwnFiles() throws IOException {
+        Path leftoverEntry = Files.writeString(cacheDir.resolve("a".repeat(64) + ".cache"), "stale");
+        Path leftoverFetch = Files.writeString(cacheDir.resolve("fetch-12345.tmp"), "partial");
+        Path unrelated = Files.writeString(cacheDir.resolve("notes.txt"), "keep me");
+        Path unrelatedHex = Files.writeString(cacheDir.resolve("b".repeat(64)), "keep me too");
+
+        cache(1024 * 1024);
+
+        assertThat(leftoverEntry).doesNotExist();
+        assertThat(leftoverFetch).doesNotExist();
+        assertThat(unrelated).exists();
+        assertThat(unrelatedHex).exists();
+    }
+
+    private CachingStorageService cache(long maxBytes) throws IOException {
+        return new CachingStorageService(backend, cacheDir, maxBytes, MAX_AGE_MILLIS, new SimpleMeterRegistry());
+    }
+
+    private void put(String key, String content) throws IOException {
+        Files.writeString(uploadDir.resolve(key), content);
+    }
+
+    private static String read(StorageService storage, String key) throws IOException {
+        try (InputStream in = storage.retrieve(key)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class SlowLocalStorageService extends LocalStorageService {
+
+        final AtomicInteger reads = new AtomicInteger();
+        volatile long delayMillis;
+
+        @Override
+        public InputStream retrieve(String key) throws IOException {
+            reads.incrementAndGet();
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.retrieve(key);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Run by Hibernate after it creates the test schema (application-test.properties).
+-- One statement per line. Columns the app never writes, defaulted by the migrations:
+ALTER TABLE location_partners ALTER COLUMN calendar_version SET DEFAULT 0;
+-- docs/RATE_LIMIT_MIGRATION.sql (app.rate-limit.store=jdbc)
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (bucket_key VARCHAR(200) PRIMARY KEY, tokens DOUBLE PRECISION NOT NULL, updated_at_ms BIGINT NOT NULL, last_allowed BOOLEAN NOT NULL DEFAULT TRUE);